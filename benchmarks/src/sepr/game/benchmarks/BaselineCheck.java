@@ -0,0 +1,105 @@
+package sepr.game.benchmarks;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+Added in assessment 4
+ - added so a slow down in a benchmark is caught by the build rather than by someone noticing the game is slower
+ */
+
+/**
+ * compares the results of a benchmark run, in JMH's JSON format, against the recorded baseline results
+ *
+ * every benchmark measures average time per operation, so a larger score is slower; a benchmark has regressed if it is
+ * slower than its baseline by more than the allowed fraction plus the error of both measurements
+ * exits with status 1 if any benchmark has regressed, or if there is no baseline so a missing baseline is not mistaken
+ * for a passing check
+ *
+ * usage: BaselineCheck baseline.json results.json [allowed slow down, default 0.15]
+ */
+public class BaselineCheck {
+
+    public static void main(String[] args) throws IOException, ParseException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineCheck baseline.json results.json [allowed slow down]");
+            System.exit(2);
+        }
+
+        File baselineFile = new File(args[0]);
+        if (!baselineFile.exists()) {
+            System.err.println("No baseline at " + baselineFile + ", record one with the jmhBaseline task");
+            System.exit(1);
+        }
+
+        Map<String, double[]> baseline = readScores(baselineFile);
+        Map<String, double[]> results = readScores(new File(args[1]));
+        double allowedSlowDown = args.length > 2 ? Double.parseDouble(args[2]) : 0.15;
+
+        int regressions = 0;
+        for (Map.Entry<String, double[]> result : results.entrySet()) {
+            double[] expected = baseline.get(result.getKey());
+            if (expected == null) {
+                System.out.println(String.format("NEW        %-70s %12.3f", result.getKey(), result.getValue()[0]));
+                continue;
+            }
+
+            double score = result.getValue()[0];
+            double limit = expected[0] * (1 + allowedSlowDown) + expected[1] + result.getValue()[1];
+            boolean regressed = score > limit;
+            if (regressed) regressions++;
+            System.out.println(String.format("%-10s %-70s %12.3f baseline %12.3f (%+.1f%%)", regressed ? "REGRESSED" : "OK",
+                    result.getKey(), score, expected[0], (score / expected[0] - 1) * 100));
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + Math.round(allowedSlowDown * 100) + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * reads the score and score error of each benchmark in a JMH JSON results file
+     *
+     * @param file results file
+     * @return score and error of each benchmark, keyed by benchmark name and parameters
+     */
+    private static Map<String, double[]> readScores(File file) throws IOException, ParseException {
+        FileReader reader = new FileReader(file);
+        JSONArray benchmarks;
+        try {
+            benchmarks = (JSONArray)new JSONParser().parse(reader);
+        } finally {
+            reader.close();
+        }
+
+        Map<String, double[]> scores = new TreeMap<String, double[]>();
+        for (Object benchmark : benchmarks) {
+            JSONObject result = (JSONObject)benchmark;
+            String key = (String)result.get("benchmark");
+            JSONObject params = (JSONObject)result.get("params");
+            if (params != null) {
+                Map<String, Object> sortedParams = new TreeMap<String, Object>(); // sorted so the key does not depend on the file's order
+                for (Object param : params.keySet()) {
+                    sortedParams.put((String)param, params.get(param));
+                }
+                key += sortedParams.toString();
+            }
+
+            JSONObject metric = (JSONObject)result.get("primaryMetric");
+            double score = ((Number)metric.get("score")).doubleValue();
+            Object error = metric.get("scoreError");
+            double scoreError = error instanceof Number && !Double.isNaN(((Number)error).doubleValue()) ? ((Number)error).doubleValue() : 0;
+            scores.put(key, new double[] {score, scoreError});
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,44 @@
+package sepr.game.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import sepr.game.BattleResolver;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+Added in assessment 4
+ - added to measure resolving attacks of different sizes
+ */
+
+/**
+ * measures resolving an attack and calculating the chance of an attack succeeding, for stacks of different sizes
+ * the defending sector has as many undergrads as there are attackers, and a fifth as many postgrads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BattleBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    public int stackSize;
+
+    private BattleResolver battleResolver;
+
+    @Setup
+    public void setUp() {
+        battleResolver = new BattleResolver(new Random(1));
+    }
+
+    @Benchmark
+    public BattleResolver.BattleResult resolve() {
+        return battleResolver.resolve(stackSize, stackSize, stackSize / 5);
+    }
+
+    @Benchmark
+    public double attackSuccessChance() {
+        return battleResolver.getAttackSuccessChance(stackSize, stackSize, stackSize / 5);
+    }
+}
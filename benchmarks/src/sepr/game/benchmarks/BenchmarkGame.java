@@ -0,0 +1,49 @@
+package sepr.game.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import sepr.game.GameScreen;
+import sepr.game.Player;
+import sepr.game.utils.CollegeName;
+
+import java.util.HashMap;
+
+/*
+Added in assessment 4
+ - added to share setting up the headless backend and players between benchmarks
+ */
+
+/**
+ * sets up what the benchmarks need to run the game's code without a display
+ */
+public class BenchmarkGame {
+    private static final CollegeName[] COLLEGES = {CollegeName.ALCUIN, CollegeName.DERWENT, CollegeName.HALIFAX, CollegeName.VANBRUGH};
+
+    private static HeadlessApplication application; // started once per benchmark process
+
+    /**
+     * starts the headless backend, if it has not been started, so files can be read through Gdx.files
+     * benchmarks must be run with the core assets directory as their working directory
+     */
+    public static synchronized void startHeadless() {
+        if (application == null) {
+            HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+            config.renderInterval = -1; // the benchmarks run the code themselves, no render loop is needed
+            application = new HeadlessApplication(new ApplicationAdapter() {}, config);
+        }
+    }
+
+    /**
+     * @param playerCount number of human players, between 2 and 4
+     * @return the human players and the neutral player, mapped by id
+     */
+    public static HashMap<Integer, Player> createPlayers(int playerCount) {
+        HashMap<Integer, Player> players = new HashMap<Integer, Player>();
+        for (int i = 0; i < playerCount; i++) {
+            players.put(i, Player.createHumanPlayer(i, COLLEGES[i], 5, "Player " + (i + 1)));
+        }
+        players.put(GameScreen.NEUTRAL_PLAYER_ID, Player.createNeutralPlayer(GameScreen.NEUTRAL_PLAYER_ID));
+        return players;
+    }
+}
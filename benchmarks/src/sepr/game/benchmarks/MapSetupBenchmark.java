@@ -0,0 +1,43 @@
+package sepr.game.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import sepr.game.Map;
+import sepr.game.Player;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+Added in assessment 4
+ - added to measure setting up a new game's map
+ */
+
+/**
+ * measures creating a map, which loads the sector properties and allocates the sectors between the players
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapSetupBenchmark {
+    @Param({"2", "4"})
+    public int playerCount;
+
+    private HashMap<Integer, Player> players;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        BenchmarkGame.startHeadless();
+        players = BenchmarkGame.createPlayers(playerCount);
+        random = new Random(1);
+    }
+
+    @Benchmark
+    public Map createMap() {
+        return new Map(players, true, random);
+    }
+}
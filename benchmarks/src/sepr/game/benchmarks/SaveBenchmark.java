@@ -0,0 +1,78 @@
+package sepr.game.benchmarks;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.*;
+import sepr.game.Map;
+import sepr.game.Player;
+import sepr.game.engine.GameEngine;
+import sepr.game.engine.GameRandom;
+import sepr.game.saveandload.BinarySaveCodec;
+import sepr.game.saveandload.GameState;
+import sepr.game.saveandload.JSONifier;
+import sepr.game.saveandload.SaveLoadManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+Added in assessment 4
+ - added to compare encoding and decoding a full game state as JSON and in the binary save format
+ */
+
+/**
+ * measures encoding and decoding the state of a new four player game with the JSONifier and with the BinarySaveCodec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark {
+    private GameState gameState;
+    private String json; // the game state encoded as JSON
+    private ByteBuffer binary; // the game state encoded in the binary save format
+
+    @Setup
+    public void setUp() {
+        BenchmarkGame.startHeadless();
+        GameRandom random = new GameRandom(1);
+        HashMap<Integer, Player> players = BenchmarkGame.createPlayers(4);
+        GameEngine engine = new GameEngine(new Map(players, true, random.getStream(GameRandom.Stream.SETUP)), players, random);
+        gameState = SaveLoadManager.createGameState(engine, false, 0);
+
+        json = encodeJson();
+        binary = encodeBinary();
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        JSONifier jifier = new JSONifier();
+        jifier.SetState(gameState);
+        JSONObject save = new JSONObject();
+        save.put("GameState", jifier.getJSONGameState());
+        return save.toJSONString();
+    }
+
+    @Benchmark
+    public GameState decodeJson() throws ParseException {
+        JSONObject save = (JSONObject)new JSONParser().parse(json);
+        JSONifier jifier = new JSONifier();
+        jifier.SetStateJSON((JSONObject)save.get("GameState"));
+        return jifier.getStateFromJSON();
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBinary() {
+        return new BinarySaveCodec().encode(gameState);
+    }
+
+    @Benchmark
+    public GameState decodeBinary() throws IOException {
+        return new BinarySaveCodec().decode(binary.duplicate());
+    }
+}
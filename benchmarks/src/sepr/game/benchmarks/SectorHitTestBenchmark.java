@@ -0,0 +1,82 @@
+package sepr.game.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import org.openjdk.jmh.annotations.*;
+import sepr.game.Map;
+import sepr.game.Sector;
+import sepr.game.SectorLookup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+Added in assessment 4
+ - added to measure finding the sector under the mouse
+ */
+
+/**
+ * measures finding the sector at random points of the map, as Map.detectSectorContainsPoint does
+ * the lookup is built from the sector images the same way as the SectorAtlas builds it, without uploading any textures,
+ * as there is no GL context in the headless backend
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectorHitTestBenchmark {
+    private static final int MAP_WIDTH = 1920;
+    private static final int MAP_HEIGHT = 1080;
+    private static final int POINT_COUNT = 1024; // number of random points cycled through, a power of two
+
+    private SectorLookup sectorLookup;
+    private int[] pointsX;
+    private int[] pointsY;
+    private int nextPoint;
+
+    @Setup
+    public void setUp() {
+        BenchmarkGame.startHeadless();
+        Map map = new Map(BenchmarkGame.createPlayers(2), true, new Random(1));
+
+        List<Sector> sectors = new ArrayList<Sector>(map.getSectors().values());
+        Collections.sort(sectors, new Comparator<Sector>() {
+            @Override
+            public int compare(Sector a, Sector b) { // lower ids take priority where sectors overlap
+                return a.getId() - b.getId();
+            }
+        });
+
+        sectorLookup = new SectorLookup(MAP_WIDTH, MAP_HEIGHT);
+        for (Sector sector : sectors) {
+            if (sector.isDecor()) continue;
+            Pixmap image = new Pixmap(Gdx.files.internal(sector.getTexturePath()));
+            Pixmap rgba = new Pixmap(image.getWidth(), image.getHeight(), Pixmap.Format.RGBA8888);
+            rgba.setBlending(Pixmap.Blending.None);
+            rgba.drawPixmap(image, 0, 0);
+            sectorLookup.addSector(sector.getId(), rgba, 0, 0);
+            image.dispose();
+            rgba.dispose();
+        }
+
+        Random random = new Random(1);
+        pointsX = new int[POINT_COUNT];
+        pointsY = new int[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            pointsX[i] = random.nextInt(MAP_WIDTH);
+            pointsY[i] = random.nextInt(MAP_HEIGHT);
+        }
+    }
+
+    @Benchmark
+    public int detectSectorContainsPoint() {
+        int point = nextPoint++ & (POINT_COUNT - 1);
+        return sectorLookup.getSectorId(pointsX[point], pointsY[point]);
+    }
+}
@@ -0,0 +1,14 @@
+#ifdef GL_ES
+precision mediump float;
+#endif
+
+varying vec4 v_color;
+varying vec2 v_texCoords;
+
+uniform sampler2D u_texture;
+
+// colours a sector with its owner's colour by subtracting (white - colour) from each channel of the base image
+void main() {
+    vec4 base = texture2D(u_texture, v_texCoords);
+    gl_FragColor = clamp(base - (vec4(1.0) - v_color), 0.0, 1.0);
+}
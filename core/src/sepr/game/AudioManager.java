@@ -1,17 +1,27 @@
 package sepr.game;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
 
 /*
 Modified in assessment 4
  - changed static vars and method names to follow standard naming conventions
  - made switching between what music is playing simpler (improvements to loadMusic method)
+ - sound effects are only loaded when they are first played or preloaded, in the background as the manager is updated each frame, and the least recently played are unloaded to keep the memory used by sounds bounded
+ - music is unloaded rather than only disposed when it is stopped, so the same music can be played again
  */
 
 /**
- * Usage -- Audio.get('path to file', Sound.class).play(AudioManager.GLOBAL_FX_VOLUME) // this will play the sound
+ * Usage -- Audio.playSound('path to file') // this will play the sound, loading it first if required
+ *
+ * music is streamed from its file as it plays, so only sound effects are decoded into memory
  *
  * AudioManager is a singleton class that is instantiated using getInstance therefore only one instance of a class is allowed at a time
  */
@@ -22,6 +32,13 @@ public class AudioManager extends AssetManager {
     private static String currentPlayingMusic; //list of playing music
     private static AudioManager instance = null; // set initial instance to be null
 
+    private static final int SOUND_MEMORY_BUDGET = 8 * 1024 * 1024; // approximate maximum bytes of decoded sound effects kept loaded
+    private static final int MAX_SOUND_DELAY_MS = 1000; // sounds that take longer than this to load after being played are not played
+
+    private final LinkedHashMap<String, Integer> residentSounds = new LinkedHashMap<String, Integer>(16, 0.75f, true); // sounds loaded or loading, mapped to their estimated size, least recently played first
+    private String pendingSound; // sound waiting to be played once it has loaded, null if none
+    private long pendingSoundRequestTime; // time the pending sound was played
+
     /**
      * returns a single instance of the audio manager class
      * if no instance exists then one is created and returned
@@ -46,7 +63,7 @@ public class AudioManager extends AssetManager {
         disposeMusicCurrentMusic();
 
         this.load(filePath, Music.class);
-        this.finishLoading();
+        this.finishLoadingAsset(filePath); // only wait for the music, not any other assets still loading in the background
         currentPlayingMusic = filePath;
         this.get(filePath, Music.class).setVolume(AudioManager.GLOBAL_MUSIC_VOLUME);
         this.get(filePath, Music.class).setLooping(true); //sets looping
@@ -54,48 +71,94 @@ public class AudioManager extends AssetManager {
     }
 
     /**
-     * loads all the sound FX, not music, files that are used during gameplay so they can be played at anytime
+     * plays a sound effect at volume AudioManager.GLOBAL_FX_VOLUME
+     * if the sound is not loaded it is loaded in the background and played once it has loaded, unless that takes longer
+     * than MAX_SOUND_DELAY_MS in which case it is no longer relevant and is not played
+     *
+     * @param filePath file path of the sound to play
      */
-    public void loadSounds() {
-        this.load("sound/Other/Electro button click.mp3", Sound.class);
-
-        this.load("sound/Allocation/Colin_Insuffiecient_Gangmembers.wav", Sound.class);
-        this.load("sound/Allocation/Colin_EmptySet.wav", Sound.class);
-        this.load("sound/Allocation/Colin_Might_I_interest_you_in_taking_the_union_of_our_forces.wav", Sound.class);
-
-        this.load("sound/Battle Phrases/Colin_An_Unlikely_Victory.wav", Sound.class);
-        this.load("sound/Battle Phrases/Colin_Far_better_than_I_expected.wav", Sound.class);
-        this.load("sound/Battle Phrases/Colin_I_couldnt_have_done_it_better_myself.wav", Sound.class);
-        this.load("sound/Battle Phrases/Colin_Multiplying_by_the_identity_matrix_is_more_fasinating_than_your_last_move.wav", Sound.class);
-        this.load("sound/Battle Phrases/Colin_Seems_Risky_To_Me.wav", Sound.class);
-        this.load("sound/Battle Phrases/Colin_Well_Done.wav", Sound.class);
+    public void playSound(String filePath) {
+        if (this.isLoaded(filePath, Sound.class)) {
+            residentSounds.get(filePath); // marks the sound as the most recently used
+            this.get(filePath, Sound.class).play(GLOBAL_FX_VOLUME);
+        } else {
+            preloadSound(filePath);
+            pendingSound = filePath;
+            pendingSoundRequestTime = TimeUtils.millis();
+        }
+    }
 
-        this.load("sound/Invalid Move/Colin_Your_request_does_not_pass_easily_through_my_mind.wav", Sound.class);
-        this.load("sound/Invalid Move/Colin_You_would_find_more_success_trying_to_invert_a_singular_matrix.wav", Sound.class);
-        this.load("sound/Invalid Move/Colin_Your_actions_are_questionable.wav", Sound.class);
+    /**
+     * starts loading a sound in the background, if it is not already loaded, so it can be played without delay later
+     *
+     * @param filePath file path of the sound to load
+     */
+    public void preloadSound(String filePath) {
+        if (!residentSounds.containsKey(filePath)) {
+            this.load(filePath, Sound.class);
+            residentSounds.put(filePath, estimateSoundSize(filePath));
+        }
+    }
 
-        this.load("sound/Minigame/Colin_That_was_a_poor_performance.wav", Sound.class);
+    /**
+     * estimates the memory used by a sound once decoded, sounds are decoded to 16 bit PCM so a WAV file takes roughly its
+     * file size whereas compressed files expand by roughly 11 times
+     */
+    private static int estimateSoundSize(String filePath) {
+        long fileSize = Gdx.files.internal(filePath).length();
+        if (!filePath.toLowerCase().endsWith(".wav")) fileSize *= 11;
+        return (int)Math.min(fileSize, Integer.MAX_VALUE);
+    }
 
-        this.load("sound/PVC/Colin_Just_remember_the_PVC_is_not_unlike_the_empty_string.wav", Sound.class);
-        this.load("sound/PVC/Colin_The_PVC_has_been_captured.wav", Sound.class);
-        this.load("sound/PVC/Colin_You_have_captured_the_PVC.wav", Sound.class);
+    /**
+     * continues loading queued assets for up to the given time, then plays the sound waiting to be played if it has
+     * loaded and evicts the least recently played sounds if loaded sounds exceed SOUND_MEMORY_BUDGET
+     *
+     * @param millis maximum time to spend loading assets
+     * @return true if all queued assets have loaded
+     */
+    @Override
+    public synchronized boolean update(int millis) {
+        boolean finished = super.update(millis);
+
+        if (pendingSound != null && this.isLoaded(pendingSound, Sound.class)) {
+            if (TimeUtils.timeSinceMillis(pendingSoundRequestTime) <= MAX_SOUND_DELAY_MS) {
+                playSound(pendingSound);
+            }
+            pendingSound = null;
+        }
+        evictSounds();
+        return finished;
+    }
 
-        this.load("sound/Timer/Colin_Im_afraid_this_may_be_a_matter_for_another_time.wav", Sound.class);
-        this.load("sound/Timer/Colin_Sorry_One_could_find_the_inverse_of_a_3x3_matrix_in_ a_shorter_amount_of_time.wav", Sound.class);
+    /**
+     * unloads the least recently played sounds until the memory used by loaded sounds is within SOUND_MEMORY_BUDGET
+     * sounds that are still loading are not counted or unloaded, nor is the sound waiting to be played
+     */
+    private void evictSounds() {
+        long residentSize = 0;
+        for (Entry<String, Integer> sound : residentSounds.entrySet()) {
+            if (this.isLoaded(sound.getKey(), Sound.class)) residentSize += sound.getValue();
+        }
 
-        this.load("sound/Victory/Colin_Congratulations.wav", Sound.class);
-        this.load("sound/Victory/Colin_Congratulations_your_grandson_would_be_proud_of_you.wav", Sound.class);
-        this.load("sound/Victory/Colin_Well_Done.wav", Sound.class);
-        this.load("sound/Victory/Colin_You_are_victorious.wav", Sound.class);
+        Iterator<Entry<String, Integer>> iterator = residentSounds.entrySet().iterator(); // least recently used first
+        while (residentSize > SOUND_MEMORY_BUDGET && iterator.hasNext()) {
+            Entry<String, Integer> sound = iterator.next();
+            if (!this.isLoaded(sound.getKey(), Sound.class) || sound.getKey().equals(pendingSound)) continue;
 
-        this.finishLoading();
+            this.unload(sound.getKey());
+            residentSize -= sound.getValue();
+            iterator.remove();
+        }
     }
 
     /**
-     * the music currently playing, specified by currentPlayingMusic, is removed from memory
+     * the music currently playing, specified by currentPlayingMusic, is stopped and removed from memory
+     * unloading, rather than only disposing, the music means it is opened again if it is played again later
      */
     private void disposeMusicCurrentMusic() {
-        if (currentPlayingMusic != null) this.get(currentPlayingMusic, Music.class).dispose(); // remove the sound specified by filePath from memory to to increase performance
+        if (currentPlayingMusic != null) this.unload(currentPlayingMusic);
+        currentPlayingMusic = null;
     }
 
     /**
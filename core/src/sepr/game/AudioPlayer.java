@@ -1,6 +1,6 @@
 package sepr.game;
 
-import com.badlogic.gdx.audio.Sound;
+import sepr.game.utils.SoundCategory;
 
 import java.util.Random;
 
@@ -9,6 +9,8 @@ Added in assessment 4
  - created to enable easy triggering of sound effects
  - created to make it easier to set what music is playing and swapping between music now just requires triggering the method of the new track you want to play
  - moved selecting what sound effect to play to here to reduce code duplication for when selecting sound from the same set of clips
+ - the clips for each sound effect are now defined by SoundCategory so a category can be preloaded before it is needed
+ - clips are chosen with the current game's AUDIO stream, so playing audio never uses the random numbers of the game itself
  */
 
 /**
@@ -16,25 +18,42 @@ Added in assessment 4
  */
 public class AudioPlayer {
     private static AudioManager Audio = AudioManager.getInstance(); // Access to the AudioManager
-    private static Random random = new Random();
+    private static Random random = new Random(); // chooses which clip to play, the current game's AUDIO stream once a game is set up
 
     public AudioPlayer() {
-        Audio.loadSounds(); //loads the sounds into memory
+        preload(SoundCategory.BUTTON_CLICK); // played as soon as the menus are used, other sounds are loaded when first needed
     }
 
     /**
-     * plays a random audio file from the file paths specified in the audioFiles array
-     * noAudioChances specifies the chance no audio file is played
+     * @param random random number generator to choose which clips to play with
+     */
+    public static void setRandom(Random random) {
+        AudioPlayer.random = random;
+    }
+
+    /**
+     * starts loading the clips in a category in the background so they can be played without delay later
+     * used as a hint when the category is likely to be played soon, e.g. the game over clips once players start being eliminated
+     *
+     * @param category category of clips to load
+     */
+    public static void preload(SoundCategory category) {
+        for (String filePath : category.getFilePaths()) {
+            Audio.preloadSound(filePath);
+        }
+    }
+
+    /**
+     * plays a random audio file from the category
+     * the category's noAudioChances specifies the chance no audio file is played
      *
-     * @throws IllegalArgumentException if length of AudioFiles is 0
-     * @param audioFiles file paths of audio files that could be played
-     * @param noAudioChances chance no audio file is played
+     * @param category category of audio files that could be played
      */
-    private static void selectAudioToPlay(String[] audioFiles, int noAudioChances) {
-        if (audioFiles.length == 0) throw new IllegalArgumentException("must be at least one audio file to select from");
-        int fileNum = random.nextInt(audioFiles.length + noAudioChances);
+    private static void selectAudioToPlay(SoundCategory category) {
+        String[] audioFiles = category.getFilePaths();
+        int fileNum = random.nextInt(audioFiles.length + category.getNoAudioChances());
         if (fileNum < audioFiles.length) {
-            Audio.get(audioFiles[fileNum], Sound.class).play(AudioManager.GLOBAL_FX_VOLUME);
+            Audio.playSound(audioFiles[fileNum]);
         }
     }
 
@@ -42,75 +61,49 @@ public class AudioPlayer {
      * plays an audio clip for when the game is over
      */
     public static void playGameOverAudio() {
-        selectAudioToPlay(new String[]{
-                "sound/Victory/Colin_Congratulations.wav",
-                "sound/Victory/Colin_Congratulations_your_grandson_would_be_proud_of_you.wav",
-                "sound/Victory/Colin_Well_Done.wav",
-                "sound/Victory/Colin_You_are_victorious.wav"
-        }, 0);
+        selectAudioToPlay(SoundCategory.GAME_OVER);
     }
 
     /**
      * plays an audio clip for when a player has been eliminated
      */
     public static void playPlayerEliminatedAudio() {
-        Audio.get("sound/Minigame/Colin_That_was_a_poor_performance.wav", Sound.class).play(AudioManager.GLOBAL_FX_VOLUME);
+        selectAudioToPlay(SoundCategory.PLAYER_ELIMINATED);
     }
 
     /**
      * plays an audio clip for when the player has made a bad move
      */
     public static void playBadMoveAudio() {
-        selectAudioToPlay(new String[]{
-                "sound/Invalid Move/Colin_Your_actions_are_questionable.wav",
-                "sound/Battle Phrases/Colin_Seems_Risky_To_Me.wav",
-        }, 2);
+        selectAudioToPlay(SoundCategory.BAD_MOVE);
     }
 
     /**
      * plays an audio clip for when the player has made a good move
      */
     public static void playGoodMoveAudio() {
-        selectAudioToPlay(new String[]{
-                "sound/Battle Phrases/Colin_An_Unlikely_Victory.wav",
-                "sound/Battle Phrases/Colin_Far_better_than_I_expected.wav",
-                "sound/Battle Phrases/Colin_I_couldnt_have_done_it_better_myself.wav",
-                "sound/Battle Phrases/Colin_Multiplying_by_the_identity_matrix_is_more_fasinating_than_your_last_move.wav",
-                "sound/Battle Phrases/Colin_Well_Done.wav"
-        }, 0);
+        selectAudioToPlay(SoundCategory.GOOD_MOVE);
     }
 
     /**
      * plays an audio clip for when the player has made an invalid move
      */
     public static void playInvalidMoveAudio() {
-        selectAudioToPlay(new String[]{
-                "sound/Invalid Move/Colin_Your_request_does_not_pass_easily_through_my_mind.wav",
-                "sound/Invalid Move/Colin_You_would_find_more_success_trying_to_invert_a_singular_matrix.wav",
-                "sound/Invalid Move/Colin_Your_actions_are_questionable.wav",
-                "sound/Allocation/Colin_EmptySet.wav"
-        }, 2);
+        selectAudioToPlay(SoundCategory.INVALID_MOVE);
     }
 
     /**
      * plays an audio clip for when the player has tried to make an invalid troop allocation
      */
     public static void playAllocationErrorAudio() {
-        selectAudioToPlay(new String[]{
-                "sound/Allocation/Colin_EmptySet.wav",
-                "sound/Allocation/Colin_Insuffiecient_Gangmembers.wav",
-                "sound/Allocation/Colin_Might_I_interest_you_in_taking_the_union_of_our_forces.wav",
-                "sound/Invalid Move/Colin_Your_request_does_not_pass_easily_through_my_mind.wav",
-                "sound/Invalid Move/Colin_You_would_find_more_success_trying_to_invert_a_singular_matrix.wav",
-                "sound/Invalid Move/Colin_Your_actions_are_questionable.wav"
-        }, 3);
+        selectAudioToPlay(SoundCategory.ALLOCATION_ERROR);
     }
 
     /**
      * plays the button click sound effect
      */
     public static void playButtonClick() {
-        Audio.get("sound/Other/Electro button click.mp3", Sound.class).play(AudioManager.GLOBAL_FX_VOLUME); //plays the music
+        selectAudioToPlay(SoundCategory.BUTTON_CLICK);
     }
 
     /**
@@ -0,0 +1,240 @@
+package sepr.game;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+/*
+Added in assessment 4
+ - added so that the result of an attack is drawn straight from the distribution of battle outcomes instead of simulating each 1v1 and so the odds of an attack can be shown to the player
+ - distributions of battles that can not underflow are calculated directly rather than as logarithms, as simulated games calculate many of them
+ */
+
+/**
+ * resolves attacks between a group of attacking units and the units defending a sector
+ *
+ * an attack is a series of 1v1s, each won by the attacker with a chance depending on the number of postgrads defending,
+ * until either side has no units left; the defending undergrads are lost before any postgrads
+ * rather than playing out each 1v1 the final state of the battle is sampled from its exact probability distribution,
+ * which is calculated once for each combination of attackers, undergrads and postgrads and then cached
+ *
+ * not thread safe, each thread resolving battles should use its own resolver
+ */
+public class BattleResolver {
+    private static final int MAX_CACHED_BATTLES = 4096; // number of outcome distributions kept before the least recently used are discarded
+    private static final int MAX_DIRECT_UNITS = 512; // largest battle, in total units, whose distribution is calculated without logarithms
+
+    private Random random; // random number generator used to sample battle outcomes
+    private LinkedHashMap<Long, double[]> outcomeCache; // mapping of battle key to cumulative probabilities of each outcome, see getOutcomeDistribution
+
+    /**
+     * @param random random number generator to sample battle outcomes with
+     */
+    public BattleResolver(Random random) {
+        this.random = random;
+        this.outcomeCache = new LinkedHashMap<Long, double[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(java.util.Map.Entry<Long, double[]> eldest) {
+                return size() > MAX_CACHED_BATTLES;
+            }
+        };
+    }
+
+    /**
+     * gets the chance of the attacker winning a single 1v1 against a sector defended by the given number of postgrads
+     *
+     * @param postGrads number of postgrads defending the sector
+     * @return chance of the attacker winning a 1v1, between 0.0 and 1.0
+     */
+    public static float getWinChance(int postGrads) {
+        return postGrads > 5 ? 0.4f : 0.55f - (postGrads * 0.03f); // ATTACK BALANCING SETTINGS
+    }
+
+    /**
+     * randomly decides the outcome of an attack
+     *
+     * @param attackers number of units attacking
+     * @param underGrads number of undergrads defending
+     * @param postGrads number of postgrads defending
+     * @return the units each side has remaining after the attack
+     * @throws IllegalArgumentException if any of the unit counts are negative
+     */
+    public BattleResult resolve(int attackers, int underGrads, int postGrads) {
+        checkUnitCounts(attackers, underGrads, postGrads);
+        int defenders = underGrads + postGrads;
+        if (attackers == 0 || defenders == 0) {
+            return new BattleResult(attackers, underGrads, postGrads); // no 1v1s take place
+        }
+
+        double[] cumulative = getOutcomeDistribution(attackers, underGrads, postGrads);
+        int outcome = Arrays.binarySearch(cumulative, random.nextDouble());
+        outcome = outcome < 0 ? -outcome - 1 : outcome + 1; // index of first cumulative probability above the sampled value
+        if (outcome >= cumulative.length) outcome = cumulative.length - 1; // guard against rounding in the final cumulative value
+
+        if (outcome < attackers) { // attacker won with (outcome + 1) units remaining
+            return new BattleResult(outcome + 1, 0, 0);
+        }
+        int defendersLost = defenders - (outcome - attackers + 1);
+        int underGradsLost = Math.min(underGrads, defendersLost);
+        return new BattleResult(0, underGrads - underGradsLost, postGrads - (defendersLost - underGradsLost));
+    }
+
+    /**
+     * gets the probability that the attack will conquer the sector
+     *
+     * @param attackers number of units attacking
+     * @param underGrads number of undergrads defending
+     * @param postGrads number of postgrads defending
+     * @return probability that all of the defending units are defeated, between 0.0 and 1.0
+     * @throws IllegalArgumentException if any of the unit counts are negative
+     */
+    public double getAttackSuccessChance(int attackers, int underGrads, int postGrads) {
+        checkUnitCounts(attackers, underGrads, postGrads);
+        if (underGrads + postGrads == 0) return 1;
+        if (attackers == 0) return 0;
+        return getOutcomeDistribution(attackers, underGrads, postGrads)[attackers - 1];
+    }
+
+    /**
+     * gets the cumulative probabilities of each final state of a battle, calculating and caching them if not already cached
+     * index i < attackers is the attacker winning with i + 1 units remaining
+     * index attackers + j is the defender winning with j + 1 units remaining
+     *
+     * @param attackers number of units attacking, at least 1
+     * @param underGrads number of undergrads defending
+     * @param postGrads number of postgrads defending
+     * @return cumulative probability of each outcome, the last value is 1.0
+     */
+    private double[] getOutcomeDistribution(int attackers, int underGrads, int postGrads) {
+        Long key = ((long)postGrads << 42) | ((long)underGrads << 21) | attackers; // attackers in the low bits, which vary most, so keys hash well
+        double[] cumulative = outcomeCache.get(key);
+        if (cumulative == null) {
+            cumulative = calculateOutcomeDistribution(attackers, underGrads + postGrads, getWinChance(postGrads));
+            outcomeCache.put(key, cumulative);
+        }
+        return cumulative;
+    }
+
+    /**
+     * @throws IllegalArgumentException if any of the unit counts are negative
+     */
+    private static void checkUnitCounts(int attackers, int underGrads, int postGrads) {
+        if (attackers < 0 || underGrads < 0 || postGrads < 0) {
+            throw new IllegalArgumentException("Cannot resolve a battle with a negative number of units");
+        }
+    }
+
+    /**
+     * calculates the cumulative probabilities of each final state of a battle
+     *
+     * the attacker winning having lost k units requires the defender's last unit to be lost after k attacker losses,
+     * so has probability C(defenders - 1 + k, k) * p^defenders * q^k, and likewise the defender winning having lost
+     * j units has probability C(attackers - 1 + j, j) * p^j * q^attackers
+     * the probabilities of large battles are calculated as logarithms so that they do not underflow, for smaller
+     * battles each probability is found from the previous one by multiplying by the change in these terms
+     *
+     * @param attackers number of units attacking, at least 1
+     * @param defenders number of units defending, at least 1
+     * @param winChance chance of the attacker winning each 1v1
+     * @return cumulative probability of each outcome, ordered as described in getOutcomeDistribution
+     */
+    private static double[] calculateOutcomeDistribution(int attackers, int defenders, double winChance) {
+        if (attackers + defenders <= MAX_DIRECT_UNITS) return calculateOutcomeDistributionDirectly(attackers, defenders, winChance);
+
+        double logWin = Math.log(winChance);
+        double logLose = Math.log(1 - winChance);
+        double[] logProbabilities = new double[attackers + defenders];
+
+        // attacker wins having lost k units, leaving attackers - k
+        double logTerm = defenders * logWin;
+        for (int k = 0; k < attackers; k++) {
+            if (k > 0) logTerm += Math.log(defenders - 1 + k) - Math.log(k) + logLose;
+            logProbabilities[attackers - k - 1] = logTerm;
+        }
+
+        // defender wins having lost j units, leaving defenders - j
+        logTerm = attackers * logLose;
+        for (int j = 0; j < defenders; j++) {
+            if (j > 0) logTerm += Math.log(attackers - 1 + j) - Math.log(j) + logWin;
+            logProbabilities[attackers + defenders - j - 1] = logTerm;
+        }
+
+        double maxLog = Double.NEGATIVE_INFINITY;
+        for (double logProbability : logProbabilities) {
+            maxLog = Math.max(maxLog, logProbability);
+        }
+
+        // scale relative to the most likely outcome before leaving log space then normalise so rounding errors do not build up
+        double[] cumulative = new double[logProbabilities.length];
+        double total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += Math.exp(logProbabilities[i] - maxLog);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * calculates the same distribution as calculateOutcomeDistribution without logarithms, which is much faster
+     * every probability is at least winChance^(attackers + defenders), so does not underflow for battles of up to
+     * MAX_DIRECT_UNITS units as the win chance is never less than 0.4
+     */
+    private static double[] calculateOutcomeDistributionDirectly(int attackers, int defenders, double winChance) {
+        double loseChance = 1 - winChance;
+        double[] cumulative = new double[attackers + defenders];
+
+        // attacker wins having lost k units, leaving attackers - k
+        double term = Math.pow(winChance, defenders);
+        for (int k = 0; k < attackers; k++) {
+            if (k > 0) term *= (double)(defenders - 1 + k) / k * loseChance;
+            cumulative[attackers - k - 1] = term;
+        }
+
+        // defender wins having lost j units, leaving defenders - j
+        term = Math.pow(loseChance, attackers);
+        for (int j = 0; j < defenders; j++) {
+            if (j > 0) term *= (double)(attackers - 1 + j) / j * winChance;
+            cumulative[attackers + defenders - j - 1] = term;
+        }
+
+        double total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += cumulative[i];
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * the units remaining on each side once a battle is over
+     */
+    public static class BattleResult {
+        private final int attackersRemaining;
+        private final int underGradsRemaining;
+        private final int postGradsRemaining;
+
+        public BattleResult(int attackersRemaining, int underGradsRemaining, int postGradsRemaining) {
+            this.attackersRemaining = attackersRemaining;
+            this.underGradsRemaining = underGradsRemaining;
+            this.postGradsRemaining = postGradsRemaining;
+        }
+
+        public int getAttackersRemaining() {
+            return attackersRemaining;
+        }
+
+        public int getUnderGradsRemaining() {
+            return underGradsRemaining;
+        }
+
+        public int getPostGradsRemaining() {
+            return postGradsRemaining;
+        }
+    }
+}
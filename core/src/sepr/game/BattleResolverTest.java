@@ -0,0 +1,122 @@
+package sepr.game;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BattleResolverTest {
+    private static final int TRIALS = 200000;
+
+    private BattleResolver battleResolver;
+
+    @Before
+    public void setUp() {
+        battleResolver = new BattleResolver(new Random(1234));
+    }
+
+    @After
+    public void tearDown() {
+        battleResolver = null;
+    }
+
+    /**
+     * plays out a battle one 1v1 at a time, as attacks were resolved before the BattleResolver was added
+     *
+     * @return {attackers remaining, undergrads remaining, postgrads remaining}
+     */
+    private static int[] simulateBattle(Random random, int attackers, int underGrads, int postGrads) {
+        float winChance = BattleResolver.getWinChance(postGrads);
+        while (attackers > 0 && (underGrads > 0 || postGrads > 0)) {
+            if (random.nextFloat() < winChance) {
+                if (underGrads > 0) {
+                    underGrads--;
+                } else {
+                    postGrads--;
+                }
+            } else {
+                attackers--;
+            }
+        }
+        return new int[] {attackers, underGrads, postGrads};
+    }
+
+    /**
+     * checks the resolver's outcomes have the same win rate and average remaining units as simulating every 1v1
+     */
+    private void assertMatchesSimulation(int attackers, int underGrads, int postGrads) {
+        Random random = new Random(4321);
+        double simulatedWins = 0, simulatedAttackers = 0, simulatedPostGrads = 0;
+        double resolvedWins = 0, resolvedAttackers = 0, resolvedPostGrads = 0;
+
+        for (int i = 0; i < TRIALS; i++) {
+            int[] simulated = simulateBattle(random, attackers, underGrads, postGrads);
+            if (simulated[1] + simulated[2] == 0) simulatedWins++;
+            simulatedAttackers += simulated[0];
+            simulatedPostGrads += simulated[2];
+
+            BattleResolver.BattleResult resolved = battleResolver.resolve(attackers, underGrads, postGrads);
+            if (resolved.getUnderGradsRemaining() + resolved.getPostGradsRemaining() == 0) resolvedWins++;
+            resolvedAttackers += resolved.getAttackersRemaining();
+            resolvedPostGrads += resolved.getPostGradsRemaining();
+        }
+
+        assertEquals("Win rate", simulatedWins / TRIALS, resolvedWins / TRIALS, 0.01);
+        assertEquals("Win chance", simulatedWins / TRIALS, battleResolver.getAttackSuccessChance(attackers, underGrads, postGrads), 0.01);
+        assertEquals("Attackers remaining", simulatedAttackers / TRIALS, resolvedAttackers / TRIALS, 0.05 + attackers * 0.005);
+        assertEquals("Postgrads remaining", simulatedPostGrads / TRIALS, resolvedPostGrads / TRIALS, 0.05 + postGrads * 0.005);
+    }
+
+    @Test
+    public void matchesSimulationWithoutPostgrads() {
+        assertMatchesSimulation(10, 8, 0);
+    }
+
+    @Test
+    public void matchesSimulationWithPostgrads() {
+        assertMatchesSimulation(12, 4, 3);
+    }
+
+    @Test
+    public void matchesSimulationWithManyPostgrads() {
+        assertMatchesSimulation(20, 2, 9);
+    }
+
+    @Test
+    public void oneSideAlwaysEliminated() {
+        for (int i = 0; i < 1000; i++) {
+            BattleResolver.BattleResult result = battleResolver.resolve(7, 5, 2);
+            boolean attackersEliminated = result.getAttackersRemaining() == 0;
+            boolean defendersEliminated = result.getUnderGradsRemaining() == 0 && result.getPostGradsRemaining() == 0;
+
+            assertTrue("Exactly one side eliminated", attackersEliminated != defendersEliminated);
+            assertTrue("Attackers remaining in range", result.getAttackersRemaining() >= 0 && result.getAttackersRemaining() <= 7);
+            assertTrue("Undergrads lost before postgrads", result.getPostGradsRemaining() == 2 || result.getUnderGradsRemaining() == 0);
+        }
+    }
+
+    @Test
+    public void noDefendersAlwaysWins() {
+        BattleResolver.BattleResult result = battleResolver.resolve(5, 0, 0);
+
+        assertEquals("Attackers remaining", 5, result.getAttackersRemaining());
+        assertEquals("Win chance", 1.0, battleResolver.getAttackSuccessChance(5, 0, 0), 0);
+    }
+
+    @Test
+    public void largeBattleDoesNotUnderflow() {
+        double chance = battleResolver.getAttackSuccessChance(5000, 4000, 0);
+
+        assertTrue("Win chance is a probability", chance >= 0 && chance <= 1);
+        battleResolver.resolve(5000, 4000, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeUnitsRejected() {
+        battleResolver.resolve(-1, 3, 0);
+    }
+}
@@ -0,0 +1,243 @@
+package sepr.game;
+
+import sepr.game.utils.PunishmentCardType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/*
+Added in assessment 4
+ - added so the commands made in the current phase can be undone and redone, e.g. after a misclick in a dialog
+ */
+
+/**
+ * the changes made to a game by each command of the current phase, kept as small reversible deltas so a command can be
+ * undone and redone by applying only the changes it made rather than restoring a copy of the whole game
+ *
+ * the GameEngine opens an entry for each command it carries out; while an entry is open the map's sectors record every
+ * change to their units, owner and status effects and the engine records changes to the players' troops and cards,
+ * changes made while no entry is open, e.g. when the turn passes to the next player, are not recorded
+ * each delta is packed into a single long: its kind in the low 4 bits, an 8 bit sector or player id, then two signed
+ * 26 bit values whose meaning depends on the kind
+ */
+public class DeltaJournal {
+
+    /**
+     * the counts of a player that the journal records changes to
+     */
+    public enum PlayerCount {
+        TROOPS_TO_ALLOCATE, COLLUSION_CARDS, POOPY_PATH_CARDS, ASBESTOS_CARDS
+    }
+
+    private static final int UNITS = 0; // values are the change in undergrads and postgrads
+    private static final int OWNER = 1; // values are the ids of the previous and new owner, -1 if unowned
+    private static final int STATUS_EFFECT = 2; // values are the PunishmentCardType ordinal and the change in turns it is active for
+    private static final int PLAYER_COUNT = 3; // values are the PlayerCount ordinal and the change in the count
+
+    private static final int KIND_BITS = 4;
+    private static final int ID_BITS = 8;
+    private static final int VALUE_BITS = 26;
+    private static final int ID_SHIFT = KIND_BITS;
+    private static final int FIRST_VALUE_SHIFT = ID_SHIFT + ID_BITS;
+    private static final int SECOND_VALUE_SHIFT = FIRST_VALUE_SHIFT + VALUE_BITS;
+    private static final PlayerCount[] PLAYER_COUNTS = PlayerCount.values();
+    private static final PunishmentCardType[] CARD_TYPES = PunishmentCardType.values();
+
+    private long[] deltas = new long[64]; // packed deltas of every entry, in the order they were made
+    private int deltaCount; // deltas of the entries that have not been undone
+    private int deltaTotal; // deltas of every entry, including undone entries that can be redone
+    private int[] entryStarts = new int[16]; // index in deltas of the first delta of each entry
+    private boolean[] entryRandom = new boolean[16]; // true for each entry whose outcome was decided by random numbers
+    private int entryCount; // entries that have not been undone
+    private int entryTotal; // every entry, including undone entries that can be redone
+    private boolean open; // true while an entry is being recorded
+    private boolean applying; // true while deltas are being undone or redone, so the changes are not recorded again
+
+    /**
+     * starts recording the changes made by a command, any undone entries can no longer be redone
+     *
+     * @param random true if the command's outcome is decided by random numbers, i.e. an attack
+     */
+    public void beginEntry(boolean random) {
+        if (entryCount == entryStarts.length) {
+            entryStarts = Arrays.copyOf(entryStarts, entryCount * 2);
+            entryRandom = Arrays.copyOf(entryRandom, entryCount * 2);
+        }
+        deltaTotal = deltaCount;
+        entryStarts[entryCount] = deltaCount;
+        entryRandom[entryCount] = random;
+        entryCount++;
+        entryTotal = entryCount;
+        open = true;
+    }
+
+    /**
+     * stops recording the current entry, an entry that made no changes is discarded
+     */
+    public void endEntry() {
+        if (!open) return;
+        open = false;
+        if (entryStarts[entryCount - 1] == deltaCount) {
+            entryCount--;
+            entryTotal = entryCount;
+        }
+    }
+
+    /**
+     * forgets every entry, e.g. when the phase they were made in ends
+     */
+    public void clear() {
+        deltaCount = 0;
+        deltaTotal = 0;
+        entryCount = 0;
+        entryTotal = 0;
+        open = false;
+    }
+
+    void recordUnits(int sectorId, int underGradChange, int postGradChange) {
+        if (underGradChange != 0 || postGradChange != 0) add(UNITS, sectorId, underGradChange, postGradChange);
+    }
+
+    void recordOwner(int sectorId, int previousOwnerId, int newOwnerId) {
+        if (previousOwnerId != newOwnerId) add(OWNER, sectorId, previousOwnerId, newOwnerId);
+    }
+
+    void recordStatusEffect(int sectorId, PunishmentCardType effect, int change) {
+        if (change != 0) add(STATUS_EFFECT, sectorId, effect.ordinal(), change);
+    }
+
+    /**
+     * records a change to one of a player's counts
+     *
+     * @param playerId id of the player whose count changed
+     * @param count count that changed
+     * @param change amount the count changed by
+     */
+    public void recordPlayerCount(int playerId, PlayerCount count, int change) {
+        if (change != 0) add(PLAYER_COUNT, playerId, count.ordinal(), change);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the id or a value does not fit in its bits
+     */
+    private void add(int kind, int id, int first, int second) {
+        if (!open || applying) return;
+        int maxValue = (1 << (VALUE_BITS - 1)) - 1;
+        if (id < 0 || id >= 1 << ID_BITS || Math.abs(first) > maxValue || Math.abs(second) > maxValue) {
+            throw new IllegalArgumentException("Change is too large to be recorded");
+        }
+        if (deltaCount == deltas.length) deltas = Arrays.copyOf(deltas, deltaCount * 2);
+        long valueMask = (1L << VALUE_BITS) - 1;
+        deltas[deltaCount++] = kind
+                | (long)id << ID_SHIFT
+                | (first & valueMask) << FIRST_VALUE_SHIFT
+                | (second & valueMask) << SECOND_VALUE_SHIFT;
+        deltaTotal = deltaCount;
+    }
+
+    /**
+     * @return true if there is an entry that can be undone
+     */
+    public boolean canUndo() {
+        return entryCount > 0 && !open;
+    }
+
+    /**
+     * @return true if there is an undone entry that can be redone
+     */
+    public boolean canRedo() {
+        return entryCount < entryTotal && !open;
+    }
+
+    /**
+     * @return true if the entry that would be undone next had its outcome decided by random numbers
+     */
+    public boolean isNextUndoRandom() {
+        return canUndo() && entryRandom[entryCount - 1];
+    }
+
+    /**
+     * reverses the changes of the last entry that has not been undone, in the reverse of the order they were made
+     *
+     * @param map map the changes were made to
+     * @param players players of the game, by id
+     * @throws IllegalStateException if there is no entry to undo
+     */
+    public void undo(Map map, HashMap<Integer, Player> players) {
+        if (!canUndo()) throw new IllegalStateException("There is nothing to undo");
+        entryCount--;
+        int start = entryStarts[entryCount];
+        applying = true;
+        try {
+            for (int i = deltaCount - 1; i >= start; i--) {
+                apply(deltas[i], true, map, players);
+            }
+        } finally {
+            applying = false;
+        }
+        deltaCount = start;
+    }
+
+    /**
+     * makes the changes of the first undone entry again, in the order they were first made
+     *
+     * @param map map the changes were made to
+     * @param players players of the game, by id
+     * @throws IllegalStateException if there is no entry to redo
+     */
+    public void redo(Map map, HashMap<Integer, Player> players) {
+        if (!canRedo()) throw new IllegalStateException("There is nothing to redo");
+        int end = entryCount + 1 < entryTotal ? entryStarts[entryCount + 1] : deltaTotal;
+        applying = true;
+        try {
+            for (int i = deltaCount; i < end; i++) {
+                apply(deltas[i], false, map, players);
+            }
+        } finally {
+            applying = false;
+        }
+        deltaCount = end;
+        entryCount++;
+    }
+
+    /**
+     * makes or reverses a single change
+     */
+    private static void apply(long delta, boolean reverse, Map map, HashMap<Integer, Player> players) {
+        int kind = (int)(delta & ((1 << KIND_BITS) - 1));
+        int id = (int)(delta >>> ID_SHIFT) & ((1 << ID_BITS) - 1);
+        int first = (int)(delta << (64 - SECOND_VALUE_SHIFT) >> (64 - VALUE_BITS)); // shifted up then down to extend the sign
+        int second = (int)(delta >> SECOND_VALUE_SHIFT);
+        int sign = reverse ? -1 : 1;
+
+        switch (kind) {
+            case UNITS:
+                map.getSectorById(id).changeUnits(sign * first, sign * second);
+                break;
+            case OWNER:
+                int ownerId = reverse ? first : second;
+                map.getSectorById(id).changeOwner(ownerId == -1 ? null : players.get(ownerId));
+                break;
+            case STATUS_EFFECT:
+                map.getSectorById(id).changeStatusEffect(CARD_TYPES[first], sign * second);
+                break;
+            case PLAYER_COUNT:
+                Player player = players.get(id);
+                switch (PLAYER_COUNTS[first]) {
+                    case TROOPS_TO_ALLOCATE:
+                        player.addTroopsToAllocate(sign * second);
+                        break;
+                    case COLLUSION_CARDS:
+                        player.addCollusionCards(sign * second);
+                        break;
+                    case POOPY_PATH_CARDS:
+                        player.addPoopyPathCards(sign * second);
+                        break;
+                    case ASBESTOS_CARDS:
+                        player.addAsbestosCards(sign * second);
+                        break;
+                }
+                break;
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package sepr.game;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.StringBuilder;
+import sepr.game.saveandload.SaveSlotInfo;
+import sepr.game.saveandload.SaveSlots;
 import sepr.game.utils.PunishmentCardType;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
 
 /*
@@ -17,7 +22,12 @@ Modified in assessment 4
  - added that dialogs now pause the turn timer, if enabled, whilst they are open
  - modified attackSuccessDialogBox, allocateUnitsDialog, attackDialog and moveDialog to no longer use arrays to pass back input data and instead directly call methods to act on the input data - this was to improve code readability
  - added selectPunishmentCardDialog to allow the player to select which punishment card they would like to use
+ - dialogs now carry out the player's choices through the GameEngine rather than changing the map directly
+ - attackDialog shows the chance of the attack conquering the target sector for the selected number of attackers
  - changed leaveMiniGameDialog to miniGameOverDialog and modified it so it supported the new rewards system, i.e. punishment card rewards not troops
+ - added saveGameDialogBox and loadGameDialogBox for choosing which save slot to save to or load from
+ - the skin is loaded by the asset manager while the loading screen is shown
+ - the save slots in saveGameDialogBox and loadGameDialogBox are listed in a scroll pane so any number of slots fit on the screen
  */
 
 /**
@@ -27,8 +37,69 @@ public class DialogFactory {
 
     public static Skin skin; // skin shared by all dialog windows for a uniform aesthetic
 
-    public DialogFactory() {
-        skin = new Skin(Gdx.files.internal("dialogBox/skin/uiskin.json"));
+    private static final String SKIN_PATH = "dialogBox/skin/uiskin.json";
+    private static final int SLOT_LIST_HEIGHT = 600; // maximum height of the list of save slots, longer lists scroll
+    private static final SimpleDateFormat SAVE_DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy HH:mm"); // only used on the render thread
+
+    /**
+     * a dialog that can be given a result by buttons outside its button table
+     * a Dialog only reports the result of buttons added directly to its button table, not of buttons in a scroll pane
+     */
+    private static class ChoiceDialog extends Dialog {
+        ChoiceDialog(String title, Skin skin) {
+            super(title, skin);
+        }
+
+        /**
+         * adds a button to a table that gives this dialog a result then hides it when pressed
+         *
+         * @param table table to add the button to
+         * @param text text of the button
+         * @param object result of the dialog when the button is pressed
+         */
+        void addChoice(Table table, String text, final Object object) {
+            TextButton button = new TextButton(text, getSkin());
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeEvent event, Actor actor) {
+                    result(object);
+                    hide();
+                }
+            });
+            table.add(button).width(700).padBottom(10).row();
+        }
+
+        /**
+         * adds a table of choices to the content of this dialog, scrolling if it is taller than SLOT_LIST_HEIGHT
+         *
+         * @param table table of choices to add
+         */
+        void addScrollingChoices(Table table) {
+            ScrollPane scrollPane = new ScrollPane(table, getSkin());
+            scrollPane.setFadeScrollBars(false);
+            scrollPane.setScrollingDisabled(true, false);
+            getContentTable().add(scrollPane).height(Math.min(table.getPrefHeight(), SLOT_LIST_HEIGHT));
+        }
+    }
+
+    /**
+     * queues the dialog skin to be loaded by the asset manager
+     *
+     * @param assetManager asset manager to load the skin with
+     */
+    public static void queueAssets(AssetManager assetManager) {
+        assetManager.load(SKIN_PATH, Skin.class);
+    }
+
+    /**
+     * @param assetManager asset manager the skin was queued with, the skin is loaded now if it has not finished loading
+     */
+    public DialogFactory(AssetManager assetManager) {
+        if (!assetManager.isLoaded(SKIN_PATH, Skin.class)) {
+            assetManager.load(SKIN_PATH, Skin.class);
+            assetManager.finishLoadingAsset(SKIN_PATH);
+        }
+        skin = assetManager.get(SKIN_PATH, Skin.class);
     }
 
     /**
@@ -137,11 +208,9 @@ public class DialogFactory {
         Dialog dialog = new Dialog("Paused", DialogFactory.skin) {
             protected void result(Object object) {
                 if (object.equals("save")) {
-                    gameScreen.getMain().saveGame();
-                    gameScreen.unpauseTimer();
+                    DialogFactory.saveGameDialogBox(gameScreen, false, stage);
                 } else if (object.equals("saveExit")) {
-                    gameScreen.getMain().saveGame();
-                    DialogFactory.leaveGameDialogBox(gameScreen, stage);
+                    DialogFactory.saveGameDialogBox(gameScreen, true, stage);
                 } else if (object.equals("exit")) {
                     DialogFactory.leaveGameDialogBox(gameScreen, stage);
                 } else {
@@ -163,6 +232,82 @@ public class DialogFactory {
         gameScreen.pauseTimer();
     }
 
+    /**
+     * creates a dialog for choosing which save slot to save the game to
+     * the autosave slot is not listed as it is overwritten at the end of every phase
+     *
+     * @param gameScreen for saving the game and pausing/unpausing the game timer
+     * @param exitAfterSaving should the player be asked if they want to exit the game once it is saved
+     * @param stage the stage to draw the box onto
+     */
+    public static void saveGameDialogBox(final GameScreen gameScreen, final boolean exitAfterSaving, final Stage stage) {
+        ChoiceDialog dialog = new ChoiceDialog("Save Game", DialogFactory.skin) {
+            protected void result(Object object) {
+                if (object instanceof Integer) {
+                    gameScreen.getMain().saveGame((Integer)object);
+                    if (exitAfterSaving) {
+                        DialogFactory.leaveGameDialogBox(gameScreen, stage);
+                        return;
+                    }
+                }
+                gameScreen.unpauseTimer();
+            }
+        };
+        SaveSlotInfo[] slots = gameScreen.getMain().getSaveSlots();
+        Table slotTable = new Table();
+        for (int i = SaveSlots.AUTOSAVE_SLOT + 1; i < slots.length; i++) {
+            dialog.addChoice(slotTable, "Slot " + i + ": " + (slots[i] == null ? "Empty" : saveSlotDescription(slots[i])), i);
+        }
+        dialog.addScrollingChoices(slotTable);
+        dialog.getButtonTable().defaults().width(700);
+        dialog.getButtonTable().row().padBottom(10);
+        dialog.button("Cancel", "cancel");
+        dialog.show(stage);
+
+        gameScreen.pauseTimer();
+    }
+
+    /**
+     * creates a dialog listing the saved games for the player to choose one to load
+     * only the save index is read to list the games, the chosen game is loaded when its button is pressed
+     *
+     * @param main for loading the game
+     * @param slots description of the game in each save slot, null for empty slots
+     * @param stage the stage to draw the box onto
+     */
+    public static void loadGameDialogBox(final Main main, SaveSlotInfo[] slots, final Stage stage) {
+        ChoiceDialog dialog = new ChoiceDialog("Load Game", DialogFactory.skin) {
+            protected void result(Object object) {
+                if (object instanceof Integer && !main.loadGame((Integer)object)) {
+                    basicDialogBox(null, "Load Failed", "The saved game could not be loaded", stage);
+                }
+            }
+        };
+        Table slotTable = new Table();
+        for (SaveSlotInfo slot : slots) {
+            if (slot == null) continue;
+            String slotName = slot.getSlot() == SaveSlots.AUTOSAVE_SLOT ? "Autosave" : "Slot " + slot.getSlot();
+            dialog.addChoice(slotTable, slotName + ": " + saveSlotDescription(slot), slot.getSlot());
+        }
+        dialog.addScrollingChoices(slotTable);
+        dialog.getButtonTable().defaults().width(700);
+        dialog.getButtonTable().row().padBottom(10);
+        dialog.button("Cancel", "cancel");
+        dialog.show(stage);
+    }
+
+    /**
+     * @param slot description of a saved game
+     * @return text describing the saved game, e.g. "Turn 12 - Alice, Bob - 17/10/2026 14:02"
+     */
+    private static String saveSlotDescription(SaveSlotInfo slot) {
+        String players = "";
+        for (String playerName : slot.getPlayerNames()) {
+            players += (players.isEmpty() ? "" : ", ") + playerName;
+        }
+        return "Turn " + slot.getTurnNumber() + " - " + players + " - " + SAVE_DATE_FORMAT.format(new Date(slot.getTimestamp()));
+    }
+
     /**
      * creates a dialog that says which player took control of a sector from which other player
      *
@@ -192,7 +337,7 @@ public class DialogFactory {
     public static void attackSuccessDialogBox(final GameScreen gameScreen, Integer bonusTroops, Integer maxTroops, final int sourceSectorId, final int targetSectorId, String prevOwner, String newOwner, String sectorName, Stage stage) {
         if (maxTroops == 2) {
             DialogFactory.basicDialogBox(gameScreen, "Success! ", newOwner + " gained " + sectorName + " from " + prevOwner + "\nYou have earned " + bonusTroops + " bonus troops!\nOne troop will move to the new sector.", stage);
-            gameScreen.getMap().moveUnits(sourceSectorId, targetSectorId, 1);
+            gameScreen.getEngine().move(sourceSectorId, targetSectorId, 1);
         } else if (maxTroops < 2) {
             DialogFactory.basicDialogBox(gameScreen, "Success! ","NEUTRAL gained " + sectorName + " from " + prevOwner + "\nYou have earned " + bonusTroops + " bonus troops!\nThere are no troops to move to the new sector.", stage);
         } else {
@@ -211,7 +356,7 @@ public class DialogFactory {
             Dialog dialog = new Dialog("Success!                                                                                                  ", DialogFactory.skin) {
                 protected void result(Object object) {
                     // set number of troops to move to the value of the slider when the dialog is closed
-                    gameScreen.getMap().moveUnits(sourceSectorId, targetSectorId, (int)slider.getValue());
+                    gameScreen.getEngine().move(sourceSectorId, targetSectorId, (int)slider.getValue());
                     gameScreen.unpauseTimer();
                 }
             };
@@ -277,8 +422,7 @@ public class DialogFactory {
                 if (object.equals("0")) { // Cancel button pressed
                     // allocation canceled
                 } else if (object.equals("1")) { // Ok button pressed
-                    gameScreen.getMap().addUnitsToSectorAnimated(sectorId, (int)undergradSlider.getValue(), (int)postgradSlider.getValue());
-                    gameScreen.getCurrentPlayer().addTroopsToAllocate(-((int)undergradSlider.getValue() + ((int)postgradSlider.getValue()*2)));
+                    gameScreen.getEngine().reinforce(sectorId, (int)undergradSlider.getValue(), (int)postgradSlider.getValue());
                 }
 
                 gameScreen.unpauseTimer();
@@ -325,17 +469,19 @@ public class DialogFactory {
         final Slider slider = new Slider(0, maxAttackers, 1, false, DialogFactory.skin);
         slider.setValue(maxAttackers);
         final Label sliderValue = new Label(maxAttackers + "", DialogFactory.skin); // label showing the value of the slider
+        final Label successChance = new Label(attackSuccessChanceText(gameScreen, maxAttackers, targetSector), DialogFactory.skin); // label showing the odds of conquering the target
         slider.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
                 sliderValue.setText(new StringBuilder((int)slider.getValue() + "")); // update slider value label when the slider is moved
+                successChance.setText(attackSuccessChanceText(gameScreen, (int)slider.getValue(), targetSector));
             }
         });
 
         Dialog dialog = new Dialog("Select number of troops to attack with        ", DialogFactory.skin) {
             protected void result(Object object) {
                 if (object.equals("1")){ // ok button pressed
-                    gameScreen.getMap().completeAttack(gameScreen, sourceSector, targetSector, (int)slider.getValue());
+                    gameScreen.getEngine().attack(sourceSector.getId(), targetSector.getId(), (int)slider.getValue());
                 }
                 ((PhaseAttackMove)gameScreen.getCurrentPhase()).resetSourceSectors();
 
@@ -346,7 +492,7 @@ public class DialogFactory {
         // add labels saying the max number of attackers and how many defenders there are
         dialog.text(new Label("Max attackers: " + maxAttackers, DialogFactory.skin)).padLeft(20).padRight(40).align(Align.center);
         dialog.text(new Label("Defenders: " + defenders, DialogFactory.skin)).padLeft(20).padRight(40).align(Align.center);
-        dialog.text(new Label("   ", DialogFactory.skin)).padLeft(20).padRight(20).align(Align.right);
+        dialog.text(successChance).padLeft(20).padRight(20).align(Align.right);
 
         dialog.getContentTable().row();
 
@@ -367,6 +513,18 @@ public class DialogFactory {
         gameScreen.pauseTimer();
     }
 
+    /**
+     *
+     * @param gameScreen game screen containing the map the attack is on
+     * @param attackers number of units attacking
+     * @param targetSector sector being attacked
+     * @return text describing the percentage chance of the attack conquering the target sector
+     */
+    private static String attackSuccessChanceText(GameScreen gameScreen, int attackers, Sector targetSector) {
+        double chance = gameScreen.getEngine().getBattleResolver().getAttackSuccessChance(attackers, targetSector.getUnderGradsInSector(), targetSector.getPostGradsInSector());
+        return "Win chance: " + Math.round(chance * 100) + "%";
+    }
+
     /**
      * creates a dialog box for the player to select how many troops they want to move with
      *
@@ -392,7 +550,7 @@ public class DialogFactory {
         Dialog dialog = new Dialog("Select number of troops to move                  ", DialogFactory.skin) {
             protected void result(Object object) {
                 if (object.equals("1")){ // ok button pressed
-                    gameScreen.getMap().moveUnits(sourceSectorId, targetSectorId, (int)slider.getValue());
+                    gameScreen.getEngine().move(sourceSectorId, targetSectorId, (int)slider.getValue());
                 }
 
                 ((PhaseAttackMove)gameScreen.getCurrentPhase()).resetSourceSectors();
@@ -13,13 +13,24 @@ import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
-import sepr.game.utils.PlayerType;
+import sepr.game.engine.AiAction;
+import sepr.game.engine.GameEngine;
+import sepr.game.engine.GameEventListener;
+import sepr.game.engine.GameRandom;
+import sepr.game.engine.MctsStrategy;
+import sepr.game.engine.Replay;
+import sepr.game.engine.ReplayPlayer;
+import sepr.game.engine.ReplayWriter;
+import sepr.game.utils.PunishmentCardType;
+import sepr.game.utils.SoundCategory;
 import sepr.game.utils.TurnPhaseType;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /*
 Modified in assessment 4
@@ -31,6 +42,18 @@ Modified in assessment 4
  - refactored the turn timer system so that it may be saved and loaded and simplified pausing the timer
  - removed the ability to move and zoom in/out of the map as did not add anything to the game
  - added automatic scaling of the game map for when the game is resized so it is always easy to see the game
+ - moved the rules of the game, turn order and current phase to GameEngine; this class now listens to the engine's events to play audio, show dialogs and update the phase UI
+ - the game is autosaved whenever a phase ends
+ - the audio clips that may be played in a phase are preloaded when the phase starts
+ - drawing the map, updating and drawing the phase UI and the turn timer are measured by the profiler
+ - the phases and map of the previous game are disposed when a new game is set up, and the screen's resources when it is disposed
+ - computer controlled players choose their moves with an MctsStrategy searching in the background, the plan it returns
+   is carried out once the search finishes so the game keeps rendering while the computer thinks
+ - random numbers, including whether the minigame is triggered, come from the engine's seeded GameRandom so games can be replayed
+ - every game is recorded to a replay file by a ReplayWriter, and a replay can be watched through setupReplay; while
+   watching, space pauses, left and right jump a turn back or forward and up and down change the playback speed;
+   only the most recent MAX_REPLAYS replays are kept
+ - ctrl+z undoes the player's last command in the current phase and ctrl+y redoes it, attacks can only be undone if ALLOW_ATTACK_UNDO is set
  */
 
 /**
@@ -38,33 +61,46 @@ Modified in assessment 4
  * implements screen for swapping what is being displayed with other screens, i.e. menu screens
  * input processor implemented to parse user input
  */
-public class GameScreen extends UiScreen implements InputProcessor{
+public class GameScreen extends UiScreen implements InputProcessor, GameEventListener {
     public static final int NEUTRAL_PLAYER_ID = 4;
     private static final float PVC_SPAWN_CHANCE = 0.1f; // chance that the PVC minigame will start after each successful attack
-    private static final int MAX_TURN_TIME = 60; // seconds per turn each player has if turn timer is enabled
+    public static final int MAX_TURN_TIME = 60; // seconds per turn each player has if turn timer is enabled
+    private static final boolean ALLOW_ATTACK_UNDO = false; // rule letting players undo attacks, which would let them retry an attack until it succeeds
+    private static final int[] REPLAY_SPEEDS = {1, 2, 5, 10, 25, 50, 100}; // playback speeds chosen between with the up and down keys
+    private static final int MAX_REPLAYS = 20; // replays kept in the replay directory, including the game being recorded
 
-    private TurnPhaseType currentPhase = TurnPhaseType.REINFORCEMENT; // set initial phase to the reinforcement phase
     private HashMap<TurnPhaseType, Phase> phases; // hashmap for storing the three phases of the game
 
     private SpriteBatch gameplayBatch; // sprite batch for rendering the game to
     private OrthographicCamera gameplayCamera; // camera for controlling what aspects of the game can be seen
     private Viewport gameplayViewport; // viewport for handling rendering the game at different resolutions
 
-    private Map map; // stores state of the game: who owns which sectors
-    private HashMap<Integer, Player> players; // player id mapping to the relevant player
+    private GameEngine engine; // runs the game: stores the map, players and turn order and applies the players' commands
+    private boolean successfulAttackOccurred = false; // set when a sector is conquered so the minigame may be triggered
+
+    private MctsStrategy computerStrategy; // decides the moves of computer controlled players
+    private Future<List<AiAction>> computerSearch; // search for the current computer controlled player's next plan, null if not searching
+    private int computerSearchPlayerId; // player, turn number and phase the search is for, if the game has moved on its plan is discarded
+    private int computerSearchTurn;
+    private TurnPhaseType computerSearchPhase;
+
+    private ReplayWriter replayWriter; // records the game being played, null if it could not be recorded or a replay is being watched
+    private ReplayPlayer replayPlayer; // plays the replay being watched, null if a game is being played
 
     // timer settings
     private boolean turnTimerEnabled;
     private boolean paused = false;
     private float turnTimeElapsed = 0; // seconds since start of current players turn
 
-    private List<Integer> turnOrder; // array of player ids in order of players' turns;
-    private int currentPlayerPointer; // index of current player in turnOrder list
-
     private Texture mapBackground; // texture for drawing as a background behind the game
 
     private boolean gameSetup = false; // true once setupGame has been called
 
+    private Profiler.Scope mapDrawScope; // parts of rendering the game measured by the profiler
+    private Profiler.Scope phaseActScope;
+    private Profiler.Scope phaseDrawScope;
+    private Profiler.Scope turnTimerScope;
+
     /**
      * sets up rendering objects and key input handling
      * setupGame then start game must be called before a game is ready to be played
@@ -77,8 +113,15 @@ public class GameScreen extends UiScreen implements InputProcessor{
         this.gameplayBatch = new SpriteBatch();
         this.gameplayCamera = new OrthographicCamera();
         this.gameplayViewport = new ScreenViewport(gameplayCamera);
+        this.computerStrategy = new MctsStrategy();
+
+        this.mapBackground = WidgetFactory.getTexture("uiComponents/mapBackgroundBox.png");
 
-        this.mapBackground = new Texture("uiComponents/mapBackgroundBox.png");
+        Profiler profiler = main.getProfiler();
+        this.mapDrawScope = profiler.getScope("map draw");
+        this.phaseActScope = profiler.getScope("phase act"); // includes laying out any open dialogs
+        this.phaseDrawScope = profiler.getScope("phase draw");
+        this.turnTimerScope = profiler.getScope("turn timer"); // includes taking the autosave snapshot when the turn times out
     }
 
     /**
@@ -91,20 +134,20 @@ public class GameScreen extends UiScreen implements InputProcessor{
      * @param turnTimeElapsed how long has passed since the begining of the current player's turn
      * @param turnOrder list of player ids still in the game in the order that the players turn's should occur
      * @param currentPlayerPointer pointer to index of turnOrder of the current player
+     * @param turnNumber number of the current turn
      */
-    public GameScreen(Main main, TurnPhaseType currentPhase, Map map, HashMap<Integer, Player> players, boolean turnTimerEnabled, float turnTimeElapsed, List<Integer> turnOrder, int currentPlayerPointer){
+    public GameScreen(Main main, TurnPhaseType currentPhase, Map map, HashMap<Integer, Player> players, boolean turnTimerEnabled, float turnTimeElapsed, List<Integer> turnOrder, int currentPlayerPointer, int turnNumber){
         this(main);
 
+        this.engine = new GameEngine(map, players, turnOrder, currentPlayerPointer, currentPhase, turnNumber, GameRandom.createUnseeded());
+        this.engine.setAttackUndoAllowed(ALLOW_ATTACK_UNDO);
+        this.engine.addListener(this);
+        AudioPlayer.setRandom(engine.getRandom().getStream(GameRandom.Stream.AUDIO));
         setUpPhases();
 
-        this.currentPhase = currentPhase;
-
-        this.map = map;
-        this.players = players;
         this.turnTimerEnabled = turnTimerEnabled;
         this.turnTimeElapsed = turnTimeElapsed;
-        this.turnOrder = turnOrder;
-        this.currentPlayerPointer = currentPlayerPointer;
+        startRecording();
         this.gameSetup = true;
     }
 
@@ -114,43 +157,124 @@ public class GameScreen extends UiScreen implements InputProcessor{
      *
      * @param players HashMap of the players in this game
      * @param turnTimerEnabled should players turns be limited
+     * @param allocateNeutralPlayer should the neutral player be allocated its default sectors
+     * @param random random numbers of the game, the same seed and commands always play out the same way
      */
-    public void setupGame(HashMap<Integer, Player> players, boolean turnTimerEnabled, boolean allocateNeutralPlayer) {
-        this.players = players;
-        this.turnOrder = new ArrayList<Integer>();
-        for (Integer i : players.keySet()) {
-            if ((players.get(i).getPlayerType() != PlayerType.NEUTRAL_AI)) { // don't add the neutral player or unassigned to the turn order
-                this.turnOrder.add(i);
-            }
-        }
-
-        this.currentPlayerPointer = 0; // set the current player to the player in the first position of the turnOrder list
-
+    public void setupGame(HashMap<Integer, Player> players, boolean turnTimerEnabled, boolean allocateNeutralPlayer, GameRandom random) {
+        disposeGame();
         this.turnTimerEnabled = turnTimerEnabled;
-        this.map = new Map(this.players, allocateNeutralPlayer); // setup the game map and allocate the sectors
+        Map map = new Map(players, allocateNeutralPlayer, random.getStream(GameRandom.Stream.SETUP)); // setup the game map and allocate the sectors
+        this.engine = new GameEngine(map, players, random); // first player in the turn order starts in the reinforcement phase
+        this.engine.setAttackUndoAllowed(ALLOW_ATTACK_UNDO);
+        this.engine.addListener(this);
+        AudioPlayer.setRandom(random.getStream(GameRandom.Stream.AUDIO));
 
         setUpPhases();
+        startRecording();
 
         gameSetup = true; // game is now setup
     }
 
+    /**
+     * sets up watching a recorded game, the replay starts at its first turn
+     * start game must be called before the replay starts playing
+     *
+     * @param replay replay to watch
+     */
+    public void setupReplay(Replay replay) {
+        disposeGame();
+        this.turnTimerEnabled = false;
+        this.paused = false;
+        this.engine = ReplayPlayer.createEngine(replay);
+        this.replayPlayer = new ReplayPlayer(replay, engine);
+        this.engine.addListener(this); // added after the first keyframe is restored, which listeners are not told of
+        AudioPlayer.setRandom(engine.getRandom().getStream(GameRandom.Stream.AUDIO));
+
+        setUpPhases();
+
+        gameSetup = true;
+    }
+
+    /**
+     * starts recording the game to a new file in the replay directory, if the file cannot be written the game is
+     * played without being recorded; the oldest replays are deleted so at most MAX_REPLAYS are kept
+     */
+    private void startRecording() {
+        ReplayWriter.deleteOldReplays(main.getReplayDirectory(), MAX_REPLAYS - 1);
+        File file = new File(main.getReplayDirectory(), "replay-" + System.currentTimeMillis() + ReplayWriter.FILE_EXTENSION);
+        try {
+            replayWriter = new ReplayWriter(engine, file, ReplayWriter.DEFAULT_KEYFRAME_INTERVAL);
+        } catch (IOException e) {
+            e.printStackTrace();
+            replayWriter = null;
+        }
+    }
+
+    /**
+     * writes the commands carried out since the last update to the replay, recording stops if the file cannot be written
+     */
+    private void updateRecording() {
+        if (replayWriter == null) return;
+        try {
+            replayWriter.update();
+        } catch (IOException e) {
+            e.printStackTrace();
+            stopRecording();
+        }
+    }
+
+    /**
+     * closes the replay file of the game being recorded, if any
+     */
+    private void stopRecording() {
+        if (replayWriter == null) return;
+        try {
+            replayWriter.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        replayWriter = null;
+    }
+
     /**
      * Instantiates the phases hashmap and puts an instance of each phase type, mapping to the respective phase object, in the map
      */
     private void setUpPhases() {
-        this.currentPhase = TurnPhaseType.REINFORCEMENT;
         this.phases = new HashMap<TurnPhaseType, Phase>();
         this.phases.put(TurnPhaseType.REINFORCEMENT, new PhaseReinforce(this));
         this.phases.put(TurnPhaseType.ATTACK, new PhaseAttack(this));
         this.phases.put(TurnPhaseType.MOVEMENT, new PhaseMovement(this));
     }
 
+    /**
+     * frees the phases and map of the current game, if a game has been set up
+     */
+    private void disposeGame() {
+        cancelComputerSearch();
+        stopRecording();
+        replayPlayer = null;
+        if (phases != null) {
+            for (Phase phase : phases.values()) {
+                phase.dispose();
+            }
+            phases = null;
+        }
+        if (engine != null) {
+            engine.removeListener(this);
+            engine.getMap().dispose();
+            engine = null;
+        }
+        gameSetup = false;
+    }
+
     /**
      * configure input so that input into the current phase's UI takes priority then unhandled input is handled by this class
+     * while a computer controlled player is playing or a replay is being watched the phase's UI does not take input, so
+     * the user can only pause the game or control the replay
      */
     private void updateInputProcessor() {
         InputMultiplexer inputMultiplexer = new InputMultiplexer();
-        inputMultiplexer.addProcessor(phases.get(currentPhase));
+        if (!isComputerTurn() && replayPlayer == null) inputMultiplexer.addProcessor(getCurrentPhase());
         inputMultiplexer.addProcessor(this);
         Gdx.input.setInputProcessor(inputMultiplexer);
     }
@@ -164,8 +288,93 @@ public class GameScreen extends UiScreen implements InputProcessor{
         if (!gameSetup) {
             throw new RuntimeException("Cannot start game before it is setup");
         }
-        this.phases.get(currentPhase).enterPhase(getCurrentPlayer());
+        getCurrentPhase().enterPhase(getCurrentPlayer());
+        preloadPhaseAudio(getCurrentPhaseType());
         resetCameraPosition();
+        if (isComputerTurn()) startComputerSearch();
+    }
+
+    /**
+     * @return true if the current player's moves are decided by the computer, never while a replay is being watched
+     */
+    private boolean isComputerTurn() {
+        return engine != null && replayPlayer == null && !engine.isGameOver() && getCurrentPlayer().getPlayerType().isComputerControlled();
+    }
+
+    /**
+     * starts searching for the current computer controlled player's plan for the current phase
+     * if the turn timer is enabled the search is limited to a quarter of the time left in the turn, so there is time
+     * left for the searches of the later phases
+     */
+    private void startComputerSearch() {
+        long timeBudgetMillis = computerStrategy.getTimeBudgetMillis();
+        if (turnTimerEnabled) {
+            timeBudgetMillis = Math.min(timeBudgetMillis, (long)(getTurnTimeRemaining() * 1000 / 4));
+        }
+        computerSearch = computerStrategy.searchAsync(engine, timeBudgetMillis);
+        computerSearchPlayerId = getCurrentPlayer().getId();
+        computerSearchTurn = engine.getTurnNumber();
+        computerSearchPhase = engine.getCurrentPhase();
+    }
+
+    /**
+     * stops any search for a computer controlled player's plan, its result is not needed
+     */
+    private void cancelComputerSearch() {
+        if (computerSearch != null) {
+            computerSearch.cancel(true);
+            computerSearch = null;
+        }
+    }
+
+    /**
+     * carries out the plan of the current computer controlled player once its search has finished, then either ends the
+     * phase or searches again if the rest of the phase depends on the outcome of the plan's attack
+     * a search is started if it is a computer controlled player's turn and none is running, e.g. when eliminating a
+     * player has passed the turn to the next player
+     * nothing is done while the game is paused, e.g. while a dialog is open
+     */
+    private void updateComputerPlayer() {
+        if (paused) return;
+        if (computerSearch == null) {
+            if (isComputerTurn()) startComputerSearch();
+            return;
+        }
+        if (!computerSearch.isDone()) return;
+
+        List<AiAction> plan;
+        try {
+            plan = computerSearch.get();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Computer player's search failed", e.getCause());
+        }
+        computerSearch = null;
+        if (!isComputerTurn() || computerSearchPlayerId != getCurrentPlayer().getId() || computerSearchTurn != engine.getTurnNumber() || computerSearchPhase != engine.getCurrentPhase()) {
+            return; // the game has moved on since the search started, a new search is started next frame if needed
+        }
+
+        if (MctsStrategy.applyPlan(engine, plan)) {
+            nextPhase();
+        } else if (isComputerTurn()) {
+            startComputerSearch();
+        }
+    }
+
+    /**
+     * starts loading the audio clips that may be played during a phase, so they are ready by the time they are needed
+     *
+     * @param phase phase that has just started
+     */
+    private void preloadPhaseAudio(TurnPhaseType phase) {
+        if (phase == TurnPhaseType.REINFORCEMENT) {
+            AudioPlayer.preload(SoundCategory.ALLOCATION_ERROR);
+            AudioPlayer.preload(SoundCategory.INVALID_MOVE);
+        } else if (phase == TurnPhaseType.ATTACK) {
+            AudioPlayer.preload(SoundCategory.GOOD_MOVE);
+            AudioPlayer.preload(SoundCategory.BAD_MOVE);
+        }
     }
 
     /**
@@ -215,8 +424,7 @@ public class GameScreen extends UiScreen implements InputProcessor{
      * @throws IllegalArgumentException if the supplied id is not a key value in the players hashmap
      */
     protected Player getPlayerById(int id) throws IllegalArgumentException {
-        if (!players.containsKey(id)) throw new IllegalArgumentException("Cannot fetch player as id: " + id + " does not exist");
-        return players.get(id);
+        return engine.getPlayerById(id);
     }
 
     /**
@@ -224,7 +432,7 @@ public class GameScreen extends UiScreen implements InputProcessor{
      * @return gets the player object for the player who's turn it currently is
      */
     public Player getCurrentPlayer() {
-        return players.get(turnOrder.get(currentPlayerPointer));
+        return engine.getCurrentPlayer();
     }
 
     /**
@@ -232,7 +440,7 @@ public class GameScreen extends UiScreen implements InputProcessor{
      * @return mapping of player ids to their respective player objects
      */
     public HashMap<Integer, Player> getPlayers() {
-        return players;
+        return engine.getPlayers();
     }
 
     /**
@@ -240,7 +448,7 @@ public class GameScreen extends UiScreen implements InputProcessor{
      * @return list containing ids of players still in the game, where the order of ids is the order of player turns
      */
     public List<Integer> getTurnOrder(){
-        return this.turnOrder;
+        return engine.getTurnOrder();
     }
 
     /**
@@ -248,26 +456,15 @@ public class GameScreen extends UiScreen implements InputProcessor{
      * @return index of current player id in turnOrder list
      */
     public int getCurrentPlayerPointer(){
-        return this.currentPlayerPointer;
+        return engine.getCurrentPlayerPointer();
     }
 
     /**
-     * called when the player ends the MOVEMENT phase of their turn to advance the game to the next Player's turn
-     * increments the currentPlayerPointer and resets it to 0 if it now exceeds the number of players in the list
+     *
+     * @return number of the current turn, counting each player's turn separately
      */
-    private void nextPlayer() {
-        currentPlayerPointer++;
-        if (currentPlayerPointer == turnOrder.size()) { // reached end of players, reset to 0 and increase turn number
-            currentPlayerPointer = 0;
-        }
-
-        resetCameraPosition(); // re-centres the camera for the next player
-
-        map.updateSectorStatusEffects(getCurrentPlayer().getId()); // apply status effects to tiles
-
-        if (this.turnTimerEnabled) { // if the turn timer is on reset it for the next player
-            this.turnTimeElapsed = 0;
-        }
+    public int getTurnNumber(){
+        return engine.getTurnNumber();
     }
 
     /**
@@ -275,7 +472,7 @@ public class GameScreen extends UiScreen implements InputProcessor{
      * @return type of the phase currently in play
      */
     public TurnPhaseType getCurrentPhaseType(){
-        return this.currentPhase;
+        return engine.getCurrentPhase();
     }
 
     /**
@@ -287,93 +484,22 @@ public class GameScreen extends UiScreen implements InputProcessor{
     }
 
     /**
-     * method is used for progression through the phases of a turn evaluating the currentPhase case label
+     * method is used for progression through the phases of a turn
      * if nextPhase is called during the movement phase then the game progresses to the next players turn
      */
     protected void nextPhase() {
-        this.phases.get(currentPhase).endPhase();
-
-        switch (currentPhase) {
-            case REINFORCEMENT:
-                currentPhase = TurnPhaseType.ATTACK;
-                break;
-            case ATTACK:
-                currentPhase = TurnPhaseType.MOVEMENT;
-                break;
-            case MOVEMENT:
-                currentPhase = TurnPhaseType.REINFORCEMENT;
-
-                nextPlayer(); // nextPhase called during final phase of a player's turn so goto next player
-                break;
-        }
-
-        this.updateInputProcessor(); // phase changed so update input handling
-        this.phases.get(currentPhase).enterPhase(getCurrentPlayer()); // setup the new phase for the current player
-        this.removeEliminatedPlayers(); // removes all players who have no remaining sectors from the turn order
-    }
-
-    /**
-     * removes all players who have 0 sectors from the turn order
-     */
-    private void removeEliminatedPlayers() {
-        List<Integer> playerIdsToRemove = new ArrayList<Integer>(); // list of players in the turn order who have 0 sectors
-        for (Integer i : turnOrder) {
-            boolean hasSector = false; // has a sector belonging to player i been found
-            for (Integer j : map.getSectorIds()) {
-                if (map.getSectorById(j).getOwnerId() == i) {
-                    hasSector = true; // sector owned by player i found
-                    break; // only need one sector to remain in turn order so can break once one found
-                }
-            }
-            if (!hasSector) { // player has no sectors so remove them from the game
-                playerIdsToRemove.add(i);
-            }
-        }
-
-        if (playerIdsToRemove.size() > 0) { // if there are any players to remove
-            turnOrder.removeAll(playerIdsToRemove);
-
-            AudioPlayer.playPlayerEliminatedAudio();
-
-            String[] playerNames = new String[playerIdsToRemove.size()]; // array of names of players who have been removed
-            for (int i = 0; i < playerIdsToRemove.size(); i++) {
-                playerNames[i] = players.get(playerIdsToRemove.get(i)).getPlayerName();
-            }
-
-            DialogFactory.playersOutDialog(playerNames, phases.get(currentPhase)); // display which players have been eliminated
-        }
-
-        if (isGameOver()) { // check if game is now over
-            gameOver();
-        }
-    }
-
-    /**
-     * checks if game is over by checking how many players are in the turn order, if 1 then player has won, if 0 then the neutral player has won
-     *
-     * @return true if game is over else false
-     */
-    private boolean isGameOver() {
-        return turnOrder.size() <= 1; // game is over if only one player is in the turn order
+        engine.endPhase();
+        updateRecording();
+        autosave();
     }
 
     /**
-     * method called when one player owns all the sectors in the map
-     *
-     * @throws RuntimeException if there is more than one player in the turn order when gameOver is called
+     * saves the game at the start of each phase, the save is written in the background so does not pause the game
+     * replays being watched are not saved
      */
-    private void gameOver() throws RuntimeException {
-        if (turnOrder.size() == 0) { // neutral player has won
-            DialogFactory.gameOverDialog(players.get(NEUTRAL_PLAYER_ID).getPlayerName(), players.get(NEUTRAL_PLAYER_ID).getCollegeName().getCollegeName(), main, phases.get(currentPhase));
-
-        } else if (turnOrder.size() == 1){ // winner is player id at index 0 in turn order
-            AudioPlayer.playGameOverAudio();
-
-            int winnerId = turnOrder.get(0); // winner will be the only player in the turn order list
-            DialogFactory.gameOverDialog(players.get(winnerId).getPlayerName(), players.get(winnerId).getCollegeName().getCollegeName(), main, phases.get(currentPhase));
-
-        } else { // more than one player in turn order so no winner found therefore throw error
-            throw new RuntimeException("Game Over called but more than one player in turn order");
+    private void autosave() {
+        if (!engine.isGameOver() && replayPlayer == null) {
+            main.autosave();
         }
     }
 
@@ -381,8 +507,7 @@ public class GameScreen extends UiScreen implements InputProcessor{
      * when called there's a chance that the minigame is triggered
      */
     private void PVCSpawn() {
-        Random rand = new Random();
-        Float randomValue = rand.nextFloat();
+        float randomValue = engine.getRandom().getStream(GameRandom.Stream.MINIGAME).nextFloat();
         if (randomValue <= PVC_SPAWN_CHANCE) {
             openMiniGame();
         }
@@ -422,7 +547,15 @@ public class GameScreen extends UiScreen implements InputProcessor{
      * @return the map object for this game
      */
     public Map getMap() {
-        return map;
+        return engine.getMap();
+    }
+
+    /**
+     *
+     * @return the engine running this game, for carrying out the players' commands
+     */
+    public GameEngine getEngine() {
+        return engine;
     }
 
     /**
@@ -482,27 +615,42 @@ public class GameScreen extends UiScreen implements InputProcessor{
         if (!gameSetup) throw new RuntimeException("Game must be setup before attempting to play it"); // throw exception if attempt to run game before its setup
 
         if (turnTimerEnabled && !paused) turnTimeElapsed += delta; // update turn time elapsed
-        if (map.checkIfSuccessfulAttackOccurred()) PVCSpawn(); // check if the current player has made a successful attack, if so chance for PVC to spawn
+        if (successfulAttackOccurred) { // check if the current player has made a successful attack, if so chance for PVC to spawn
+            successfulAttackOccurred = false;
+            PVCSpawn();
+        }
+
+        updateComputerPlayer();
+        if (replayPlayer != null) updateReplay(delta);
 
         gameplayCamera.update();
         gameplayBatch.setProjectionMatrix(gameplayCamera.combined);
 
+        mapDrawScope.begin();
         gameplayBatch.begin(); // begin rendering
 
         renderBackground(); // drawSectorImage the background of the game
-        map.draw(gameplayBatch); // drawSectorImage the map
+        getMap().draw(gameplayBatch); // drawSectorImage the map
 
         gameplayBatch.end(); // stop rendering
+        mapDrawScope.end();
 
-        this.phases.get(currentPhase).act(delta); // update the stage of the current phase
-        this.phases.get(currentPhase).draw(); // drawSectorImage the phase UI
+        phaseActScope.begin();
+        getCurrentPhase().act(delta); // update the stage of the current phase
+        phaseActScope.end();
+        phaseDrawScope.begin();
+        getCurrentPhase().draw(); // drawSectorImage the phase UI
+        phaseDrawScope.end();
 
         if (this.turnTimerEnabled) {
-            this.phases.get(currentPhase).setTimerValue((int)getTurnTimeRemaining()); // update time remaining display
+            turnTimerScope.begin();
+            getCurrentPhase().setTimerValue((int)getTurnTimeRemaining()); // update time remaining display
             if ((getTurnTimeRemaining() <= 0)) { // goto the next player's turn if the timer is enabled and they have run out of time
-                this.currentPhase = TurnPhaseType.MOVEMENT;
-                nextPhase();
+                engine.endTurn();
+                updateRecording();
+                autosave();
             }
+            turnTimerScope.end();
         }
     }
 
@@ -545,6 +693,57 @@ public class GameScreen extends UiScreen implements InputProcessor{
         resetCameraPosition();
     }
 
+    /**
+     * frees the current game and the resources used to draw it
+     */
+    @Override
+    public void dispose() {
+        disposeGame();
+        gameplayBatch.dispose();
+        super.dispose();
+    }
+
+
+    /**
+     * carries out the replay's commands due this frame and shows its progress in place of the turn timer
+     *
+     * @param delta time elapsed since the previous frame in seconds
+     */
+    private void updateReplay(float delta) {
+        if (!paused) replayPlayer.advance(delta);
+        getCurrentPhase().setStatusText("Replay: turn " + replayPlayer.getTurnNumber() + "/" + replayPlayer.getReplay().getLastTurnNumber()
+                + " x" + replayPlayer.getSpeed() + (paused ? " PAUSED" : ""));
+    }
+
+    /**
+     * jumps the replay being watched to the start of a turn and sets up the UI of the phase it is then in
+     *
+     * @param turnNumber turn to jump to
+     */
+    private void seekReplay(int turnNumber) {
+        getCurrentPhase().endPhase();
+        engine.removeListener(this); // the UI is set up once for the state jumped to, not for every command on the way
+        replayPlayer.seekToTurn(turnNumber);
+        engine.addListener(this);
+
+        resetCameraPosition();
+        updateInputProcessor();
+        getCurrentPhase().enterPhase(getCurrentPlayer());
+    }
+
+    /**
+     * changes the speed of the replay being watched to the next slower or faster of REPLAY_SPEEDS
+     *
+     * @param faster true to speed up, false to slow down
+     */
+    private void changeReplaySpeed(boolean faster) {
+        int index = 0;
+        while (index < REPLAY_SPEEDS.length - 1 && REPLAY_SPEEDS[index] < replayPlayer.getSpeed()) {
+            index++;
+        }
+        index = Math.max(0, Math.min(REPLAY_SPEEDS.length - 1, index + (faster ? 1 : -1)));
+        replayPlayer.setSpeed(REPLAY_SPEEDS[index]);
+    }
 
     /* Input Processor implementation */
     @Override
@@ -553,7 +752,30 @@ public class GameScreen extends UiScreen implements InputProcessor{
     @Override
     public boolean keyUp(int keycode) {
         if (keycode == Input.Keys.ESCAPE) {
-            DialogFactory.pauseGameDialogBox(this, phases.get(currentPhase)); // confirm if the player wants to leave if escape is pressed
+            DialogFactory.pauseGameDialogBox(this, getCurrentPhase()); // confirm if the player wants to leave if escape is pressed
+        }
+
+        boolean ctrlPressed = Gdx.input.isKeyPressed(Input.Keys.CONTROL_LEFT) || Gdx.input.isKeyPressed(Input.Keys.CONTROL_RIGHT);
+        if (ctrlPressed && replayPlayer == null && !paused && !isComputerTurn()) { // no undo while a dialog is open, as it may be about to act on the command
+            if (keycode == Input.Keys.Z && engine.canUndo()) {
+                engine.undo();
+            } else if (keycode == Input.Keys.Y && engine.canRedo()) {
+                engine.redo();
+            }
+        }
+
+        if (replayPlayer != null) { // controls for the replay being watched
+            if (keycode == Input.Keys.SPACE) {
+                paused = !paused;
+            } else if (keycode == Input.Keys.LEFT) {
+                seekReplay(replayPlayer.getTurnNumber() - 1);
+            } else if (keycode == Input.Keys.RIGHT) {
+                seekReplay(replayPlayer.getTurnNumber() + 1);
+            } else if (keycode == Input.Keys.UP) {
+                changeReplaySpeed(true);
+            } else if (keycode == Input.Keys.DOWN) {
+                changeReplaySpeed(false);
+            }
         }
 
         return false;
@@ -583,11 +805,11 @@ public class GameScreen extends UiScreen implements InputProcessor{
     public boolean mouseMoved(int screenX, int screenY) {
         Vector2 worldCoords = screenToWorldCoords(screenX, screenY);
 
-        int hoveredSectorId = map.detectSectorContainsPoint((int)worldCoords.x, (int)worldCoords.y); // get id of sector mouse is currently hovered over
+        int hoveredSectorId = getMap().detectSectorContainsPoint((int)worldCoords.x, (int)worldCoords.y); // get id of sector mouse is currently hovered over
         if (hoveredSectorId == -1) {
-            phases.get(currentPhase).setBottomBarText(null); // no sector hovered over: update bottom bar with null sector
+            getCurrentPhase().setBottomBarText(null); // no sector hovered over: update bottom bar with null sector
         } else {
-            phases.get(currentPhase).setBottomBarText(map.getSectorById(hoveredSectorId)); // update the bottom bar of the UI with the details of the sector currently hovered over by the mouse
+            getCurrentPhase().setBottomBarText(getMap().getSectorById(hoveredSectorId)); // update the bottom bar of the UI with the details of the sector currently hovered over by the mouse
         }
         return false;
     }
@@ -595,4 +817,119 @@ public class GameScreen extends UiScreen implements InputProcessor{
     @Override
     public boolean scrolled(int amount) { return false; }
 
+
+    /* Game Event Listener implementation */
+
+    /**
+     * shows the change in units on the sector using a particle effect
+     */
+    @Override
+    public void unitsChanged(int sectorId, int underGradChange, int postGradChange) {
+        getMap().addUnitChangeParticles(sectorId, underGradChange, postGradChange);
+    }
+
+    /**
+     * plays audio for how well the attack went and tells the player the outcome of their attack
+     */
+    @Override
+    public void attackCompleted(int sourceSectorId, int targetSectorId, int attackerId, int defenderId, int attackersRemaining) {
+        Sector source = getMap().getSectorById(sourceSectorId);
+        Sector target = getMap().getSectorById(targetSectorId);
+
+        if (attackersRemaining == 0) {
+            // Poor Move
+            AudioPlayer.playBadMoveAudio();
+        } else {
+            // Good move
+            AudioPlayer.playGoodMoveAudio();
+        }
+
+        if (replayPlayer != null || getPlayerById(attackerId).getPlayerType().isComputerControlled()) { // the computer, or the replay, moves units onto conquered sectors itself and does not need to be told the outcome
+            getCurrentPhase().updateTroopReinforcementLabel();
+            return;
+        }
+
+        if (attackerId == target.getOwnerId()) { // attacker took over the target sector
+            successfulAttackOccurred = true;
+            DialogFactory.attackSuccessDialogBox(this,
+                    target.getReinforcementsProvided(),
+                    source.getUnderGradsInSector(),
+                    source.getId(),
+                    target.getId(),
+                    getPlayerById(defenderId).getPlayerName(),
+                    getPlayerById(attackerId).getPlayerName(),
+                    target.getDisplayName(),
+                    getCurrentPhase());
+        } else if (source.getOwnerId() == attackerId) {
+            // all attackers wiped out, but units remain on source sector
+            DialogFactory.basicDialogBox(this,"Unsuccessful!", "You failed to conquer the target", getCurrentPhase());
+        } else { // defender wiped out attacking units and attacker sector is now neutral
+            DialogFactory.sectorOwnerChangeDialog(this, getPlayerById(source.getOwnerId()).getPlayerName(), getPlayerById(NEUTRAL_PLAYER_ID).getPlayerName(), source.getDisplayName(), getCurrentPhase());
+        }
+        getCurrentPhase().updateTroopReinforcementLabel();
+    }
+
+    @Override
+    public void punishmentCardApplied(int sectorId, PunishmentCardType punishmentCardType) {
+
+    }
+
+    /**
+     * updates the troops left to allocate, which the undone command may have changed
+     */
+    @Override
+    public void undoApplied(boolean redo) {
+        getCurrentPhase().updateTroopReinforcementLabel();
+    }
+
+    /**
+     * tidies up the UI of the phase that has ended and sets up the UI of the new phase
+     * if it is a new player's turn then the camera and turn timer are reset
+     */
+    @Override
+    public void phaseChanged(TurnPhaseType previousPhase, TurnPhaseType newPhase, boolean newTurn) {
+        phases.get(previousPhase).endPhase();
+        cancelComputerSearch(); // e.g. the turn timer ran out while searching
+
+        if (newTurn) {
+            resetCameraPosition(); // re-centres the camera for the next player
+            if (this.turnTimerEnabled) { // if the turn timer is on reset it for the next player
+                this.turnTimeElapsed = 0;
+            }
+        }
+
+        this.updateInputProcessor(); // phase changed so update input handling
+        phases.get(newPhase).enterPhase(getCurrentPlayer()); // setup the new phase for the current player
+        preloadPhaseAudio(newPhase);
+        if (isComputerTurn()) startComputerSearch();
+    }
+
+    /**
+     * displays which players have been eliminated
+     */
+    @Override
+    public void playersEliminated(List<Integer> playerIds) {
+        AudioPlayer.playPlayerEliminatedAudio();
+        AudioPlayer.preload(SoundCategory.GAME_OVER); // the game is closer to ending now players are being eliminated
+
+        String[] playerNames = new String[playerIds.size()]; // array of names of players who have been removed
+        for (int i = 0; i < playerIds.size(); i++) {
+            playerNames[i] = getPlayerById(playerIds.get(i)).getPlayerName();
+        }
+
+        if (replayPlayer != null) return; // the watcher sees the players leave the turn order without the replay stopping for a dialog
+        DialogFactory.playersOutDialog(playerNames, getCurrentPhase()); // display which players have been eliminated
+    }
+
+    /**
+     * displays the winner of the game
+     */
+    @Override
+    public void gameOver(int winnerId) {
+        if (winnerId != NEUTRAL_PLAYER_ID) AudioPlayer.playGameOverAudio();
+
+        Player winner = getPlayerById(winnerId);
+        DialogFactory.gameOverDialog(winner.getPlayerName(), winner.getCollegeName().getCollegeName(), main, getCurrentPhase());
+    }
+
 }
\ No newline at end of file
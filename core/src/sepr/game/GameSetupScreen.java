@@ -1,7 +1,6 @@
 package sepr.game;
 
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
@@ -25,6 +24,8 @@ Modified in assessment 4
  - moved CollegeName enum to its own file as it is not specific to this class
  - moved getting the college color from the college name to be part of the CollegeName enum
  - added a max length of player name to validatePlayerNames() method
+ - textures are shared through WidgetFactory.getTexture rather than being loaded again each time the screen is set up
+ - players can be set to be controlled by the computer
  */
 
 /**
@@ -72,6 +73,8 @@ public class GameSetupScreen extends UiScreen {
         if (playerLabel.getText().toString().equals(PlayerType.NONE.getPlayerType())){
             playerLabel.setText(PlayerType.HUMAN.getPlayerType());
         }else if (playerLabel.getText().toString().equals(PlayerType.HUMAN.getPlayerType())) {
+            playerLabel.setText(PlayerType.MCTS_AI.getPlayerType());
+        }else if (playerLabel.getText().toString().equals(PlayerType.MCTS_AI.getPlayerType())) {
             playerLabel.setText(PlayerType.NONE.getPlayerType());
         }
     }
@@ -270,7 +273,7 @@ public class GameSetupScreen extends UiScreen {
             logoTable.add(rightButton).height(60).width(35);
 
             Table temp = new Table();
-            temp.background(new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Game-Setup-Name-Box.png"))));
+            temp.background(new TextureRegionDrawable(new TextureRegion(WidgetFactory.getTexture("uiComponents/Game-Setup-Name-Box.png"))));
             temp.setDebug(false);
             temp.add(textTable).expand().left().padLeft(20);
             temp.add(logoTable).padRight(60);
@@ -300,6 +303,9 @@ public class GameSetupScreen extends UiScreen {
             if (playerTypes[i].getText().toString().equals(PlayerType.HUMAN.getPlayerType())) {
                 // create human player
                 players.put(i, Player.createHumanPlayer(i, CollegeName.fromString(playerColleges[i].getKey().getText().toString()), 5, playerNames[i].getText()));
+            } else if (PlayerType.fromString(playerTypes[i].getText().toString()).isComputerControlled()) {
+                // create computer controlled player
+                players.put(i, Player.createComputerPlayer(i, CollegeName.fromString(playerColleges[i].getKey().getText().toString()), 5, playerNames[i].getText(), PlayerType.fromString(playerTypes[i].getText().toString())));
             }
         }
 
@@ -365,7 +371,7 @@ public class GameSetupScreen extends UiScreen {
     private void validatePlayerConfiguration() throws GameSetupException{
         int totalNumPlayers = 0;
         for (int i = 0; i < playerNames.length; i++) {
-            if (playerTypes[i].getText().toString().equals("HUMAN PLAYER")) {
+            if (PlayerType.fromString(playerTypes[i].getText().toString()) != PlayerType.NONE) {
                 totalNumPlayers = totalNumPlayers + 1;
             }
         }
@@ -411,7 +417,7 @@ public class GameSetupScreen extends UiScreen {
         Table uiComponentsTable =  new Table();
         uiComponentsTable.setDebug(false);
 
-        uiComponentsTable.background(new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Scanline.png"))));
+        uiComponentsTable.background(new TextureRegionDrawable(new TextureRegion(WidgetFactory.getTexture("uiComponents/Scanline.png"))));
         uiComponentsTable.pad(80).padLeft(85).padRight(95);
 
         TextButton startGameButton = WidgetFactory.genStartGameButton();
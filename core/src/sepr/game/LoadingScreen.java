@@ -0,0 +1,141 @@
+package sepr.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/*
+Added in assessment 4
+ - added so the window opens straight away and shows the progress of loading the UI assets, rather than staying blank until every asset has been loaded
+ - also reads the map definition and builds the sector atlas, so the first game does not stall while they are loaded
+ */
+
+/**
+ * screen shown at startup while the assets queued with the asset manager and the map are loaded
+ *
+ * the map definition is read on a background thread, which also starts the sector images decoding, then the sector
+ * atlas is packed and uploaded with whatever is left of each frame's loading budget once the asset manager has updated
+ * the asset manager and the atlas are only given a few milliseconds each frame so the window stays responsive
+ * once every queued asset has loaded and the atlas has been built Main is told to finish setting up the game
+ * the progress bar is drawn with shapes so this screen does not need any assets of its own
+ */
+public class LoadingScreen implements Screen {
+    private static final int FRAME_LOADING_BUDGET_MS = 12; // maximum time spent loading assets each frame, leaves time to draw within a 60fps frame
+    private static final float BAR_WIDTH = 0.5f; // width of the progress bar as a proportion of the screen width
+    private static final float BAR_HEIGHT = 24f;
+    private static final Color BAR_BACKGROUND_COLOR = new Color(0.15f, 0.15f, 0.2f, 1);
+    private static final Color BAR_COLOR = new Color(0.2f, 0.7f, 0.9f, 1);
+
+    private final Main main;
+    private final AssetManager assets; // asset manager loading the queued assets
+    private final FutureTask<MapDefinition> mapDefinition; // reads the definition of the game map in the background
+    private ShapeRenderer shapeRenderer;
+    private boolean finished; // true once Main has been told loading is finished
+
+    /**
+     * @param main main class, told when loading has finished
+     * @param assets asset manager with the assets to load queued
+     */
+    public LoadingScreen(Main main, AssetManager assets) {
+        this.main = main;
+        this.assets = assets;
+
+        this.mapDefinition = new FutureTask<MapDefinition>(new Callable<MapDefinition>() {
+            @Override
+            public MapDefinition call() {
+                return MapDefinition.getInstance();
+            }
+        });
+        Thread thread = new Thread(mapDefinition, "Map definition loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void show() {
+        shapeRenderer = new ShapeRenderer();
+        shapeRenderer.setProjectionMatrix(new Matrix4().setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight()));
+    }
+
+    @Override
+    public void render(float delta) {
+        long frameStart = System.nanoTime();
+        boolean assetsLoaded = assets.update(FRAME_LOADING_BUDGET_MS);
+        int remainingBudget = FRAME_LOADING_BUDGET_MS - (int)((System.nanoTime() - frameStart) / 1000000);
+        boolean mapLoaded = mapDefinition.isDone() && getMapDefinition().updateSectorAtlas(remainingBudget);
+        float mapProgress = mapDefinition.isDone() ? getMapDefinition().getSectorAtlasProgress() : 0;
+
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        float width = Gdx.graphics.getWidth() * BAR_WIDTH;
+        float x = (Gdx.graphics.getWidth() - width) / 2;
+        float y = (Gdx.graphics.getHeight() - BAR_HEIGHT) / 2;
+
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(BAR_BACKGROUND_COLOR);
+        shapeRenderer.rect(x, y, width, BAR_HEIGHT);
+        shapeRenderer.setColor(BAR_COLOR);
+        shapeRenderer.rect(x, y, width * (assets.getProgress() + mapProgress) / 2, BAR_HEIGHT);
+        shapeRenderer.end();
+
+        if (assetsLoaded && mapLoaded && !finished) {
+            finished = true;
+            main.finishLoading(); // changes the screen, which hides and disposes this one
+        }
+    }
+
+    /**
+     * @return the definition of the game map, once it has been read
+     * @throws GdxRuntimeException if the map definition could not be read
+     */
+    private MapDefinition getMapDefinition() {
+        try {
+            return mapDefinition.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while reading the map definition", e);
+        } catch (ExecutionException e) {
+            throw new GdxRuntimeException("Could not read the map definition", e.getCause());
+        }
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        if (shapeRenderer != null) {
+            shapeRenderer.setProjectionMatrix(new Matrix4().setToOrtho2D(0, 0, width, height));
+        }
+    }
+
+    @Override
+    public void pause() {
+
+    }
+
+    @Override
+    public void resume() {
+
+    }
+
+    @Override
+    public void hide() {
+        dispose();
+    }
+
+    @Override
+    public void dispose() {
+        if (shapeRenderer != null) {
+            shapeRenderer.dispose();
+            shapeRenderer = null;
+        }
+    }
+}
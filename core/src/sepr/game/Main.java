@@ -3,15 +3,30 @@ package sepr.game;
 import com.badlogic.gdx.ApplicationListener;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Preferences;
 import com.badlogic.gdx.graphics.GL20;
+import sepr.game.engine.GameRandom;
+import sepr.game.engine.Replay;
+import sepr.game.engine.ReplayWriter;
 import sepr.game.saveandload.SaveLoadManager;
+import sepr.game.saveandload.SaveSlotInfo;
+import sepr.game.saveandload.SaveSlots;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 
 /*
 Modified in assessment 4
  - updated method names to follow standard naming conventions
+ - saving is done in the background, any save still being written is finished when the game is closed
+ - games can be saved to and loaded from multiple save slots
+ - added a profiler, F3 shows an overlay of frame times and F4 records them to a CSV file
+ - a loading screen is shown while the UI assets and the map load, sound effects carry on loading in the background once the menu is shown
+ - the game screen replaced when a save is loaded is disposed, and the shared sector images are freed when the game closes
+ - each new game is given its own randomly seeded GameRandom
+ - games are recorded to the replays directory and the most recent replay can be watched from the menu
  */
 
 /**
@@ -28,15 +43,34 @@ public class Main extends Game implements ApplicationListener {
 
 	private SaveLoadManager saveLoadManager;
 	private AudioManager audio = AudioManager.getInstance();
+	private boolean loaded; // true once the loading screen has finished and the screens have been set up
+	private Profiler profiler; // measures the time taken by each frame, toggled with F3, frames recorded to CSV with F4
+	private Profiler.Scope assetLoadingScope;
+
+	private static final int BACKGROUND_LOADING_BUDGET_MS = 4; // maximum time spent loading assets in the background each frame
 
 	/**
-	 * Setup the screens and set the first screen as the menu
+	 * queues the assets needed by the menus to be loaded and shows the loading screen while they and the map load
 	 */
 	@Override
 	public void create () {
-		new WidgetFactory(); // setup widget factory for generating UI components
-		new DialogFactory(); // setup dialog factory for generating dialogs
+		profiler = new Profiler();
+		assetLoadingScope = profiler.getScope("asset loading");
+
+		WidgetFactory.queueAssets(audio);
+		DialogFactory.queueAssets(audio);
+		this.setScreen(new LoadingScreen(this, audio));
+	}
+
+	/**
+	 * called by the LoadingScreen once the queued assets and the map have loaded
+	 * Setup the screens and set the first screen as the menu, the sound effects then continue loading in the background
+	 */
+	public void finishLoading() {
+		new WidgetFactory(audio); // setup widget factory for generating UI components
+		new DialogFactory(audio); // setup dialog factory for generating dialogs
 		new AudioPlayer();
+		loaded = true;
 
 		this.menuScreen = new MenuScreen(this);
 		this.gameSetupScreen = new GameSetupScreen(this);
@@ -78,11 +112,49 @@ public class Main extends Game implements ApplicationListener {
 	 * @param allocateNeutralPlayer should the neutral player be given sectors to start with
 	 */
 	public void setGameScreen(HashMap<Integer, Player> players, boolean turnTimerEnabled, boolean allocateNeutralPlayer) {
-		gameScreen.setupGame(players, turnTimerEnabled, allocateNeutralPlayer);
+		gameScreen.setupGame(players, turnTimerEnabled, allocateNeutralPlayer, GameRandom.createUnseeded());
 		this.setScreen(gameScreen);
 		gameScreen.startGame();
 	}
 
+	/**
+	 * displays the game screen and starts watching a replay
+	 *
+	 * @param file replay file to watch
+	 * @throws IOException if the file could not be read or is not a valid replay
+	 */
+	public void setReplayScreen(File file) throws IOException {
+		Replay replay = Replay.read(file);
+		gameScreen.setupReplay(replay);
+		this.setScreen(gameScreen);
+		gameScreen.startGame();
+	}
+
+	/**
+	 * @return directory games are recorded to, created if it does not already exist
+	 */
+	public File getReplayDirectory() {
+		String home = System.getProperty("user.home");
+		File directory = new File(home + File.separator + "Bachelors-of-Domination" + File.separator + "replays");
+		directory.mkdirs();
+		return directory;
+	}
+
+	/**
+	 * @return the most recently written replay file, null if no game has been recorded
+	 */
+	public File getLatestReplay() {
+		File[] files = getReplayDirectory().listFiles();
+		File latest = null;
+		if (files == null) return null;
+		for (File file : files) {
+			if (file.getName().endsWith(ReplayWriter.FILE_EXTENSION) && (latest == null || file.lastModified() > latest.lastModified())) {
+				latest = file;
+			}
+		}
+		return latest;
+	}
+
 	/**
 	 * sets the gamescreen to the passed one
 	 * to be used when loading a save game
@@ -90,9 +162,11 @@ public class Main extends Game implements ApplicationListener {
 	 * @param gamescreen instance of gamescreen to be used for the game
 	 */
 	public void setGameScreenFromLoad(GameScreen gamescreen){
+	    GameScreen previousGameScreen = this.gameScreen;
 	    this.gameScreen = gamescreen;
 	    this.setScreen(this.gameScreen);
 	    this.gameScreen.startGame();
+	    if (previousGameScreen != null && previousGameScreen != gamescreen) previousGameScreen.dispose();
     }
 
 	/**
@@ -111,16 +185,35 @@ public class Main extends Game implements ApplicationListener {
 
 	/**
 	 * saves the game currently in play
+	 *
+	 * @param slot save slot to save the game to
 	 */
-	public void saveGame(){
-        this.saveLoadManager.saveCurrentGame();
+	public void saveGame(int slot){
+        this.saveLoadManager.saveCurrentGame(slot);
     }
 
 	/**
-	 * loads the save game from file
+	 * saves the game currently in play to the autosave slot
 	 */
-    public boolean loadGame(){
-		return this.saveLoadManager.loadSaveGame();
+	public void autosave(){
+		this.saveLoadManager.saveCurrentGame(SaveSlots.AUTOSAVE_SLOT);
+	}
+
+	/**
+	 * loads a save game from file
+	 *
+	 * @param slot save slot to load the game from
+	 * @return true if the game was loaded, else false
+	 */
+    public boolean loadGame(int slot){
+		return this.saveLoadManager.loadSaveGame(slot);
+	}
+
+	/**
+	 * @return description of the game saved in each save slot, null for empty slots
+	 */
+	public SaveSlotInfo[] getSaveSlots(){
+		return this.saveLoadManager.getSaveSlots();
 	}
 
 	/**
@@ -149,20 +242,66 @@ public class Main extends Game implements ApplicationListener {
 		}
 	}
 
+	/**
+	 * @return profiler measuring the time taken by each frame, used to measure parts of rendering a screen
+	 */
+	public Profiler getProfiler() {
+		return profiler;
+	}
+
 	@Override
 	public void render () {
+		handleProfilerKeys();
+		profiler.beginFrame();
+
 		Gdx.gl.glClearColor(1, 1, 1, 1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		if (loaded) {
+			assetLoadingScope.begin();
+			audio.update(BACKGROUND_LOADING_BUDGET_MS); // continue loading any assets queued after the loading screen, returns straight away once there are none
+			assetLoadingScope.end();
+		}
 		super.render();
+
+		profiler.endFrame();
+		profiler.drawOverlay(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+	}
+
+	/**
+	 * F3 shows or hides the profiler overlay, F4 starts or stops recording each frame's measurements to a CSV file
+	 */
+	private void handleProfilerKeys() {
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+			profiler.toggleOverlay();
+		}
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F4)) {
+			if (profiler.isRecording()) {
+				profiler.stopRecording();
+			} else {
+				try {
+					profiler.startRecording(Gdx.files.local("profile-" + System.currentTimeMillis() + ".csv"));
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
 	}
 
 	@Override
 	public void dispose() {
 		super.dispose();
+		profiler.dispose();
+		if (!loaded) { // closed while the loading screen was showing
+			audio.dispose();
+			return;
+		}
 		menuScreen.dispose();
 		optionsScreen.dispose();
 		gameSetupScreen.dispose();
 		gameScreen.dispose();
+		saveLoadManager.shutdown();
+		audio.dispose();
+		MapDefinition.disposeInstance();
 	}
 }
 
@@ -1,15 +1,8 @@
 package sepr.game;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.Vector2;
-import sepr.game.utils.PunishmentCardType;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.*;
 
 /*
@@ -21,6 +14,23 @@ Modified in assessment 4
  - added support for applying punishment card effects that last multiple turns - updateSectorStatusEffects(int currentPlayerId) method
  - refactored unit movement such that data is no longer passed around in mutable arrays, which was very difficult to follow. Now just uses parameters of methods to pass data
  - moved sector drawing to be part of the sector class
+ - sector images are packed into a shared SectorAtlas when the map is created rather than each sector having a full screen texture
+ - sectors are drawn with the SectorAtlas tint shader so changing a sector's owner no longer recolours its texture
+ - attacks are now resolved by a BattleResolver, which samples the result of the whole attack at once rather than simulating each 1v1
+ - moved attacking, punishment cards and status effects to GameEngine so the rules of the game do not depend on rendering, dialogs or audio
+ - the SectorAtlas is created the first time the map is drawn or hit-tested so a map can be used without a display
+ - added constructor taking the random number generator used to set up the map so simulated games can be reproduced
+ - getSectorById looks the sector up once rather than checking the key exists first
+ - separated changing the units on a sector, addUnitsToSector, from showing the change, addUnitChangeParticles
+ - sector HUDs are drawn in one call so the batch can group them by texture
+ - unit change particles are drawn from a fixed pool, UnitChangeParticles, so drawing the map each frame does not allocate
+ - the sector properties file is parsed once into a shared MapDefinition rather than for every new map
+ - sectors are created from the shared MapDefinition and its SectorAtlas is reused, so starting or loading a game no longer loads any images
+ - added dispose, which frees the map's own atlas if its sectors did not come from the shared MapDefinition
+ - the owner of every sector is tracked by a SectorOwnership, giving each player's owned, border and frontier sectors without checking every sector
+ - detectSectorContainsPoint now reads the sector id from a SectorLookup built when the map is loaded rather than checking the image of every sector
+ - removed the constructor that allocated sectors with an unseeded random number generator, new maps are set up with the game's GameRandom SETUP stream
+ - changes to the units on a sector are recorded in a DeltaJournal, if the map has one, so they can be undone
  */
 
 /**
@@ -28,35 +38,38 @@ Modified in assessment 4
  */
 public class Map {
     private HashMap<Integer, Sector> sectors; // mapping of sector ID to the sector object
-    private List<UnitChangeParticle> particles; // list of active particle effects displaying the changes to the amount of units on a sector
+    private boolean sharedDefinitions; // true if every sector is defined by the shared MapDefinition, so its atlas can be used
+    private SectorAtlas ownAtlas; // atlas of this map's sector images if they are not all shared, null until first drawn or hit-tested
+    private SectorOwnership ownership; // owned, border and frontier sectors of each player
+    private UnitChangeParticles particles; // particle effects displaying the changes to the amount of units on a sector
 
-    private Random random;
+    private Random random; // random number generator for setting up the map, null if the map was loaded
     private Player neutralPlayer;
-
-    private boolean successfulAttackOccurred = false;
+    private DeltaJournal journal; // records changes to the sectors so they can be undone, null if they are not recorded
 
     /**
      * sets up the map for the players that are part of this game
      *
      * @param players the players that are playing the game on this map
+     * @param random random number generator for setting up the map
      */
-    private Map(HashMap<Integer, Player> players) {
-        random = new Random();
+    private Map(HashMap<Integer, Player> players, Random random) {
+        this.random = random;
 
         this.neutralPlayer = players.get(GameScreen.NEUTRAL_PLAYER_ID);
-        particles = new ArrayList<UnitChangeParticle>();
+        particles = new UnitChangeParticles();
     }
 
     /**
-     * Performs the maps initial setup
-     * loads the sector data from the sectorProperties.csv file
-     * allocates each sector to the players in the passed players hashmap
+     * Performs the maps initial setup using the given random number generator for the starting units and allocation
+     * of the sectors, so that the same generator seed always gives the same map
      *
      * @param players               hashmap of players who are in the game
      * @param allocateNeutralPlayer if true then the neutral player should be allocated the default neutral sectors else they should be allocated no sectors
+     * @param random                random number generator for setting up the map
      */
-    public Map(HashMap<Integer, Player> players, boolean allocateNeutralPlayer) {
-        this(players);
+    public Map(HashMap<Integer, Player> players, boolean allocateNeutralPlayer, Random random) {
+        this(players, random);
 
         this.loadSectors();
         this.allocateSectors(players, allocateNeutralPlayer);
@@ -68,72 +81,67 @@ public class Map {
      * @param sectors
      */
     public Map(HashMap<Integer, Player> players, HashMap<Integer, Sector> sectors) {
-        this(players);
+        this(players, (Random)null); // the sectors are already allocated so no random numbers are needed
         this.sectors = sectors;
+
+        MapDefinition mapDefinition = MapDefinition.getInstance();
+        this.sharedDefinitions = true;
+        for (Sector sector : sectors.values()) {
+            if (mapDefinition.getSector(sector.getId()) != sector.getDefinition()) sharedDefinitions = false;
+        }
+        trackOwnership();
     }
 
     /**
-     * converts a space seperated string of integers to an integer array
-     *
-     * @param stringData space separated integers e.g. '1 2 3 4 5'
-     * @return the integers in the data in an array
+     * creates the sectors of the map from the shared MapDefinition, each with a random number of starting units
      */
-    private static int[] strToIntArray(String stringData) {
-        String[] strArray = stringData.split(" ");
-        int[] intArray = new int[strArray.length];
-        for (int i = 0; i < intArray.length; i++) {
-            if (strArray[i].equals("")) {
-                continue; // skip if string is empty
-            }
-            intArray[i] = Integer.parseInt(strArray[i]);
+    private void loadSectors() {
+        this.sectors = new HashMap<Integer, Sector>();
+        this.sharedDefinitions = true;
+        for (SectorDefinition definition : MapDefinition.getInstance().getSectors()) {
+            Sector sector = createSector(definition);
+            this.sectors.put(sector.getId(), sector);
         }
-        return intArray;
+        trackOwnership();
     }
 
     /**
-     * load the sector properties from the sectorProperties.csv file into the sectors hashmap
+     * creates the ownership records of the map from the current owner of each sector, the sectors then keep them up to date
      */
-    private void loadSectors() {
-        this.sectors = new HashMap<Integer, Sector>();
+    private void trackOwnership() {
+        SectorGraph graph;
+        if (sharedDefinitions) {
+            graph = MapDefinition.getInstance().getSectorGraph();
+        } else {
+            graph = new SectorGraph(getSectorDefinitions());
+        }
 
-        String csvFile = "mapData/sectorProperties.csv";
-        String line;
-        try {
-            BufferedReader br = Gdx.files.internal(csvFile).reader(1000);
-            while ((line = br.readLine()) != null) {
-                Sector temp = sectorDataToSector(line.split(","));
-                this.sectors.put(temp.getId(), temp);
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace(); // csv file no present
-        } catch (IOException e) {
-            e.printStackTrace(); // error occurred whilst reading the file
+        ownership = new SectorOwnership(graph);
+        for (Sector sector : sectors.values()) {
+            sector.setOwnership(ownership);
+        }
+    }
+
+    /**
+     * @return definitions of the sectors of this map
+     */
+    private List<SectorDefinition> getSectorDefinitions() {
+        List<SectorDefinition> definitions = new ArrayList<SectorDefinition>();
+        for (Sector sector : sectors.values()) {
+            definitions.add(sector.getDefinition());
         }
+        return definitions;
     }
 
     /**
-     * converts a String array of sector data to a sector object
+     * creates an unowned sector with the properties of the supplied definition
      *
-     * @param sectorData sector data taken from the sectorProperties csv file
-     * @return a sector with the properties fo the supplied data
+     * @param definition definition of the sector from the sector properties file
+     * @return a sector with the properties of the supplied definition
      */
-    private Sector sectorDataToSector(String[] sectorData) {
-        int sectorId = Integer.parseInt(sectorData[0]);
-        int ownerId = -1;
-        String texturePath = "mapData/" + sectorData[1];
-        Pixmap sectorPixmap = new Pixmap(Gdx.files.internal("mapData/" + sectorData[1]));
-        String displayName = sectorData[2];
+    private Sector createSector(SectorDefinition definition) {
         int unitsInSector = 8 + random.nextInt(8);
-        int postgradsInSector = 0;
-        int reinforcementsProvided = Integer.parseInt(sectorData[3]);
-        String college = sectorData[4];
-        boolean neutral = Boolean.parseBoolean(sectorData[5]);
-        int[] adjacentSectors = strToIntArray(sectorData[6]);
-        int sectorX = Integer.parseInt(sectorData[7]);
-        int sectorY = Integer.parseInt(sectorData[8]);
-        boolean decor = Boolean.parseBoolean(sectorData[9]);
-
-        return new Sector(sectorId, ownerId, texturePath, sectorPixmap, displayName, unitsInSector, postgradsInSector, reinforcementsProvided, college, neutral, adjacentSectors, sectorX, sectorY, decor, 0, 0);
+        return new Sector(definition, -1, unitsInSector, 0, 0, 0);
     }
 
     /**
@@ -162,7 +170,7 @@ public class Map {
 
         int lowestReinforcementId = players.keySet().iterator().next(); // id of player currently receiving the least reinforcements, any player id is chosen to start as all have 0 reinforcements
         List<Integer> sectorIdsRandOrder = new ArrayList<Integer>(getSectorIds()); // list of sector ids
-        Collections.shuffle(sectorIdsRandOrder); // randomise the order sectors ids are stored so allocation order is randomised
+        Collections.shuffle(sectorIdsRandOrder, random); // randomise the order sectors ids are stored so allocation order is randomised
 
         for (Integer i : sectorIdsRandOrder) {
             if (!sectors.get(i).isAllocated()) { // check sector has not already been allocated, may have been allocated to the neutral player
@@ -205,11 +213,11 @@ public class Map {
      * @throws NullPointerException if the key sectorId does not exist in the sectors hashmap
      */
     public Sector getSectorById(int sectorId) {
-        if (sectors.containsKey(sectorId)) {
-            return sectors.get(sectorId);
-        } else {
+        Sector sector = sectors.get(sectorId);
+        if (sector == null) {
             throw new NullPointerException("Cannot get sector as sector id " + sectorId + " does not exist in the sectors hashmap");
         }
+        return sector;
     }
 
     /**
@@ -228,157 +236,71 @@ public class Map {
     }
 
     /**
-     * returns the id of the sector that contains the specified point
-     * ignores decor sectors
-     *
-     * @param worldX world x coord
-     * @param worldY world y coord
-     * @return id of sector that contains point or -1 if no sector contains the point or sector is decor only
+     * @return graph of the adjacency of this map's sectors
      */
-    public int detectSectorContainsPoint(int worldX, int worldY) {
-        int worldYInverted = 1080 - 1 - worldY; // invert y coordinate for pixmap coordinate system
-        for (Sector sector : sectors.values()) {
-            if (worldX < 0 || worldYInverted < 0 || worldX > sector.getSectorTexture().getWidth() || worldYInverted > sector.getSectorTexture().getHeight()) {
-                return -1; // return no sector contains the point if it outside of the map bounds
-            }
-            int pixelValue = sector.getSectorPixmap().getPixel(worldX, worldYInverted); // get pixel value of the point in sector image the mouse is over
-            if (pixelValue != -256) { // if pixel is not transparent then it is over the sector
-                if (!sector.isDecor()) {
-                    return sector.getId(); // return id of sector which is hovered over
-                }
-            }
-        }
-        return -1;
+    public SectorGraph getSectorGraph() {
+        return ownership.getGraph();
     }
 
     /**
-     * Executes an attack
-     *
-     * @param gameScreen
-     * @param source sector attack is coming from
-     * @param target sector that is being attacked
-     * @param attackers Number of troops attacking
+     * @return owned, border and frontier sectors of each player, kept up to date as sectors change owner
      */
-    public void completeAttack(GameScreen gameScreen, Sector source, Sector target, int attackers) {
-        int originalSourceOwnerId = source.getOwnerId();
-        int originalTargetOwnerId = target.getOwnerId();
-        Player attacker = gameScreen.getPlayerById(originalSourceOwnerId);
-
-        int attackersRemaining = attackers;
-        int underGrads = target.getUnderGradsInSector();
-        int postGrads = target.getPostGradsInSector();
-
-        // ATTACK BALANCING SETTINGS
-        float winChance = postGrads > 5 ? 0.4f : 0.55f - (postGrads * 0.03f); // Chance of a 1v1 being a win for the attacker - stored as float between 0.0 and 1.0
-
-        while (attackersRemaining > 0 && (underGrads > 0 || postGrads > 0)) { // While there are troops to attack and defend
-            if (random.nextFloat() < winChance) {
-                if (underGrads > 0) {
-                    underGrads--;
-                } else if (postGrads > 0) {
-                    postGrads--;
-                }
-            } else {
-                attackersRemaining--;
-            }
-        }
-
-        if(attackersRemaining == 0){
-            // Poor Move
-            AudioPlayer.playBadMoveAudio();
-        } else {
-            // Good move
-            AudioPlayer.playGoodMoveAudio();
-            attacker.addTroopsToAllocate(target.getReinforcementsProvided()); // give the player the appropriate amount of troops to allocate next turn for conquering the target sector
-        }
-
-        // apply the attack to the map
-        addUnitsToSectorAnimated(source.getId(), -(attackers - attackersRemaining), 0);
-        addUnitsToSectorAnimated(target.getId(), -(target.getUnderGradsInSector() - underGrads), -(target.getPostGradsInSector() - postGrads));
-
-        if (source.getUnderGradsInSector() == 0) {
-            if (source.getPostGradsInSector() == 0) source.setOwner(neutralPlayer);
-            if (target.getUnderGradsInSector() == 0 && target.getPostGradsInSector() == 0)  target.setOwner(neutralPlayer);
-        } if (source.getUnderGradsInSector()== 1 && target.getUnderGradsInSector() == 0 && target.getPostGradsInSector() == 0) {
-            target.setOwner(neutralPlayer);
-        } else if (target.getUnderGradsInSector() == 0 && target.getPostGradsInSector() == 0) {
-            target.setOwner(attacker);
-            successfulAttackOccurred = true;
-        }
+    public SectorOwnership getOwnership() {
+        return ownership;
+    }
 
-        if (originalSourceOwnerId == target.getOwnerId()) { // attacker took over the target sector
-            DialogFactory.attackSuccessDialogBox(gameScreen,
-                    target.getReinforcementsProvided(),
-                    source.getUnderGradsInSector(),
-                    source.getId(),
-                    target.getId(),
-                    gameScreen.getPlayerById(originalTargetOwnerId).getPlayerName(),
-                    gameScreen.getPlayerById(originalSourceOwnerId).getPlayerName(),
-                    target.getDisplayName(),
-                    gameScreen.getCurrentPhase());
-        } else if (source.getOwnerId() == originalSourceOwnerId) {
-            // all attackers wiped out, but units remain on source sector
-            DialogFactory.basicDialogBox(gameScreen,"Unsuccessful!", "You failed to conquer the target", gameScreen.getCurrentPhase());
-        } else { // defender wiped out attacking units and attacker sector is now neutral
-            DialogFactory.sectorOwnerChangeDialog(gameScreen, gameScreen.getPlayerById(source.getOwnerId()).getPlayerName(), gameScreen.getPlayerById(GameScreen.NEUTRAL_PLAYER_ID).getPlayerName(), source.getDisplayName(), gameScreen.getCurrentPhase());
+    /**
+     * records every later change to the units, owner and status effects of this map's sectors in the journal
+     *
+     * @param journal journal to record the changes in, null to stop recording them
+     */
+    public void setJournal(DeltaJournal journal) {
+        this.journal = journal;
+        for (Sector sector : sectors.values()) {
+            sector.setJournal(journal);
         }
-        gameScreen.getCurrentPhase().updateTroopReinforcementLabel();
     }
 
     /**
-     * returns if a successful attack has occurred
-     * if it has then return that it has and set successfulAttackOccurred to false
+     * returns the id of the sector that contains the specified point
+     * ignores decor sectors
      *
-     * @return true if a successful attack has occurred else return false
+     * @param worldX world x coord
+     * @param worldY world y coord
+     * @return id of sector that contains point or -1 if no sector contains the point or sector is decor only
      */
-    public boolean checkIfSuccessfulAttackOccurred() {
-        if (successfulAttackOccurred) {
-            successfulAttackOccurred = false;
-            return true;
-        }
-        return false;
+    public int detectSectorContainsPoint(int worldX, int worldY) {
+        return getSectorAtlas().getSectorLookup().getSectorId(worldX, worldY);
     }
 
     /**
-     * applies the effect of a guven punishment card to the specified sector
+     * gets the atlas of sector images
+     * the shared MapDefinition's atlas is used if every sector is defined by it, which is the case unless the map was
+     * loaded from a save of a different map; otherwise an atlas of this map's sectors is created the first time it is needed
      *
-     * @param sectorId id of sector to apply effect to
-     * @param punishmentCardType type of punishment card to apply
+     * @return the atlas the images of this map's sectors are packed into
      */
-    public void addSectorPunishmentEffect(int sectorId, PunishmentCardType punishmentCardType) {
-        Sector sector = this.getSectorById(sectorId);
-        switch (punishmentCardType) {
-            case COLLUSION_CARD:
-                this.addUnitsToSectorAnimated(sectorId, sector.getPostGradsInSector(), -sector.getPostGradsInSector());
-                break;
-            case POOPY_PATH_CARD:
-            case ASBESTOS_CARD:
-                sector.incrementStatusEffect(punishmentCardType);
-                break;
+    private SectorAtlas getSectorAtlas() {
+        if (sharedDefinitions) return MapDefinition.getInstance().getSectorAtlas();
+
+        if (ownAtlas == null) {
+            ownAtlas = new SectorAtlas(getSectorDefinitions());
         }
+        return ownAtlas;
     }
 
     /**
-     * apply sector status effects that occur periodically to the sectors owned by the given player
-     *
-     * @param currentPlayerId id of player to apply status effects to
+     * frees the atlas created for this map, if one was created; the shared atlas is kept for the next game
      */
-    public void updateSectorStatusEffects(int currentPlayerId) {
-        for (Sector sector : sectors.values()) {
-            if (sector.getOwnerId() != currentPlayerId) continue;
-            if (sector.getAsbestosCount() > 0) {
-                addUnitsToSectorAnimated(sector.getId(), -(int)Math.ceil(sector.getUnderGradsInSector() * 0.1), 0);
-            }
-            sector.decrementStatusEffects();
+    public void dispose() {
+        if (ownAtlas != null) {
+            ownAtlas.dispose();
+            ownAtlas = null;
         }
     }
 
     /**
-     * carries out the unit movement specified by unitsToMove array
-     * - unitsToMove[0] : number of units to move
-     * - unitsToMove[1] : source sector id
-     * - unitsToMove[2] : target sector id
-     * changes in units on sectors are shown on scren using the UnitChangeParticle
+     * moves undergrads from the source sector to the target sector
      *
      * @param sourceSectorId id of sector to move units from
      * @param targetSecotId id of sector to move units to
@@ -398,24 +320,44 @@ public class Map {
         if (!sectors.get(sourceSectorId).isAdjacentTo(sectors.get(targetSecotId))) {
             throw new IllegalArgumentException("Sectors must be adjacent in order to move units");
         }
-        addUnitsToSectorAnimated(sourceSectorId, -amount, 0); // remove units from source
-        addUnitsToSectorAnimated(targetSecotId, amount, 0); // add units to target
+        addUnitsToSector(sourceSectorId, -amount, 0); // remove units from source
+        addUnitsToSector(targetSecotId, amount, 0); // add units to target
     }
 
     /**
-     * adds the specified number of units to this sector and sets up drawing a particle effect showing the addition
+     * adds the specified number of units to this sector
+     * if no units are left on the sector it is given to the neutral player
      *
      * @param sectorId id of sector to add the units to
      * @param undergrad  number of undergrads to add
      * @param postgrad number of postgrads to add
      */
-    public void addUnitsToSectorAnimated(int sectorId, int undergrad, int postgrad) {
-        this.sectors.get(sectorId).addUnits(undergrad, postgrad, neutralPlayer);
+    public void addUnitsToSector(int sectorId, int undergrad, int postgrad) {
+        Sector sector = this.sectors.get(sectorId);
+        int underGradsBefore = sector.getUnderGradsInSector();
+        int postGradsBefore = sector.getPostGradsInSector();
+        try {
+            sector.addUnits(undergrad, postgrad, neutralPlayer);
+        } finally { // record the change actually made, which is less than asked for if the sector ran out of units
+            if (journal != null) {
+                journal.recordUnits(sectorId, sector.getUnderGradsInSector() - underGradsBefore, sector.getPostGradsInSector() - postGradsBefore);
+            }
+        }
+    }
+
+    /**
+     * sets up drawing a particle effect showing a change in the units on a sector
+     *
+     * @param sectorId id of sector the units changed on
+     * @param undergrad  change in the number of undergrads
+     * @param postgrad change in the number of postgrads
+     */
+    public void addUnitChangeParticles(int sectorId, int undergrad, int postgrad) {
         if (undergrad != 0){
-            this.particles.add(new UnitChangeParticle(undergrad, new Vector2(sectors.get(sectorId).getSectorCentreX() - 45, sectors.get(sectorId).getSectorCentreY())));
+            this.particles.add(undergrad, sectors.get(sectorId).getSectorCentreX() - 45, sectors.get(sectorId).getSectorCentreY());
         }
         if (postgrad != 0){
-            this.particles.add(new UnitChangeParticle(postgrad, new Vector2(sectors.get(sectorId).getSectorCentreX() + 5, sectors.get(sectorId).getSectorCentreY())));
+            this.particles.add(postgrad, sectors.get(sectorId).getSectorCentreX() + 5, sectors.get(sectorId).getSectorCentreY());
         }
     }
 
@@ -425,22 +367,16 @@ public class Map {
      * @param batch
      */
     public void draw(SpriteBatch batch) {
+        SectorAtlas atlas = getSectorAtlas();
+        batch.setShader(SectorAtlas.getTintShader()); // colour each sector with its owner's colour as it is drawn
         for (Sector sector : sectors.values()) {
-            sector.drawSectorImage(batch);
+            sector.drawSectorImage(batch, atlas);
         }
+        batch.setShader(null);
+        batch.setColor(Color.WHITE);
 
-        for (Sector sector : sectors.values()) {
-            sector.drawSectorUi(batch);
-        }
+        Sector.drawSectorsUi(batch, sectors.values());
 
-        // render particles
-        List<UnitChangeParticle> toDelete = new ArrayList<UnitChangeParticle>();
-        for (UnitChangeParticle particle : particles) {
-            particle.draw(batch);
-            if (particle.toDelete()) {
-                toDelete.add(particle);
-            }
-        }
-        particles.removeAll(toDelete);
+        particles.draw(batch);
     }
 }
@@ -0,0 +1,218 @@
+package sepr.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+Added in assessment 4
+ - added so the sector table is read from disk and parsed once per run of the game instead of for every new game
+ - holds the atlas of sector images so the images are only loaded once however many games are started or loaded
+ - holds the SectorGraph of the map, built once from the adjacency of the sectors
+ - disposeInstance also frees the SectorAtlas tint shader, which is shared by every atlas
+ - the sector atlas can be built a step at a time with updateSectorAtlas, so it is built while the loading screen is shown
+ */
+
+/**
+ * the sectors that make up the game map, as defined by the sectorProperties.csv file
+ *
+ * the file is parsed the first time the definition is requested and the parsed definition is shared by every game
+ * the images of the sectors are packed into a SectorAtlas while the loading screen is shown, or the first time they are
+ * drawn if they have not been, which is also shared, so starting a new game only has to create the sectors' per game state
+ */
+public class MapDefinition {
+    private static final String SECTOR_PROPERTIES_PATH = "mapData/sectorProperties.csv";
+    private static final int COLUMN_COUNT = 10; // id, image, name, reinforcements, college, neutral, adjacent ids, centre x, centre y, decor
+
+    private static MapDefinition instance; // definition of the game map, null until first requested
+
+    private final List<SectorDefinition> sectors; // definitions of the sectors, in the order they appear in the file
+    private final IntMap<SectorDefinition> sectorsById;
+    private final SectorGraph sectorGraph; // adjacency of the sectors and the distances between them
+    private SectorAtlas sectorAtlas; // atlas of the sector images, null until it has been built
+    private SectorAtlas.Loader sectorAtlasLoader; // builds the atlas a step at a time, null if the atlas is not being built
+
+    /**
+     * @param sectors definitions of the sectors that make up the map
+     * @throws IllegalArgumentException if two sectors have the same id or a sector id is too large for a SectorGraph
+     */
+    public MapDefinition(List<SectorDefinition> sectors) {
+        this.sectors = Collections.unmodifiableList(new ArrayList<SectorDefinition>(sectors));
+        this.sectorsById = new IntMap<SectorDefinition>(sectors.size());
+        for (SectorDefinition sector : sectors) {
+            if (sectorsById.put(sector.getId(), sector) != null) {
+                throw new IllegalArgumentException("Sector id " + sector.getId() + " is defined more than once");
+            }
+        }
+        this.sectorGraph = new SectorGraph(this.sectors);
+    }
+
+    /**
+     * gets the definition of the game map, reading it from the sector properties file the first time it is requested
+     *
+     * @return the definition of the game map
+     * @throws GdxRuntimeException if the sector properties file could not be read or is malformed
+     */
+    public static synchronized MapDefinition getInstance() {
+        if (instance == null) {
+            try {
+                BufferedReader reader = Gdx.files.internal(SECTOR_PROPERTIES_PATH).reader(1000);
+                try {
+                    instance = parse(reader);
+                } finally {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                throw new GdxRuntimeException("Could not read " + SECTOR_PROPERTIES_PATH, e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * parses a sector table, one sector per line in the format of the sectorProperties.csv file
+     *
+     * @param reader reader to read the table from
+     * @return the map defined by the table
+     * @throws IOException if the table could not be read
+     * @throws GdxRuntimeException if a line of the table is malformed
+     */
+    public static MapDefinition parse(BufferedReader reader) throws IOException {
+        List<SectorDefinition> sectors = new ArrayList<SectorDefinition>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) continue;
+
+            String[] columns = line.split(",", -1);
+            if (columns.length != COLUMN_COUNT) {
+                throw new GdxRuntimeException("Line " + lineNumber + " of the sector table has " + columns.length + " columns, expected " + COLUMN_COUNT);
+            }
+            try {
+                sectors.add(new SectorDefinition(
+                        Integer.parseInt(columns[0].trim()),
+                        "mapData/" + columns[1],
+                        columns[2],
+                        Integer.parseInt(columns[3].trim()),
+                        columns[4],
+                        Boolean.parseBoolean(columns[5].trim()),
+                        parseIds(columns[6]),
+                        Integer.parseInt(columns[7].trim()),
+                        Integer.parseInt(columns[8].trim()),
+                        Boolean.parseBoolean(columns[9].trim())));
+            } catch (NumberFormatException e) {
+                throw new GdxRuntimeException("Line " + lineNumber + " of the sector table contains an invalid number", e);
+            }
+        }
+        return new MapDefinition(sectors);
+    }
+
+    /**
+     * converts a space separated list of integers to an array, ignoring any extra spaces
+     *
+     * @param ids space separated integers e.g. '1 2 3 4 5'
+     * @return the integers in the list
+     */
+    private static int[] parseIds(String ids) {
+        String[] parts = ids.trim().split(" +");
+        if (parts.length == 1 && parts[0].isEmpty()) return new int[0];
+
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return definitions of the sectors that make up the map, in the order they are defined
+     */
+    public List<SectorDefinition> getSectors() {
+        return sectors;
+    }
+
+    /**
+     * @param sectorId id of the sector
+     * @return definition of the sector with the given id, null if there is no such sector
+     */
+    public SectorDefinition getSector(int sectorId) {
+        return sectorsById.get(sectorId);
+    }
+
+    /**
+     * @return graph of the adjacency of the sectors
+     */
+    public SectorGraph getSectorGraph() {
+        return sectorGraph;
+    }
+
+    /**
+     * builds part of the atlas of this map's sector images, starting to build it if it has not been started
+     * must be called from the rendering thread as building the atlas creates textures
+     *
+     * @param millis maximum time to spend building the atlas
+     * @return true once the atlas has been built
+     */
+    public boolean updateSectorAtlas(int millis) {
+        if (sectorAtlas != null) return true;
+        if (sectorAtlasLoader == null) sectorAtlasLoader = new SectorAtlas.Loader(sectors);
+        if (!sectorAtlasLoader.update(millis)) return false;
+
+        sectorAtlas = sectorAtlasLoader.finishLoading();
+        sectorAtlasLoader = null;
+        return true;
+    }
+
+    /**
+     * @return proportion of the sector atlas that has been built, from 0 to 1
+     */
+    public float getSectorAtlasProgress() {
+        if (sectorAtlas != null) return 1;
+        return sectorAtlasLoader == null ? 0 : sectorAtlasLoader.getProgress();
+    }
+
+    /**
+     * gets the atlas of the images of this map's sectors, finishing building it if it has not been built
+     * must be called from the rendering thread as building the atlas creates textures
+     *
+     * @return the atlas of this map's sector images
+     */
+    public SectorAtlas getSectorAtlas() {
+        if (sectorAtlas == null) {
+            if (sectorAtlasLoader == null) sectorAtlasLoader = new SectorAtlas.Loader(sectors);
+            sectorAtlas = sectorAtlasLoader.finishLoading();
+            sectorAtlasLoader = null;
+        }
+        return sectorAtlas;
+    }
+
+    /**
+     * frees the textures of the sector atlas, if it has been built or is being built; it is built again if requested afterwards
+     */
+    public void dispose() {
+        if (sectorAtlasLoader != null) {
+            sectorAtlasLoader.cancel();
+            sectorAtlasLoader = null;
+        }
+        if (sectorAtlas != null) {
+            sectorAtlas.dispose();
+            sectorAtlas = null;
+        }
+    }
+
+    /**
+     * frees the textures of the shared definition of the game map, if it has been loaded, and the sector tint shader,
+     * used when the game closes
+     */
+    public static synchronized void disposeInstance() {
+        if (instance != null) instance.dispose();
+        SectorAtlas.disposeTintShader();
+    }
+}
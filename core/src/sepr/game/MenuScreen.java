@@ -1,7 +1,6 @@
 package sepr.game;
 
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
@@ -10,11 +9,18 @@ import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import sepr.game.saveandload.SaveSlotInfo;
+
+import java.io.File;
+import java.io.IOException;
 
 /*
 Modified in assessment 4
  - refactored to inherit from new UiScreen class to reduce code duplication for setting up screen
  - added displaying a dialog to the player if there is no save game to load
+ - loading a game opens a dialog listing the saved games to choose from
+ - textures are shared through WidgetFactory.getTexture rather than being loaded again each time the screen is set up
+ - added a button to watch the replay of the most recent game
  */
 
 /**
@@ -45,13 +51,15 @@ public class MenuScreen extends UiScreen {
      * generates a table containing the start game, load game and options buttons
      * pressing;
      *      Start Game  --> Takes player to setup game screen
-     *      Load Game   --> Not yet implemented
+     *      Load Game   --> Opens a dialog to choose a saved game to load
+     *      Watch Replay --> Plays back the most recently recorded game
      *      Options     --> Takes player to options screen
      * @return a table of buttons
      */
     private Table setupMenuTable() {
         final TextButton startGameBtn = WidgetFactory.genBasicButton("START NEW GAME");
         final TextButton loadGameBtn = WidgetFactory.genBasicButton("LOAD GAME");
+        final TextButton watchReplayBtn = WidgetFactory.genBasicButton("WATCH REPLAY");
         final TextButton optionsBtn = WidgetFactory.genBasicButton("OPTIONS");
 
         /* Create sub-table for all the menu buttons */
@@ -64,6 +72,10 @@ public class MenuScreen extends UiScreen {
         btnTable.left();
         btnTable.add(loadGameBtn).height(72).width(439).pad(30);
 
+        btnTable.row();
+        btnTable.left();
+        btnTable.add(watchReplayBtn).height(72).width(439).pad(30);
+
         btnTable.row();
         btnTable.left();
         btnTable.add(optionsBtn).height(72).width(439).pad(30);
@@ -78,12 +90,37 @@ public class MenuScreen extends UiScreen {
         loadGameBtn.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                if (!main.loadGame()) {
+                SaveSlotInfo[] slots = main.getSaveSlots();
+                boolean anySaves = false;
+                for (SaveSlotInfo slot : slots) {
+                    if (slot != null) anySaves = true;
+                }
+
+                if (anySaves) {
+                    DialogFactory.loadGameDialogBox(main, slots, stage);
+                } else {
                     DialogFactory.basicDialogBox(null, "No saved game found", "No save game was found. Please start a new game", stage);
                 }
             }
         });
 
+        watchReplayBtn.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                File replay = main.getLatestReplay();
+                if (replay == null) {
+                    DialogFactory.basicDialogBox(null, "No replay found", "No game has been recorded yet. Please play a game first", stage);
+                    return;
+                }
+                try {
+                    main.setReplayScreen(replay);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    DialogFactory.basicDialogBox(null, "Replay could not be read", "The most recent replay could not be read", stage);
+                }
+            }
+        });
+
         optionsBtn.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
@@ -102,7 +139,7 @@ public class MenuScreen extends UiScreen {
         Table uiComponentsTable =  new Table();
         uiComponentsTable.setDebug(false);
 
-        uiComponentsTable.background(new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Scanline.png"))));
+        uiComponentsTable.background(new TextureRegionDrawable(new TextureRegion(WidgetFactory.getTexture("uiComponents/Scanline.png"))));
         uiComponentsTable.pad(80).padLeft(85).padRight(95);
 
         uiComponentsTable.center();
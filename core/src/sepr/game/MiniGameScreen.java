@@ -1,7 +1,6 @@
 package sepr.game;
 
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
@@ -13,6 +12,8 @@ import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Timer;
 import javafx.util.Pair;
+import sepr.game.engine.GameEngine;
+import sepr.game.engine.GameRandom;
 import sepr.game.utils.PunishmentCardType;
 
 import java.util.ArrayList;
@@ -25,6 +26,8 @@ Modified in assessment 4
  - refactored to inherit from new UiScreen class to reduce code duplication for setting up screen
  - redesigned minigame to be played as matching punishment cards instead of numbers
  - modified reward system to give players punishment cards as a reward not troops
+ - textures are shared through WidgetFactory.getTexture rather than being loaded again each time the screen is set up
+ - cards are laid out with the game's MINIGAME random stream and rewards are given through the GameEngine so they are recorded in its CommandLog
  */
 
 public class MiniGameScreen extends UiScreen {
@@ -99,7 +102,7 @@ public class MiniGameScreen extends UiScreen {
     @Override
     protected Table setupBackground(){
         Table backgroundTable = new Table();
-        backgroundTable.setBackground(new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/miniGameBackground.png"))));
+        backgroundTable.setBackground(new TextureRegionDrawable(new TextureRegion(WidgetFactory.getTexture("uiComponents/miniGameBackground.png"))));
         backgroundTable.pad(0);
         backgroundTable.add(setupUi());
         return backgroundTable;
@@ -111,7 +114,7 @@ public class MiniGameScreen extends UiScreen {
     @Override
     protected Table setupUi() {
         Table uiComponentsTable =  new Table();
-        uiComponentsTable.background(new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Scanline-Purple.png"))));
+        uiComponentsTable.background(new TextureRegionDrawable(new TextureRegion(WidgetFactory.getTexture("uiComponents/Scanline-Purple.png"))));
         uiComponentsTable.pad(80).padLeft(85).padRight(95);
 
         uiComponentsTable.center();
@@ -152,10 +155,9 @@ public class MiniGameScreen extends UiScreen {
         };
         // generate each of the image buttons and set their name and listener
         cardButtons = new ImageButton[ROWS][COLS];
-        setupCardLocations();
         for (int i = 0; i < ROWS; i++) {
             for (int j = 0; j < COLS; j++) {
-                cardButtons[i][j] = WidgetFactory.genPunishmentCardButton(locations[i][j]);
+                cardButtons[i][j] = WidgetFactory.genPunishmentCardButton(PunishmentCardType.HIDDEN_CARD); // the cards are laid out by setupGame
                 cardButtons[i][j].addListener(listener);
             }
         }
@@ -188,7 +190,7 @@ public class MiniGameScreen extends UiScreen {
         cardList.add(PunishmentCardType.ASBESTOS_CARD);
         cardList.add(PunishmentCardType.ASBESTOS_CARD);
         // select 2 fake cards to add
-        Random random = new Random();
+        Random random = gameScreen.getEngine().getRandom().getStream(GameRandom.Stream.MINIGAME);
         switch (random.nextInt(3)) {
             case 0 :
                 cardList.add(PunishmentCardType.FAUX_COLLUSION_CARD);
@@ -204,7 +206,7 @@ public class MiniGameScreen extends UiScreen {
                 break;
         }
 
-        Collections.shuffle(cardList);
+        Collections.shuffle(cardList, random);
 
         for (int i = 0; i < ROWS; i++) {
             for (int j = 0; j < COLS; j++) {
@@ -307,9 +309,10 @@ public class MiniGameScreen extends UiScreen {
     private void endGame(boolean win) {
         if (!win) rewards.clear(); // clear rewards if player did not win the minigame
 
-        if (rewards.contains(PunishmentCardType.COLLUSION_CARD)) player.addCollusionCards(1);
-        if (rewards.contains(PunishmentCardType.POOPY_PATH_CARD)) player.addPoopyPathCards(1);
-        if (rewards.contains(PunishmentCardType.ASBESTOS_CARD)) player.addAsbestosCards(1);
+        GameEngine engine = gameScreen.getEngine();
+        if (rewards.contains(PunishmentCardType.COLLUSION_CARD)) engine.awardPunishmentCard(player.getId(), PunishmentCardType.COLLUSION_CARD);
+        if (rewards.contains(PunishmentCardType.POOPY_PATH_CARD)) engine.awardPunishmentCard(player.getId(), PunishmentCardType.POOPY_PATH_CARD);
+        if (rewards.contains(PunishmentCardType.ASBESTOS_CARD)) engine.awardPunishmentCard(player.getId(), PunishmentCardType.ASBESTOS_CARD);
 
         DialogFactory.miniGameOverDialog(main, stage, gameScreen, rewards);
     }
@@ -3,7 +3,6 @@ package sepr.game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Graphics.DisplayMode;
 import com.badlogic.gdx.Preferences;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
@@ -21,6 +20,7 @@ import java.util.Set;
 Modified in assessment 4
  - refactored to inherit from new UiScreen class to reduce code duplication for setting up screen
  - removed colour blind mode UI components
+ - textures are shared through WidgetFactory.getTexture rather than being loaded again each time the screen is set up
 */
 
 /**
@@ -152,7 +152,7 @@ public class OptionsScreen extends UiScreen {
         Table uiComponentsTable =  new Table();
         uiComponentsTable.setDebug(false);
 
-        uiComponentsTable.background(new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Scanline.png"))));
+        uiComponentsTable.background(new TextureRegionDrawable(new TextureRegion(WidgetFactory.getTexture("uiComponents/Scanline.png"))));
         uiComponentsTable.pad(80).padLeft(85).padRight(95);
 
         uiComponentsTable.center();
@@ -24,6 +24,9 @@ Modified in assessment 4
  - changed using instance of AudioManager to play sound FX to the new AudioPlayer
  - added ability for player to have a punishment card selected and apply it to a sector - see touchUp(int screenX, int screenY, int pointer, int button) method
  - changed to using AudioPlayer for playing audio instead of using instance of AudioManager
+ - punishment cards are now played through the GameEngine
+ - HUD textures are shared through WidgetFactory rather than loaded again for every new game
+ - the turn timer label can show other text, used to show the progress of a replay
  */
 
 /**
@@ -66,7 +69,7 @@ public abstract class Phase extends Stage {
         this.addActor(table);
         this.table.setDebug(false); // enable table drawing for ui debug
 
-        gameHUDBottomBarLeftPartTexture = new Texture("uiComponents/HUD-Bottom-Bar-Left-Part.png");
+        gameHUDBottomBarLeftPartTexture = WidgetFactory.getTexture("uiComponents/HUD-Bottom-Bar-Left-Part.png");
 
         this.setupUi();
     }
@@ -146,7 +149,7 @@ public abstract class Phase extends Stage {
         style.font = WidgetFactory.getFontSmall();
 
         playerNameStyle.font = WidgetFactory.getFontSmall();
-        playerNameStyle.background = new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Name-Box.png")));
+        playerNameStyle.background = new TextureRegionDrawable(new TextureRegion(WidgetFactory.getTexture("uiComponents/Name-Box.png")));
 
         playerNameLabel = new Label("", playerNameStyle);
         reinforcementLabel = new Label("", style);
@@ -210,6 +213,15 @@ public abstract class Phase extends Stage {
         turnTimerLabel.setText(new StringBuilder("Turn Timer: " + timeRemaining));
     }
 
+    /**
+     * replaces the text of the turn timer label, e.g. with the progress of a replay being watched
+     *
+     * @param text text to show
+     */
+    void setStatusText(String text) {
+        turnTimerLabel.setText(text);
+    }
+
     /**
      *
      * @return the currently selected type of punishment card
@@ -301,18 +313,7 @@ public abstract class Phase extends Stage {
             // no sector pressed
             return true;
         } else {
-            gameScreen.getMap().addSectorPunishmentEffect(sectorClicked, punishmentCardSelected);
-            switch (punishmentCardSelected) {
-                case COLLUSION_CARD:
-                    currentPlayer.addCollusionCards(-1);
-                    break;
-                case POOPY_PATH_CARD:
-                    currentPlayer.addPoopyPathCards(-1);
-                    break;
-                case ASBESTOS_CARD:
-                    currentPlayer.addAsbestosCards(-1);
-                    break;
-            }
+            gameScreen.getEngine().applyPunishmentCard(sectorClicked, punishmentCardSelected); // applies the card's effect and removes it from the player's hand
             punishmentCardSelected = PunishmentCardType.NO_CARD;
             updateTopBarText();
             return true;
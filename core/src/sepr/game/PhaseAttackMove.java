@@ -1,7 +1,6 @@
 package sepr.game;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
@@ -11,6 +10,7 @@ import sepr.game.utils.TurnPhaseType;
 Modified in assessment 4
  - all selecting source and target sector behaviour moved from PhaseAttack and PhaseMovement to reduce code duplication
  - refactored passing data using arrays due to lack of readability
+ - the arrow texture is shared through WidgetFactory rather than loaded again for every new game
  */
 
 public abstract class PhaseAttackMove extends Phase {
@@ -29,7 +29,7 @@ public abstract class PhaseAttackMove extends Phase {
     public PhaseAttackMove(GameScreen gameScreen, TurnPhaseType turnPhaseType){
         super(gameScreen, turnPhaseType);
         if (turnPhaseType == TurnPhaseType.REINFORCEMENT) throw new IllegalArgumentException("PhaseAttackMove must have turnPhaseType ATTACK or MOVE");
-        this.arrow = new TextureRegion(new Texture(Gdx.files.internal("uiComponents/arrow.png")));
+        this.arrow = new TextureRegion(WidgetFactory.getTexture("uiComponents/arrow.png"));
         this.sourceSector = null;
 
         this.arrowTailPosition = new Vector2();
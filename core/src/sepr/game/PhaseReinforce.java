@@ -8,6 +8,7 @@ import sepr.game.utils.TurnPhaseType;
 Modified in assessment 4
  - refactored to no longer pass allocation data through arrays due to poor readability
  - changed to using AudioPlayer for playing audio instead of using instance of AudioManager
+- resetting the player's troops to allocate at the end of the phase is now done by GameEngine
 */
 
 /**
@@ -32,12 +33,6 @@ public class PhaseReinforce extends Phase {
         DialogFactory.nextTurnDialogBox(gameScreen, currentPlayer.getPlayerName(), currentPlayer.getTroopsToAllocate(), this);
     }
 
-    @Override
-    public void endPhase() {
-        currentPlayer.setTroopsToAllocate(5); // any unallocated units are removed and 5 are set for next turn
-        super.endPhase();
-    }
-
     @Override
     public void visualisePhase(SpriteBatch batch) {
 
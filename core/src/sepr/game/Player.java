@@ -9,6 +9,7 @@ Modified in assessment 4
  - removed storing sector colour as now stored as part of college name enum
  - removed PVC ownership data as no longer applicable due to changes to PVC minigame
  - added variables for storing the number of collusion/poopy path/asbestos cards the player holds
+ - added createComputerPlayer for players whose moves are decided by the computer
  */
 
 /**
@@ -59,6 +60,22 @@ public class Player {
         return new Player(id, collegeName, troopsToAllocate, PlayerType.HUMAN, playerName, 0, 0, 0);
     }
 
+    /**
+     * creates an instance of a player whose moves are decided by the computer
+     *
+     * @param id player's unique identifier
+     * @param collegeName display name for this player
+     * @param playerName player's name to be displayed
+     * @param playerType type of computer controlled player
+     * @throws IllegalArgumentException if the player type is not a computer controlled type
+     */
+    public static Player createComputerPlayer(int id, CollegeName collegeName, int troopsToAllocate, String playerName, PlayerType playerType) {
+        if (!playerType.isComputerControlled()) {
+            throw new IllegalArgumentException("Player type must be computer controlled");
+        }
+        return new Player(id, collegeName, troopsToAllocate, playerType, playerName, 0, 0, 0);
+    }
+
     /**
      * creates an instance of a neutral, computer controlled, player
      *
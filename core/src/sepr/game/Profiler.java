@@ -0,0 +1,352 @@
+package sepr.game;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StringBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Added in assessment 4
+ - added so the time spent in each stage of rendering a frame, and the memory allocated doing so, can be measured in game
+ */
+
+/**
+ * measures the time taken by each frame and by named scopes within it, e.g. drawing the map
+ *
+ * while enabled the profiler keeps the last FRAME_HISTORY frames and can draw an overlay showing the median and 99th
+ * percentile frame times, the average time of each scope, the bytes allocated by the rendering thread each frame and
+ * the number of garbage collections; each frame can also be recorded to a CSV file
+ * while disabled beginning and ending scopes does nothing, so scopes can be left in place
+ */
+public class Profiler {
+    private static final int FRAME_HISTORY = 600; // number of frames percentiles are calculated over, 10 seconds at 60fps
+    private static final int OVERLAY_UPDATE_FRAMES = 30; // number of frames between updates of the overlay text
+
+    /**
+     * a named part of a frame to measure, begin and end should be called around the code each frame
+     */
+    public static class Scope {
+        private final String name;
+        private final Profiler profiler;
+        private long startTime; // time the scope was last begun, in nanoseconds
+        private long frameTime; // time spent in the scope during the current frame, in nanoseconds
+        private long totalTime; // time spent in the scope since the overlay was last updated, in nanoseconds
+
+        private Scope(String name, Profiler profiler) {
+            this.name = name;
+            this.profiler = profiler;
+        }
+
+        public void begin() {
+            if (profiler.isRunning()) startTime = System.nanoTime();
+        }
+
+        public void end() {
+            if (profiler.isRunning()) frameTime += System.nanoTime() - startTime;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final Array<Scope> scopes; // scopes in the order they were created
+    private final long[] frameTimes; // time each of the last FRAME_HISTORY frames took, in nanoseconds, as a ring buffer
+    private final long[] sortedFrameTimes; // copy of frameTimes sorted to find percentiles
+    private int frameCount; // number of frames measured since the profiler was enabled
+    private long frameStartTime; // time the current frame began, in nanoseconds
+
+    private final ThreadMXBean threadBean;
+    private final boolean allocationSupported; // true if the JVM can report the bytes allocated by a thread
+    private final GarbageCollectorMXBean[] garbageCollectors;
+    private long frameStartAllocated; // bytes allocated by the rendering thread when the current frame began
+    private long allocatedSinceUpdate; // bytes allocated by the rendering thread since the overlay was last updated
+    private long gcCountAtEnable; // garbage collections that had happened when the profiler was enabled
+
+    private boolean overlayEnabled;
+    private Writer csvWriter; // writer frames are recorded to, null if not recording
+
+    private SpriteBatch overlayBatch; // created the first time the overlay is drawn
+    private BitmapFont overlayFont;
+    private final StringBuilder overlayText; // text of the overlay, rebuilt every OVERLAY_UPDATE_FRAMES frames
+
+    public Profiler() {
+        this.scopes = new Array<Scope>();
+        this.frameTimes = new long[FRAME_HISTORY];
+        this.sortedFrameTimes = new long[FRAME_HISTORY];
+        this.overlayText = new StringBuilder();
+
+        this.threadBean = ManagementFactory.getThreadMXBean();
+        this.allocationSupported = isAllocationSupported(threadBean);
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        this.garbageCollectors = collectors.toArray(new GarbageCollectorMXBean[collectors.size()]);
+    }
+
+    /**
+     * checks if the JVM's thread bean can report allocated bytes, this is only available on HotSpot based JVMs
+     */
+    private static boolean isAllocationSupported(ThreadMXBean threadBean) {
+        try {
+            if (threadBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotspotBean = (com.sun.management.ThreadMXBean)threadBean;
+                if (hotspotBean.isThreadAllocatedMemorySupported()) {
+                    hotspotBean.setThreadAllocatedMemoryEnabled(true);
+                    return true;
+                }
+            }
+        } catch (NoClassDefFoundError e) {
+            // not a HotSpot JVM
+        } catch (UnsupportedOperationException e) {
+            // allocation measurement is not supported
+        }
+        return false;
+    }
+
+    /**
+     * gets the scope with the given name, creating it if it does not exist yet
+     * scopes should be got once and reused every frame
+     *
+     * @param name name of the scope shown in the overlay and used as its CSV column heading
+     * @return the scope
+     * @throws IllegalStateException if the scope does not exist and frames are being recorded, as the CSV columns are already fixed
+     */
+    public Scope getScope(String name) {
+        for (Scope scope : scopes) {
+            if (scope.getName().equals(name)) return scope;
+        }
+
+        if (csvWriter != null) throw new IllegalStateException("Cannot add scopes while recording to CSV");
+        Scope scope = new Scope(name, this);
+        scopes.add(scope);
+        return scope;
+    }
+
+    /**
+     * @return true if frames are being measured, i.e. the overlay is shown or frames are being recorded
+     */
+    public boolean isRunning() {
+        return overlayEnabled || csvWriter != null;
+    }
+
+    /**
+     * shows the overlay if it is hidden, else hides it
+     */
+    public void toggleOverlay() {
+        boolean wasRunning = isRunning();
+        overlayEnabled = !overlayEnabled;
+        if (!wasRunning) reset();
+    }
+
+    /**
+     * @return true if frames are being recorded to a CSV file
+     */
+    public boolean isRecording() {
+        return csvWriter != null;
+    }
+
+    /**
+     * starts writing the measurements of each frame to a CSV file, one row per frame
+     *
+     * @param file file to write to, replaced if it exists
+     * @throws IOException if the file could not be written to
+     */
+    public void startRecording(FileHandle file) throws IOException {
+        stopRecording();
+        boolean wasRunning = isRunning();
+
+        Writer writer = new BufferedWriter(file.writer(false, "UTF-8"));
+        writer.write("frame,frame_ms");
+        for (Scope scope : scopes) {
+            writer.write(',');
+            writer.write(scope.getName().replace(',', ' ').replace(' ', '_'));
+            writer.write("_ms");
+        }
+        writer.write(",allocated_bytes,gc_count\n");
+        csvWriter = writer;
+
+        if (!wasRunning) reset();
+    }
+
+    /**
+     * stops recording frames and closes the CSV file, if recording
+     */
+    public void stopRecording() {
+        if (csvWriter == null) return;
+        try {
+            csvWriter.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        csvWriter = null;
+    }
+
+    /**
+     * clears the measurements of previous frames
+     */
+    private void reset() {
+        frameCount = 0;
+        allocatedSinceUpdate = 0;
+        gcCountAtEnable = getGcCount();
+        for (Scope scope : scopes) {
+            scope.frameTime = 0;
+            scope.totalTime = 0;
+        }
+        overlayText.setLength(0);
+    }
+
+    /**
+     * called at the start of each frame, before any scopes are begun
+     */
+    public void beginFrame() {
+        if (!isRunning()) return;
+        frameStartTime = System.nanoTime();
+        frameStartAllocated = getAllocatedBytes();
+    }
+
+    /**
+     * called at the end of each frame, after every scope has ended
+     */
+    public void endFrame() {
+        if (!isRunning()) return;
+        long frameTime = System.nanoTime() - frameStartTime;
+        long allocated = allocationSupported ? getAllocatedBytes() - frameStartAllocated : -1;
+        long gcCount = getGcCount() - gcCountAtEnable;
+
+        frameTimes[frameCount % FRAME_HISTORY] = frameTime;
+        frameCount++;
+        if (allocationSupported) allocatedSinceUpdate += allocated;
+
+        if (csvWriter != null) writeCsvRow(frameTime, allocated, gcCount);
+
+        for (Scope scope : scopes) {
+            scope.totalTime += scope.frameTime;
+            scope.frameTime = 0;
+        }
+
+        if (overlayEnabled && frameCount % OVERLAY_UPDATE_FRAMES == 0) updateOverlayText(gcCount);
+    }
+
+    private void writeCsvRow(long frameTime, long allocated, long gcCount) {
+        try {
+            csvWriter.write(Integer.toString(frameCount));
+            csvWriter.write(',');
+            csvWriter.write(Double.toString(frameTime / 1e6));
+            for (Scope scope : scopes) {
+                csvWriter.write(',');
+                csvWriter.write(Double.toString(scope.frameTime / 1e6));
+            }
+            csvWriter.write(',');
+            csvWriter.write(Long.toString(allocated));
+            csvWriter.write(',');
+            csvWriter.write(Long.toString(gcCount));
+            csvWriter.write('\n');
+        } catch (IOException e) {
+            e.printStackTrace();
+            stopRecording();
+        }
+    }
+
+    /**
+     * @param percentile percentile to find, between 0 and 1
+     * @return frame time at the percentile over the frames in the history, in nanoseconds
+     */
+    public long getFrameTimePercentile(double percentile) {
+        int count = Math.min(frameCount, FRAME_HISTORY);
+        if (count == 0) return 0;
+        System.arraycopy(frameTimes, 0, sortedFrameTimes, 0, count);
+        Arrays.sort(sortedFrameTimes, 0, count);
+        return sortedFrameTimes[Math.min(count - 1, (int)(percentile * count))];
+    }
+
+    /**
+     * rebuilds the overlay text from the measurements since it was last updated
+     */
+    private void updateOverlayText(long gcCount) {
+        overlayText.setLength(0);
+        overlayText.append("frame p50 ");
+        appendMillis(getFrameTimePercentile(0.5));
+        overlayText.append(" ms  p99 ");
+        appendMillis(getFrameTimePercentile(0.99));
+        overlayText.append(" ms\n");
+
+        for (Scope scope : scopes) {
+            overlayText.append(scope.getName()).append(' ');
+            appendMillis(scope.totalTime / OVERLAY_UPDATE_FRAMES);
+            overlayText.append(" ms\n");
+            scope.totalTime = 0;
+        }
+
+        if (allocationSupported) {
+            overlayText.append("allocated ").append(allocatedSinceUpdate / OVERLAY_UPDATE_FRAMES / 1024).append(" KB/frame\n");
+        }
+        overlayText.append("gc ").append(gcCount);
+        if (csvWriter != null) overlayText.append("\nrecording");
+        allocatedSinceUpdate = 0;
+    }
+
+    /**
+     * appends a time in nanoseconds to the overlay text in milliseconds to two decimal places
+     */
+    private void appendMillis(long nanos) {
+        long hundredths = nanos / 10000;
+        overlayText.append(hundredths / 100).append('.');
+        if (hundredths % 100 < 10) overlayText.append('0');
+        overlayText.append(hundredths % 100);
+    }
+
+    private long getAllocatedBytes() {
+        if (!allocationSupported) return 0;
+        return ((com.sun.management.ThreadMXBean)threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : garbageCollectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * draws the overlay in the top left of the screen, if it is enabled
+     *
+     * @param width width of the screen
+     * @param height height of the screen
+     */
+    public void drawOverlay(int width, int height) {
+        if (!overlayEnabled) return;
+        if (overlayBatch == null) {
+            overlayBatch = new SpriteBatch();
+            overlayFont = WidgetFactory.getFontSmall();
+            overlayFont.setColor(Color.YELLOW);
+        }
+
+        overlayBatch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+        overlayBatch.begin();
+        overlayFont.draw(overlayBatch, overlayText, 10, height - 80);
+        overlayBatch.end();
+    }
+
+    /**
+     * stops recording and disposes of the overlay's resources
+     */
+    public void dispose() {
+        stopRecording();
+        if (overlayBatch != null) {
+            overlayBatch.dispose();
+            overlayFont.dispose();
+            overlayBatch = null;
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package sepr.game;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import sepr.game.utils.PunishmentCardType;
 
+import java.util.Collection;
+
 /*
 Modified in assessment 4
  - removed fileName variable as duplicate of texturePath
@@ -19,115 +20,102 @@ Modified in assessment 4
  - added support for two unit types, undergrads and postgrads
  - separated sector texture drawing and drawing sector HUD element, (e.g. unit count), so that UI elements cannot be rendered below sector textures
  - added method for applying a status effect punishment card to this sector - incrementStatusEffect(PunishmentCardType puinishmentCardType)
+ - sector image is now a region of a shared SectorAtlas texture, cropped to the visible part of the image, instead of a full screen texture per sector
+ - owner colour is now applied by the SectorAtlas tint shader when the sector is drawn instead of recolouring the image pixel by pixel
+ - removed the sector pixmap, the SectorAtlas loads the sector images itself and hit-testing is now done by the map's SectorLookup
+ - HUD textures are loaded the first time a sector is drawn so sectors can be created without a display
+ - the HUD of all sectors is drawn together, grouped by texture, and each sector's HUD text is only laid out again when its counts change
+ - the fixed properties of the sector are now held by a SectorDefinition shared by every game, a sector only stores the state of the sector in its game
+ - the sector image is drawn from the atlas passed to drawSectorImage rather than a region stored in each sector
+ - changes of owner are recorded in the SectorOwnership of the map the sector is part of, and adjacency is checked with its SectorGraph
+ - changes to the units on the sector are also recorded in the SectorOwnership so it can keep each player's troop total
+ - added restoreState so a replay can put the sector back into the state it was in at a keyframe
+ - changes of owner and status effects are recorded in the map's DeltaJournal so they can be undone
  */
 
 /**
  * class for specifying properties of a sector that is part of a map
  */
 public class Sector {
-    private int id; // unique id of this sector
+    private final SectorDefinition definition; // fixed properties of this sector, shared by every game on the map
+    private final int[] adjacentSectorIds; // ids of sectors adjacent to this one, copied from the definition
     private int ownerId; // id of the player that owns this sector
-    private String displayName; // name of this sector to be displayed in the UI
     private int underGradsInSector; // num of undergrad units in this sector
     private int postGradsInSector; // num of postgrad units in this sector
-    private int reinforcementsProvided; // num of allocation points given to a player that conquers this texture
-    private String college; // name of the college this sector belongs to
-    private boolean neutral; // is this sector a default neutral sector
-    private int[] adjacentSectorIds; // ids of sectors adjacent to this one
-    private Texture sectorTexture; // texture for rendering this sector
-    private String texturePath; // file path to this sector's texture
-    private Pixmap sectorPixmap; // the pixel data of this sectors texture
-    private int sectorCentreX; // the centre x coordinate of this sector, relative to the sectorTexture
-    private int sectorCentreY; //the centre y coordinate of this sector, relative to the sectorTexture
-    private boolean decor; // is this sector for visual purposes only, i.e. lakes are decor
+    private Color sectorColor; // colour the sector image is tinted when drawn, white if it has not been coloured
     private boolean allocated; // becomes true once the sector has been allocated
-
-    private static Texture troopCountOverlay = new Texture("icons/troopCountOverlay.png");
-    private static Texture pooStatus = new Texture("icons/poopStatus.png");
-    private static Texture asbestosStatus = new Texture("icons/asbestosStatus.png");
-    private static Texture postgradIcon = new Texture("icons/postgradCountOverlay.png");
-    private static BitmapFont font = WidgetFactory.getFontSmall(); // font for rendering sector unit data
-    private static GlyphLayout layout = new GlyphLayout();
+    private SectorOwnership ownership; // owners of the sectors of the map this sector is part of, null until added to a map
+    private DeltaJournal journal; // records changes to the sector so they can be undone, null if they are not recorded
+
+    private static Texture troopCountOverlay; // HUD textures shared by all sectors, loaded when a sector is first drawn
+    private static Texture pooStatus;
+    private static Texture asbestosStatus;
+    private static Texture postgradIcon;
+    private static BitmapFont font; // font for rendering sector unit data
+    private static final float OVERLAY_SIZE = 40.0f; // size HUD icons are drawn at
+
+    private final GlyphLayout underGradsLayout = new GlyphLayout(); // layouts of this sector's HUD text, only updated when the counts change
+    private final GlyphLayout postGradsLayout = new GlyphLayout();
+    private final GlyphLayout asbestosLayout = new GlyphLayout();
+    private final GlyphLayout poopLayout = new GlyphLayout();
+    private boolean hudTextChanged = true; // true if a count has changed since the HUD text was last laid out
 
     private int asbestosCount; // turn the asbestos effect is active on this tile, 0 = not active
     private int poopCount; // turn the poop effect is active on this tile, 0 = not active
 
     /**
-     * @param id sector id
+     * @param definition fixed properties of the sector
      * @param ownerId id of player who owns sector
-     * @param texturePath file path of this sector's texture
-     * @param displayName sector display name
      * @param underGradsInSector number of units in sector
      * @param postGradsInSector number of postgrads in sector
-     * @param reinforcementsProvided number of reinforcements the sector provides
-     * @param college unique id of the college this sector belongs to
-     * @param neutral is this sector a default neutral sector
-     * @param adjacentSectorIds ids of adjacent sectors
-     * @param sectorPixmap pixmap of sector texture
-     * @param sectorCentreX xcoord of sector centre
-     * @param sectorCentreY ycoord of sector centre
-     * @param decor false if a sector is accessible to a player and true if sector is decorative
      * @param asbestosCount number of turns this sector has the asbestos effect for
      * @param poopCount number of turns this sector has the poopy path effect for
      */
-    public Sector(int id, int ownerId, String texturePath, Pixmap sectorPixmap, String displayName, int underGradsInSector, int postGradsInSector, int reinforcementsProvided, String college, boolean neutral, int[] adjacentSectorIds, int sectorCentreX, int sectorCentreY, boolean decor, int asbestosCount, int poopCount) {
-        this.id = id;
+    public Sector(SectorDefinition definition, int ownerId, int underGradsInSector, int postGradsInSector, int asbestosCount, int poopCount) {
+        this.definition = definition;
+        this.adjacentSectorIds = definition.getAdjacentSectorIds();
         this.ownerId = ownerId;
-        this.displayName = displayName;
         this.underGradsInSector = underGradsInSector;
         this.postGradsInSector = postGradsInSector;
-        this.reinforcementsProvided = reinforcementsProvided;
-        this.college = college;
-        this.neutral = neutral;
-        this.adjacentSectorIds = adjacentSectorIds;
-        this.sectorTexture = new Texture(texturePath);
-        this.texturePath = texturePath;
-        this.sectorPixmap = sectorPixmap;
-        this.sectorCentreX = sectorCentreX;
-        this.sectorCentreY = 1080 - sectorCentreY;
-        this.decor = decor;
         this.allocated = false;
+        this.sectorColor = Color.WHITE;
         this.asbestosCount = asbestosCount;
         this.poopCount = poopCount;
     }
 
     /**
      *
-     * @param id sector id
+     * @param definition fixed properties of the sector
      * @param ownerId id of player who owns sector
-     * @param texturePath file path of this sector's texture
-     * @param displayName sector display name
      * @param underGradsInSector number of units in sector
      * @param postGradsInSector number of postgrads in sector
-     * @param reinforcementsProvided number of reinforcements the sector provides
-     * @param college unique id of the college this sector belongs to
-     * @param neutral is this sector a default neutral sector
-     * @param adjacentSectorIds ids of adjacent sectors
-     * @param sectorPixmap pixmap of sector texture
-     * @param sectorCentreX xcoord of sector centre
-     * @param sectorCentreY ycoord of sector centre
-     * @param decor false if a sector is accessible to a player and true if sector is decorative
      * @param allocated has this sector been allocated
      * @param color color this sector should be
      * @param asbestosCount number of turns this sector has the asbestos effect for
      * @param poopCount number of turns this sector has the poopy path effect for
      */
-    public Sector(int id, int ownerId, String texturePath, Pixmap sectorPixmap, String displayName, int underGradsInSector, int postGradsInSector, int reinforcementsProvided, String college, boolean neutral, int[] adjacentSectorIds, int sectorCentreX, int sectorCentreY, boolean decor, boolean allocated, Color color, int asbestosCount, int poopCount) {
-        this(id, ownerId, texturePath, sectorPixmap, displayName, underGradsInSector, postGradsInSector, reinforcementsProvided, college, neutral, adjacentSectorIds, sectorCentreX, sectorCentreY, decor, asbestosCount, poopCount);
-        
-        this.allocated = allocated;
-        this.sectorCentreY = sectorCentreY;
+    public Sector(SectorDefinition definition, int ownerId, int underGradsInSector, int postGradsInSector, boolean allocated, Color color, int asbestosCount, int poopCount) {
+        this(definition, ownerId, underGradsInSector, postGradsInSector, asbestosCount, poopCount);
 
-        if(!isDecor()){this.changeSectorColor(color);
+        this.allocated = allocated;
+        if (!isDecor()) {
             this.changeSectorColor(color);
         }
     }
 
+    /**
+     *
+     * @return the fixed properties of this sector
+     */
+    public SectorDefinition getDefinition() {
+        return definition;
+    }
+
     /**
      *
      * @return this sectors unique id
      */
-    public int getId() { return id; }
+    public int getId() { return definition.getId(); }
 
     /**
      *
@@ -142,9 +130,89 @@ public class Sector {
      * @param player the player object that owns this sector
      */
     public void setOwner(Player player) {
-        this.ownerId = player.getId();
-        this.changeSectorColor(player.getSectorColour());
-        this.allocated = true;
+        if (journal != null) journal.recordOwner(getId(), ownerId, player.getId());
+        changeOwner(player);
+    }
+
+    /**
+     * sets the owner of this sector without recording the change in the journal, i.e. when undoing a change
+     *
+     * @param player player who owns the sector, null if it is unowned
+     */
+    void changeOwner(Player player) {
+        if (player == null) {
+            this.ownerId = -1;
+        } else {
+            this.ownerId = player.getId();
+            this.changeSectorColor(player.getSectorColour());
+            this.allocated = true;
+        }
+        if (ownership != null) ownership.setOwner(getId(), ownerId);
+    }
+
+    /**
+     * changes the units on this sector without recording the change in the journal or giving the sector to the
+     * neutral player if it is left empty, i.e. when undoing a change
+     *
+     * @param underGradChange change in the number of undergrads
+     * @param postGradChange change in the number of postgrads
+     */
+    void changeUnits(int underGradChange, int postGradChange) {
+        this.underGradsInSector += underGradChange;
+        this.postGradsInSector += postGradChange;
+        this.hudTextChanged = true;
+        if (ownership != null) ownership.setTroops(getId(), underGradsInSector + postGradsInSector);
+    }
+
+    /**
+     * changes the turns a status effect is active for without recording the change in the journal, i.e. when undoing a change
+     *
+     * @param effect card type of the status effect, POOPY_PATH_CARD or ASBESTOS_CARD
+     * @param change change in the number of turns
+     */
+    void changeStatusEffect(PunishmentCardType effect, int change) {
+        if (effect == PunishmentCardType.POOPY_PATH_CARD) {
+            this.poopCount += change;
+        } else if (effect == PunishmentCardType.ASBESTOS_CARD) {
+            this.asbestosCount += change;
+        }
+        this.hudTextChanged = true;
+    }
+
+    /**
+     * puts the sector into the given state, e.g. the state it was in at a replay keyframe
+     *
+     * @param owner player who owns the sector, null if it is unowned
+     * @param underGrads number of undergrads on the sector
+     * @param postGrads number of postgrads on the sector
+     * @param asbestosCount turns the asbestos effect is active for
+     * @param poopCount turns the poopy path effect is active for
+     */
+    public void restoreState(Player owner, int underGrads, int postGrads, int asbestosCount, int poopCount) {
+        changeOwner(owner);
+        this.underGradsInSector = underGrads;
+        this.postGradsInSector = postGrads;
+        if (ownership != null) ownership.setTroops(getId(), underGrads + postGrads);
+        this.asbestosCount = asbestosCount;
+        this.poopCount = poopCount;
+        this.hudTextChanged = true;
+    }
+
+    /**
+     * @param journal journal to record changes to this sector in, null to stop recording them
+     */
+    void setJournal(DeltaJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * adds this sector to the ownership records of a map, which are then updated whenever this sector changes owner
+     *
+     * @param ownership ownership records of the map this sector is part of
+     */
+    void setOwnership(SectorOwnership ownership) {
+        this.ownership = ownership;
+        ownership.addSector(getId(), ownerId, underGradsInSector + postGradsInSector, getReinforcementsProvided());
     }
 
     /**
@@ -176,7 +244,7 @@ public class Sector {
      * @return the name of the sector that is to be shown in the GUI
      */
     public String getDisplayName() {
-        return displayName;
+        return definition.getDisplayName();
     }
 
     /**
@@ -184,7 +252,7 @@ public class Sector {
      * @return number of troops rewarded for conquering this territory
      */
     public int getReinforcementsProvided() {
-        return reinforcementsProvided;
+        return definition.getReinforcementsProvided();
     }
 
     /**
@@ -203,38 +271,12 @@ public class Sector {
         return postGradsInSector;
     }
 
-    /**
-     *
-     * @return the texture used for drawing the sectorNeutral
-     */
-    public Texture getSectorTexture() {
-        return sectorTexture;
-    }
-
-    /**
-     * Sets the new texture for a sector
-     * @param newPixmap the memory representation of the textures pixels
-     */
-    private void setNewSectorTexture(Pixmap newPixmap) {
-        this.sectorTexture.dispose();
-        Texture temp = new Texture(newPixmap);
-        this.sectorTexture = temp;
-    }
-
-    /**
-     *
-     * @return the pixel data of this sectors texture
-     */
-    public Pixmap getSectorPixmap() {
-        return sectorPixmap;
-    }
-
     /**
      *
      * @return centre x coordinate of this sector
      */
     public int getSectorCentreX() {
-        return sectorCentreX;
+        return definition.getSectorCentreX();
     }
 
     /**
@@ -242,21 +284,21 @@ public class Sector {
      * @return centre y coordinate of this sector
      */
     public int getSectorCentreY() {
-        return sectorCentreY;
+        return 1080 - definition.getSectorCentreY(); // the definition measures y from the top of the map
     }
 
     /**
      * @return boolean value to check whether sector is decorative
      */
     public boolean isDecor() {
-        return decor;
+        return definition.isDecor();
     }
 
     /**
      *
      * @return true if this sector is a default neutral sector, else false
      */
-    public boolean isNeutral() { return neutral; }
+    public boolean isNeutral() { return definition.isNeutral(); }
 
     /**
      *
@@ -270,7 +312,7 @@ public class Sector {
      *
      * @return the name of the college this sector belongs to
      */
-    public String getCollege() { return college; }
+    public String getCollege() { return definition.getCollege(); }
 
     /**
      * Function to check if a given sector is adjacent
@@ -278,6 +320,8 @@ public class Sector {
      * @return True/False
      */
     public boolean isAdjacentTo(Sector toCheck) {
+        if (ownership != null) return ownership.getGraph().isAdjacent(getId(), toCheck.getId());
+
         for (int adjacent : this.adjacentSectorIds) {
             if (adjacent == toCheck.getId()) {
                 return true;
@@ -299,15 +343,20 @@ public class Sector {
     public void addUnits(int undergrad, int postgrad, Player neutralPlayer) throws IllegalArgumentException {
         this.underGradsInSector += undergrad;
         this.postGradsInSector += postgrad;
+        this.hudTextChanged = true;
 
-        if (this.underGradsInSector < 0) {
-            this.underGradsInSector = 0;
-            throw new IllegalArgumentException("Cannot have less than 0 units on a sector");
-        }
+        try {
+            if (this.underGradsInSector < 0) {
+                this.underGradsInSector = 0;
+                throw new IllegalArgumentException("Cannot have less than 0 units on a sector");
+            }
 
-        if (this.postGradsInSector < 0) {
-            this.postGradsInSector = 0;
-            throw new IllegalArgumentException("Cannot have less than 0 postgrad units on a sector");
+            if (this.postGradsInSector < 0) {
+                this.postGradsInSector = 0;
+                throw new IllegalArgumentException("Cannot have less than 0 postgrad units on a sector");
+            }
+        } finally { // record the units actually on the sector, even if the change was invalid
+            if (ownership != null) ownership.setTroops(getId(), underGradsInSector + postGradsInSector);
         }
 
         if (this.underGradsInSector == 0 && this.postGradsInSector == 0) this.setOwner(neutralPlayer);
@@ -315,6 +364,7 @@ public class Sector {
 
     /**
      * The method takes a sectorId and recolors it to the specified color
+     * the colour is applied by the tint shader when the sector is drawn so this does not modify any texture
      *
      * @param newColor what color the sector be changed to
      * @throws RuntimeException if attempt to recolor a decor sector
@@ -324,20 +374,15 @@ public class Sector {
             throw new RuntimeException("Should not recolour decor sector");
         }
 
-        Pixmap newPix = new Pixmap(Gdx.files.internal(this.getTexturePath())); // pixmap for drawing updated sector texture to
-        Pixmap.setBlending(Pixmap.Blending.None);
-        for (int x = 0; x < this.getSectorPixmap().getWidth(); x++){
-            for (int y = 0; y < this.getSectorPixmap().getHeight(); y++){
-                if(newPix.getPixel(x, y) != -256){
-                    Color tempColor = new Color(0,0,0,0);
-                    Color.rgba8888ToColor(tempColor, newPix.getPixel(x, y)); // get the pixels current color
-                    tempColor.sub(new Color(Color.WHITE).sub(newColor)); // calculate the new color of the pixel
-                    newPix.drawPixel(x, y, Color.rgba8888(tempColor));  // drawSectorImage the modified pixel value to the new pixmap
-                }
-            }
-        }
-        this.setNewSectorTexture(newPix); // drawSectorImage the generated pixmap to the new texture
-        newPix.dispose();
+        this.sectorColor = newColor;
+    }
+
+    /**
+     *
+     * @return colour this sector is tinted when drawn
+     */
+    public Color getSectorColor() {
+        return sectorColor;
     }
 
     /**
@@ -353,7 +398,7 @@ public class Sector {
      * @return file path to this sectors texture
      */
     public String getTexturePath() {
-        return texturePath;
+        return definition.getTexturePath();
     }
 
     /**
@@ -374,41 +419,82 @@ public class Sector {
 
     /**
      * render method for drawing this sectors image
+     * the batch should be using the SectorAtlas tint shader so that the sector is drawn in its colour
      *
      * @param batch to draw the graphics to
+     * @param atlas atlas the image of this sector has been packed into
      */
-    public void drawSectorImage(SpriteBatch batch) {
-        batch.draw(this.getSectorTexture(), 0, 0);
+    public void drawSectorImage(SpriteBatch batch, SectorAtlas atlas) {
+        TextureAtlas.AtlasRegion region = atlas.getRegion(getId());
+        if (region == null) return; // sector is not part of the atlas
+        batch.setColor(sectorColor);
+        batch.draw(region, region.offsetX, region.offsetY);
     }
 
     /**
-     * render method for drawing status effect icons to
+     * render method for drawing the unit counts and status effect icons of the sectors
+     * each HUD texture is drawn for every sector before moving on to the next, then all of the text is drawn, so the batch
+     * only needs to switch texture a few times however many sectors there are
      *
      * @param batch to draw the graphics to
+     * @param sectors sectors to draw the HUD of
      */
-    public void drawSectorUi(SpriteBatch batch) {
-        if (!this.isDecor()) { // don't need to drawSectorImage the amount of units on a decor sector
-            float overlaySize = 40.0f;
-            batch.draw(troopCountOverlay, this.getSectorCentreX() - overlaySize - 5, this.getSectorCentreY() - overlaySize / 2, overlaySize, overlaySize);
-            layout.setText(font, this.getUnderGradsInSector() + "");
-            font.draw(batch, layout, this.getSectorCentreX() - overlaySize / 2 - layout.width / 2 - 5, this.getSectorCentreY() + layout.height / 2);
-
-            batch.draw(postgradIcon, this.getSectorCentreX() + 5, this.getSectorCentreY() - overlaySize / 2, overlaySize, overlaySize);
-            layout.setText(font, this.getPostGradsInSector() + "");
-            font.draw(batch, layout, this.getSectorCentreX() + overlaySize / 2 - layout.width / 2 + 5, this.getSectorCentreY() + layout.height / 2);
-
-            if (this.getAsbestosCount() != 0) {
-                batch.draw(asbestosStatus, this.getSectorCentreX() - overlaySize / 2, this.getSectorCentreY() + 5, overlaySize, overlaySize);
-                layout.setText(font, this.getAsbestosCount() + "");
-                font.draw(batch, layout, this.getSectorCentreX() - layout.width / 2, this.getSectorCentreY() + layout.height + 18);
-            }
+    public static void drawSectorsUi(SpriteBatch batch, Collection<Sector> sectors) {
+        if (troopCountOverlay == null) loadHudTextures();
 
-            if (this.getPoopCount() != 0) {
-                batch.draw(pooStatus, this.getSectorCentreX() - overlaySize / 2, this.getSectorCentreY() - 42, overlaySize, overlaySize);
-                layout.setText(font, this.getPoopCount() + "");
-                font.draw(batch, layout, this.getSectorCentreX() - layout.width / 2, this.getSectorCentreY() + layout.height - 34);
-            }
+        for (Sector sector : sectors) {
+            if (sector.isDecor()) continue; // don't need to draw the amount of units on a decor sector
+            batch.draw(troopCountOverlay, sector.getSectorCentreX() - OVERLAY_SIZE - 5, sector.getSectorCentreY() - OVERLAY_SIZE / 2, OVERLAY_SIZE, OVERLAY_SIZE);
+        }
+        for (Sector sector : sectors) {
+            if (sector.isDecor()) continue;
+            batch.draw(postgradIcon, sector.getSectorCentreX() + 5, sector.getSectorCentreY() - OVERLAY_SIZE / 2, OVERLAY_SIZE, OVERLAY_SIZE);
+        }
+        for (Sector sector : sectors) {
+            if (sector.isDecor() || sector.getAsbestosCount() == 0) continue;
+            batch.draw(asbestosStatus, sector.getSectorCentreX() - OVERLAY_SIZE / 2, sector.getSectorCentreY() + 5, OVERLAY_SIZE, OVERLAY_SIZE);
+        }
+        for (Sector sector : sectors) {
+            if (sector.isDecor() || sector.getPoopCount() == 0) continue;
+            batch.draw(pooStatus, sector.getSectorCentreX() - OVERLAY_SIZE / 2, sector.getSectorCentreY() - 42, OVERLAY_SIZE, OVERLAY_SIZE);
+        }
+
+        for (Sector sector : sectors) {
+            if (!sector.isDecor()) sector.drawSectorUiText(batch);
+        }
+    }
+
+    /**
+     * draws the unit counts and status effect counts of this sector, laying out the text again only if a count has changed
+     */
+    private void drawSectorUiText(SpriteBatch batch) {
+        if (hudTextChanged) {
+            underGradsLayout.setText(font, Integer.toString(underGradsInSector));
+            postGradsLayout.setText(font, Integer.toString(postGradsInSector));
+            asbestosLayout.setText(font, Integer.toString(asbestosCount));
+            poopLayout.setText(font, Integer.toString(poopCount));
+            hudTextChanged = false;
+        }
+
+        font.draw(batch, underGradsLayout, this.getSectorCentreX() - OVERLAY_SIZE / 2 - underGradsLayout.width / 2 - 5, this.getSectorCentreY() + underGradsLayout.height / 2);
+        font.draw(batch, postGradsLayout, this.getSectorCentreX() + OVERLAY_SIZE / 2 - postGradsLayout.width / 2 + 5, this.getSectorCentreY() + postGradsLayout.height / 2);
+        if (this.getAsbestosCount() != 0) {
+            font.draw(batch, asbestosLayout, this.getSectorCentreX() - asbestosLayout.width / 2, this.getSectorCentreY() + asbestosLayout.height + 18);
         }
+        if (this.getPoopCount() != 0) {
+            font.draw(batch, poopLayout, this.getSectorCentreX() - poopLayout.width / 2, this.getSectorCentreY() + poopLayout.height - 34);
+        }
+    }
+
+    /**
+     * loads the textures and font shared by all sectors for drawing their HUD
+     */
+    private static void loadHudTextures() {
+        troopCountOverlay = WidgetFactory.getTexture("icons/troopCountOverlay.png");
+        pooStatus = WidgetFactory.getTexture("icons/poopStatus.png");
+        asbestosStatus = WidgetFactory.getTexture("icons/asbestosStatus.png");
+        postgradIcon = WidgetFactory.getTexture("icons/postgradCountOverlay.png");
+        font = WidgetFactory.getFontSmall();
     }
 
     /**
@@ -421,9 +507,13 @@ public class Sector {
         switch (punishmentCardType) {
             case POOPY_PATH_CARD:
                 this.poopCount += 3;
+                this.hudTextChanged = true;
+                if (journal != null) journal.recordStatusEffect(getId(), punishmentCardType, 3);
                 break;
             case ASBESTOS_CARD:
                 this.asbestosCount += 3;
+                this.hudTextChanged = true;
+                if (journal != null) journal.recordStatusEffect(getId(), punishmentCardType, 3);
                 break;
             default:
                 throw new IllegalArgumentException("Can only increment status effects for Poopy path card and Asbestos card");
@@ -437,5 +527,6 @@ public class Sector {
     public void decrementStatusEffects() {
         if (this.poopCount > 0) this.poopCount--;
         if (this.asbestosCount > 0) this.asbestosCount--;
+        this.hudTextChanged = true;
     }
 }
@@ -0,0 +1,421 @@
+package sepr.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/*
+Added in assessment 4
+ - added so that sectors no longer each hold a full screen texture, instead each sector image is cropped to the part of it that is visible and packed into a small number of shared textures
+ - added the shader used to colour sectors with their owner's colour when they are drawn, so the atlas only stores the uncoloured images
+ - builds the map's SectorLookup from the cropped images so no sector image has to be kept in memory once the atlas is built
+ - loads the sector images itself from their texture paths so sectors do not hold any image data
+ - sector images are decoded and cropped in parallel on worker threads, then packed and uploaded on the rendering thread
+ - built from sector definitions and keeps each sector's region itself, so one atlas can be shared by every game on the map
+ - the tint shader can be freed with disposeTintShader when the game closes
+ - can be built a step at a time by a Loader, so the atlas is built while the loading screen is shown rather than when the first game is drawn
+ */
+
+/**
+ * packs the images of the sectors that make up a map into shared texture pages
+ *
+ * each sector image is the size of the whole map but only a small part of it is visible, so the image is cropped to the
+ * bounding box of its non-transparent pixels before being packed; each sector's region records the offset it should be
+ * drawn at so it appears in the same place as the uncropped image
+ * the pages are uploaded from the packer's pixmaps, which are then freed, so they are unmanaged textures that can not be
+ * reloaded if the OpenGL context is lost; this does not happen on the desktop backend the game runs on
+ */
+public class SectorAtlas {
+    private static final int PAGE_SIZE = 2048; // width and height of each texture page, large enough to fit the underlay/overlay images
+    private static final int PADDING = 2; // gap left between packed images to stop neighbouring images bleeding into each other
+    private static final int MAP_WIDTH = 1920; // width of the map, all sector images are this size before being cropped
+    private static final int MAP_HEIGHT = 1080; // height of the map, all sector images are this size before being cropped
+
+    private static ShaderProgram tintShader; // shader for drawing the sector images in their owner's colour, shared by every atlas
+
+    private Texture[] pages; // the texture pages the sector images are packed into
+    private SectorLookup sectorLookup; // which sector covers each point of the map, built from the cropped images
+    private IntMap<TextureAtlas.AtlasRegion> regions; // region each sector's image was packed to, keyed by sector id
+
+    /**
+     * loads, crops and packs the images of the passed sectors
+     * the sector lookup is filled from the cropped images, after which the images are disposed
+     *
+     * @param sectors definitions of the sectors to pack the images of
+     */
+    public SectorAtlas(Collection<SectorDefinition> sectors) {
+        new Loader(this, sectors).finishLoading();
+    }
+
+    /**
+     * creates an empty atlas for a Loader to fill
+     */
+    private SectorAtlas() {
+
+    }
+
+    /**
+     *
+     * @return lookup of which sector covers each point of the map, decor sectors are not included
+     */
+    public SectorLookup getSectorLookup() {
+        return sectorLookup;
+    }
+
+    /**
+     * gets the region a sector's image was packed to, its offsetX and offsetY are the world coordinates of the bottom
+     * left corner of the region
+     *
+     * @param sectorId id of the sector
+     * @return the sector's region, null if the sector is not part of this atlas
+     */
+    public TextureAtlas.AtlasRegion getRegion(int sectorId) {
+        return regions.get(sectorId);
+    }
+
+    /**
+     * gets the shader for drawing sector regions tinted with the batch colour
+     * each channel of the image has (1 - tint channel) subtracted from it, so drawing with white leaves the image unchanged
+     * the shader is loaded the first time it is requested
+     *
+     * @return shader to set on the sprite batch while drawing sector images
+     * @throws GdxRuntimeException if the shader fails to compile
+     */
+    public static ShaderProgram getTintShader() {
+        if (tintShader == null) {
+            tintShader = new ShaderProgram(Gdx.files.internal("shaders/sectorTint.vert"), Gdx.files.internal("shaders/sectorTint.frag"));
+            if (!tintShader.isCompiled()) {
+                throw new GdxRuntimeException("Could not compile sector tint shader: " + tintShader.getLog());
+            }
+        }
+        return tintShader;
+    }
+
+    /**
+     * frees the tint shader, if it has been loaded; it is loaded again if requested afterwards
+     */
+    public static void disposeTintShader() {
+        if (tintShader != null) {
+            tintShader.dispose();
+            tintShader = null;
+        }
+    }
+
+    /**
+     * frees the texture pages of this atlas
+     */
+    public void dispose() {
+        for (Texture page : pages) {
+            page.dispose();
+        }
+    }
+
+    /**
+     *
+     * @param sector sector to get the name of
+     * @return name the sector's image is stored under in the atlas
+     */
+    private static String regionName(SectorDefinition sector) {
+        return Integer.toString(sector.getId());
+    }
+
+    /**
+     * loads the sector's image and crops it to the bounding box of its non-transparent pixels
+     * the alpha channel is read straight from the pixel buffer as calling getPixel for every pixel of a full screen image is slow
+     * may be called from any thread, so the image is cropped by copying rows of bytes rather than with drawPixmap, which
+     * depends on the blending mode shared by every pixmap
+     *
+     * @param sector sector whose image is to be cropped
+     * @return the cropped pixmap and the position of its bottom left corner in world coordinates
+     */
+    private static CroppedImage cropToVisibleArea(SectorDefinition sector) {
+        Pixmap source = toRGBA8888(new Pixmap(Gdx.files.internal(sector.getTexturePath())));
+        int width = source.getWidth();
+        int height = source.getHeight();
+        ByteBuffer pixels = source.getPixels();
+
+        int minX = width, minY = height, maxX = -1, maxY = -1;
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * width * 4;
+            for (int x = 0; x < width; x++) {
+                if (pixels.get(rowStart + x * 4 + 3) != 0) { // alpha is the last byte of each RGBA8888 pixel
+                    if (x < minX) minX = x;
+                    if (x > maxX) maxX = x;
+                    if (y < minY) minY = y;
+                    if (y > maxY) maxY = y;
+                }
+            }
+        }
+
+        if (maxX == -1) { // image is completely transparent so keep a single transparent pixel
+            minX = minY = maxX = maxY = 0;
+        }
+
+        int croppedWidth = maxX - minX + 1;
+        int croppedHeight = maxY - minY + 1;
+        Pixmap cropped = new Pixmap(croppedWidth, croppedHeight, Pixmap.Format.RGBA8888);
+        ByteBuffer croppedPixels = cropped.getPixels();
+        byte[] row = new byte[croppedWidth * 4];
+        for (int y = 0; y < croppedHeight; y++) {
+            pixels.position(((minY + y) * width + minX) * 4);
+            pixels.get(row);
+            croppedPixels.put(row);
+        }
+        pixels.position(0);
+        croppedPixels.position(0);
+
+        source.dispose();
+
+        // pixmap rows go top to bottom whereas world coordinates go bottom to top
+        return new CroppedImage(sector, cropped, minX, height - 1 - maxY);
+    }
+
+    /**
+     * returns the pixmap in RGBA8888 format, converting it if it is in any other format
+     *
+     * @param pixmap pixmap to convert, disposed if it is converted
+     * @return the passed pixmap if it is already RGBA8888 else a converted copy
+     */
+    private static Pixmap toRGBA8888(Pixmap pixmap) {
+        if (pixmap.getFormat() == Pixmap.Format.RGBA8888) return pixmap;
+        synchronized (SectorAtlas.class) { // the blending mode is shared by every pixmap so only one conversion can run at once
+            return convertToRGBA8888(pixmap);
+        }
+    }
+
+    private static Pixmap convertToRGBA8888(Pixmap pixmap) {
+        Pixmap converted = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), Pixmap.Format.RGBA8888);
+        Pixmap.Blending previousBlending = Pixmap.getBlending();
+        Pixmap.setBlending(Pixmap.Blending.None);
+        converted.drawPixmap(pixmap, 0, 0);
+        Pixmap.setBlending(previousBlending);
+        pixmap.dispose();
+        return converted;
+    }
+
+    /**
+     * builds a SectorAtlas a step at a time, so it can be built while the loading screen is drawn
+     *
+     * the sector images are decoded and cropped in parallel on worker threads as soon as the loader is created, then each
+     * step adds one image to the sector lookup, packs one image or uploads one page on the rendering thread, as GL calls
+     * may only be made from the rendering thread
+     */
+    public static class Loader {
+        private final SectorAtlas atlas; // atlas being built
+        private final ExecutorService executor; // decodes the sector images
+        private final List<Future<CroppedImage>> decodes; // decode of each sector image, in the order they were submitted
+        private final List<CroppedImage> images; // images that have been decoded
+        private PixmapPacker packer; // packs the images into pages, null until every image is in the sector lookup
+        private int lookupCount; // number of images added to the sector lookup
+        private int packedCount; // number of images packed
+        private int uploadedCount; // number of pages uploaded as textures
+        private boolean loaded; // true once the atlas has been built
+
+        /**
+         * starts decoding the images of the passed sectors in the background
+         *
+         * @param sectors definitions of the sectors to pack the images of
+         */
+        public Loader(Collection<SectorDefinition> sectors) {
+            this(new SectorAtlas(), sectors);
+        }
+
+        private Loader(SectorAtlas atlas, Collection<SectorDefinition> sectors) {
+            this.atlas = atlas;
+            atlas.sectorLookup = new SectorLookup(MAP_WIDTH, MAP_HEIGHT);
+
+            int threadCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), sectors.size()));
+            executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Sector image decoder");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+            decodes = new ArrayList<Future<CroppedImage>>(sectors.size());
+            for (final SectorDefinition sector : sectors) {
+                decodes.add(executor.submit(new Callable<CroppedImage>() {
+                    @Override
+                    public CroppedImage call() {
+                        return cropToVisibleArea(sector);
+                    }
+                }));
+            }
+            images = new ArrayList<CroppedImage>(sectors.size());
+        }
+
+        /**
+         * builds the atlas for up to the given time, at least one step is taken unless an image is still being decoded
+         * must be called from the rendering thread
+         *
+         * @param millis maximum time to spend building the atlas, a single step may take slightly longer
+         * @return true once the atlas has been built
+         * @throws GdxRuntimeException if a sector image could not be loaded
+         */
+        public boolean update(int millis) {
+            long end = System.nanoTime() + millis * 1000000L;
+            while (!loaded && step(false)) {
+                if (System.nanoTime() >= end) break;
+            }
+            return loaded;
+        }
+
+        /**
+         * builds the rest of the atlas, waiting for any images still being decoded
+         * must be called from the rendering thread
+         *
+         * @return the built atlas
+         * @throws GdxRuntimeException if a sector image could not be loaded
+         */
+        public SectorAtlas finishLoading() {
+            while (!loaded) {
+                step(true);
+            }
+            return atlas;
+        }
+
+        /**
+         * @return proportion of the atlas that has been built, from 0 to 1
+         */
+        public float getProgress() {
+            if (loaded) return 1;
+            float pagesUploaded = atlas.pages == null ? 0 : uploadedCount / (float)atlas.pages.length;
+            return (images.size() + lookupCount + packedCount + pagesUploaded) / (3 * decodes.size() + 1);
+        }
+
+        /**
+         * stops building the atlas and frees the images and pages created so far, or the atlas if it has been built
+         * images still being decoded when the loader is cancelled are not freed
+         */
+        public void cancel() {
+            executor.shutdownNow();
+            if (loaded) {
+                atlas.dispose();
+                return;
+            }
+            for (CroppedImage image : images) {
+                image.pixmap.dispose();
+            }
+            if (packer != null) packer.dispose();
+            for (int i = 0; i < uploadedCount; i++) {
+                atlas.pages[i].dispose();
+            }
+            loaded = true; // nothing is left to build
+        }
+
+        /**
+         * takes the next step of building the atlas
+         *
+         * @param wait whether to wait for the next image to be decoded if it is not ready
+         * @return false if the next image has not been decoded and wait is false, otherwise true
+         */
+        private boolean step(boolean wait) {
+            if (images.size() < decodes.size()) {
+                Future<CroppedImage> decode = decodes.get(images.size());
+                if (!wait && !decode.isDone()) return false;
+                images.add(getDecodedImage(decode));
+            } else if (lookupCount < images.size()) {
+                if (lookupCount == 0) {
+                    Collections.sort(images, new Comparator<CroppedImage>() {
+                        @Override
+                        public int compare(CroppedImage a, CroppedImage b) { // lower ids take priority where sectors overlap
+                            return a.sector.getId() - b.sector.getId();
+                        }
+                    });
+                }
+                CroppedImage image = images.get(lookupCount++);
+                if (!image.sector.isDecor()) { // decor sectors can not be selected
+                    atlas.sectorLookup.addSector(image.sector.getId(), image.pixmap, image.offsetX, image.offsetY);
+                }
+            } else if (packer == null) {
+                Collections.sort(images, new Comparator<CroppedImage>() {
+                    @Override
+                    public int compare(CroppedImage a, CroppedImage b) { // pack largest images first so less space is wasted
+                        return (b.pixmap.getWidth() * b.pixmap.getHeight()) - (a.pixmap.getWidth() * a.pixmap.getHeight());
+                    }
+                });
+                packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, PADDING, false, new PixmapPacker.GuillotineStrategy());
+            } else if (packedCount < images.size()) {
+                CroppedImage image = images.get(packedCount++);
+                packer.pack(regionName(image.sector), image.pixmap);
+            } else if (atlas.pages == null) {
+                atlas.pages = new Texture[packer.getPages().size];
+            } else if (uploadedCount < atlas.pages.length) {
+                Texture page = new Texture(packer.getPages().get(uploadedCount).getPixmap());
+                page.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+                atlas.pages[uploadedCount++] = page;
+            } else {
+                atlas.regions = new IntMap<TextureAtlas.AtlasRegion>(images.size());
+                for (CroppedImage image : images) {
+                    Rectangle rect = packer.getRect(regionName(image.sector));
+                    TextureAtlas.AtlasRegion region = new TextureAtlas.AtlasRegion(atlas.pages[packer.getPageIndex(regionName(image.sector))], (int)rect.x, (int)rect.y, (int)rect.width, (int)rect.height);
+                    region.offsetX = image.offsetX;
+                    region.offsetY = image.offsetY;
+                    atlas.regions.put(image.sector.getId(), region);
+                    image.pixmap.dispose(); // packer has copied the image to its page
+                }
+                images.clear();
+                packer.dispose(); // page pixmaps are no longer needed once they have been uploaded as textures
+                packer = null;
+                executor.shutdown();
+                loaded = true;
+            }
+            return true;
+        }
+
+        /**
+         * @param decode decode of a sector image
+         * @return the decoded image, waiting for it to be decoded if it has not been
+         * @throws GdxRuntimeException if the image could not be loaded
+         */
+        private CroppedImage getDecodedImage(Future<CroppedImage> decode) {
+            try {
+                return decode.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GdxRuntimeException("Interrupted while loading sector images", e);
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                throw new GdxRuntimeException("Could not load sector image", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * a sector's image cropped to its visible area
+     */
+    private static class CroppedImage {
+        final SectorDefinition sector;
+        final Pixmap pixmap;
+        final int offsetX; // world x coordinate of the left edge of the cropped image
+        final int offsetY; // world y coordinate of the bottom edge of the cropped image
+
+        CroppedImage(SectorDefinition sector, Pixmap pixmap, int offsetX, int offsetY) {
+            this.sector = sector;
+            this.pixmap = pixmap;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package sepr.game;
+
+import java.util.Arrays;
+
+/*
+Added in assessment 4
+ - added so the sector table is parsed once into typed values rather than being parsed again for every new game
+ - sectors now hold their definition rather than copies of its properties, so every game on the map shares the same definitions
+ */
+
+/**
+ * the fixed properties of a sector, as defined by a row of the sectorProperties.csv file
+ * definitions are immutable so may be shared by any number of games
+ */
+public class SectorDefinition {
+    private final int id;
+    private final String texturePath; // file path of the sector's image
+    private final String displayName;
+    private final int reinforcementsProvided; // number of reinforcements the sector provides its owner
+    private final String college; // college the sector belongs to
+    private final boolean neutral; // is the sector given to the neutral player at the start of the game
+    private final int[] adjacentSectorIds;
+    private final int sectorCentreX; // centre of the sector, as given in the table, y is measured from the top of the map
+    private final int sectorCentreY;
+    private final boolean decor; // is the sector for visual purposes only
+
+    public SectorDefinition(int id, String texturePath, String displayName, int reinforcementsProvided, String college, boolean neutral, int[] adjacentSectorIds, int sectorCentreX, int sectorCentreY, boolean decor) {
+        this.id = id;
+        this.texturePath = texturePath;
+        this.displayName = displayName;
+        this.reinforcementsProvided = reinforcementsProvided;
+        this.college = college;
+        this.neutral = neutral;
+        this.adjacentSectorIds = adjacentSectorIds.clone();
+        this.sectorCentreX = sectorCentreX;
+        this.sectorCentreY = sectorCentreY;
+        this.decor = decor;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTexturePath() {
+        return texturePath;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getReinforcementsProvided() {
+        return reinforcementsProvided;
+    }
+
+    public String getCollege() {
+        return college;
+    }
+
+    public boolean isNeutral() {
+        return neutral;
+    }
+
+    /**
+     * @return a copy of the ids of the sectors adjacent to this one
+     */
+    public int[] getAdjacentSectorIds() {
+        return adjacentSectorIds.clone();
+    }
+
+    public int getSectorCentreX() {
+        return sectorCentreX;
+    }
+
+    public int getSectorCentreY() {
+        return sectorCentreY;
+    }
+
+    public boolean isDecor() {
+        return decor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SectorDefinition)) return false;
+        SectorDefinition other = (SectorDefinition)o;
+        return id == other.id && reinforcementsProvided == other.reinforcementsProvided && neutral == other.neutral
+                && sectorCentreX == other.sectorCentreX && sectorCentreY == other.sectorCentreY && decor == other.decor
+                && texturePath.equals(other.texturePath) && displayName.equals(other.displayName)
+                && college.equals(other.college) && Arrays.equals(adjacentSectorIds, other.adjacentSectorIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return id; // ids are unique within a map
+    }
+}
@@ -0,0 +1,152 @@
+package sepr.game;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/*
+Added in assessment 4
+ - added so adjacency checks and distances between sectors do not have to scan the adjacency lists of the sectors
+ */
+
+/**
+ * the adjacency of the sectors of a map, stored as one bitset per sector, and the distance between every pair of sectors
+ *
+ * bit i of a sector set is set if sector i is in the set, so checking adjacency or combining sets of sectors is a single
+ * operation; this limits a map to MAX_SECTORS sector ids
+ * adjacency is directed as in the sector properties file: b is adjacent to a if b is listed in the adjacent ids of a
+ * the graph never changes once it is built so one graph is shared by every game on a map
+ */
+public class SectorGraph {
+    public static final int MAX_SECTORS = 64; // number of bits in a long, sector ids must be below this
+
+    private final int sectorCount; // number of sector ids, ids run from 0 to sectorCount - 1
+    private final long[] adjacentSectors; // set of sectors adjacent to each sector
+    private final long[] sectorsAdjacentTo; // set of sectors each sector is adjacent to, the reverse of adjacentSectors
+    private final long playableSectors; // set of sectors that are not decor
+    private final int[] distances; // fewest moves between each pair of sectors, sectorCount * from + to, -1 if unreachable
+
+    /**
+     * builds the graph of the sectors and finds the distance between every pair of sectors
+     *
+     * @param sectors definitions of the sectors of the map
+     * @throws IllegalArgumentException if a sector id, or the id of an adjacent sector, is not between 0 and MAX_SECTORS - 1
+     */
+    public SectorGraph(Collection<SectorDefinition> sectors) {
+        int maxId = -1;
+        for (SectorDefinition sector : sectors) {
+            checkId(sector.getId());
+            maxId = Math.max(maxId, sector.getId());
+            for (int adjacentId : sector.getAdjacentSectorIds()) {
+                checkId(adjacentId);
+                maxId = Math.max(maxId, adjacentId);
+            }
+        }
+
+        this.sectorCount = maxId + 1;
+        this.adjacentSectors = new long[sectorCount];
+        this.sectorsAdjacentTo = new long[sectorCount];
+        long playable = 0;
+        for (SectorDefinition sector : sectors) {
+            int id = sector.getId();
+            if (!sector.isDecor()) playable |= bit(id);
+            for (int adjacentId : sector.getAdjacentSectorIds()) {
+                adjacentSectors[id] |= bit(adjacentId);
+                sectorsAdjacentTo[adjacentId] |= bit(id);
+            }
+        }
+        this.playableSectors = playable;
+
+        this.distances = new int[sectorCount * sectorCount];
+        for (int from = 0; from < sectorCount; from++) {
+            findDistancesFrom(from);
+        }
+    }
+
+    private static void checkId(int sectorId) {
+        if (sectorId < 0 || sectorId >= MAX_SECTORS) {
+            throw new IllegalArgumentException("Sector ids must be between 0 and " + (MAX_SECTORS - 1) + ", got " + sectorId);
+        }
+    }
+
+    /**
+     * breadth first search from a sector, expanding a whole layer of sectors at once using the bitsets
+     */
+    private void findDistancesFrom(int from) {
+        int row = from * sectorCount;
+        Arrays.fill(distances, row, row + sectorCount, -1);
+
+        long visited = bit(from);
+        long layer = visited;
+        int distance = 0;
+        while (layer != 0) {
+            long next = 0;
+            for (long remaining = layer; remaining != 0; remaining &= remaining - 1) {
+                int id = Long.numberOfTrailingZeros(remaining);
+                distances[row + id] = distance;
+                next |= adjacentSectors[id];
+            }
+            layer = next & ~visited;
+            visited |= next;
+            distance++;
+        }
+    }
+
+    /**
+     * @param sectorId id of a sector
+     * @return set containing only the given sector
+     */
+    public static long bit(int sectorId) {
+        return 1L << sectorId;
+    }
+
+    /**
+     * @param sectors set of sectors
+     * @param sectorId id of a sector
+     * @return true if the sector is in the set
+     */
+    public static boolean contains(long sectors, int sectorId) {
+        return (sectors & bit(sectorId)) != 0;
+    }
+
+    /**
+     * @return number of sector ids in the graph, ids run from 0 to this value - 1
+     */
+    public int getSectorCount() {
+        return sectorCount;
+    }
+
+    /**
+     * @return true if sector b is adjacent to sector a
+     */
+    public boolean isAdjacent(int a, int b) {
+        return a >= 0 && a < sectorCount && contains(adjacentSectors[a], b);
+    }
+
+    /**
+     * @return set of the sectors adjacent to the given sector
+     */
+    public long getAdjacentSectors(int sectorId) {
+        return adjacentSectors[sectorId];
+    }
+
+    /**
+     * @return set of the sectors the given sector is adjacent to
+     */
+    public long getSectorsAdjacentTo(int sectorId) {
+        return sectorsAdjacentTo[sectorId];
+    }
+
+    /**
+     * @return set of the sectors that are not decor
+     */
+    public long getPlayableSectors() {
+        return playableSectors;
+    }
+
+    /**
+     * @return fewest moves between adjacent sectors needed to get from one sector to the other, -1 if it is not possible
+     */
+    public int getDistance(int from, int to) {
+        return distances[from * sectorCount + to];
+    }
+}
@@ -0,0 +1,137 @@
+package sepr.game;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class SectorGraphTest {
+
+    /**
+     * finds the distance from a sector to every other by a plain breadth first search over the adjacency lists
+     *
+     * @return fewest moves to each sector id, -1 if it can not be reached
+     */
+    private static int[] naiveDistances(List<SectorDefinition> sectors, int sectorCount, int from) {
+        int[][] adjacent = new int[sectorCount][0];
+        for (SectorDefinition sector : sectors) {
+            adjacent[sector.getId()] = sector.getAdjacentSectorIds();
+        }
+
+        int[] distances = new int[sectorCount];
+        Arrays.fill(distances, -1);
+        distances[from] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            int id = queue.poll();
+            for (int adjacentId : adjacent[id]) {
+                if (distances[adjacentId] == -1) {
+                    distances[adjacentId] = distances[id] + 1;
+                    queue.add(adjacentId);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * @return sectors with random ids below maxId and random, directed and possibly disconnected, adjacency
+     */
+    private static List<SectorDefinition> randomSectors(Random random, int maxId) {
+        List<Integer> ids = new ArrayList<Integer>();
+        for (int id = 0; id < maxId; id++) {
+            if (random.nextInt(4) != 0) ids.add(id); // leave gaps in the ids
+        }
+
+        List<SectorDefinition> sectors = new ArrayList<SectorDefinition>();
+        for (int id : ids) {
+            int[] adjacentIds = new int[random.nextInt(4)];
+            for (int i = 0; i < adjacentIds.length; i++) {
+                adjacentIds[i] = ids.get(random.nextInt(ids.size()));
+            }
+            sectors.add(createSector(id, adjacentIds, random.nextInt(8) == 0));
+        }
+        return sectors;
+    }
+
+    private static SectorDefinition createSector(int id, int[] adjacentIds, boolean decor) {
+        return new SectorDefinition(id, "mapData/sector" + id + ".png", "Sector " + id, 1, "", false, adjacentIds, 0, 0, decor);
+    }
+
+    private static void assertMatchesSectors(List<SectorDefinition> sectors, SectorGraph graph) {
+        int sectorCount = graph.getSectorCount();
+        long playable = 0;
+        long[] adjacentTo = new long[sectorCount];
+        for (SectorDefinition sector : sectors) {
+            if (!sector.isDecor()) playable |= SectorGraph.bit(sector.getId());
+            long adjacent = 0;
+            for (int adjacentId : sector.getAdjacentSectorIds()) {
+                adjacent |= SectorGraph.bit(adjacentId);
+                adjacentTo[adjacentId] |= SectorGraph.bit(sector.getId());
+            }
+            assertEquals(adjacent, graph.getAdjacentSectors(sector.getId()));
+        }
+        assertEquals(playable, graph.getPlayableSectors());
+
+        for (int from = 0; from < sectorCount; from++) {
+            assertEquals(adjacentTo[from], graph.getSectorsAdjacentTo(from));
+            int[] expected = naiveDistances(sectors, sectorCount, from);
+            for (int to = 0; to < sectorCount; to++) {
+                assertEquals("distance from " + from + " to " + to, expected[to], graph.getDistance(from, to));
+                assertEquals(SectorGraph.contains(graph.getAdjacentSectors(from), to), graph.isAdjacent(from, to));
+            }
+        }
+    }
+
+    @Test
+    public void gameMapMatchesNaiveSearch() {
+        TestGame.startHeadless();
+        MapDefinition definition = MapDefinition.getInstance();
+        assertMatchesSectors(definition.getSectors(), definition.getSectorGraph());
+    }
+
+    @Test
+    public void randomMapsMatchNaiveSearch() {
+        Random random = new Random(1234);
+        for (int i = 0; i < 200; i++) {
+            List<SectorDefinition> sectors = randomSectors(random, 1 + random.nextInt(SectorGraph.MAX_SECTORS));
+            if (sectors.isEmpty()) continue;
+            assertMatchesSectors(sectors, new SectorGraph(sectors));
+        }
+    }
+
+    @Test
+    public void highestIdIsAccepted() {
+        int maxId = SectorGraph.MAX_SECTORS - 1;
+        SectorGraph graph = new SectorGraph(Arrays.asList(createSector(0, new int[] {maxId}, false), createSector(maxId, new int[] {0}, false)));
+
+        assertEquals(SectorGraph.MAX_SECTORS, graph.getSectorCount());
+        assertEquals(1, graph.getDistance(0, maxId));
+        assertEquals(1, graph.getDistance(maxId, 0));
+    }
+
+    @Test
+    public void idsOutOfRangeAreRejected() {
+        int[] invalidIds = {SectorGraph.MAX_SECTORS, SectorGraph.MAX_SECTORS + 1, 100, -1};
+        for (int invalidId : invalidIds) {
+            assertRejected(Arrays.asList(createSector(invalidId, new int[0], false)));
+            assertRejected(Arrays.asList(createSector(0, new int[] {invalidId}, false))); // only referenced as adjacent
+        }
+    }
+
+    private static void assertRejected(List<SectorDefinition> sectors) {
+        try {
+            new SectorGraph(sectors);
+            fail("Sector graph accepted an id that does not fit in a sector set");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package sepr.game;
+
+import com.badlogic.gdx.graphics.Pixmap;
+
+import java.nio.ByteBuffer;
+
+/*
+Added in assessment 4
+ - added so that finding the sector under the mouse is a single array read instead of sampling every sector's image
+ */
+
+/**
+ * lookup table from each point of the map to the id of the sector covering it
+ *
+ * one byte is stored per pixel of the map, holding the sector id plus one so that 0 can mean no sector covers the pixel
+ * the table is filled once when the map is loaded so the sector images do not need to be kept in memory for hit-testing
+ */
+public class SectorLookup {
+    private static final int NO_SECTOR = 0; // value stored for a pixel that no sector covers
+    private static final int MAX_SECTOR_ID = 254; // largest id that fits in a byte once shifted up by one
+
+    private final int width; // width of the map in pixels
+    private final int height; // height of the map in pixels
+    private final byte[] sectorIds; // sector id + 1 of each pixel, stored row by row from the bottom of the map up
+
+    /**
+     * creates an empty lookup, where no point is covered by a sector
+     *
+     * @param width width of the map in pixels
+     * @param height height of the map in pixels
+     */
+    public SectorLookup(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.sectorIds = new byte[width * height];
+    }
+
+    /**
+     * marks the non-transparent pixels of the sector's image as belonging to the sector
+     * pixels already covered by a previously added sector are left unchanged, so sectors should be added in the order
+     * they should take priority in
+     *
+     * @param sectorId id of the sector the image belongs to
+     * @param image RGBA8888 image of the sector
+     * @param offsetX world x coordinate of the left edge of the image
+     * @param offsetY world y coordinate of the bottom edge of the image
+     * @throws IllegalArgumentException if the sector id is too large to store or the image is not RGBA8888
+     */
+    public void addSector(int sectorId, Pixmap image, int offsetX, int offsetY) {
+        if (sectorId < 0 || sectorId > MAX_SECTOR_ID) {
+            throw new IllegalArgumentException("Sector id " + sectorId + " can not be stored in the sector lookup");
+        }
+        if (image.getFormat() != Pixmap.Format.RGBA8888) {
+            throw new IllegalArgumentException("Sector image must be in RGBA8888 format");
+        }
+
+        byte value = (byte)(sectorId + 1);
+        int imageWidth = image.getWidth();
+        int imageHeight = image.getHeight();
+        ByteBuffer pixels = image.getPixels();
+
+        for (int row = 0; row < imageHeight; row++) {
+            int worldY = offsetY + (imageHeight - 1 - row); // pixmap rows go top to bottom whereas world coordinates go bottom to top
+            if (worldY < 0 || worldY >= height) continue;
+
+            int rowStart = row * imageWidth * 4;
+            for (int column = 0; column < imageWidth; column++) {
+                int worldX = offsetX + column;
+                if (worldX < 0 || worldX >= width) continue;
+
+                int index = worldY * width + worldX;
+                if (sectorIds[index] == NO_SECTOR && pixels.get(rowStart + column * 4 + 3) != 0) { // alpha is the last byte of each RGBA8888 pixel
+                    sectorIds[index] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * returns the id of the sector that covers the specified point
+     *
+     * @param worldX world x coord
+     * @param worldY world y coord
+     * @return id of the sector covering the point or -1 if no sector covers it or it is outside of the map
+     */
+    public int getSectorId(int worldX, int worldY) {
+        if (worldX < 0 || worldY < 0 || worldX >= width || worldY >= height) {
+            return -1;
+        }
+        return (sectorIds[worldY * width + worldX] & 0xff) - 1;
+    }
+}
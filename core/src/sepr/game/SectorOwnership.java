@@ -0,0 +1,213 @@
+package sepr.game;
+
+import java.util.Arrays;
+
+/*
+Added in assessment 4
+ - added so the sectors each player owns, borders and can attack are known without checking every sector
+ - also keeps each player's territory count, troop total and reinforcement income, updated as sectors change owner or units
+ */
+
+/**
+ * the sectors owned by each player on a map, kept up to date by the map's sectors whenever their owner changes
+ *
+ * as well as the sectors each player owns, the sets of border and frontier sectors of each player are updated when a
+ * sector changes owner, which only affects that sector and the sectors next to it, so every query is a single lookup
+ * - border sectors are sectors the player owns that are adjacent to a non-decor sector the player does not own
+ * - frontier sectors are non-decor sectors the player does not own that are adjacent to a sector the player owns
+ * sets of sectors are bitsets as described in SectorGraph
+ * the number of sectors, units and reinforcements provided by the sectors of each player are kept as running totals, so
+ * checking if a player has been eliminated or showing their totals does not need to check every sector either
+ */
+public class SectorOwnership {
+    private final SectorGraph graph;
+    private final int[] ownerIds; // id of the owner of each sector, -1 if unowned
+    private final int[] sectorTroops; // undergrads plus postgrads on each sector
+    private final int[] sectorReinforcements; // reinforcements provided by each sector
+    private long[] ownedSectors; // sectors owned by each player, indexed by player id
+    private long[] borderSectors; // border sectors of each player, indexed by player id
+    private long[] frontierSectors; // frontier sectors of each player, indexed by player id
+    private int[] troopTotals; // units on the sectors of each player, indexed by player id
+    private int[] reinforcementIncomes; // reinforcements provided by the sectors of each player, indexed by player id
+
+    /**
+     * @param graph graph of the map's sectors, every sector starts unowned
+     */
+    public SectorOwnership(SectorGraph graph) {
+        this.graph = graph;
+        this.ownerIds = new int[graph.getSectorCount()];
+        Arrays.fill(ownerIds, -1);
+        this.sectorTroops = new int[graph.getSectorCount()];
+        this.sectorReinforcements = new int[graph.getSectorCount()];
+        this.ownedSectors = new long[0];
+        this.borderSectors = new long[0];
+        this.frontierSectors = new long[0];
+        this.troopTotals = new int[0];
+        this.reinforcementIncomes = new int[0];
+    }
+
+    /**
+     * @return the graph of the sectors whose owners are tracked
+     */
+    public SectorGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * records the current state of a sector, which should then be kept up to date with setOwner and setTroops
+     *
+     * @param sectorId id of the sector
+     * @param ownerId id of the owner of the sector, -1 if it is unowned
+     * @param troops number of undergrads and postgrads on the sector
+     * @param reinforcementsProvided reinforcements the sector provides its owner
+     */
+    public void addSector(int sectorId, int ownerId, int troops, int reinforcementsProvided) {
+        setOwner(sectorId, -1);
+        setTroops(sectorId, troops);
+        sectorReinforcements[sectorId] = reinforcementsProvided;
+        setOwner(sectorId, ownerId);
+    }
+
+    /**
+     * records a change to the number of units on a sector, adding the change to its owner's troop total
+     *
+     * @param sectorId id of the sector
+     * @param troops number of undergrads and postgrads now on the sector
+     */
+    public void setTroops(int sectorId, int troops) {
+        int ownerId = ownerIds[sectorId];
+        if (ownerId >= 0 && isPlayable(sectorId)) troopTotals[ownerId] += troops - sectorTroops[sectorId];
+        sectorTroops[sectorId] = troops;
+    }
+
+    private boolean isPlayable(int sectorId) {
+        return SectorGraph.contains(graph.getPlayableSectors(), sectorId);
+    }
+
+    /**
+     * records a sector changing owner and updates the border and frontier sectors of its previous and new owner
+     *
+     * @param sectorId id of the sector
+     * @param ownerId id of the new owner of the sector, -1 if it is unowned
+     */
+    public void setOwner(int sectorId, int ownerId) {
+        int previousOwnerId = ownerIds[sectorId];
+        if (previousOwnerId == ownerId) return;
+        ownerIds[sectorId] = ownerId;
+
+        boolean playable = isPlayable(sectorId); // decor sectors can not be owned
+        if (previousOwnerId >= 0) {
+            if (playable) {
+                ownedSectors[previousOwnerId] &= ~SectorGraph.bit(sectorId);
+                troopTotals[previousOwnerId] -= sectorTroops[sectorId];
+                reinforcementIncomes[previousOwnerId] -= sectorReinforcements[sectorId];
+            }
+            updateAround(sectorId, previousOwnerId);
+        }
+        if (ownerId >= 0) {
+            ensureCapacity(ownerId);
+            if (playable) {
+                ownedSectors[ownerId] |= SectorGraph.bit(sectorId);
+                troopTotals[ownerId] += sectorTroops[sectorId];
+                reinforcementIncomes[ownerId] += sectorReinforcements[sectorId];
+            }
+            updateAround(sectorId, ownerId);
+        }
+        // the sector is owned by someone else both before and after as far as any other player is concerned, so their
+        // border and frontier sectors do not change
+    }
+
+    /**
+     * recalculates whether a sector and the sectors next to it are border and frontier sectors of a player
+     */
+    private void updateAround(int sectorId, int playerId) {
+        long affected = SectorGraph.bit(sectorId) | graph.getAdjacentSectors(sectorId) | graph.getSectorsAdjacentTo(sectorId);
+        long owned = ownedSectors[playerId];
+        long playable = graph.getPlayableSectors();
+
+        for (long remaining = affected; remaining != 0; remaining &= remaining - 1) {
+            int id = Long.numberOfTrailingZeros(remaining);
+            long sector = SectorGraph.bit(id);
+
+            boolean border = (owned & sector) != 0 && (graph.getAdjacentSectors(id) & playable & ~owned) != 0;
+            boolean frontier = (owned & sector) == 0 && (playable & sector) != 0 && (graph.getSectorsAdjacentTo(id) & owned) != 0;
+            borderSectors[playerId] = border ? borderSectors[playerId] | sector : borderSectors[playerId] & ~sector;
+            frontierSectors[playerId] = frontier ? frontierSectors[playerId] | sector : frontierSectors[playerId] & ~sector;
+        }
+    }
+
+    /**
+     * grows the per player arrays so they have an entry for the given player id
+     */
+    private void ensureCapacity(int playerId) {
+        if (playerId < ownedSectors.length) return;
+        ownedSectors = Arrays.copyOf(ownedSectors, playerId + 1);
+        borderSectors = Arrays.copyOf(borderSectors, playerId + 1);
+        frontierSectors = Arrays.copyOf(frontierSectors, playerId + 1);
+        troopTotals = Arrays.copyOf(troopTotals, playerId + 1);
+        reinforcementIncomes = Arrays.copyOf(reinforcementIncomes, playerId + 1);
+    }
+
+    /**
+     * @return id of the owner of the sector, -1 if it is unowned
+     */
+    public int getOwnerId(int sectorId) {
+        return ownerIds[sectorId];
+    }
+
+    /**
+     * @return set of the non-decor sectors owned by the player
+     */
+    public long getOwnedSectors(int playerId) {
+        return playerId >= 0 && playerId < ownedSectors.length ? ownedSectors[playerId] : 0;
+    }
+
+    /**
+     * @return number of non-decor sectors owned by the player
+     */
+    public int getTerritoryCount(int playerId) {
+        return Long.bitCount(getOwnedSectors(playerId));
+    }
+
+    /**
+     * @return number of undergrads and postgrads on the sectors owned by the player
+     */
+    public int getTroopTotal(int playerId) {
+        return playerId >= 0 && playerId < troopTotals.length ? troopTotals[playerId] : 0;
+    }
+
+    /**
+     * @return total reinforcements provided by the sectors owned by the player
+     */
+    public int getReinforcementIncome(int playerId) {
+        return playerId >= 0 && playerId < reinforcementIncomes.length ? reinforcementIncomes[playerId] : 0;
+    }
+
+    /**
+     * @return set of the player's sectors that are adjacent to a non-decor sector the player does not own
+     */
+    public long getBorderSectors(int playerId) {
+        return playerId >= 0 && playerId < borderSectors.length ? borderSectors[playerId] : 0;
+    }
+
+    /**
+     * @return set of the non-decor sectors the player does not own that are adjacent to a sector they own
+     */
+    public long getFrontierSectors(int playerId) {
+        return playerId >= 0 && playerId < frontierSectors.length ? frontierSectors[playerId] : 0;
+    }
+
+    /**
+     * @return true if the sector is one of the player's border sectors
+     */
+    public boolean isBorderSector(int playerId, int sectorId) {
+        return SectorGraph.contains(getBorderSectors(playerId), sectorId);
+    }
+
+    /**
+     * @return true if the sector is one of the player's frontier sectors
+     */
+    public boolean isFrontierSector(int playerId, int sectorId) {
+        return SectorGraph.contains(getFrontierSectors(playerId), sectorId);
+    }
+}
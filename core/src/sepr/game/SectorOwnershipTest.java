@@ -0,0 +1,145 @@
+package sepr.game;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class SectorOwnershipTest {
+    private static final int CHANGES = 2000;
+
+    /**
+     * checks every set and total of the ownership records against a full scan of the sectors
+     *
+     * @param definitions definitions of the sectors, giving their adjacency, decor and reinforcements
+     * @param ownerIds id of the owner of each sector, -1 if unowned
+     * @param troops units on each sector
+     * @param playerCount players have ids 0 to playerCount - 1
+     */
+    private static void assertMatchesRescan(SectorOwnership ownership, List<SectorDefinition> definitions, int[] ownerIds, int[] troops, int playerCount) {
+        for (int playerId = 0; playerId < playerCount; playerId++) {
+            long owned = 0;
+            int troopTotal = 0;
+            int income = 0;
+            for (SectorDefinition sector : definitions) {
+                if (!sector.isDecor() && ownerIds[sector.getId()] == playerId) {
+                    owned |= SectorGraph.bit(sector.getId());
+                    troopTotal += troops[sector.getId()];
+                    income += sector.getReinforcementsProvided();
+                }
+            }
+
+            long border = 0;
+            long frontier = 0;
+            for (SectorDefinition sector : definitions) {
+                if (!SectorGraph.contains(owned, sector.getId())) continue;
+                for (int adjacentId : sector.getAdjacentSectorIds()) {
+                    if (SectorGraph.contains(owned, adjacentId) || isDecor(definitions, adjacentId)) continue;
+                    border |= SectorGraph.bit(sector.getId());
+                    frontier |= SectorGraph.bit(adjacentId);
+                }
+            }
+
+            String message = "player " + playerId;
+            assertEquals(message, owned, ownership.getOwnedSectors(playerId));
+            assertEquals(message, Long.bitCount(owned), ownership.getTerritoryCount(playerId));
+            assertEquals(message, troopTotal, ownership.getTroopTotal(playerId));
+            assertEquals(message, income, ownership.getReinforcementIncome(playerId));
+            assertEquals(message, border, ownership.getBorderSectors(playerId));
+            assertEquals(message, frontier, ownership.getFrontierSectors(playerId));
+        }
+        for (SectorDefinition sector : definitions) {
+            assertEquals(ownerIds[sector.getId()], ownership.getOwnerId(sector.getId()));
+        }
+    }
+
+    private static boolean isDecor(List<SectorDefinition> definitions, int sectorId) {
+        for (SectorDefinition sector : definitions) {
+            if (sector.getId() == sectorId) return sector.isDecor();
+        }
+        return false;
+    }
+
+    @Test
+    public void gameMapMatchesRescan() {
+        HashMap<Integer, Player> players = TestGame.createPlayers(4);
+        Map map = TestGame.createMap(players, 1234);
+        List<SectorDefinition> definitions = MapDefinition.getInstance().getSectors();
+        List<Player> owners = new ArrayList<Player>(players.values());
+        List<Sector> playable = new ArrayList<Sector>();
+        for (Sector sector : map.getSectors().values()) {
+            if (!sector.isDecor()) playable.add(sector);
+        }
+
+        Random random = new Random(1234);
+        for (int i = 0; i < CHANGES; i++) {
+            Sector sector = playable.get(random.nextInt(playable.size()));
+            switch (random.nextInt(4)) {
+                case 0:
+                    sector.setOwner(owners.get(random.nextInt(owners.size())));
+                    break;
+                case 1: // can empty the sector, giving it to the neutral player
+                    sector.addUnits(random.nextInt(5) - sector.getUnderGradsInSector(), random.nextInt(2) - sector.getPostGradsInSector(), players.get(GameScreen.NEUTRAL_PLAYER_ID));
+                    break;
+                case 2:
+                    sector.addUnits(random.nextInt(10), random.nextInt(3), players.get(GameScreen.NEUTRAL_PLAYER_ID));
+                    break;
+                default:
+                    Player owner = random.nextInt(4) == 0 ? null : owners.get(random.nextInt(owners.size()));
+                    sector.restoreState(owner, random.nextInt(20), random.nextInt(4), 0, 0);
+                    break;
+            }
+
+            int[] ownerIds = new int[map.getSectorGraph().getSectorCount()];
+            int[] troops = new int[ownerIds.length];
+            for (Sector each : map.getSectors().values()) {
+                ownerIds[each.getId()] = each.getOwnerId();
+                troops[each.getId()] = each.getUnderGradsInSector() + each.getPostGradsInSector();
+            }
+            assertMatchesRescan(map.getOwnership(), definitions, ownerIds, troops, GameScreen.NEUTRAL_PLAYER_ID + 1);
+        }
+    }
+
+    @Test
+    public void randomMapsMatchRescan() {
+        Random random = new Random(5678);
+        for (int map = 0; map < 50; map++) {
+            int sectorCount = 1 + random.nextInt(SectorGraph.MAX_SECTORS);
+            List<SectorDefinition> definitions = new ArrayList<SectorDefinition>();
+            for (int id = 0; id < sectorCount; id++) {
+                int[] adjacentIds = new int[random.nextInt(5)];
+                for (int i = 0; i < adjacentIds.length; i++) {
+                    adjacentIds[i] = random.nextInt(sectorCount);
+                }
+                definitions.add(new SectorDefinition(id, "", "Sector " + id, random.nextInt(4), "", false, adjacentIds, 0, 0, random.nextInt(8) == 0));
+            }
+
+            SectorOwnership ownership = new SectorOwnership(new SectorGraph(definitions));
+            int playerCount = 1 + random.nextInt(5);
+            int[] ownerIds = new int[sectorCount];
+            int[] troops = new int[sectorCount];
+            for (int id = 0; id < sectorCount; id++) {
+                ownerIds[id] = random.nextInt(playerCount + 1) - 1;
+                troops[id] = random.nextInt(10);
+                ownership.addSector(id, ownerIds[id], troops[id], definitions.get(id).getReinforcementsProvided());
+            }
+            assertMatchesRescan(ownership, definitions, ownerIds, troops, playerCount);
+
+            for (int i = 0; i < CHANGES / 10; i++) {
+                int id = random.nextInt(sectorCount);
+                if (random.nextBoolean()) {
+                    ownerIds[id] = random.nextInt(playerCount + 1) - 1;
+                    ownership.setOwner(id, ownerIds[id]);
+                } else {
+                    troops[id] = random.nextInt(10);
+                    ownership.setTroops(id, troops[id]);
+                }
+                assertMatchesRescan(ownership, definitions, ownerIds, troops, playerCount);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package sepr.game;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import sepr.game.engine.GameEngine;
+import sepr.game.engine.GameRandom;
+import sepr.game.engine.PlayerStrategy;
+import sepr.game.utils.CollegeName;
+import sepr.game.utils.PunishmentCardType;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/*
+Added in assessment 4
+ - added to share setting up the headless backend, players and maps between the tests that need a game map
+ - also sets up seeded engines and compares the whole state of two games, for the replay and undo tests
+ */
+
+/**
+ * sets up what tests need to run the game's code without a display
+ */
+public class TestGame {
+    private static final CollegeName[] COLLEGES = {CollegeName.ALCUIN, CollegeName.DERWENT, CollegeName.HALIFAX, CollegeName.VANBRUGH};
+
+    private static HeadlessApplication application; // started once per test run
+
+    /**
+     * starts the headless backend, if it has not been started, so the map files can be read through Gdx.files
+     */
+    public static synchronized void startHeadless() {
+        if (application == null) {
+            HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+            config.renderInterval = -1; // the tests run the code themselves, no render loop is needed
+            application = new HeadlessApplication(new ApplicationAdapter() {}, config);
+        }
+    }
+
+    /**
+     * @param playerCount number of human players, between 2 and 4
+     * @return the human players and the neutral player, mapped by id
+     */
+    public static HashMap<Integer, Player> createPlayers(int playerCount) {
+        HashMap<Integer, Player> players = new HashMap<Integer, Player>();
+        for (int i = 0; i < playerCount; i++) {
+            players.put(i, Player.createHumanPlayer(i, COLLEGES[i], 5, "Player " + (i + 1)));
+        }
+        players.put(GameScreen.NEUTRAL_PLAYER_ID, Player.createNeutralPlayer(GameScreen.NEUTRAL_PLAYER_ID));
+        return players;
+    }
+
+    /**
+     * starts the headless backend if needed and sets up a map with its sectors allocated to the players
+     *
+     * @param players players to allocate the sectors to, including the neutral player
+     * @param seed seed for allocating the sectors
+     * @return the map
+     */
+    public static Map createMap(HashMap<Integer, Player> players, long seed) {
+        startHeadless();
+        return new Map(players, true, new Random(seed));
+    }
+
+    /**
+     * starts the headless backend if needed and sets up a game in the same way as CommandLog.replay, so it can be replayed
+     *
+     * @param playerCount number of human players, between 2 and 4
+     * @param seed seed of the game
+     * @return engine of the game, at the start of the first player's turn
+     */
+    public static GameEngine createEngine(int playerCount, long seed) {
+        startHeadless();
+        GameRandom random = new GameRandom(seed);
+        HashMap<Integer, Player> players = createPlayers(playerCount);
+        return new GameEngine(new Map(players, true, random.getStream(GameRandom.Stream.SETUP)), players, random);
+    }
+
+    /**
+     * plays phases of a game with a strategy, every few phases also awarding the current player a punishment card and
+     * playing one on a sector they do not own, and sometimes ending the turn part way through
+     *
+     * @param engine engine of the game to play
+     * @param strategy strategy every player plays
+     * @param phases most phases to play, fewer if the game ends first
+     */
+    public static void playPhases(GameEngine engine, PlayerStrategy strategy, int phases) {
+        PunishmentCardType[] cards = {PunishmentCardType.COLLUSION_CARD, PunishmentCardType.POOPY_PATH_CARD, PunishmentCardType.ASBESTOS_CARD};
+        for (int i = 0; i < phases && !engine.isGameOver(); i++) {
+            strategy.playPhase(engine);
+            if (i % 7 == 3) {
+                Player player = engine.getCurrentPlayer();
+                PunishmentCardType card = cards[i % cards.length];
+                engine.awardPunishmentCard(player.getId(), card);
+                for (Sector sector : engine.getMap().getSectors().values()) {
+                    if (!sector.isDecor() && sector.getOwnerId() != player.getId()) {
+                        engine.applyPunishmentCard(sector.getId(), card);
+                        break;
+                    }
+                }
+            }
+            if (i % 50 == 7) {
+                engine.endTurn();
+            } else {
+                engine.endPhase();
+            }
+        }
+    }
+
+    /**
+     * asserts that two games are in the same state: every sector, every player's troops and cards, the ownership totals
+     * and the turn
+     */
+    public static void assertSameGame(GameEngine expected, GameEngine actual) {
+        assertEquals(expected.getTurnOrder(), actual.getTurnOrder());
+        assertEquals(expected.getCurrentPlayerPointer(), actual.getCurrentPlayerPointer());
+        assertEquals(expected.getTurnNumber(), actual.getTurnNumber());
+        assertEquals(expected.getCurrentPhase(), actual.getCurrentPhase());
+
+        assertEquals(expected.getMap().getSectorIds(), actual.getMap().getSectorIds());
+        for (Sector sector : expected.getMap().getSectors().values()) {
+            Sector other = actual.getMap().getSectorById(sector.getId());
+            String message = "sector " + sector.getId();
+            assertEquals(message, sector.getOwnerId(), other.getOwnerId());
+            assertEquals(message, sector.getUnderGradsInSector(), other.getUnderGradsInSector());
+            assertEquals(message, sector.getPostGradsInSector(), other.getPostGradsInSector());
+            assertEquals(message, sector.getAsbestosCount(), other.getAsbestosCount());
+            assertEquals(message, sector.getPoopCount(), other.getPoopCount());
+        }
+
+        assertEquals(expected.getPlayers().keySet(), actual.getPlayers().keySet());
+        for (Player player : expected.getPlayers().values()) {
+            Player other = actual.getPlayerById(player.getId());
+            String message = "player " + player.getId();
+            assertEquals(message, player.getTroopsToAllocate(), other.getTroopsToAllocate());
+            assertEquals(message, player.getCollusionCards(), other.getCollusionCards());
+            assertEquals(message, player.getPoopyPathCards(), other.getPoopyPathCards());
+            assertEquals(message, player.getAsbestosCards(), other.getAsbestosCards());
+
+            SectorOwnership ownership = expected.getMap().getOwnership();
+            SectorOwnership otherOwnership = actual.getMap().getOwnership();
+            assertEquals(message, ownership.getOwnedSectors(player.getId()), otherOwnership.getOwnedSectors(player.getId()));
+            assertEquals(message, ownership.getTroopTotal(player.getId()), otherOwnership.getTroopTotal(player.getId()));
+            assertEquals(message, ownership.getReinforcementIncome(player.getId()), otherOwnership.getReinforcementIncome(player.getId()));
+        }
+    }
+}
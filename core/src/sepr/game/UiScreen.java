@@ -3,7 +3,6 @@ package sepr.game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
@@ -13,6 +12,7 @@ import com.badlogic.gdx.utils.viewport.ScreenViewport;
 /*
 Added in assessment 4
  - added to reduce code duplication when setting up the MenuScreen, OptionsScreen, GameSetupScreen, GameScreen and MinigameScreen
+ - disposing a screen disposes its stage
  */
 
 public abstract class UiScreen implements Screen {
@@ -49,7 +49,7 @@ public abstract class UiScreen implements Screen {
      */
     protected Table setupBackground() {
         Table backgroundTable = new Table();
-        backgroundTable.setBackground(new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/menuBackground.png"))));
+        backgroundTable.setBackground(new TextureRegionDrawable(new TextureRegion(WidgetFactory.getTexture("uiComponents/menuBackground.png"))));
         backgroundTable.pad(0);
         backgroundTable.add(setupUi());
         return backgroundTable;
@@ -89,6 +89,6 @@ public abstract class UiScreen implements Screen {
 
     @Override
     public void dispose() {
-
+        stage.dispose();
     }
 }
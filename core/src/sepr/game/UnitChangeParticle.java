@@ -5,62 +5,97 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.IntMap;
+
+/*
+Modified in assessment 4
+ - particles are reused by UnitChangeParticles rather than created for each change, so showing a change does not allocate
+ - the overlay texture and font are shared by all particles instead of being loaded again for every particle
+ - the text for each amount is laid out once and cached, with its colour stored in the layout rather than set on the shared font
+ */
 
 /**
  * class for rendering a particle effect showing the change in number of troops on a sector
  */
 public class UnitChangeParticle {
-    private GlyphLayout glyphLayout; // layout for calculating text rendering position
-    private Vector2 centrePosition; // where the particle is to be initially drawn
-    private long startTime; // time when particle created
-    private BitmapFont font; // font for rendering the amount
+    private static final long DISPLAY_DURATION = 1000; // display particle for 1000ms i.e. 1 second
+    private static final float OVERLAY_SIZE = 40.0f;
+    private static final int MAX_CACHED_LAYOUTS = 256; // cached layouts are cleared if more amounts than this have been shown
+
     private static Texture overlay; // texture to be displayed behind the number of change in units
+    private static BitmapFont font; // font for rendering the amount
+    private static final IntMap<GlyphLayout> layouts = new IntMap<GlyphLayout>(); // layout of the text for each amount that has been shown
+
+    private int amount; // the amount of troops that the sector is changing by
+    private float x; // where the particle is to be initially drawn
+    private float y;
+    private long startTime; // time when particle started being shown
 
     /**
+     * sets up this particle to show a change in the units on a sector
      *
      * @param amount the amount of troops that the sector is changing by
-     * @param centrePosition initial position of the particle
+     * @param x initial x position of the particle
+     * @param y initial y position of the particle
+     * @param startTime time the particle starts being shown, in milliseconds
      */
-    public UnitChangeParticle(int amount, Vector2 centrePosition) {
-        this.centrePosition = centrePosition;
-        this.startTime = System.currentTimeMillis();
-        overlay = new Texture("icons/troopCountOverlay.png");
-
-        font = WidgetFactory.getFontSmall();
-
-        String signedAmount;
-        if (amount > 0) { // if increase make text green and add a plus sign
-            this.font.setColor(Color.GREEN);
-            signedAmount = "+" + amount;
-        } else { // if decrease make text red and add a minus sign
-            this.font.setColor(Color.RED);
-            signedAmount = "" + amount;
-        }
-        this.glyphLayout = new GlyphLayout(font, signedAmount);
+    void reset(int amount, float x, float y, long startTime) {
+        this.amount = amount;
+        this.x = x;
+        this.y = y;
+        this.startTime = startTime;
     }
 
+    long getStartTime() {
+        return startTime;
+    }
 
     /**
-     * returns true if this particle has existed for too long and should be deleted
+     * returns true if this particle has existed for too long and should be removed
      *
-     * @return if this particle should be deleted
+     * @param time current time in milliseconds
+     * @return if this particle should be removed
      */
-    public boolean toDelete() {
-        long DISPLAY_DURATION = 1000; // display particle for 1000ms i.e. 1 second
-        return System.currentTimeMillis() - startTime > DISPLAY_DURATION;
+    boolean isExpired(long time) {
+        return time - startTime > DISPLAY_DURATION;
     }
 
     /**
      * draws the particle to the passed spritebatch
      *
-     * @param batch sprite batch to drawSectorImage the particle to
+     * @param batch sprite batch to draw the particle to
+     * @param time current time in milliseconds
      */
-    public void draw(SpriteBatch batch) {
-        int yOffset = (int)Math.pow((double)((System.currentTimeMillis() - startTime) / 8), 0.75); // calculate how far to offset the Y-Coord of the particle
+    void draw(SpriteBatch batch, long time) {
+        if (overlay == null) {
+            overlay = WidgetFactory.getTexture("icons/troopCountOverlay.png");
+            font = WidgetFactory.getFontSmall();
+        }
+        GlyphLayout glyphLayout = getLayout(amount);
+
+        int yOffset = (int)Math.pow((double)((time - startTime) / 8), 0.75); // calculate how far to offset the Y-Coord of the particle
+
+        batch.draw(overlay, x, y - OVERLAY_SIZE / 2 + yOffset, OVERLAY_SIZE, OVERLAY_SIZE); // draw overlay
+        font.draw(batch, glyphLayout, x - glyphLayout.width / 2 + OVERLAY_SIZE / 2, y + glyphLayout.height / 2 + yOffset); // draw text
+    }
 
-        float overlaySize = 40.0f;
-        batch.draw(overlay, centrePosition.x , centrePosition.y - overlaySize / 2 + yOffset, overlaySize, overlaySize); // drawSectorImage overlay
-        font.draw(batch, glyphLayout, centrePosition.x - glyphLayout.width / 2 + overlaySize / 2, centrePosition.y + glyphLayout.height / 2 + yOffset); // drawSectorImage text
+    /**
+     * gets the layout of the text showing an amount, laying it out the first time the amount is shown
+     * increases are shown in green with a plus sign, decreases in red with a minus sign
+     */
+    private static GlyphLayout getLayout(int amount) {
+        GlyphLayout glyphLayout = layouts.get(amount);
+        if (glyphLayout == null) {
+            if (layouts.size >= MAX_CACHED_LAYOUTS) layouts.clear();
+            glyphLayout = new GlyphLayout();
+            if (amount > 0) {
+                glyphLayout.setText(font, "+" + amount, Color.GREEN, 0, Align.left, false);
+            } else {
+                glyphLayout.setText(font, "" + amount, Color.RED, 0, Align.left, false);
+            }
+            layouts.put(amount, glyphLayout);
+        }
+        return glyphLayout;
     }
 }
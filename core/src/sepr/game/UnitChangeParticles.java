@@ -0,0 +1,78 @@
+package sepr.game;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/*
+Added in assessment 4
+ - added so the particles showing changes in units are reused from a fixed pool rather than created and thrown away for every change
+ */
+
+/**
+ * fixed size pool of the particles showing the changes in the number of units on sectors
+ *
+ * active particles are kept at the start of the array; when a particle expires the last active particle is moved into
+ * its place, so adding, drawing and removing particles never allocates
+ * if every particle is in use the oldest is reused, as in a big burst of changes it is about to expire anyway
+ */
+public class UnitChangeParticles {
+    private static final int CAPACITY = 64; // maximum number of particles shown at once
+
+    private final UnitChangeParticle[] particles; // pool of particles, the first activeCount are being shown
+    private int activeCount;
+
+    public UnitChangeParticles() {
+        particles = new UnitChangeParticle[CAPACITY];
+        for (int i = 0; i < CAPACITY; i++) {
+            particles[i] = new UnitChangeParticle();
+        }
+    }
+
+    /**
+     * starts showing a particle for a change in the units on a sector
+     *
+     * @param amount the amount of troops that the sector is changing by
+     * @param x initial x position of the particle
+     * @param y initial y position of the particle
+     */
+    public void add(int amount, float x, float y) {
+        UnitChangeParticle particle;
+        if (activeCount < CAPACITY) {
+            particle = particles[activeCount++];
+        } else {
+            particle = particles[0];
+            for (int i = 1; i < CAPACITY; i++) { // reuse the oldest particle
+                if (particles[i].getStartTime() < particle.getStartTime()) particle = particles[i];
+            }
+        }
+        particle.reset(amount, x, y, TimeUtils.millis());
+    }
+
+    /**
+     * draws every active particle then removes those that have expired
+     *
+     * @param batch sprite batch to draw the particles to
+     */
+    public void draw(SpriteBatch batch) {
+        long time = TimeUtils.millis();
+        int i = 0;
+        while (i < activeCount) {
+            UnitChangeParticle particle = particles[i];
+            particle.draw(batch, time);
+            if (particle.isExpired(time)) {
+                activeCount--;
+                particles[i] = particles[activeCount]; // swap the last active particle into this one's place
+                particles[activeCount] = particle;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * @return number of particles currently being shown
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+}
@@ -1,6 +1,7 @@
 package sepr.game;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
@@ -21,6 +22,7 @@ import sepr.game.utils.PunishmentCardType;
 Modified in assessment 4
  - added method for generating ImageButtons for the punishment cards - genPunishmentCardButton(PunishmentCardType punishmentCardType)
  - added method for generating drawables for the punishment cards - genPunishmentCardDrawable(PunishmentCardType punishmentCardType)
+ - textures and fonts are loaded by the asset manager, so they can be loaded in the background while the loading screen is shown, and each texture is only loaded once however many widgets use it
  */
 
 /**
@@ -28,6 +30,64 @@ Modified in assessment 4
  */
 public class WidgetFactory {
 
+    private static final String[] TEXTURE_PATHS = { // textures used by the menus and the HUD, loaded before the menu is shown
+            "uiComponents/Menu-Button-Full.png",
+            "uiComponents/Main-Menu-Map.png",
+            "uiComponents/RuncinatorGraphic.png",
+            "uiComponents/sliderBar.png",
+            "uiComponents/sliderKnob.png",
+            "uiComponents/selectionBox.png",
+            "uiComponents/textFieldCursor.png",
+            "uiComponents/On-Switch.png",
+            "uiComponents/Off-Switch.png",
+            "uiComponents/Player-Label.png",
+            "uiComponents/Player-Left-Button-Full.png",
+            "uiComponents/Player-Right-Button-Full.png",
+            "uiComponents/labelTexture.png",
+            "uiComponents/College-Left-Button.png",
+            "uiComponents/College-Right-Button.png",
+            "uiComponents/Start-Game-Button-Full.png",
+            "uiComponents/MenusTopBarLeft.png",
+            "uiComponents/MenusTopBarCenter.png",
+            "uiComponents/MenusTopBarRight.png",
+            "uiComponents/HUD-Bottom-Bar-Right-Part.png",
+            "uiComponents/End-Phase-Button.png",
+            "logos/alcuin-logo.png",
+            "logos/derwent-logo.png",
+            "logos/halifax-logo.png",
+            "logos/hes-east-logo.png",
+            "logos/james-logo.png",
+            "logos/uni-of-york-logo.png",
+            "logos/vanbrugh-logo.png",
+            "logos/wentworth-logo.png",
+            "cards/collusionCard.png",
+            "cards/fauxCollusionCard.png",
+            "cards/poopyPathCard.png",
+            "cards/fauxPoopyPathCard.png",
+            "cards/asbestosCard.png",
+            "cards/fauxAsbestosCard.png",
+            "cards/hiddenCard.png",
+            "uiComponents/Left-Part-End-Bottom-Bar.png",
+            "uiComponents/Esc-Button-Bottom-Bar.png",
+            "uiComponents/Center-Part-Bottom-Bar.png",
+            "uiComponents/End-Center-Part-Bottom-Bar.png",
+            "uiComponents/Right-Part-Bottom-Bar.png",
+            "uiComponents/HUD-Top-Bar-Left-Part.png",
+            "uiComponents/HUD-Top-Bar-Left-Part-Pressed.png",
+            "uiComponents/HUD-Top-Bar-Right-Part.png",
+            "uiComponents/HUD-Top-Bar-Right-Part-Pressed.png",
+            "uiComponents/HUD-Top-Bar-Center-Part.png",
+            "uiComponents/menuBackground.png",
+            "uiComponents/Scanline.png",
+            "uiComponents/Game-Setup-Name-Box.png",
+            "uiComponents/miniGameBackground.png",
+            "uiComponents/Scanline-Purple.png"
+    };
+    private static final String FONT_BIG_PATH = "font/Alte-DIN-Big.fnt";
+    private static final String FONT_SMALL_PATH = "font/Alte-DIN-Small.fnt";
+
+    private static AssetManager assets; // asset manager the textures and fonts are loaded by
+
     private static Texture basicButtonTexture;
     private static Texture mapGraphicTexture;
     private static Texture optionsGraphicTexture;
@@ -76,74 +136,111 @@ public class WidgetFactory {
     private static BitmapFont fontBig;
     private static BitmapFont fontSmall;
 
+    /**
+     * queues the textures and fonts required for generating the UI components to be loaded by the asset manager
+     * the assets are loaded as the asset manager is updated, e.g. by the LoadingScreen
+     *
+     * @param assetManager asset manager to load the assets with
+     */
+    public static void queueAssets(AssetManager assetManager) {
+        for (String path : TEXTURE_PATHS) {
+            assetManager.load(path, Texture.class);
+        }
+        assetManager.load(FONT_BIG_PATH, BitmapFont.class);
+        assetManager.load(FONT_SMALL_PATH, BitmapFont.class);
+    }
+
     /**
      * initialises all the assets required for generating the UI components
+     * any asset that was not queued by queueAssets, or has not finished loading, is loaded before this returns
+     *
+     * @param assetManager asset manager the assets were queued with
      */
-    public WidgetFactory() {
+    public WidgetFactory(AssetManager assetManager) {
+        assets = assetManager;
         setupFont();
 
-        basicButtonTexture = new Texture("uiComponents/Menu-Button-Full.png");
-        mapGraphicTexture = new Texture("uiComponents/Main-Menu-Map.png");
-        optionsGraphicTexture = new Texture("uiComponents/RuncinatorGraphic.png");
+        basicButtonTexture = getTexture("uiComponents/Menu-Button-Full.png");
+        mapGraphicTexture = getTexture("uiComponents/Main-Menu-Map.png");
+        optionsGraphicTexture = getTexture("uiComponents/RuncinatorGraphic.png");
 
-        sliderBarTexture = new Texture("uiComponents/sliderBar.png");
-        sliderKnobTexture = new Texture("uiComponents/sliderKnob.png");
-        selectionBoxTexture = new Texture("uiComponents/selectionBox.png");
+        sliderBarTexture = getTexture("uiComponents/sliderBar.png");
+        sliderKnobTexture = getTexture("uiComponents/sliderKnob.png");
+        selectionBoxTexture = getTexture("uiComponents/selectionBox.png");
 
-        textFieldCursorTexture = new Texture("uiComponents/textFieldCursor.png");
+        textFieldCursorTexture = getTexture("uiComponents/textFieldCursor.png");
 
-        onSwitchTexture = new Texture("uiComponents/On-Switch.png");
-        offSwitchTexture = new Texture("uiComponents/Off-Switch.png");
+        onSwitchTexture = getTexture("uiComponents/On-Switch.png");
+        offSwitchTexture = getTexture("uiComponents/Off-Switch.png");
 
-        playerLabelTexture = new Texture("uiComponents/Player-Label.png");
-        playerLeftBtnTexture = new Texture("uiComponents/Player-Left-Button-Full.png");
-        playerRightBtnTexture = new Texture("uiComponents/Player-Right-Button-Full.png");
-        menuBtnLabelTexture = new Texture("uiComponents/labelTexture.png");
-        collegeLeftBtnTexture = new Texture("uiComponents/College-Left-Button.png");
-        collegeRightBtnTexture = new Texture("uiComponents/College-Right-Button.png");
-        startGameBtnTexture = new Texture("uiComponents/Start-Game-Button-Full.png");
+        playerLabelTexture = getTexture("uiComponents/Player-Label.png");
+        playerLeftBtnTexture = getTexture("uiComponents/Player-Left-Button-Full.png");
+        playerRightBtnTexture = getTexture("uiComponents/Player-Right-Button-Full.png");
+        menuBtnLabelTexture = getTexture("uiComponents/labelTexture.png");
+        collegeLeftBtnTexture = getTexture("uiComponents/College-Left-Button.png");
+        collegeRightBtnTexture = getTexture("uiComponents/College-Right-Button.png");
+        startGameBtnTexture = getTexture("uiComponents/Start-Game-Button-Full.png");
 
-        menusTopBarLeftTexture = new Texture("uiComponents/MenusTopBarLeft.png");
-        menusTopBarCenterTexture = new Texture("uiComponents/MenusTopBarCenter.png");
-        menusTopBarRightTexture = new Texture("uiComponents/MenusTopBarRight.png");
+        menusTopBarLeftTexture = getTexture("uiComponents/MenusTopBarLeft.png");
+        menusTopBarCenterTexture = getTexture("uiComponents/MenusTopBarCenter.png");
+        menusTopBarRightTexture = getTexture("uiComponents/MenusTopBarRight.png");
 
-        gameHUDBottomBarRightPartTexture = new Texture("uiComponents/HUD-Bottom-Bar-Right-Part.png");
-        endPhaseBtnTexture = new Texture("uiComponents/End-Phase-Button.png");
+        gameHUDBottomBarRightPartTexture = getTexture("uiComponents/HUD-Bottom-Bar-Right-Part.png");
+        endPhaseBtnTexture = getTexture("uiComponents/End-Phase-Button.png");
 
         // load college logos
-        alcuinLogoTexture = new Texture("logos/alcuin-logo.png");
-        derwentLogoTexture = new Texture("logos/derwent-logo.png");
-        halifaxLogoTexture = new Texture("logos/halifax-logo.png");
-        hesEastLogoTexture = new Texture("logos/hes-east-logo.png");
-        jamesLogoTexture = new Texture("logos/james-logo.png");
-        uniOfYorkLogoTexture = new Texture("logos/uni-of-york-logo.png");
-        vanbrughLogoTexture = new Texture("logos/vanbrugh-logo.png");
-        wentworthLogoTexture = new Texture("logos/wentworth-logo.png");
+        alcuinLogoTexture = getTexture("logos/alcuin-logo.png");
+        derwentLogoTexture = getTexture("logos/derwent-logo.png");
+        halifaxLogoTexture = getTexture("logos/halifax-logo.png");
+        hesEastLogoTexture = getTexture("logos/hes-east-logo.png");
+        jamesLogoTexture = getTexture("logos/james-logo.png");
+        uniOfYorkLogoTexture = getTexture("logos/uni-of-york-logo.png");
+        vanbrughLogoTexture = getTexture("logos/vanbrugh-logo.png");
+        wentworthLogoTexture = getTexture("logos/wentworth-logo.png");
 
         // load punishment card textures
-        collusionCardTexture = new Texture("cards/collusionCard.png");
-        fauxCollusionCardTexture = new Texture("cards/fauxCollusionCard.png");
-        poopyPathCardTexture = new Texture("cards/poopyPathCard.png");
-        fauxPoopyPathCardTexture = new Texture("cards/fauxPoopyPathCard.png");
-        asbestosCardTexture = new Texture("cards/asbestosCard.png");
-        fauxAsbestosCardTexture = new Texture("cards/fauxAsbestosCard.png");
-        hiddenCardTexture = new Texture("cards/hiddenCard.png");
+        collusionCardTexture = getTexture("cards/collusionCard.png");
+        fauxCollusionCardTexture = getTexture("cards/fauxCollusionCard.png");
+        poopyPathCardTexture = getTexture("cards/poopyPathCard.png");
+        fauxPoopyPathCardTexture = getTexture("cards/fauxPoopyPathCard.png");
+        asbestosCardTexture = getTexture("cards/asbestosCard.png");
+        fauxAsbestosCardTexture = getTexture("cards/fauxAsbestosCard.png");
+        hiddenCardTexture = getTexture("cards/hiddenCard.png");
     }
 
     /**
      * sets up the big and small fonts
      */
     private void setupFont() {
-        FileHandle alteDinBig = Gdx.files.internal("font/Alte-DIN-Big.fnt");
-        FileHandle alteDinSmall = Gdx.files.internal("font/Alte-DIN-Small.fnt");
-
-        fontBig = new BitmapFont(alteDinBig);
+        fontBig = getAsset(FONT_BIG_PATH, BitmapFont.class);
         fontBig.setUseIntegerPositions(false);
 
-        fontSmall = new BitmapFont(alteDinSmall);
+        fontSmall = getAsset(FONT_SMALL_PATH, BitmapFont.class);
         fontSmall.setUseIntegerPositions(false);
     }
 
+    /**
+     * gets a texture from the asset manager, the same texture is returned each time it is requested
+     * textures returned by this method are owned by the asset manager so must not be disposed
+     *
+     * @param path path of the texture's image file
+     * @return the texture
+     */
+    public static Texture getTexture(String path) {
+        return getAsset(path, Texture.class);
+    }
+
+    /**
+     * gets an asset from the asset manager, loading it first if it has not been loaded yet
+     */
+    private static <T> T getAsset(String path, Class<T> type) {
+        if (!assets.isLoaded(path, type)) {
+            assets.load(path, type);
+            assets.finishLoadingAsset(path);
+        }
+        return assets.get(path, type);
+    }
+
     /**
      * creates a button with the specified text on it which changes colour when clicked
      *
@@ -236,21 +333,21 @@ public class WidgetFactory {
      */
     public static Table genBottomBar(String buttonText, ChangeListener changeListener){
 
-        Image leftPart = new Image(new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Left-Part-End-Bottom-Bar.png"))));
+        Image leftPart = new Image(new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/Left-Part-End-Bottom-Bar.png"))));
         TextButton.TextButtonStyle buttonStyle = new TextButton.TextButtonStyle();
         buttonStyle.font = fontSmall;
-        buttonStyle.up = new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Esc-Button-Bottom-Bar.png")));
-        buttonStyle.down = new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Esc-Button-Bottom-Bar.png")));
+        buttonStyle.up = new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/Esc-Button-Bottom-Bar.png")));
+        buttonStyle.down = new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/Esc-Button-Bottom-Bar.png")));
         final TextButton escButton = new TextButton(buttonText, buttonStyle);
         escButton.addListener(changeListener);
 
-        Image centerPart = new Image(new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Center-Part-Bottom-Bar.png"))));
-        Image endCenterPart = new Image((new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/End-Center-Part-Bottom-Bar.png")))));
+        Image centerPart = new Image(new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/Center-Part-Bottom-Bar.png"))));
+        Image endCenterPart = new Image((new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/End-Center-Part-Bottom-Bar.png")))));
 
 
         Label.LabelStyle style = new Label.LabelStyle();
         style.font = fontSmall;
-        style.background = new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/Right-Part-Bottom-Bar.png")));
+        style.background = new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/Right-Part-Bottom-Bar.png")));
         String text = "BACHELORS OF" + "\n" + "DOMINATION";
         Label textLabel = new Label(text, style);
         textLabel.setAlignment(0,40);
@@ -476,13 +573,13 @@ public class WidgetFactory {
      */
     public static Table genGameHUDTopBar(final Stage stage, Label barText, final GameScreen gameScreen) {
         Button.ButtonStyle menuBtnStyle = new Button.ButtonStyle();
-        menuBtnStyle.up = new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/HUD-Top-Bar-Left-Part.png")));
-        menuBtnStyle.down = new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/HUD-Top-Bar-Left-Part-Pressed.png")));
+        menuBtnStyle.up = new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/HUD-Top-Bar-Left-Part.png")));
+        menuBtnStyle.down = new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/HUD-Top-Bar-Left-Part-Pressed.png")));
         Button menuBtn = new Button(menuBtnStyle);
 
         Button.ButtonStyle cardsBtnStyle = new Button.ButtonStyle();
-        cardsBtnStyle.up = new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/HUD-Top-Bar-Right-Part.png")));
-        cardsBtnStyle.down = new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/HUD-Top-Bar-Right-Part-Pressed.png")));
+        cardsBtnStyle.up = new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/HUD-Top-Bar-Right-Part.png")));
+        cardsBtnStyle.down = new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/HUD-Top-Bar-Right-Part-Pressed.png")));
         Button cardsBtn = new Button(cardsBtnStyle);
 
         menuBtn.addListener(new ChangeListener() {
@@ -502,7 +599,7 @@ public class WidgetFactory {
 
         Label.LabelStyle style = new Label.LabelStyle();
         style.font = fontSmall;
-        style.background = new TextureRegionDrawable(new TextureRegion(new Texture("uiComponents/HUD-Top-Bar-Center-Part.png")));
+        style.background = new TextureRegionDrawable(new TextureRegion(getTexture("uiComponents/HUD-Top-Bar-Center-Part.png")));
         barText.setStyle(style);
 
         barText.setAlignment(Align.center);
@@ -568,7 +665,7 @@ public class WidgetFactory {
      * @return a new instance of the small font
      */
     public static BitmapFont getFontSmall() {
-        FileHandle alteDinSmall = Gdx.files.internal("font/Alte-DIN-Small.fnt");
+        FileHandle alteDinSmall = Gdx.files.internal(FONT_SMALL_PATH);
         return new BitmapFont(alteDinSmall);
     }
 }
@@ -0,0 +1,152 @@
+package sepr.game.engine;
+
+import sepr.game.Sector;
+import sepr.game.utils.PunishmentCardType;
+
+/*
+Added in assessment 4
+ - added so the moves chosen by a computer controlled player can be searched over and then carried out by the engine
+ */
+
+/**
+ * a single move a computer controlled player can make, equal to any other action of the same type with the same values
+ *
+ * an attack is followed by moving half of the undergrads left on the source sector onto the target if it was conquered,
+ * so a successful attack always moves at least one unit as it does for a human player
+ */
+public final class AiAction {
+
+    /**
+     * the kinds of action
+     */
+    public enum Type {
+        REINFORCE, ATTACK, MOVE, PUNISHMENT_CARD, END_PHASE
+    }
+
+    private static final AiAction END_PHASE = new AiAction(Type.END_PHASE, -1, -1, 0, null);
+
+    private final Type type;
+    private final int sourceSectorId; // sector the action is carried out on or from, -1 if none
+    private final int targetSectorId; // sector attacked or moved to, -1 if none
+    private final int amount; // undergrads reinforced, attacked with or moved
+    private final PunishmentCardType cardType; // card played, null if the action is not playing a card
+
+    private AiAction(Type type, int sourceSectorId, int targetSectorId, int amount, PunishmentCardType cardType) {
+        this.type = type;
+        this.sourceSectorId = sourceSectorId;
+        this.targetSectorId = targetSectorId;
+        this.amount = amount;
+        this.cardType = cardType;
+    }
+
+    public static AiAction reinforce(int sectorId, int underGrads) {
+        return new AiAction(Type.REINFORCE, sectorId, -1, underGrads, null);
+    }
+
+    public static AiAction attack(int sourceSectorId, int targetSectorId, int attackers) {
+        return new AiAction(Type.ATTACK, sourceSectorId, targetSectorId, attackers, null);
+    }
+
+    public static AiAction move(int sourceSectorId, int targetSectorId, int amount) {
+        return new AiAction(Type.MOVE, sourceSectorId, targetSectorId, amount, null);
+    }
+
+    public static AiAction punishmentCard(int sectorId, PunishmentCardType cardType) {
+        return new AiAction(Type.PUNISHMENT_CARD, sectorId, -1, 0, cardType);
+    }
+
+    /**
+     * @return the action of ending the current phase
+     */
+    public static AiAction endPhase() {
+        return END_PHASE;
+    }
+
+    /**
+     * carries out this action as the engine's current player
+     * ending the phase is left to the caller, so applying an END_PHASE action does nothing
+     *
+     * @param engine engine to issue the commands to
+     * @throws IllegalArgumentException if the engine rejects the action, e.g. the board has changed since it was chosen
+     * @throws IllegalStateException if the action can not be made in the engine's current phase
+     */
+    public void apply(GameEngine engine) {
+        switch (type) {
+            case REINFORCE:
+                engine.reinforce(sourceSectorId, amount, 0);
+                break;
+            case ATTACK:
+                engine.attack(sourceSectorId, targetSectorId, amount);
+                int playerId = engine.getCurrentPlayer().getId();
+                Sector source = engine.getMap().getSectorById(sourceSectorId);
+                Sector target = engine.getMap().getSectorById(targetSectorId);
+                if (target.getOwnerId() == playerId && source.getOwnerId() == playerId && source.getUnderGradsInSector() > 1 && source.canChangeUnits() && target.canChangeUnits()) {
+                    engine.move(sourceSectorId, targetSectorId, source.getUnderGradsInSector() / 2);
+                }
+                break;
+            case MOVE:
+                engine.move(sourceSectorId, targetSectorId, amount);
+                break;
+            case PUNISHMENT_CARD:
+                engine.applyPunishmentCard(sourceSectorId, cardType);
+                break;
+            case END_PHASE:
+                break;
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getSourceSectorId() {
+        return sourceSectorId;
+    }
+
+    public int getTargetSectorId() {
+        return targetSectorId;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public PunishmentCardType getCardType() {
+        return cardType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AiAction)) return false;
+        AiAction other = (AiAction)o;
+        return type == other.type && sourceSectorId == other.sourceSectorId && targetSectorId == other.targetSectorId
+                && amount == other.amount && cardType == other.cardType;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type.hashCode();
+        result = 31 * result + sourceSectorId;
+        result = 31 * result + targetSectorId;
+        result = 31 * result + amount;
+        result = 31 * result + (cardType == null ? 0 : cardType.hashCode());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case REINFORCE:
+                return "reinforce " + sourceSectorId + " with " + amount;
+            case ATTACK:
+                return "attack " + targetSectorId + " from " + sourceSectorId + " with " + amount;
+            case MOVE:
+                return "move " + amount + " from " + sourceSectorId + " to " + targetSectorId;
+            case PUNISHMENT_CARD:
+                return "play " + cardType + " on " + sourceSectorId;
+            default:
+                return "end phase";
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package sepr.game.engine;
+
+import sepr.game.GameScreen;
+import sepr.game.Map;
+import sepr.game.Sector;
+import sepr.game.utils.PunishmentCardType;
+
+import java.util.Arrays;
+
+/*
+Added in assessment 4
+ - added so the state of the board can be copied and changed cheaply, e.g. when searching for moves or simulating games
+ */
+
+/**
+ * compact copy of the state of every sector on a Map, stored in arrays indexed by sector id
+ *
+ * the properties of a sector that never change during a game, and the adjacency of the sectors, are shared by every
+ * copy of a board; the adjacency is stored as a single array of ids, the sectors adjacent to sector i being
+ * adjacentSectorIds[adjacencyStart[i]] to adjacentSectorIds[adjacencyStart[i + 1] - 1]
+ * a board follows the same rules as Sector for changing units and status effects
+ */
+public class BoardState {
+    // properties shared between copies, never modified once the board is created
+    private final int sectorCount; // number of sector ids, sector ids run from 0 to sectorCount - 1
+    private final int[] reinforcementsProvided; // reinforcements given by each sector
+    private final boolean[] decor; // is each sector for visual purposes only
+    private final boolean[] neutral; // is each sector a default neutral sector
+    private final int[] adjacencyStart; // index in adjacentSectorIds of the first neighbour of each sector, with an extra entry marking the end
+    private final int[] adjacentSectorIds; // neighbours of every sector, ordered by sector
+
+    // state of each sector, copied by copyInto
+    private final int[] ownerIds; // id of the player that owns each sector, -1 if unowned
+    private final int[] underGrads; // undergrad units on each sector
+    private final int[] postGrads; // postgrad units on each sector
+    private final int[] asbestosCounts; // turns the asbestos effect is active for on each sector
+    private final int[] poopCounts; // turns the poopy path effect is active for on each sector
+
+    /**
+     * creates a board with the sectors of the map and their current state
+     * any id below the highest sector id that has no sector is treated as a decor sector
+     *
+     * @param map map to take the sectors from
+     */
+    public BoardState(Map map) {
+        int maxId = -1;
+        int adjacencyCount = 0;
+        for (Sector sector : map.getSectors().values()) {
+            maxId = Math.max(maxId, sector.getId());
+            adjacencyCount += sector.getAdjacentSectorIds().length;
+        }
+
+        this.sectorCount = maxId + 1;
+        this.reinforcementsProvided = new int[sectorCount];
+        this.decor = new boolean[sectorCount];
+        this.neutral = new boolean[sectorCount];
+        this.adjacencyStart = new int[sectorCount + 1];
+        this.adjacentSectorIds = new int[adjacencyCount];
+        Arrays.fill(decor, true);
+
+        int next = 0;
+        for (int i = 0; i < sectorCount; i++) {
+            adjacencyStart[i] = next;
+            Sector sector = map.getSectors().get(i);
+            if (sector == null) continue;
+
+            reinforcementsProvided[i] = sector.getReinforcementsProvided();
+            decor[i] = sector.isDecor();
+            neutral[i] = sector.isNeutral();
+            for (int adjacentId : sector.getAdjacentSectorIds()) {
+                adjacentSectorIds[next++] = adjacentId;
+            }
+        }
+        adjacencyStart[sectorCount] = next;
+
+        this.ownerIds = new int[sectorCount];
+        this.underGrads = new int[sectorCount];
+        this.postGrads = new int[sectorCount];
+        this.asbestosCounts = new int[sectorCount];
+        this.poopCounts = new int[sectorCount];
+        Arrays.fill(ownerIds, -1);
+        readFrom(map);
+    }
+
+    /**
+     * creates a copy of the board sharing its fixed sector properties
+     *
+     * @param board board to copy
+     */
+    private BoardState(BoardState board) {
+        this.sectorCount = board.sectorCount;
+        this.reinforcementsProvided = board.reinforcementsProvided;
+        this.decor = board.decor;
+        this.neutral = board.neutral;
+        this.adjacencyStart = board.adjacencyStart;
+        this.adjacentSectorIds = board.adjacentSectorIds;
+
+        this.ownerIds = board.ownerIds.clone();
+        this.underGrads = board.underGrads.clone();
+        this.postGrads = board.postGrads.clone();
+        this.asbestosCounts = board.asbestosCounts.clone();
+        this.poopCounts = board.poopCounts.clone();
+    }
+
+    /**
+     * @return a copy of this board that can be changed without affecting this one
+     */
+    public BoardState copy() {
+        return new BoardState(this);
+    }
+
+    /**
+     * overwrites the state of the target board with the state of this board without allocating
+     *
+     * @param target board to copy the state of the sectors to
+     * @throws IllegalArgumentException if the target is not a copy of the same board
+     */
+    public void copyInto(BoardState target) {
+        if (target.adjacentSectorIds != adjacentSectorIds) {
+            throw new IllegalArgumentException("Can only copy into a board with the same sectors");
+        }
+        System.arraycopy(ownerIds, 0, target.ownerIds, 0, sectorCount);
+        System.arraycopy(underGrads, 0, target.underGrads, 0, sectorCount);
+        System.arraycopy(postGrads, 0, target.postGrads, 0, sectorCount);
+        System.arraycopy(asbestosCounts, 0, target.asbestosCounts, 0, sectorCount);
+        System.arraycopy(poopCounts, 0, target.poopCounts, 0, sectorCount);
+    }
+
+    /**
+     * overwrites the state of this board with the current state of the sectors on the map
+     *
+     * @param map map with the same sectors this board was created from
+     */
+    public void readFrom(Map map) {
+        for (Sector sector : map.getSectors().values()) {
+            int id = sector.getId();
+            ownerIds[id] = sector.getOwnerId();
+            underGrads[id] = sector.getUnderGradsInSector();
+            postGrads[id] = sector.getPostGradsInSector();
+            asbestosCounts[id] = sector.getAsbestosCount();
+            poopCounts[id] = sector.getPoopCount();
+        }
+    }
+
+    /**
+     * @return number of sector ids on the board, ids run from 0 to this value - 1
+     */
+    public int getSectorCount() {
+        return sectorCount;
+    }
+
+    public int getReinforcementsProvided(int sectorId) {
+        return reinforcementsProvided[sectorId];
+    }
+
+    public boolean isDecor(int sectorId) {
+        return decor[sectorId];
+    }
+
+    public boolean isNeutral(int sectorId) {
+        return neutral[sectorId];
+    }
+
+    /**
+     * @return index in the adjacency of the first sector adjacent to the given sector
+     */
+    public int getAdjacencyStart(int sectorId) {
+        return adjacencyStart[sectorId];
+    }
+
+    /**
+     * @return index in the adjacency after the last sector adjacent to the given sector
+     */
+    public int getAdjacencyEnd(int sectorId) {
+        return adjacencyStart[sectorId + 1];
+    }
+
+    /**
+     * @param index index in the adjacency, between getAdjacencyStart and getAdjacencyEnd of a sector
+     * @return id of the adjacent sector at that index
+     */
+    public int getAdjacentSectorId(int index) {
+        return adjacentSectorIds[index];
+    }
+
+    /**
+     * @return true if sector b is adjacent to sector a
+     */
+    public boolean isAdjacent(int a, int b) {
+        for (int i = adjacencyStart[a]; i < adjacencyStart[a + 1]; i++) {
+            if (adjacentSectorIds[i] == b) return true;
+        }
+        return false;
+    }
+
+    public int getOwnerId(int sectorId) {
+        return ownerIds[sectorId];
+    }
+
+    public void setOwnerId(int sectorId, int ownerId) {
+        ownerIds[sectorId] = ownerId;
+    }
+
+    public int getUnderGrads(int sectorId) {
+        return underGrads[sectorId];
+    }
+
+    public int getPostGrads(int sectorId) {
+        return postGrads[sectorId];
+    }
+
+    public int getAsbestosCount(int sectorId) {
+        return asbestosCounts[sectorId];
+    }
+
+    public int getPoopCount(int sectorId) {
+        return poopCounts[sectorId];
+    }
+
+    /**
+     * @return true if not under poopy path status effect and there's more than one undergrad on the sector
+     */
+    public boolean canAttack(int sectorId) {
+        return poopCounts[sectorId] == 0 && underGrads[sectorId] > 1;
+    }
+
+    /**
+     * @return true if not under poopy path status effect
+     */
+    public boolean canBeAttacked(int sectorId) {
+        return poopCounts[sectorId] == 0;
+    }
+
+    /**
+     * @return true if not under poopy path status effect
+     */
+    public boolean canChangeUnits(int sectorId) {
+        return poopCounts[sectorId] == 0;
+    }
+
+    /**
+     * adds units to a sector, giving it to the neutral player if it is left with no units
+     *
+     * @param sectorId sector to add the units to
+     * @param undergrad number of undergrads to add, may be negative
+     * @param postgrad number of postgrads to add, may be negative
+     * @throws IllegalArgumentException if the sector would be left with less than 0 of either unit
+     */
+    public void addUnits(int sectorId, int undergrad, int postgrad) {
+        if (underGrads[sectorId] + undergrad < 0 || postGrads[sectorId] + postgrad < 0) {
+            throw new IllegalArgumentException("Cannot have less than 0 units on a sector");
+        }
+        underGrads[sectorId] += undergrad;
+        postGrads[sectorId] += postgrad;
+
+        if (underGrads[sectorId] == 0 && postGrads[sectorId] == 0) ownerIds[sectorId] = GameScreen.NEUTRAL_PLAYER_ID;
+    }
+
+    /**
+     * applies the given punishment card to a sector
+     *
+     * @throws IllegalArgumentException can only increment status effects for Poopy path card and Asbestos card
+     */
+    public void incrementStatusEffect(int sectorId, PunishmentCardType punishmentCardType) {
+        switch (punishmentCardType) {
+            case POOPY_PATH_CARD:
+                poopCounts[sectorId] += 3;
+                break;
+            case ASBESTOS_CARD:
+                asbestosCounts[sectorId] += 3;
+                break;
+            default:
+                throw new IllegalArgumentException("Can only increment status effects for Poopy path card and Asbestos card");
+        }
+    }
+
+    /**
+     * decrement the number of turns each status effect is on a sector for, if it is greater than 0
+     */
+    public void decrementStatusEffects(int sectorId) {
+        if (poopCounts[sectorId] > 0) poopCounts[sectorId]--;
+        if (asbestosCounts[sectorId] > 0) asbestosCounts[sectorId]--;
+    }
+
+    /**
+     * @return number of non-decor sectors owned by the player
+     */
+    public int countSectorsOwnedBy(int playerId) {
+        int count = 0;
+        for (int i = 0; i < sectorCount; i++) {
+            if (ownerIds[i] == playerId && !decor[i]) count++;
+        }
+        return count;
+    }
+}
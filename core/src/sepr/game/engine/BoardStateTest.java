@@ -0,0 +1,123 @@
+package sepr.game.engine;
+
+import com.badlogic.gdx.Gdx;
+import org.junit.Before;
+import org.junit.Test;
+import sepr.game.Map;
+import sepr.game.Player;
+import sepr.game.Sector;
+import sepr.game.TestGame;
+import sepr.game.utils.PunishmentCardType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoardStateTest {
+    private Map map;
+
+    @Before
+    public void setUp() {
+        HashMap<Integer, Player> players = TestGame.createPlayers(4);
+        map = TestGame.createMap(players, 1234);
+    }
+
+    @Test
+    public void boardMatchesMap() {
+        BoardState board = new BoardState(map);
+        for (Sector sector : map.getSectors().values()) {
+            int id = sector.getId();
+            assertEquals(sector.getOwnerId(), board.getOwnerId(id));
+            assertEquals(sector.getUnderGradsInSector(), board.getUnderGrads(id));
+            assertEquals(sector.getPostGradsInSector(), board.getPostGrads(id));
+            assertEquals(sector.getReinforcementsProvided(), board.getReinforcementsProvided(id));
+            assertEquals(sector.isDecor(), board.isDecor(id));
+            assertEquals(sector.isNeutral(), board.isNeutral(id));
+        }
+    }
+
+    /**
+     * the board's adjacency lists must hold exactly the adjacent ids listed for each sector in the sector table
+     */
+    @Test
+    public void adjacencyMatchesSectorTable() throws IOException {
+        BoardState board = new BoardState(map);
+        BufferedReader reader = Gdx.files.internal("mapData/sectorProperties.csv").reader(1000);
+        int sectorsChecked = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] columns = line.split(",", -1);
+                int id = Integer.parseInt(columns[0].trim());
+
+                Set<Integer> expected = new HashSet<Integer>();
+                for (String adjacentId : columns[6].trim().split(" ")) {
+                    if (!adjacentId.isEmpty()) expected.add(Integer.parseInt(adjacentId));
+                }
+                Set<Integer> actual = new HashSet<Integer>();
+                for (int i = board.getAdjacencyStart(id); i < board.getAdjacencyEnd(id); i++) {
+                    actual.add(board.getAdjacentSectorId(i));
+                }
+                assertEquals("adjacency of sector " + id, expected, actual);
+                for (int adjacentId : expected) {
+                    assertTrue(board.isAdjacent(id, adjacentId));
+                }
+                sectorsChecked++;
+            }
+        } finally {
+            reader.close();
+        }
+        assertEquals(map.getSectors().size(), sectorsChecked);
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        BoardState board = new BoardState(map);
+        BoardState copy = board.copy();
+        int sectorId = firstPlayableSector(board);
+        int owner = board.getOwnerId(sectorId);
+        int underGrads = board.getUnderGrads(sectorId);
+
+        copy.addUnits(sectorId, 3, 1);
+        copy.setOwnerId(sectorId, owner == 0 ? 1 : 0);
+        assertEquals(owner, board.getOwnerId(sectorId));
+        assertEquals(underGrads, board.getUnderGrads(sectorId));
+
+        board.addUnits(sectorId, 2, 0);
+        assertEquals(underGrads + 3, copy.getUnderGrads(sectorId));
+    }
+
+    @Test
+    public void copyIntoOverwritesTarget() {
+        BoardState board = new BoardState(map);
+        BoardState target = board.copy();
+        int sectorId = firstPlayableSector(board);
+        target.addUnits(sectorId, 5, 5);
+        target.incrementStatusEffect(sectorId, PunishmentCardType.ASBESTOS_CARD);
+
+        board.copyInto(target);
+        for (int id = 0; id < board.getSectorCount(); id++) {
+            assertEquals(board.getOwnerId(id), target.getOwnerId(id));
+            assertEquals(board.getUnderGrads(id), target.getUnderGrads(id));
+            assertEquals(board.getPostGrads(id), target.getPostGrads(id));
+            assertEquals(board.getAsbestosCount(id), target.getAsbestosCount(id));
+        }
+
+        target.addUnits(sectorId, 1, 0); // target does not share its state with the board it was copied from
+        assertFalse(board.getUnderGrads(sectorId) == target.getUnderGrads(sectorId));
+    }
+
+    private static int firstPlayableSector(BoardState board) {
+        for (int id = 0; id < board.getSectorCount(); id++) {
+            if (!board.isDecor(id)) return id;
+        }
+        throw new IllegalStateException("The map has no playable sectors");
+    }
+}
@@ -0,0 +1,287 @@
+package sepr.game.engine;
+
+import sepr.game.Map;
+import sepr.game.Player;
+import sepr.game.utils.PunishmentCardType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/*
+Added in assessment 4
+ - added so a game can be reproduced exactly from its seed and the commands its players made, e.g. to debug a game or
+   check a change to the rules does not change how recorded games play out
+ - undoing and redoing a command are recorded as commands, so games where moves were undone replay the same way
+ */
+
+/**
+ * the seed of a game and every command carried out by its GameEngine, in order
+ *
+ * the engine records each command once it has been checked and carried out, so the log only holds commands that
+ * succeeded; replaying the log on a game set up with the same seed and players carries out the same commands with the
+ * same random numbers, so the game plays out exactly as it did, without rendering or waiting for the players
+ * a game loaded from a save starts a new log with a new seed, so its log reproduces the game from when it was loaded
+ *
+ * each command is packed into a single long: its type in the low 4 bits, then two 8 bit ids, i.e. sectors, a player
+ * or a card type, then two 22 bit amounts of units
+ */
+public class CommandLog {
+
+    /**
+     * the kinds of command a player can make
+     */
+    public enum CommandType {
+        REINFORCE, ATTACK, MOVE, PUNISHMENT_CARD, AWARD_PUNISHMENT_CARD, END_PHASE, END_TURN, UNDO, REDO
+    }
+
+    private static final int TYPE_BITS = 4;
+    private static final int ID_BITS = 8;
+    private static final int AMOUNT_BITS = 22;
+    private static final int FIRST_ID_SHIFT = TYPE_BITS;
+    private static final int SECOND_ID_SHIFT = FIRST_ID_SHIFT + ID_BITS;
+    private static final int FIRST_AMOUNT_SHIFT = SECOND_ID_SHIFT + ID_BITS;
+    private static final int SECOND_AMOUNT_SHIFT = FIRST_AMOUNT_SHIFT + AMOUNT_BITS;
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+    private static final PunishmentCardType[] CARD_TYPES = PunishmentCardType.values();
+
+    private final long seed; // seed of the game's GameRandom
+    private long[] commands; // packed commands, in the order they were carried out
+    private int size; // number of commands recorded
+
+    /**
+     * @param seed seed of the GameRandom of the game being recorded
+     */
+    public CommandLog(long seed) {
+        this.seed = seed;
+        this.commands = new long[64];
+    }
+
+    void reinforce(int sectorId, int underGrads, int postGrads) {
+        add(pack(CommandType.REINFORCE, sectorId, 0, underGrads, postGrads));
+    }
+
+    void attack(int sourceSectorId, int targetSectorId, int attackers) {
+        add(pack(CommandType.ATTACK, sourceSectorId, targetSectorId, attackers, 0));
+    }
+
+    void move(int sourceSectorId, int targetSectorId, int amount) {
+        add(pack(CommandType.MOVE, sourceSectorId, targetSectorId, amount, 0));
+    }
+
+    void punishmentCard(int sectorId, PunishmentCardType cardType) {
+        add(pack(CommandType.PUNISHMENT_CARD, sectorId, cardType.ordinal(), 0, 0));
+    }
+
+    void awardPunishmentCard(int playerId, PunishmentCardType cardType) {
+        add(pack(CommandType.AWARD_PUNISHMENT_CARD, playerId, cardType.ordinal(), 0, 0));
+    }
+
+    void endPhase() {
+        add(pack(CommandType.END_PHASE, 0, 0, 0, 0));
+    }
+
+    void endTurn() {
+        add(pack(CommandType.END_TURN, 0, 0, 0, 0));
+    }
+
+    void undo() {
+        add(pack(CommandType.UNDO, 0, 0, 0, 0));
+    }
+
+    void redo() {
+        add(pack(CommandType.REDO, 0, 0, 0, 0));
+    }
+
+    /**
+     * @throws IllegalArgumentException if an id or amount does not fit in its bits
+     */
+    private static long pack(CommandType type, int firstId, int secondId, int firstAmount, int secondAmount) {
+        if (firstId < 0 || firstId >= 1 << ID_BITS || secondId < 0 || secondId >= 1 << ID_BITS) {
+            throw new IllegalArgumentException("Ids must be between 0 and " + ((1 << ID_BITS) - 1) + " to be logged");
+        }
+        if (firstAmount < 0 || firstAmount >= 1 << AMOUNT_BITS || secondAmount < 0 || secondAmount >= 1 << AMOUNT_BITS) {
+            throw new IllegalArgumentException("Amounts must be between 0 and " + ((1 << AMOUNT_BITS) - 1) + " to be logged");
+        }
+        return type.ordinal()
+                | (long)firstId << FIRST_ID_SHIFT
+                | (long)secondId << SECOND_ID_SHIFT
+                | (long)firstAmount << FIRST_AMOUNT_SHIFT
+                | (long)secondAmount << SECOND_AMOUNT_SHIFT;
+    }
+
+    /**
+     * @param command packed command, as returned by get
+     */
+    void add(long command) {
+        if (size == commands.length) commands = Arrays.copyOf(commands, size * 2);
+        commands[size++] = command;
+    }
+
+    /**
+     * forgets every recorded command, e.g. when a replay jumps to a keyframe and its commands are applied again
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return seed of the game's GameRandom
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return number of commands recorded
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index index of the command in the log
+     * @return the kind of command
+     */
+    public CommandType getType(int index) {
+        return COMMAND_TYPES[(int)(get(index) & ((1 << TYPE_BITS) - 1))];
+    }
+
+    /**
+     * @return the packed command at the index
+     */
+    long get(int index) {
+        if (index < 0 || index >= size) throw new IllegalArgumentException("No command at index " + index);
+        return commands[index];
+    }
+
+    /**
+     * @return true if the packed command has a valid type and, if it has one, a valid card type
+     */
+    static boolean isValid(long command) {
+        int type = (int)(command & ((1 << TYPE_BITS) - 1));
+        if (type >= COMMAND_TYPES.length) return false;
+        if (COMMAND_TYPES[type] == CommandType.PUNISHMENT_CARD || COMMAND_TYPES[type] == CommandType.AWARD_PUNISHMENT_CARD) {
+            return secondId(command) < CARD_TYPES.length;
+        }
+        return true;
+    }
+
+    private static int firstId(long command) {
+        return (int)(command >>> FIRST_ID_SHIFT) & ((1 << ID_BITS) - 1);
+    }
+
+    private static int secondId(long command) {
+        return (int)(command >>> SECOND_ID_SHIFT) & ((1 << ID_BITS) - 1);
+    }
+
+    private static int firstAmount(long command) {
+        return (int)(command >>> FIRST_AMOUNT_SHIFT) & ((1 << AMOUNT_BITS) - 1);
+    }
+
+    private static int secondAmount(long command) {
+        return (int)(command >>> SECOND_AMOUNT_SHIFT) & ((1 << AMOUNT_BITS) - 1);
+    }
+
+    /**
+     * carries out a recorded command on an engine, which records it in its own log
+     *
+     * @param index index of the command in the log
+     * @param engine engine to carry out the command on
+     * @throws IllegalArgumentException if the engine rejects the command, i.e. the engine's game is not the recorded one
+     * @throws IllegalStateException if the command can not be made in the engine's current phase
+     */
+    public void apply(int index, GameEngine engine) {
+        long command = get(index);
+        switch (getType(index)) {
+            case REINFORCE:
+                engine.reinforce(firstId(command), firstAmount(command), secondAmount(command));
+                break;
+            case ATTACK:
+                engine.attack(firstId(command), secondId(command), firstAmount(command));
+                break;
+            case MOVE:
+                engine.move(firstId(command), secondId(command), firstAmount(command));
+                break;
+            case PUNISHMENT_CARD:
+                engine.applyPunishmentCard(firstId(command), CARD_TYPES[secondId(command)]);
+                break;
+            case AWARD_PUNISHMENT_CARD:
+                engine.awardPunishmentCard(firstId(command), CARD_TYPES[secondId(command)]);
+                break;
+            case END_PHASE:
+                engine.endPhase();
+                break;
+            case END_TURN:
+                engine.endTurn();
+                break;
+            case UNDO:
+                engine.replayUndo(); // the recorded game's rules allowed the undo
+                break;
+            case REDO:
+                engine.replayRedo();
+                break;
+        }
+    }
+
+    /**
+     * carries out every recorded command on an engine, in order
+     *
+     * @param engine engine set up in the same state as the recorded game when it started recording
+     */
+    public void applyAll(GameEngine engine) {
+        for (int i = 0; i < size; i++) {
+            apply(i, engine);
+        }
+    }
+
+    /**
+     * sets up a new game with the log's seed and plays every recorded command, without rendering anything
+     *
+     * @param players newly created players of the recorded game, with the same ids, colleges and types
+     * @param allocateNeutralPlayer whether the recorded game allocated the neutral player its default sectors
+     * @return engine of the replayed game, in the state the recorded game was in after its last command
+     */
+    public GameEngine replay(HashMap<Integer, Player> players, boolean allocateNeutralPlayer) {
+        GameRandom random = new GameRandom(seed);
+        Map map = new Map(players, allocateNeutralPlayer, random.getStream(GameRandom.Stream.SETUP));
+        GameEngine engine = new GameEngine(map, players, random);
+        applyAll(engine);
+        return engine;
+    }
+
+    /**
+     * writes the seed and commands, 8 bytes for each command
+     *
+     * @param out output to write to
+     * @throws IOException if the output could not be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(seed);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(commands[i]);
+        }
+    }
+
+    /**
+     * reads a log written by write
+     *
+     * @param in input to read from
+     * @return the log that was written
+     * @throws IOException if the input could not be read or does not hold a valid log
+     */
+    public static CommandLog read(DataInput in) throws IOException {
+        CommandLog log = new CommandLog(in.readLong());
+        int size = in.readInt();
+        if (size < 0) throw new IOException("Invalid number of commands: " + size);
+        for (int i = 0; i < size; i++) {
+            long command = in.readLong();
+            if (!isValid(command)) throw new IOException("Invalid command");
+            log.add(command);
+        }
+        return log;
+    }
+}
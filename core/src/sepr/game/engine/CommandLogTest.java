@@ -0,0 +1,47 @@
+package sepr.game.engine;
+
+import org.junit.Test;
+import sepr.game.TestGame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class CommandLogTest {
+
+    /**
+     * plays a seeded game, then replays its log in a new game and checks both games end in the same state
+     */
+    private static void assertReplaysExactly(long seed, int playerCount, PlayerStrategy strategy) throws IOException {
+        GameEngine engine = TestGame.createEngine(playerCount, seed);
+        TestGame.playPhases(engine, strategy, 300);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        engine.getCommandLog().write(new DataOutputStream(bytes));
+        CommandLog log = CommandLog.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(seed, log.getSeed());
+        assertEquals(engine.getCommandLog().size(), log.size());
+
+        GameEngine replayed = log.replay(TestGame.createPlayers(playerCount), true);
+        TestGame.assertSameGame(engine, replayed);
+        assertEquals(log.size(), replayed.getCommandLog().size());
+    }
+
+    @Test
+    public void heuristicGamesReplayExactly() throws IOException {
+        for (long seed = 0; seed < 4; seed++) {
+            assertReplaysExactly(seed, 2 + (int)seed % 3, new HeuristicStrategy());
+        }
+    }
+
+    @Test
+    public void scriptedGamesReplayExactly() throws IOException {
+        for (long seed = 10; seed < 14; seed++) {
+            assertReplaysExactly(seed, 2 + (int)seed % 3, new ScriptedStrategy());
+        }
+    }
+}
@@ -0,0 +1,686 @@
+package sepr.game.engine;
+
+import sepr.game.BattleResolver;
+import sepr.game.DeltaJournal;
+import sepr.game.GameScreen;
+import sepr.game.Map;
+import sepr.game.Player;
+import sepr.game.Sector;
+import sepr.game.SectorOwnership;
+import sepr.game.utils.PlayerType;
+import sepr.game.utils.PunishmentCardType;
+import sepr.game.utils.TurnPhaseType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/*
+Added in assessment 4
+ - added to separate the rules of the game from how it is displayed, previously spread across GameScreen, Map and the Phase classes
+ - eliminated players are found from the territory counts kept by the map's SectorOwnership rather than by checking every sector for each player
+ - random numbers come from a seeded GameRandom and every command carried out is recorded in a CommandLog, so games can be replayed exactly
+ - the changes made by each command of the current phase are recorded in a DeltaJournal so they can be undone and redone
+ - the current player keeps their turn when players before them in the turn order are eliminated
+ */
+
+/**
+ * runs a game: holds the map, players, turn order and current phase and carries out the commands players can make
+ *
+ * commands are checked against the rules of the game and then applied, notifying the registered GameEventListeners of
+ * what has changed; nothing in the engine renders, plays audio or opens dialogs so games can be played without a
+ * display, e.g. for simulating games or running tests
+ * commands are recorded in the engine's CommandLog once carried out, which with the seed of its GameRandom reproduces the game
+ * the commands of the current phase can be undone and redone, except attacks unless the rules allow them to be undone,
+ * as undoing an attack would let a player retry it until the random outcome suits them
+ */
+public class GameEngine {
+    private static final int REINFORCEMENTS_PER_TURN = 5; // troops each player is given to allocate at the start of their next turn
+    private static final int POSTGRAD_COST = 2; // allocation points needed to reinforce a sector with a postgrad
+
+    private Map map; // the sectors the game is played on
+    private HashMap<Integer, Player> players; // player id mapping to the relevant player
+    private List<Integer> turnOrder; // player ids in the order that players take their turns
+    private int currentPlayerPointer; // index of current player in turnOrder list
+    private TurnPhaseType currentPhase; // phase of the current player's turn
+    private int turnNumber; // number of the current turn, counting each player's turn separately, starting from 1
+
+    private GameRandom random; // random numbers of every part of the game
+    private BattleResolver battleResolver; // decides the outcome of attacks
+    private CommandLog commandLog; // every command carried out so far
+    private DeltaJournal journal; // changes made by the commands of the current phase, so they can be undone
+    private boolean attackUndoAllowed = false; // rule allowing attacks, whose outcomes are random, to be undone
+    private List<GameEventListener> listeners; // listeners notified of changes to the game
+
+    /**
+     * sets up a new game where the players take turns in the order of their ids, excluding the neutral player
+     * the game starts in the reinforcement phase of the first player's turn
+     *
+     * @param map map the game is played on, with the sectors allocated to the players
+     * @param players mapping of player ids to the players in the game
+     * @param random random numbers of the game, the map should have been set up with its SETUP stream
+     */
+    public GameEngine(Map map, HashMap<Integer, Player> players, GameRandom random) {
+        this(map, players, createTurnOrder(players), 0, TurnPhaseType.REINFORCEMENT, 1, random);
+    }
+
+    /**
+     * sets up a game that is already in progress, i.e. one that has been loaded
+     *
+     * @param map map the game is played on
+     * @param players mapping of player ids to the players in the game
+     * @param turnOrder ids of the players still in the game in the order of their turns
+     * @param currentPlayerPointer index in turnOrder of the player whose turn it is
+     * @param currentPhase phase of the current player's turn
+     * @param turnNumber number of the current turn
+     * @param random random numbers of the game
+     */
+    public GameEngine(Map map, HashMap<Integer, Player> players, List<Integer> turnOrder, int currentPlayerPointer, TurnPhaseType currentPhase, int turnNumber, GameRandom random) {
+        this.map = map;
+        this.players = players;
+        this.turnOrder = turnOrder;
+        this.currentPlayerPointer = currentPlayerPointer;
+        this.currentPhase = currentPhase;
+        this.turnNumber = turnNumber;
+        this.random = random;
+        this.battleResolver = new BattleResolver(random.getStream(GameRandom.Stream.BATTLES));
+        this.commandLog = new CommandLog(random.getSeed());
+        this.listeners = new ArrayList<GameEventListener>();
+        this.journal = new DeltaJournal();
+        map.setJournal(journal);
+    }
+
+    /**
+     * creates a turn order containing every player other than the neutral player
+     *
+     * @param players the players in the game
+     * @return ids of the players who take turns
+     */
+    private static List<Integer> createTurnOrder(HashMap<Integer, Player> players) {
+        List<Integer> turnOrder = new ArrayList<Integer>();
+        for (Integer i : players.keySet()) {
+            if (players.get(i).getPlayerType() != PlayerType.NEUTRAL_AI) { // don't add the neutral player or unassigned to the turn order
+                turnOrder.add(i);
+            }
+        }
+        return turnOrder;
+    }
+
+    /**
+     * @param listener listener to notify of events in this game
+     */
+    public void addListener(GameEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener listener to stop notifying of events in this game
+     */
+    public void removeListener(GameEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * allocates some of the current player's troops to a sector they own
+     * each undergrad costs one allocation point and each postgrad costs two
+     *
+     * @param sectorId id of the sector to reinforce
+     * @param underGrads number of undergrads to add to the sector
+     * @param postGrads number of postgrads to add to the sector
+     * @throws IllegalStateException if it is not the reinforcement phase
+     * @throws IllegalArgumentException if the sector can not be reinforced by the current player or they do not have enough troops to allocate
+     */
+    public void reinforce(int sectorId, int underGrads, int postGrads) {
+        checkPhase(TurnPhaseType.REINFORCEMENT);
+        Sector sector = map.getSectorById(sectorId);
+        Player player = getCurrentPlayer();
+        int cost = underGrads + postGrads * POSTGRAD_COST;
+
+        if (underGrads < 0 || postGrads < 0) {
+            throw new IllegalArgumentException("Cannot reinforce a sector with a negative number of units");
+        }
+        if (sector.getOwnerId() != player.getId()) {
+            throw new IllegalArgumentException("Cannot allocate units to a sector you do not own");
+        }
+        if (!sector.canChangeUnits()) {
+            throw new IllegalArgumentException("This sector cannot currently change the units on it");
+        }
+        if (cost > player.getTroopsToAllocate()) {
+            throw new IllegalArgumentException("Cannot allocate more troops than the player has to allocate");
+        }
+
+        journal.beginEntry(false);
+        try {
+            changeUnits(sectorId, underGrads, postGrads);
+            addTroopsToAllocate(player, -cost);
+        } finally {
+            journal.endEntry();
+        }
+        commandLog.reinforce(sectorId, underGrads, postGrads);
+    }
+
+    /**
+     * attacks a sector with units from an adjacent sector owned by the current player
+     * the attacking units fight the defending units until one side has no units left, if the defenders are all
+     * defeated the attacker takes the target sector and is rewarded with the sector's reinforcements
+     *
+     * @param sourceSectorId id of the sector the attack comes from
+     * @param targetSectorId id of the sector to attack
+     * @param attackers number of undergrads on the source sector to attack with
+     * @throws IllegalStateException if it is not the attack phase
+     * @throws IllegalArgumentException if the current player can not make this attack
+     */
+    public void attack(int sourceSectorId, int targetSectorId, int attackers) {
+        checkPhase(TurnPhaseType.ATTACK);
+        Sector source = map.getSectorById(sourceSectorId);
+        Sector target = map.getSectorById(targetSectorId);
+        Player attacker = getCurrentPlayer();
+
+        if (source.getOwnerId() != attacker.getId() || !source.canAttack()) {
+            throw new IllegalArgumentException("Cannot attack from this sector");
+        }
+        if (target.getOwnerId() == attacker.getId() || !target.canBeAttacked() || !source.isAdjacentTo(target)) {
+            throw new IllegalArgumentException("Cannot attack this sector");
+        }
+        if (attackers < 0 || attackers > source.getUnderGradsInSector()) {
+            throw new IllegalArgumentException("Cannot attack with more units than are on the source sector");
+        }
+
+        int defenderId = target.getOwnerId();
+        Player neutralPlayer = players.get(GameScreen.NEUTRAL_PLAYER_ID);
+
+        BattleResolver.BattleResult result = battleResolver.resolve(attackers, target.getUnderGradsInSector(), target.getPostGradsInSector());
+        int attackersRemaining = result.getAttackersRemaining();
+
+        journal.beginEntry(true);
+        try {
+            if (attackersRemaining != 0) {
+                addTroopsToAllocate(attacker, target.getReinforcementsProvided()); // give the player the appropriate amount of troops to allocate next turn for conquering the target sector
+            }
+
+            // apply the attack to the map
+            changeUnits(sourceSectorId, -(attackers - attackersRemaining), 0);
+            changeUnits(targetSectorId, -(target.getUnderGradsInSector() - result.getUnderGradsRemaining()), -(target.getPostGradsInSector() - result.getPostGradsRemaining()));
+
+            if (source.getUnderGradsInSector() == 0) {
+                if (source.getPostGradsInSector() == 0) source.setOwner(neutralPlayer);
+                if (target.getUnderGradsInSector() == 0 && target.getPostGradsInSector() == 0)  target.setOwner(neutralPlayer);
+            } if (source.getUnderGradsInSector()== 1 && target.getUnderGradsInSector() == 0 && target.getPostGradsInSector() == 0) {
+                target.setOwner(neutralPlayer);
+            } else if (target.getUnderGradsInSector() == 0 && target.getPostGradsInSector() == 0) {
+                target.setOwner(attacker);
+            }
+        } finally {
+            journal.endEntry();
+        }
+        commandLog.attack(sourceSectorId, targetSectorId, attackers);
+
+        for (GameEventListener listener : new ArrayList<GameEventListener>(listeners)) {
+            listener.attackCompleted(sourceSectorId, targetSectorId, attacker.getId(), defenderId, attackersRemaining);
+        }
+    }
+
+    /**
+     * moves undergrads between two adjacent sectors owned by the current player
+     * may be used in the movement phase, or in the attack phase to move units onto a conquered sector
+     *
+     * @param sourceSectorId id of sector to move units from
+     * @param targetSectorId id of sector to move units to
+     * @param amount number of undergrads to move
+     * @throws IllegalStateException if it is not the attack or movement phase
+     * @throws IllegalArgumentException if the current player can not make this move
+     */
+    public void move(int sourceSectorId, int targetSectorId, int amount) {
+        if (currentPhase != TurnPhaseType.ATTACK && currentPhase != TurnPhaseType.MOVEMENT) {
+            throw new IllegalStateException("Units can only be moved in the attack and movement phases");
+        }
+        Sector source = map.getSectorById(sourceSectorId);
+        Sector target = map.getSectorById(targetSectorId);
+
+        if (source.getOwnerId() != getCurrentPlayer().getId()) {
+            throw new IllegalArgumentException("Cannot move units from a sector you do not own");
+        }
+        if (!source.canChangeUnits() || !target.canChangeUnits()) {
+            throw new IllegalArgumentException("Sectors must be able to change their units in order to move units");
+        }
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot move a negative number of units");
+        }
+
+        journal.beginEntry(false);
+        try {
+            map.moveUnits(sourceSectorId, targetSectorId, amount);
+        } finally {
+            journal.endEntry();
+        }
+        commandLog.move(sourceSectorId, targetSectorId, amount);
+        notifyUnitsChanged(sourceSectorId, -amount, 0);
+        notifyUnitsChanged(targetSectorId, amount, 0);
+    }
+
+    /**
+     * plays one of the current player's punishment cards on a sector
+     *
+     * @param sectorId id of the sector to play the card on
+     * @param punishmentCardType type of card to play
+     * @throws IllegalArgumentException if the card type can not be played or the current player has none of that card
+     */
+    public void applyPunishmentCard(int sectorId, PunishmentCardType punishmentCardType) {
+        Sector sector = map.getSectorById(sectorId);
+        Player player = getCurrentPlayer();
+
+        journal.beginEntry(false);
+        try {
+            switch (punishmentCardType) {
+                case COLLUSION_CARD:
+                    if (player.getCollusionCards() <= 0) throw new IllegalArgumentException("Player has no collusion cards");
+                    player.addCollusionCards(-1);
+                    journal.recordPlayerCount(player.getId(), DeltaJournal.PlayerCount.COLLUSION_CARDS, -1);
+                    changeUnits(sectorId, sector.getPostGradsInSector(), -sector.getPostGradsInSector()); // postgrads become undergrads
+                    break;
+                case POOPY_PATH_CARD:
+                    if (player.getPoopyPathCards() <= 0) throw new IllegalArgumentException("Player has no poopy path cards");
+                    player.addPoopyPathCards(-1);
+                    journal.recordPlayerCount(player.getId(), DeltaJournal.PlayerCount.POOPY_PATH_CARDS, -1);
+                    sector.incrementStatusEffect(punishmentCardType);
+                    break;
+                case ASBESTOS_CARD:
+                    if (player.getAsbestosCards() <= 0) throw new IllegalArgumentException("Player has no asbestos cards");
+                    player.addAsbestosCards(-1);
+                    journal.recordPlayerCount(player.getId(), DeltaJournal.PlayerCount.ASBESTOS_CARDS, -1);
+                    sector.incrementStatusEffect(punishmentCardType);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Can only apply the Collusion/Asbestos/PoopyPath cards");
+            }
+        } finally {
+            journal.endEntry();
+        }
+        commandLog.punishmentCard(sectorId, punishmentCardType);
+
+        for (GameEventListener listener : new ArrayList<GameEventListener>(listeners)) {
+            listener.punishmentCardApplied(sectorId, punishmentCardType);
+        }
+    }
+
+    /**
+     * gives a player a punishment card, i.e. one they won in the minigame
+     * the card is not taken back if the attack that triggered the minigame is undone
+     *
+     * @param playerId id of the player to give the card to
+     * @param punishmentCardType type of card to give
+     * @throws IllegalArgumentException if the card type can not be played or there is no player with the given id
+     */
+    public void awardPunishmentCard(int playerId, PunishmentCardType punishmentCardType) {
+        Player player = getPlayerById(playerId);
+        switch (punishmentCardType) {
+            case COLLUSION_CARD:
+                player.addCollusionCards(1);
+                break;
+            case POOPY_PATH_CARD:
+                player.addPoopyPathCards(1);
+                break;
+            case ASBESTOS_CARD:
+                player.addAsbestosCards(1);
+                break;
+            default:
+                throw new IllegalArgumentException("Can only award the Collusion/Asbestos/PoopyPath cards");
+        }
+        commandLog.awardPunishmentCard(playerId, punishmentCardType);
+    }
+
+    /**
+     * ends the current phase, moving to the next phase of the current player's turn or to the next player's turn if
+     * the movement phase is ended
+     * any troops the player did not allocate in the reinforcement phase are lost
+     */
+    public void endPhase() {
+        TurnPhaseType previousPhase = currentPhase;
+        boolean newTurn = false;
+        commandLog.endPhase();
+        journal.clear(); // commands can only be undone in the phase they were made in
+
+        switch (currentPhase) {
+            case REINFORCEMENT:
+                getCurrentPlayer().setTroopsToAllocate(REINFORCEMENTS_PER_TURN); // any unallocated units are removed and 5 are set for next turn
+                currentPhase = TurnPhaseType.ATTACK;
+                break;
+            case ATTACK:
+                currentPhase = TurnPhaseType.MOVEMENT;
+                break;
+            case MOVEMENT:
+                currentPhase = TurnPhaseType.REINFORCEMENT;
+                nextPlayer();
+                newTurn = true;
+                break;
+        }
+
+        phaseChanged(previousPhase, newTurn);
+    }
+
+    /**
+     * ends the current player's turn immediately, e.g. when they run out of time
+     * unlike ending the reinforcement phase, unallocated troops are kept for the player's next turn
+     */
+    public void endTurn() {
+        TurnPhaseType previousPhase = currentPhase;
+        commandLog.endTurn();
+        journal.clear();
+        currentPhase = TurnPhaseType.REINFORCEMENT;
+        nextPlayer();
+
+        phaseChanged(previousPhase, true);
+    }
+
+    /**
+     * @return true if the last command of the current phase not yet undone can be undone under the rules of the game
+     */
+    public boolean canUndo() {
+        return journal.canUndo() && (attackUndoAllowed || !journal.isNextUndoRandom());
+    }
+
+    /**
+     * @return true if a command undone in the current phase can be redone
+     */
+    public boolean canRedo() {
+        return journal.canRedo();
+    }
+
+    /**
+     * reverses the changes made by the last command of the current phase that has not been undone
+     *
+     * @throws IllegalStateException if there is no command that can be undone, see canUndo
+     */
+    public void undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("There is no command that can be undone");
+        }
+        replayUndo();
+    }
+
+    /**
+     * makes the changes of the last undone command again, an undone command can no longer be redone once another
+     * command has been carried out
+     *
+     * @throws IllegalStateException if there is no command to redo
+     */
+    public void redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("There is no command to redo");
+        }
+        replayRedo();
+    }
+
+    /**
+     * undoes the last command without checking the rules, used when replaying an undo the recorded game allowed
+     */
+    void replayUndo() {
+        journal.undo(map, players);
+        commandLog.undo();
+        notifyUndo(false);
+    }
+
+    /**
+     * redoes the last undone command, used when replaying a recorded game
+     */
+    void replayRedo() {
+        journal.redo(map, players);
+        commandLog.redo();
+        notifyUndo(true);
+    }
+
+    private void notifyUndo(boolean redo) {
+        for (GameEventListener listener : new ArrayList<GameEventListener>(listeners)) {
+            listener.undoApplied(redo);
+        }
+    }
+
+    /**
+     * @param attackUndoAllowed true to allow attacks to be undone, which lets a player retry an attack until its random
+     *                          outcome suits them
+     */
+    public void setAttackUndoAllowed(boolean attackUndoAllowed) {
+        this.attackUndoAllowed = attackUndoAllowed;
+    }
+
+    public boolean isAttackUndoAllowed() {
+        return attackUndoAllowed;
+    }
+
+    /**
+     * advances the turn to the next player and applies the status effects on their sectors
+     */
+    private void nextPlayer() {
+        turnNumber++;
+        currentPlayerPointer++;
+        if (currentPlayerPointer >= turnOrder.size()) { // reached end of players, reset to 0
+            currentPlayerPointer = 0;
+        }
+
+        int currentPlayerId = getCurrentPlayer().getId();
+        for (Sector sector : map.getSectors().values()) {
+            if (sector.getOwnerId() != currentPlayerId) continue;
+            if (sector.getAsbestosCount() > 0) {
+                changeUnits(sector.getId(), -(int)Math.ceil(sector.getUnderGradsInSector() * 0.1), 0);
+            }
+            sector.decrementStatusEffects();
+        }
+    }
+
+    /**
+     * notifies listeners of a phase change then removes any players who have been eliminated
+     *
+     * @param previousPhase phase that has just ended
+     * @param newTurn has the next player's turn started
+     */
+    private void phaseChanged(TurnPhaseType previousPhase, boolean newTurn) {
+        for (GameEventListener listener : new ArrayList<GameEventListener>(listeners)) {
+            listener.phaseChanged(previousPhase, currentPhase, newTurn);
+        }
+        removeEliminatedPlayers();
+    }
+
+    /**
+     * removes all players who have 0 sectors from the turn order
+     * the current player keeps the turn, the pointer is moved back by one for each player removed before them in the
+     * turn order; if the current player is eliminated, e.g. by asbestos at the start of their turn, the turn passes to
+     * the next player still in the game
+     */
+    private void removeEliminatedPlayers() {
+        List<Integer> playerIdsToRemove = null; // list of players in the turn order who have 0 sectors, null if there are none
+        int removedBeforeCurrent = 0; // players removed from before the current player in the turn order
+        boolean currentPlayerRemoved = false;
+        SectorOwnership ownership = map.getOwnership();
+        for (int i = 0; i < turnOrder.size(); i++) {
+            int playerId = turnOrder.get(i);
+            if (ownership.getTerritoryCount(playerId) == 0) { // player has no sectors so remove them from the game
+                if (playerIdsToRemove == null) playerIdsToRemove = new ArrayList<Integer>();
+                playerIdsToRemove.add(playerId);
+                if (i < currentPlayerPointer) removedBeforeCurrent++;
+                if (i == currentPlayerPointer) currentPlayerRemoved = true;
+            }
+        }
+
+        if (playerIdsToRemove != null) { // if there are any players to remove
+            turnOrder.removeAll(playerIdsToRemove);
+            currentPlayerPointer -= removedBeforeCurrent; // now the index of the current player, or of the player after them if they were removed
+            if (currentPlayerPointer >= turnOrder.size()) currentPlayerPointer = 0; // the last player was removed, the first is next
+
+            for (GameEventListener listener : new ArrayList<GameEventListener>(listeners)) {
+                listener.playersEliminated(playerIdsToRemove);
+            }
+
+            if (currentPlayerRemoved && !isGameOver()) {
+                TurnPhaseType previousPhase = currentPhase;
+                currentPhase = TurnPhaseType.REINFORCEMENT;
+                currentPlayerPointer--; // nextPlayer moves on to the player after the removed player
+                nextPlayer();
+                phaseChanged(previousPhase, true);
+                return; // phaseChanged has checked the players of the new turn and whether the game is over
+            }
+        }
+
+        if (isGameOver()) { // check if game is now over
+            int winnerId = turnOrder.size() == 0 ? GameScreen.NEUTRAL_PLAYER_ID : turnOrder.get(0); // neutral player wins if every player has been eliminated
+            for (GameEventListener listener : new ArrayList<GameEventListener>(listeners)) {
+                listener.gameOver(winnerId);
+            }
+        }
+    }
+
+    /**
+     * changes the number of troops a player has to allocate, recording the change in the journal
+     */
+    private void addTroopsToAllocate(Player player, int troops) {
+        player.addTroopsToAllocate(troops);
+        journal.recordPlayerCount(player.getId(), DeltaJournal.PlayerCount.TROOPS_TO_ALLOCATE, troops);
+    }
+
+    /**
+     * adds units to a sector and notifies listeners of the change
+     *
+     * @param sectorId id of sector to add the units to
+     * @param underGrads number of undergrads to add
+     * @param postGrads number of postgrads to add
+     */
+    private void changeUnits(int sectorId, int underGrads, int postGrads) {
+        map.addUnitsToSector(sectorId, underGrads, postGrads);
+        notifyUnitsChanged(sectorId, underGrads, postGrads);
+    }
+
+    /**
+     * notifies listeners that the units on a sector have changed, if they have changed
+     */
+    private void notifyUnitsChanged(int sectorId, int underGrads, int postGrads) {
+        if (underGrads == 0 && postGrads == 0) return;
+        for (GameEventListener listener : new ArrayList<GameEventListener>(listeners)) {
+            listener.unitsChanged(sectorId, underGrads, postGrads);
+        }
+    }
+
+    /**
+     * puts the turn order, current player and phase into the given state, e.g. the state they were in at a replay keyframe
+     *
+     * @param turnOrder ids of the players still in the game in the order of their turns
+     * @param currentPlayerPointer index in turnOrder of the player whose turn it is
+     * @param currentPhase phase of the current player's turn
+     * @param turnNumber number of the current turn
+     */
+    void restoreTurnState(List<Integer> turnOrder, int currentPlayerPointer, TurnPhaseType currentPhase, int turnNumber) {
+        this.turnOrder = turnOrder;
+        this.currentPlayerPointer = currentPlayerPointer;
+        this.currentPhase = currentPhase;
+        this.turnNumber = turnNumber;
+        this.journal.clear();
+    }
+
+    /**
+     * @throws IllegalStateException if the game is not in the given phase
+     */
+    private void checkPhase(TurnPhaseType phase) {
+        if (currentPhase != phase) {
+            throw new IllegalStateException("Cannot carry out this command in the " + currentPhase + " phase");
+        }
+    }
+
+    /**
+     * checks if game is over by checking how many players are in the turn order, if 1 then player has won, if 0 then the neutral player has won
+     *
+     * @return true if game is over else false
+     */
+    public boolean isGameOver() {
+        return turnOrder.size() <= 1; // game is over if only one player is in the turn order
+    }
+
+    /**
+     *
+     * @return the map the game is being played on
+     */
+    public Map getMap() {
+        return map;
+    }
+
+    /**
+     *
+     * @return mapping of player ids to their respective player objects
+     */
+    public HashMap<Integer, Player> getPlayers() {
+        return players;
+    }
+
+    /**
+     * returns the player object corresponding to the passed id
+     *
+     * @param id of the player object that is wanted
+     * @return the player with the given id
+     * @throws IllegalArgumentException if there is no player with the given id
+     */
+    public Player getPlayerById(int id) {
+        if (!players.containsKey(id)) throw new IllegalArgumentException("Cannot fetch player as id: " + id + " does not exist");
+        return players.get(id);
+    }
+
+    /**
+     *
+     * @return the player whose turn it currently is
+     */
+    public Player getCurrentPlayer() {
+        return players.get(turnOrder.get(currentPlayerPointer));
+    }
+
+    /**
+     *
+     * @return list containing ids of players still in the game, where the order of ids is the order of player turns
+     */
+    public List<Integer> getTurnOrder() {
+        return turnOrder;
+    }
+
+    /**
+     *
+     * @return number of the current turn, counting each player's turn separately, starting from 1
+     */
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    /**
+     *
+     * @return index of current player id in turnOrder list
+     */
+    public int getCurrentPlayerPointer() {
+        return currentPlayerPointer;
+    }
+
+    /**
+     *
+     * @return the phase of the current player's turn
+     */
+    public TurnPhaseType getCurrentPhase() {
+        return currentPhase;
+    }
+
+    /**
+     *
+     * @return the resolver used to decide the outcome of attacks, for calculating the odds of an attack
+     */
+    public BattleResolver getBattleResolver() {
+        return battleResolver;
+    }
+
+    /**
+     *
+     * @return the random numbers of every part of the game
+     */
+    public GameRandom getRandom() {
+        return random;
+    }
+
+    /**
+     *
+     * @return every command carried out in this game so far
+     */
+    public CommandLog getCommandLog() {
+        return commandLog;
+    }
+}
@@ -0,0 +1,125 @@
+package sepr.game.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+import sepr.game.Player;
+import sepr.game.Sector;
+import sepr.game.TestGame;
+import sepr.game.utils.TurnPhaseType;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GameEngineTest {
+    private GameEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = TestGame.createEngine(3, 1234);
+        assertEquals(Arrays.asList(0, 1, 2), engine.getTurnOrder());
+    }
+
+    /**
+     * gives every sector of one player to another, outside of any command, so the player is eliminated when the phase ends
+     */
+    private void giveSectors(int fromPlayerId, int toPlayerId) {
+        Player to = engine.getPlayerById(toPlayerId);
+        for (Sector sector : engine.getMap().getSectors().values()) {
+            if (sector.getOwnerId() == fromPlayerId) sector.setOwner(to);
+        }
+    }
+
+    @Test
+    public void eliminatingAnEarlierPlayerKeepsTheTurn() {
+        engine.endTurn();
+        engine.endPhase(); // player 1's attack phase
+        assertEquals(1, engine.getCurrentPlayer().getId());
+
+        giveSectors(0, 1); // player 1 conquers player 0
+        engine.endPhase();
+
+        assertEquals(Arrays.asList(1, 2), engine.getTurnOrder());
+        assertEquals(1, engine.getCurrentPlayer().getId());
+        assertEquals(TurnPhaseType.MOVEMENT, engine.getCurrentPhase());
+
+        engine.endPhase();
+        assertEquals(2, engine.getCurrentPlayer().getId());
+        engine.endTurn();
+        assertEquals(1, engine.getCurrentPlayer().getId());
+    }
+
+    @Test
+    public void eliminatingAnEarlierPlayerKeepsTheTurnOfTheLastPlayer() {
+        engine.endTurn();
+        engine.endTurn(); // player 2's reinforcement phase, the last in the turn order
+        assertEquals(2, engine.getCurrentPlayer().getId());
+
+        giveSectors(0, 2);
+        engine.endPhase();
+
+        assertEquals(Arrays.asList(1, 2), engine.getTurnOrder());
+        assertEquals(2, engine.getCurrentPlayer().getId());
+        assertEquals(TurnPhaseType.ATTACK, engine.getCurrentPhase());
+
+        engine.endTurn();
+        assertEquals(1, engine.getCurrentPlayer().getId());
+    }
+
+    @Test
+    public void eliminatingALaterPlayerKeepsTheTurn() {
+        giveSectors(2, 0);
+        engine.endPhase();
+
+        assertEquals(Arrays.asList(0, 1), engine.getTurnOrder());
+        assertEquals(0, engine.getCurrentPlayer().getId());
+        engine.endTurn();
+        assertEquals(1, engine.getCurrentPlayer().getId());
+        engine.endTurn();
+        assertEquals(0, engine.getCurrentPlayer().getId());
+    }
+
+    @Test
+    public void eliminatingTheCurrentPlayerStartsTheNextPlayersTurn() {
+        engine.endTurn(); // player 1's turn
+        int turnNumber = engine.getTurnNumber();
+
+        giveSectors(1, 0);
+        engine.endPhase();
+
+        assertEquals(Arrays.asList(0, 2), engine.getTurnOrder());
+        assertEquals(2, engine.getCurrentPlayer().getId());
+        assertEquals(TurnPhaseType.REINFORCEMENT, engine.getCurrentPhase());
+        assertEquals(turnNumber + 1, engine.getTurnNumber());
+        assertFalse(engine.isGameOver());
+    }
+
+    @Test
+    public void eliminatingTheLastPlayerInTheTurnOrderPassesTheTurnToTheFirst() {
+        engine.endTurn();
+        engine.endTurn(); // player 2's turn
+
+        giveSectors(2, 1);
+        engine.endPhase();
+
+        assertEquals(Arrays.asList(0, 1), engine.getTurnOrder());
+        assertEquals(0, engine.getCurrentPlayer().getId());
+        assertEquals(TurnPhaseType.REINFORCEMENT, engine.getCurrentPhase());
+    }
+
+    @Test
+    public void eliminatingAllButOnePlayerEndsTheGame() {
+        engine.endTurn();
+        engine.endTurn(); // player 2's turn
+
+        giveSectors(0, 1);
+        giveSectors(2, 1);
+        engine.endPhase();
+
+        assertTrue(engine.isGameOver());
+        assertEquals(Arrays.asList(1), engine.getTurnOrder());
+        assertEquals(1, engine.getCurrentPlayer().getId());
+    }
+}
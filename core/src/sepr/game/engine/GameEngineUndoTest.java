@@ -0,0 +1,199 @@
+package sepr.game.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+import sepr.game.Player;
+import sepr.game.Sector;
+import sepr.game.TestGame;
+import sepr.game.utils.PunishmentCardType;
+import sepr.game.utils.TurnPhaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GameEngineUndoTest {
+    private static final int PLAYER_COUNT = 3;
+    private static final long SEED = 1234;
+
+    private GameEngine engine;
+    private List<GameEngine> states; // copies of the game before the first command and after each command
+
+    @Before
+    public void setUp() {
+        engine = TestGame.createEngine(PLAYER_COUNT, SEED);
+        states = new ArrayList<GameEngine>();
+    }
+
+    /**
+     * @return a new game in the same state as the engine's game
+     */
+    private GameEngine copyGame() {
+        GameEngine copy = TestGame.createEngine(PLAYER_COUNT, SEED);
+        ReplayKeyframe.capture(engine, 0).restore(copy);
+        return copy;
+    }
+
+    /**
+     * undoes every command recorded in states, checking the game is back in the state before each, then redoes them all,
+     * checking the game is in the state after each
+     */
+    private void assertUndoAndRedoExactly() {
+        int commands = states.size() - 1;
+        for (int i = commands - 1; i >= 0; i--) {
+            assertTrue(engine.canUndo());
+            engine.undo();
+            TestGame.assertSameGame(states.get(i), engine);
+        }
+        assertFalse(engine.canUndo());
+
+        for (int i = 1; i <= commands; i++) {
+            assertTrue(engine.canRedo());
+            engine.redo();
+            TestGame.assertSameGame(states.get(i), engine);
+        }
+        assertFalse(engine.canRedo());
+    }
+
+    /**
+     * @param ownedByCurrentPlayer true to find a sector of the current player, false to find a sector of another player
+     * @param skip number of matching sectors to skip, so different sectors can be found
+     * @return id of a non-decor sector that can change its units
+     */
+    private int findSector(boolean ownedByCurrentPlayer, int skip) {
+        int playerId = engine.getCurrentPlayer().getId();
+        for (Sector sector : engine.getMap().getSectors().values()) {
+            if (sector.isDecor() || !sector.canChangeUnits() || (sector.getOwnerId() == playerId) != ownedByCurrentPlayer) continue;
+            if (skip-- == 0) return sector.getId();
+        }
+        throw new IllegalStateException("The map has no such sector");
+    }
+
+    /**
+     * @return {source, target} of two adjacent sectors of the current player, the source having undergrads to spare
+     */
+    private int[] findMove() {
+        int playerId = engine.getCurrentPlayer().getId();
+        for (Sector source : engine.getMap().getSectors().values()) {
+            if (source.getOwnerId() != playerId || source.getUnderGradsInSector() < 3 || !source.canChangeUnits()) continue;
+            for (int targetId : source.getAdjacentSectorIds()) {
+                Sector target = engine.getMap().getSectorById(targetId);
+                if (target.getOwnerId() == playerId && target.canChangeUnits()) return new int[] {source.getId(), targetId};
+            }
+        }
+        throw new IllegalStateException("The current player has no move to make");
+    }
+
+    /**
+     * @return {source, target} of an attack the current player can make
+     */
+    private int[] findAttack() {
+        int playerId = engine.getCurrentPlayer().getId();
+        for (Sector source : engine.getMap().getSectors().values()) {
+            if (source.getOwnerId() != playerId || source.getUnderGradsInSector() < 2 || !source.canAttack()) continue;
+            for (int targetId : source.getAdjacentSectorIds()) {
+                Sector target = engine.getMap().getSectorById(targetId);
+                if (target.getOwnerId() != playerId && !target.isDecor() && target.canBeAttacked()) return new int[] {source.getId(), targetId};
+            }
+        }
+        throw new IllegalStateException("The current player has no attack to make");
+    }
+
+    @Test
+    public void reinforcementsAndCardsUndoExactly() {
+        assertEquals(TurnPhaseType.REINFORCEMENT, engine.getCurrentPhase());
+        Player player = engine.getCurrentPlayer();
+        player.setTroopsToAllocate(10);
+        engine.awardPunishmentCard(player.getId(), PunishmentCardType.COLLUSION_CARD); // awards are not undoable commands
+        engine.awardPunishmentCard(player.getId(), PunishmentCardType.POOPY_PATH_CARD);
+        engine.awardPunishmentCard(player.getId(), PunishmentCardType.ASBESTOS_CARD);
+        assertFalse(engine.canUndo());
+
+        states.add(copyGame());
+        engine.reinforce(findSector(true, 0), 3, 0);
+        states.add(copyGame());
+        engine.applyPunishmentCard(findSector(false, 0), PunishmentCardType.POOPY_PATH_CARD);
+        states.add(copyGame());
+        engine.reinforce(findSector(true, 1), 1, 1);
+        states.add(copyGame());
+        engine.applyPunishmentCard(findSector(true, 1), PunishmentCardType.COLLUSION_CARD); // turns the postgrad into an undergrad
+        states.add(copyGame());
+        engine.applyPunishmentCard(findSector(false, 1), PunishmentCardType.ASBESTOS_CARD);
+        states.add(copyGame());
+        assertEquals(0, player.getCollusionCards() + player.getPoopyPathCards() + player.getAsbestosCards());
+
+        assertUndoAndRedoExactly();
+    }
+
+    @Test
+    public void movesUndoExactly() {
+        engine.endPhase();
+        engine.endPhase();
+        assertEquals(TurnPhaseType.MOVEMENT, engine.getCurrentPhase());
+
+        states.add(copyGame());
+        for (int i = 0; i < 3; i++) {
+            int[] move = findMove();
+            engine.move(move[0], move[1], 1);
+            states.add(copyGame());
+        }
+
+        assertUndoAndRedoExactly();
+    }
+
+    @Test
+    public void redoIsForgottenAfterANewCommand() {
+        int sectorId = findSector(true, 0);
+        engine.reinforce(sectorId, 1, 0);
+        engine.undo();
+        assertTrue(engine.canRedo());
+        engine.reinforce(sectorId, 2, 0);
+        assertFalse(engine.canRedo());
+    }
+
+    @Test
+    public void commandsOfEndedPhasesCanNotBeUndone() {
+        engine.reinforce(findSector(true, 0), 1, 0);
+        assertTrue(engine.canUndo());
+        engine.endPhase();
+        assertFalse(engine.canUndo());
+        assertFalse(engine.canRedo());
+    }
+
+    @Test
+    public void attacksCanNotBeUndoneUnlessAllowed() {
+        engine.endPhase();
+        assertEquals(TurnPhaseType.ATTACK, engine.getCurrentPhase());
+        assertFalse(engine.isAttackUndoAllowed());
+
+        int[] attack = findAttack();
+        engine.attack(attack[0], attack[1], 1);
+        assertFalse(engine.canUndo());
+        try {
+            engine.undo();
+            fail("An attack was undone while attack undo is not allowed");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        engine.setAttackUndoAllowed(true);
+        assertTrue(engine.canUndo());
+    }
+
+    @Test
+    public void attacksUndoExactlyWhenAllowed() {
+        engine.setAttackUndoAllowed(true);
+        engine.endPhase();
+
+        states.add(copyGame());
+        int[] attack = findAttack();
+        engine.attack(attack[0], attack[1], engine.getMap().getSectorById(attack[0]).getUnderGradsInSector() - 1);
+        states.add(copyGame());
+
+        assertUndoAndRedoExactly();
+    }
+}
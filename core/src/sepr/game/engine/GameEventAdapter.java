@@ -0,0 +1,52 @@
+package sepr.game.engine;
+
+import sepr.game.utils.PunishmentCardType;
+import sepr.game.utils.TurnPhaseType;
+
+import java.util.List;
+
+/*
+Added in assessment 4
+ - added so listeners only interested in some game events do not have to implement every method
+ */
+
+/**
+ * GameEventListener that ignores every event, extend and override the events of interest
+ */
+public abstract class GameEventAdapter implements GameEventListener {
+
+    @Override
+    public void unitsChanged(int sectorId, int underGradChange, int postGradChange) {
+
+    }
+
+    @Override
+    public void attackCompleted(int sourceSectorId, int targetSectorId, int attackerId, int defenderId, int attackersRemaining) {
+
+    }
+
+    @Override
+    public void punishmentCardApplied(int sectorId, PunishmentCardType punishmentCardType) {
+
+    }
+
+    @Override
+    public void phaseChanged(TurnPhaseType previousPhase, TurnPhaseType newPhase, boolean newTurn) {
+
+    }
+
+    @Override
+    public void undoApplied(boolean redo) {
+
+    }
+
+    @Override
+    public void playersEliminated(List<Integer> playerIds) {
+
+    }
+
+    @Override
+    public void gameOver(int winnerId) {
+
+    }
+}
@@ -0,0 +1,78 @@
+package sepr.game.engine;
+
+import sepr.game.utils.PunishmentCardType;
+import sepr.game.utils.TurnPhaseType;
+
+import java.util.List;
+
+/*
+Added in assessment 4
+ - added so that the game rules in GameEngine can notify the UI of changes to the game without depending on it
+ - added undoApplied so the UI can be updated when a command is undone or redone
+ */
+
+/**
+ * receives the events emitted by a GameEngine as commands are carried out
+ * listeners are notified after the engine's state has been updated, so may query the engine or issue further commands
+ */
+public interface GameEventListener {
+
+    /**
+     * called when the number of units on a sector changes
+     *
+     * @param sectorId id of the sector whose units changed
+     * @param underGradChange change in the number of undergrads on the sector
+     * @param postGradChange change in the number of postgrads on the sector
+     */
+    void unitsChanged(int sectorId, int underGradChange, int postGradChange);
+
+    /**
+     * called once an attack has been carried out and its losses applied to the map
+     *
+     * @param sourceSectorId id of the sector the attack came from
+     * @param targetSectorId id of the sector that was attacked
+     * @param attackerId id of the player who attacked
+     * @param defenderId id of the player who owned the target sector before the attack
+     * @param attackersRemaining number of attacking units that survived
+     */
+    void attackCompleted(int sourceSectorId, int targetSectorId, int attackerId, int defenderId, int attackersRemaining);
+
+    /**
+     * called when a punishment card has been played on a sector
+     *
+     * @param sectorId id of the sector the card was played on
+     * @param punishmentCardType type of card played
+     */
+    void punishmentCardApplied(int sectorId, PunishmentCardType punishmentCardType);
+
+    /**
+     * called when the game moves to a new phase
+     *
+     * @param previousPhase phase that has just ended
+     * @param newPhase phase that has just begun
+     * @param newTurn true if the phase change started the next player's turn
+     */
+    void phaseChanged(TurnPhaseType previousPhase, TurnPhaseType newPhase, boolean newTurn);
+
+    /**
+     * called when the last command has been undone, or an undone command redone, the units, owners and counts it
+     * changed have been put back without any other events being sent
+     *
+     * @param redo true if a command was redone rather than undone
+     */
+    void undoApplied(boolean redo);
+
+    /**
+     * called when players have lost all of their sectors and have been removed from the turn order
+     *
+     * @param playerIds ids of the players that have been eliminated
+     */
+    void playersEliminated(List<Integer> playerIds);
+
+    /**
+     * called when at most one player remains in the turn order
+     *
+     * @param winnerId id of the winning player, the neutral player's id if every player was eliminated
+     */
+    void gameOver(int winnerId);
+}
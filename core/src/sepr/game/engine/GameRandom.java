@@ -0,0 +1,130 @@
+package sepr.game.engine;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/*
+Added in assessment 4
+ - added so every random decision in a game comes from one seed, so a game can be reproduced from its seed and CommandLog
+ - the state of every stream can be read and restored, so a replay keyframe can carry on the game from part way through
+ - added the AI stream for seeding the searches of computer controlled players
+ */
+
+/**
+ * the random number generators of a game, one independent stream for each part of the game that makes random decisions
+ *
+ * the seed of each stream is split from the game's seed in the order the streams are declared, so drawing numbers from
+ * one stream never changes the numbers drawn from another, e.g. playing audio does not change the outcome of attacks,
+ * and adding a stream to the end of Stream does not change the numbers drawn from the existing ones
+ * streams are java.util.Random so they can be given to BattleResolver and Collections.shuffle; they generate the same
+ * numbers as a java.util.Random with the same seed, but their state can be read and restored, and they are not thread safe
+ */
+public class GameRandom {
+
+    /**
+     * the parts of the game that have their own stream of random numbers
+     */
+    public enum Stream {
+        SETUP, // allocating sectors to the players
+        BATTLES, // outcomes of attacks
+        MINIGAME, // triggering the minigame and laying out its cards
+        AUDIO, // choosing which audio clip to play
+        PLAYERS, // choosing the colleges of simulated players, so the map is set up the same as when replaying the game
+        AI // seeding the searches of computer controlled players
+    }
+
+    private final long seed; // seed every stream is derived from
+    private final StreamRandom[] streams; // stream of each Stream, indexed by ordinal
+
+    /**
+     * @param seed seed to derive every stream from, games with the same seed and commands play out the same way
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        this.streams = new StreamRandom[Stream.values().length];
+
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int i = 0; i < streams.length; i++) {
+            streams[i] = new StreamRandom(root.split().nextLong());
+        }
+    }
+
+    /**
+     * @return random numbers from a seed chosen at random, for games that are not being reproduced
+     */
+    public static GameRandom createUnseeded() {
+        return new GameRandom(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * @return the seed every stream is derived from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param stream part of the game to get the random numbers of
+     * @return generator of the part's random numbers, the same generator every time it is called for the same stream
+     */
+    public Random getStream(Stream stream) {
+        return streams[stream.ordinal()];
+    }
+
+    /**
+     * @return the current state of every stream, indexed by Stream ordinal
+     */
+    public long[] getStreamStates() {
+        long[] states = new long[streams.length];
+        for (int i = 0; i < streams.length; i++) {
+            states[i] = streams[i].state;
+        }
+        return states;
+    }
+
+    /**
+     * puts every stream back into a state returned by getStreamStates, so they go on to generate the same numbers as
+     * they did after that state was taken
+     * streams added after the states were taken, e.g. by a replay recorded by an older version, are left as they are
+     *
+     * @param states state of each stream, indexed by Stream ordinal
+     * @throws IllegalArgumentException if there are states for more streams than there are
+     */
+    public void setStreamStates(long[] states) {
+        if (states.length > streams.length) {
+            throw new IllegalArgumentException("Expected the states of at most " + streams.length + " streams");
+        }
+        for (int i = 0; i < states.length; i++) {
+            streams[i].state = states[i] & StreamRandom.MASK;
+        }
+    }
+
+    /**
+     * the linear congruential generator of java.util.Random with its state kept in a plain field so it can be read
+     * the state does not include a gaussian cached by nextGaussian, which nothing in the game uses
+     */
+    private static class StreamRandom extends Random {
+        private static final long serialVersionUID = 1L; // streams are never serialized, declared as Random is Serializable
+        private static final long MULTIPLIER = 0x5DEECE66DL;
+        private static final long ADDEND = 0xBL;
+        private static final long MASK = (1L << 48) - 1;
+
+        private long state; // set by setSeed, which the Random constructor calls
+
+        StreamRandom(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            super.setSeed(seed);
+            state = (seed ^ MULTIPLIER) & MASK;
+        }
+
+        @Override
+        protected int next(int bits) {
+            state = (state * MULTIPLIER + ADDEND) & MASK;
+            return (int)(state >>> (48 - bits));
+        }
+    }
+}
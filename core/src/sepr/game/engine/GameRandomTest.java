@@ -0,0 +1,92 @@
+package sepr.game.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class GameRandomTest {
+    private static final GameRandom.Stream[] STREAMS = GameRandom.Stream.values();
+
+    /**
+     * draws numbers of every kind the game uses from every stream
+     *
+     * @return the numbers drawn, in the order they were drawn
+     */
+    private static long[] draw(GameRandom random, int count) {
+        long[] numbers = new long[count * STREAMS.length * 4];
+        int i = 0;
+        for (int n = 0; n < count; n++) {
+            for (GameRandom.Stream stream : STREAMS) {
+                Random generator = random.getStream(stream);
+                numbers[i++] = generator.nextInt();
+                numbers[i++] = generator.nextInt(6) + 1;
+                numbers[i++] = Double.doubleToLongBits(generator.nextDouble());
+                numbers[i++] = generator.nextLong();
+            }
+        }
+        return numbers;
+    }
+
+    @Test
+    public void sameSeedDrawsSameNumbers() {
+        assertArrayEquals(draw(new GameRandom(42), 100), draw(new GameRandom(42), 100));
+    }
+
+    @Test
+    public void streamStatesRoundTrip() {
+        GameRandom random = new GameRandom(42);
+        draw(random, 37);
+        long[] states = random.getStreamStates();
+        assertEquals(STREAMS.length, states.length);
+        long[] expected = draw(random, 100);
+
+        random.setStreamStates(states);
+        assertArrayEquals(states, random.getStreamStates());
+        assertArrayEquals(expected, draw(random, 100));
+
+        GameRandom other = new GameRandom(7); // restoring the states into another game's streams continues the same numbers
+        other.setStreamStates(states);
+        assertArrayEquals(expected, draw(other, 100));
+    }
+
+    @Test
+    public void streamsAreIndependent() {
+        GameRandom random = new GameRandom(42);
+        GameRandom other = new GameRandom(42);
+        for (int i = 0; i < 100; i++) {
+            other.getStream(GameRandom.Stream.AUDIO).nextInt();
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(random.getStream(GameRandom.Stream.BATTLES).nextInt(), other.getStream(GameRandom.Stream.BATTLES).nextInt());
+        }
+    }
+
+    @Test
+    public void statesOfFewerStreamsLeaveTheRestAlone() {
+        GameRandom random = new GameRandom(42);
+        long[] states = new GameRandom(7).getStreamStates();
+        long[] previous = random.getStreamStates();
+
+        random.setStreamStates(Arrays.copyOf(states, states.length - 1)); // e.g. from a replay recorded before the last stream was added
+        long[] restored = random.getStreamStates();
+        for (int i = 0; i < states.length - 1; i++) {
+            assertEquals(states[i], restored[i]);
+        }
+        assertEquals(previous[states.length - 1], restored[states.length - 1]);
+    }
+
+    @Test
+    public void statesOfTooManyStreamsAreRejected() {
+        try {
+            new GameRandom(42).setStreamStates(new long[STREAMS.length + 1]);
+            fail("States of more streams than there are were accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package sepr.game.engine;
+
+import sepr.game.BattleResolver;
+import sepr.game.GameScreen;
+import sepr.game.SectorGraph;
+
+/*
+Added in assessment 4
+ - added as a cheap computer controlled player, fast enough to simulate very many games with
+ */
+
+/**
+ * plays a fixed set of rules using the sector bitsets of a SimulatedGame, so each decision only looks at the sectors
+ * next to the player's border sectors rather than searching or calculating the odds of battles:
+ * - troops are allocated to the border sector under the most threat, i.e. whose strongest enemy neighbour has the most
+ *   units more than it, until the threat is covered, then any left are put on the sector with the best attack
+ * - attacks are made while the expected value margin of an attack is positive, see getAttackMargin
+ * - units on sectors with no enemy neighbours are moved one step at a time towards the border sectors
+ * punishment cards are never played, as cards are only won in the minigame which simulated games do not play
+ */
+public class HeuristicStrategy implements SimulatedPlayerStrategy {
+    private static final int MAX_ACTIONS_PER_PHASE = 100; // limit on actions so a phase always ends
+
+    /**
+     * plays the phase by deciding each action on a simulated copy of the game, which is read again from the engine
+     * after each attack so the next decision is made knowing the attack's outcome
+     */
+    @Override
+    public void playPhase(GameEngine engine) {
+        SimulatedGame game = new SimulatedGame(engine, engine.getBattleResolver());
+        for (int i = 0; i < MAX_ACTIONS_PER_PHASE; i++) {
+            AiAction action = nextAction(game);
+            if (action.getType() == AiAction.Type.END_PHASE) return;
+
+            try {
+                action.apply(engine);
+            } catch (IllegalArgumentException e) {
+                return; // the copy of the game does not match the engine, so stop rather than making bad moves
+            }
+            if (action.getType() == AiAction.Type.ATTACK) {
+                game.readFrom(engine);
+            } else {
+                game.apply(action);
+            }
+        }
+    }
+
+    @Override
+    public void playPhase(SimulatedGame game) {
+        for (int i = 0; i < MAX_ACTIONS_PER_PHASE; i++) {
+            AiAction action = nextAction(game);
+            if (action.getType() == AiAction.Type.END_PHASE) return;
+            game.apply(action);
+        }
+    }
+
+    /**
+     * @param game game whose current player is the player to decide for
+     * @return the next action the current player should make in the current phase, END_PHASE if there is none
+     */
+    public AiAction nextAction(SimulatedGame game) {
+        if (game.isGameOver()) return AiAction.endPhase();
+        switch (game.getCurrentPhase()) {
+            case REINFORCEMENT:
+                return chooseReinforcement(game, game.getCurrentPlayerId());
+            case ATTACK:
+                return chooseAttack(game, game.getCurrentPlayerId());
+            case MOVEMENT:
+                return chooseMove(game, game.getCurrentPlayerId());
+            default:
+                return AiAction.endPhase();
+        }
+    }
+
+    private AiAction chooseReinforcement(SimulatedGame game, int playerId) {
+        int troops = game.getTroopsToAllocate(playerId);
+        if (troops <= 0) return AiAction.endPhase();
+        BoardState board = game.getBoard();
+        long owned = game.getOwnedSectors(playerId);
+
+        int mostThreatened = -1;
+        int mostThreat = Integer.MIN_VALUE;
+        int bestStaging = -1;
+        double bestMargin = Double.NEGATIVE_INFINITY;
+        for (long remaining = game.getBorderSectors(playerId); remaining != 0; remaining &= remaining - 1) {
+            int id = Long.numberOfTrailingZeros(remaining);
+            if (!board.canChangeUnits(id)) continue;
+
+            int threat = getStrongestAttacker(game, id, owned) - units(board, id);
+            if (threat > mostThreat) {
+                mostThreatened = id;
+                mostThreat = threat;
+            }
+            double margin = getBestAttackMargin(game, id, board.getUnderGrads(id) + troops - 1, owned);
+            if (margin > bestMargin) {
+                bestStaging = id;
+                bestMargin = margin;
+            }
+        }
+
+        if (mostThreatened == -1) return AiAction.endPhase(); // no border sector can be reinforced
+        if (mostThreat >= 0) return AiAction.reinforce(mostThreatened, Math.min(troops, mostThreat + 1));
+        return AiAction.reinforce(bestStaging == -1 ? mostThreatened : bestStaging, troops);
+    }
+
+    private AiAction chooseAttack(SimulatedGame game, int playerId) {
+        BoardState board = game.getBoard();
+        SectorGraph graph = game.getGraph();
+        long owned = game.getOwnedSectors(playerId);
+
+        int bestSource = -1;
+        int bestTarget = -1;
+        double bestMargin = 0; // only attacks with a positive margin are made
+        for (long sources = game.getBorderSectors(playerId); sources != 0; sources &= sources - 1) {
+            int source = Long.numberOfTrailingZeros(sources);
+            if (!board.canAttack(source)) continue;
+            int attackers = board.getUnderGrads(source) - 1;
+
+            for (long targets = graph.getAdjacentSectors(source) & graph.getPlayableSectors() & ~owned; targets != 0; targets &= targets - 1) {
+                int target = Long.numberOfTrailingZeros(targets);
+                if (!board.canBeAttacked(target)) continue;
+                double margin = getAttackMargin(attackers, board.getUnderGrads(target), board.getPostGrads(target));
+                if (margin > bestMargin) {
+                    bestSource = source;
+                    bestTarget = target;
+                    bestMargin = margin;
+                }
+            }
+        }
+
+        if (bestSource == -1) return AiAction.endPhase();
+        return AiAction.attack(bestSource, bestTarget, board.getUnderGrads(bestSource) - 1);
+    }
+
+    /**
+     * finds the sectors one step further from the border at a time, moving units from the first sector found that has
+     * units to move onto a neighbour one step closer to the border
+     */
+    private AiAction chooseMove(SimulatedGame game, int playerId) {
+        BoardState board = game.getBoard();
+        SectorGraph graph = game.getGraph();
+        long owned = game.getOwnedSectors(playerId);
+
+        long layer = game.getBorderSectors(playerId); // sectors the same number of steps from the border
+        long visited = layer;
+        while (layer != 0) {
+            long next = 0;
+            for (long remaining = owned & ~visited; remaining != 0; remaining &= remaining - 1) {
+                int id = Long.numberOfTrailingZeros(remaining);
+                if ((graph.getAdjacentSectors(id) & layer) != 0) next |= SectorGraph.bit(id);
+            }
+
+            for (long sources = next; sources != 0; sources &= sources - 1) {
+                int source = Long.numberOfTrailingZeros(sources);
+                if (board.getUnderGrads(source) <= 1 || !board.canChangeUnits(source)) continue;
+                for (long targets = graph.getAdjacentSectors(source) & layer; targets != 0; targets &= targets - 1) {
+                    int target = Long.numberOfTrailingZeros(targets);
+                    if (board.canChangeUnits(target)) return AiAction.move(source, target, board.getUnderGrads(source) - 1);
+                }
+            }
+
+            visited |= next;
+            layer = next;
+        }
+        return AiAction.endPhase();
+    }
+
+    /**
+     * estimates how favourable an attack is from the expected outcome of its 1v1s
+     * each 1v1 is won by the attacker with the chance given by BattleResolver.getWinChance, so on average the attackers
+     * defeat attackers * winChance / (1 - winChance) defenders before they are all defeated; the margin is positive if
+     * that is more than the number of defenders
+     *
+     * @param attackers number of undergrads attacking
+     * @param underGrads number of undergrads defending
+     * @param postGrads number of postgrads defending
+     * @return the expected value margin of the attack, positive if the attack is expected to succeed
+     */
+    public static double getAttackMargin(int attackers, int underGrads, int postGrads) {
+        double winChance = BattleResolver.getWinChance(postGrads);
+        return attackers * winChance - (underGrads + postGrads) * (1 - winChance);
+    }
+
+    /**
+     * @return the best margin of an attack from the sector with the given number of attackers, negative infinity if it
+     * can not attack any sector
+     */
+    private static double getBestAttackMargin(SimulatedGame game, int sectorId, int attackers, long owned) {
+        BoardState board = game.getBoard();
+        SectorGraph graph = game.getGraph();
+        double best = Double.NEGATIVE_INFINITY;
+        for (long targets = graph.getAdjacentSectors(sectorId) & graph.getPlayableSectors() & ~owned; targets != 0; targets &= targets - 1) {
+            int target = Long.numberOfTrailingZeros(targets);
+            if (board.canBeAttacked(target)) {
+                best = Math.max(best, getAttackMargin(attackers, board.getUnderGrads(target), board.getPostGrads(target)));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the most units on a sector owned by another player, other than the neutral player who never attacks,
+     * that can attack the given sector
+     */
+    private static int getStrongestAttacker(SimulatedGame game, int sectorId, long owned) {
+        BoardState board = game.getBoard();
+        int strongest = 0;
+        for (long attackers = game.getGraph().getSectorsAdjacentTo(sectorId) & ~owned; attackers != 0; attackers &= attackers - 1) {
+            int id = Long.numberOfTrailingZeros(attackers);
+            if (board.getOwnerId(id) >= 0 && board.getOwnerId(id) != GameScreen.NEUTRAL_PLAYER_ID) {
+                strongest = Math.max(strongest, units(board, id));
+            }
+        }
+        return strongest;
+    }
+
+    private static int units(BoardState board, int sectorId) {
+        return board.getUnderGrads(sectorId) + board.getPostGrads(sectorId);
+    }
+}
@@ -0,0 +1,359 @@
+package sepr.game.engine;
+
+import sepr.game.BattleResolver;
+import sepr.game.GameScreen;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+Added in assessment 4
+ - added so players can be controlled by the computer, choosing their moves by searching over possible futures of the game
+ - every tree is a task of its own in a fixed pool that leaves a core for rendering, so cancelling a search stops all of them
+ - searches are seeded from the game's AI stream, so a seeded game plays out the same way every time
+ */
+
+/**
+ * chooses moves using Monte Carlo tree search over SimulatedGame copies of the game
+ *
+ * each iteration of the search plays the rest of the player's turn from a copy of the game, choosing actions in the tree
+ * by UCT until reaching an action not tried before, then plays every other player's next turn with the simulated game's
+ * rollout policy and scores the result for the player; the tree is open loop, i.e. its nodes are sequences of actions
+ * rather than game states, so the random outcomes of attacks lead through the same nodes
+ * the search uses root parallelism: one independent tree is searched on each core but one, which is left for rendering,
+ * and the visits of their actions are added together when choosing the plan
+ * the seed of each tree is split from a seed drawn from the game's AI stream, so with the same game seed and the same
+ * searches made, the trees see the same random outcomes; how far a tree gets before its deadline still varies
+ * a plan is the most visited sequence of actions of the current phase, ending at the first attack because the rest of
+ * the plan depends on its outcome, or ending the phase; once a plan ending in an attack has been carried out the search
+ * is run again
+ */
+public class MctsStrategy implements PlayerStrategy {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000; // time spent on each search by default
+    public static final long MAX_TIME_BUDGET_MILLIS = GameScreen.MAX_TURN_TIME * 1000L / 10; // a turn may take several searches, which must all fit in the turn time
+    private static final double EXPLORATION = 0.7; // UCT exploration constant, for rewards between 0 and 1
+    private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1); // threads in the pool
+
+    private static ExecutorService executor; // runs the searches, created when first needed
+
+    private final long timeBudgetMillis; // time each search is run for
+    private final int threads; // number of trees searched in parallel
+
+    public MctsStrategy() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * @param timeBudgetMillis time to spend on each search, in milliseconds
+     * @throws IllegalArgumentException if the budget is not positive or is more than MAX_TIME_BUDGET_MILLIS
+     */
+    public MctsStrategy(long timeBudgetMillis) {
+        this(timeBudgetMillis, THREADS);
+    }
+
+    /**
+     * @param timeBudgetMillis time to spend on each search, in milliseconds
+     * @param threads number of trees to search in parallel
+     * @throws IllegalArgumentException if the budget is not positive or is more than MAX_TIME_BUDGET_MILLIS, or there are no threads
+     */
+    public MctsStrategy(long timeBudgetMillis, int threads) {
+        if (timeBudgetMillis <= 0 || timeBudgetMillis > MAX_TIME_BUDGET_MILLIS) {
+            throw new IllegalArgumentException("Time budget must be between 1 and " + MAX_TIME_BUDGET_MILLIS + "ms");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Must search with at least one thread");
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.threads = threads;
+    }
+
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "MCTS search");
+                    thread.setDaemon(true); // searches must not stop the game from exiting
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * plays the current phase, searching again after each attack, until the search chooses to end the phase
+     */
+    @Override
+    public void playPhase(GameEngine engine) {
+        while (!engine.isGameOver()) {
+            List<AiAction> plan;
+            Future<List<AiAction>> search = searchAsync(engine, timeBudgetMillis);
+            try {
+                plan = search.get();
+            } catch (InterruptedException e) {
+                search.cancel(true);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Search failed", e.getCause());
+            }
+
+            if (applyPlan(engine, plan)) return;
+        }
+    }
+
+    /**
+     * carries out the actions of a plan, skipping any the engine rejects
+     *
+     * @param engine engine to carry out the actions in
+     * @param plan actions returned by a search
+     * @return true if the plan ends the phase, false if the search should be run again
+     */
+    public static boolean applyPlan(GameEngine engine, List<AiAction> plan) {
+        for (AiAction action : plan) {
+            if (action.getType() == AiAction.Type.END_PHASE) return true;
+            try {
+                action.apply(engine);
+            } catch (IllegalArgumentException e) {
+                // the board is not as the search expected, e.g. a previous attack in the plan failed, so skip the action
+            }
+        }
+        return false;
+    }
+
+    /**
+     * copies the current state of the game and starts searching for the current player's plan for the current phase
+     * the copy is taken and the seed drawn from the game's AI stream before returning, so the engine can be used as
+     * normal while the search runs
+     *
+     * @param engine engine running the game, must only be used on the calling thread
+     * @param timeBudgetMillis most time to spend searching, in milliseconds
+     * @return the plan, available once the search of every tree finishes; cancelling it cancels every tree
+     */
+    public Future<List<AiAction>> searchAsync(GameEngine engine, long timeBudgetMillis) {
+        SplittableRandom seeds = new SplittableRandom(engine.getRandom().getStream(GameRandom.Stream.AI).nextLong());
+        SimulatedGame root = new SimulatedGame(engine, new BattleResolver(new Random(seeds.nextLong())));
+        int playerId = engine.getCurrentPlayer().getId();
+        long deadline = System.nanoTime() + Math.max(1, Math.min(timeBudgetMillis, this.timeBudgetMillis)) * 1000000L;
+
+        List<Future<Node>> trees = new ArrayList<Future<Node>>(threads);
+        for (int i = 0; i < threads; i++) {
+            trees.add(getExecutor().submit(new Search(root, playerId, deadline, seeds.split())));
+        }
+        return new SearchFuture(trees);
+    }
+
+    /**
+     * the plan of a search, chosen from the trees once they have all finished
+     * the trees are separate tasks rather than being waited for by another task in the pool, so searches running at the
+     * same time, e.g. in a Tournament, can not fill the pool with tasks waiting for trees that can never start
+     */
+    private static class SearchFuture implements Future<List<AiAction>> {
+        private final List<Future<Node>> trees;
+
+        SearchFuture(List<Future<Node>> trees) {
+            this.trees = trees;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = false;
+            for (Future<Node> tree : trees) {
+                cancelled |= tree.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            for (Future<Node> tree : trees) {
+                if (tree.isCancelled()) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            for (Future<Node> tree : trees) {
+                if (!tree.isDone()) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public List<AiAction> get() throws InterruptedException, ExecutionException {
+            List<Node> roots = new ArrayList<Node>(trees.size());
+            for (Future<Node> tree : trees) {
+                roots.add(tree.get());
+            }
+            return choosePlan(roots);
+        }
+
+        @Override
+        public List<AiAction> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            List<Node> roots = new ArrayList<Node>(trees.size());
+            for (Future<Node> tree : trees) {
+                roots.add(tree.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return choosePlan(roots);
+        }
+    }
+
+    /**
+     * follows the action with the most visits summed over every tree until the phase ends or an attack is made
+     */
+    private static List<AiAction> choosePlan(List<Node> roots) {
+        List<AiAction> plan = new ArrayList<AiAction>();
+        List<Node> nodes = roots;
+
+        while (true) {
+            HashMap<AiAction, Integer> visits = new HashMap<AiAction, Integer>();
+            AiAction best = null;
+            int bestVisits = 0;
+            for (Node node : nodes) {
+                for (java.util.Map.Entry<AiAction, Node> child : node.children.entrySet()) {
+                    Integer previous = visits.get(child.getKey());
+                    int total = (previous == null ? 0 : previous) + child.getValue().visits;
+                    visits.put(child.getKey(), total);
+                    if (total > bestVisits) {
+                        best = child.getKey();
+                        bestVisits = total;
+                    }
+                }
+            }
+
+            if (best == null) { // nothing was searched this deep, if nothing was searched at all there are no moves to make
+                if (plan.isEmpty()) plan.add(AiAction.endPhase());
+                return plan;
+            }
+            plan.add(best);
+            if (best.getType() == AiAction.Type.END_PHASE || best.getType() == AiAction.Type.ATTACK) return plan;
+
+            List<Node> children = new ArrayList<Node>();
+            for (Node node : nodes) {
+                Node child = node.children.get(best);
+                if (child != null) children.add(child);
+            }
+            nodes = children;
+        }
+    }
+
+    /**
+     * a sequence of actions from the start of the search, with the total reward of the iterations that played it
+     */
+    private static class Node {
+        final HashMap<AiAction, Node> children = new HashMap<AiAction, Node>();
+        int visits;
+        double totalReward;
+    }
+
+    /**
+     * searches a single tree until the deadline or until the search is cancelled, which interrupts it
+     */
+    private static class Search implements Callable<Node> {
+        private final SimulatedGame root;
+        private final int playerId;
+        private final long deadline;
+        private final SplittableRandom random;
+
+        Search(SimulatedGame root, int playerId, long deadline, SplittableRandom random) {
+            this.root = root;
+            this.playerId = playerId;
+            this.deadline = deadline;
+            this.random = random;
+        }
+
+        @Override
+        public Node call() {
+            SimulatedGame game = root.copy(new BattleResolver(new Random(random.nextLong())));
+            Node tree = new Node();
+            List<AiAction> actions = new ArrayList<AiAction>();
+            List<Node> path = new ArrayList<Node>();
+            int startTurn = root.getTurnNumber();
+            int endTurn = startTurn + Math.max(1, root.getPlayerCount()); // turn the rollouts stop at
+
+            do {
+                root.copyInto(game);
+                path.clear();
+                path.add(tree);
+
+                // selection and expansion, while it is still the player's turn
+                Node node = tree;
+                while (!game.isGameOver() && game.getTurnNumber() == startTurn) {
+                    actions.clear();
+                    game.getActions(actions);
+                    AiAction action = select(node, actions);
+                    Node child = node.children.get(action);
+                    boolean expanded = child == null;
+                    if (expanded) {
+                        child = new Node();
+                        node.children.put(action, child);
+                    }
+                    game.apply(action);
+                    path.add(child);
+                    node = child;
+                    if (expanded) break;
+                }
+
+                // rollout of the rest of the player's turn and every other player's next turn
+                while (!game.isGameOver() && game.getTurnNumber() < endTurn) {
+                    game.playRolloutPhase();
+                }
+
+                double reward = game.evaluate(playerId);
+                for (Node visited : path) {
+                    visited.visits++;
+                    visited.totalReward += reward;
+                }
+            } while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted());
+
+            return tree;
+        }
+
+        /**
+         * picks an untried action at random if there are any, else the action with the highest UCT value
+         */
+        private AiAction select(Node node, List<AiAction> actions) {
+            int untried = 0;
+            for (AiAction action : actions) {
+                if (!node.children.containsKey(action)) untried++;
+            }
+            if (untried > 0) {
+                int pick = random.nextInt(untried);
+                for (AiAction action : actions) {
+                    if (!node.children.containsKey(action) && pick-- == 0) return action;
+                }
+            }
+
+            AiAction best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            double logVisits = Math.log(Math.max(1, node.visits));
+            for (AiAction action : actions) {
+                Node child = node.children.get(action);
+                double value = child.totalReward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    best = action;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package sepr.game.engine;
+
+/*
+Added in assessment 4
+ - added so that games can be played by the computer, e.g. when simulating games for testing the game balance
+ */
+
+/**
+ * decides the moves of a computer controlled player
+ */
+public interface PlayerStrategy {
+
+    /**
+     * carries out the current player's moves for the engine's current phase by issuing commands to the engine
+     * the phase is ended by the caller once this returns
+     *
+     * @param engine engine running the game, whose current player is the player to make moves for
+     */
+    void playPhase(GameEngine engine);
+}
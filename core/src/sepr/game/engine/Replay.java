@@ -0,0 +1,204 @@
+package sepr.game.engine;
+
+import sepr.game.Player;
+import sepr.game.utils.CollegeName;
+import sepr.game.utils.PlayerType;
+import sepr.game.utils.TurnPhaseType;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/*
+Added in assessment 4
+ - added to read the replay files written by ReplayWriter
+ */
+
+/**
+ * a game read from a replay file: its players, every command carried out in it and its keyframes
+ * a replay that ends part way through a record, i.e. the game closed while it was being written, is read up to the end
+ * of the last complete record
+ */
+public class Replay {
+    private final long seed; // seed of the recorded game's GameRandom
+    private final int[] playerIds; // id of each player, the other player arrays are indexed the same way
+    private final CollegeName[] colleges;
+    private final PlayerType[] playerTypes;
+    private final String[] playerNames;
+    private final CommandLog commands; // every command recorded, indexed from the first keyframe
+    private final List<ReplayKeyframe> keyframes; // keyframes in the order they were written, i.e. by turn number
+    private final int lastTurnNumber; // number of the turn the last command was carried out in
+
+    private Replay(long seed, int[] playerIds, CollegeName[] colleges, PlayerType[] playerTypes, String[] playerNames, CommandLog commands, List<ReplayKeyframe> keyframes) {
+        this.seed = seed;
+        this.playerIds = playerIds;
+        this.colleges = colleges;
+        this.playerTypes = playerTypes;
+        this.playerNames = playerNames;
+        this.commands = commands;
+        this.keyframes = keyframes;
+        this.lastTurnNumber = countTurns(keyframes.get(0), commands);
+    }
+
+    /**
+     * reads a replay file written by ReplayWriter
+     *
+     * @param file file to read
+     * @return the replay
+     * @throws IOException if the file could not be read or is not a valid replay
+     */
+    public static Replay read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != ReplayWriter.MAGIC) throw new IOException("Not a replay file");
+            int version = in.readInt();
+            if (version != ReplayWriter.VERSION) throw new IOException("Unsupported replay version: " + version);
+            in.readInt(); // keyframe interval, only needed when writing
+            long seed = in.readLong();
+
+            int playerCount = in.readInt();
+            if (playerCount <= 0 || playerCount > 64) throw new IOException("Invalid number of players: " + playerCount);
+            int[] playerIds = new int[playerCount];
+            CollegeName[] colleges = new CollegeName[playerCount];
+            PlayerType[] playerTypes = new PlayerType[playerCount];
+            String[] playerNames = new String[playerCount];
+            for (int i = 0; i < playerCount; i++) {
+                playerIds[i] = in.readInt();
+                try {
+                    colleges[i] = CollegeName.valueOf(in.readUTF());
+                    playerTypes[i] = PlayerType.valueOf(in.readUTF());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid player in replay", e);
+                }
+                playerNames[i] = in.readUTF();
+            }
+
+            CommandLog commands = new CommandLog(seed);
+            List<ReplayKeyframe> keyframes = new ArrayList<ReplayKeyframe>();
+            readRecords(in, commands, keyframes);
+            if (keyframes.isEmpty()) throw new IOException("Replay has no keyframes");
+
+            return new Replay(seed, playerIds, colleges, playerTypes, playerNames, commands, keyframes);
+        } catch (EOFException e) {
+            throw new IOException("Replay file ends before its first keyframe", e);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * reads records until the end of the file, ignoring a partly written last record
+     */
+    private static void readRecords(DataInputStream in, CommandLog commands, List<ReplayKeyframe> keyframes) throws IOException {
+        while (true) {
+            int tag = in.read();
+            if (tag == -1) return;
+            try {
+                if (tag == ReplayWriter.COMMAND_RECORD) {
+                    long command = in.readLong();
+                    if (!CommandLog.isValid(command)) throw new IOException("Invalid command in replay");
+                    commands.add(command);
+                } else if (tag == ReplayWriter.KEYFRAME_RECORD) {
+                    ReplayKeyframe keyframe = ReplayKeyframe.read(in);
+                    if (keyframe.getCommandIndex() != commands.size()) throw new IOException("Keyframe is out of place");
+                    keyframes.add(keyframe);
+                } else {
+                    throw new IOException("Invalid record tag: " + tag);
+                }
+            } catch (EOFException e) {
+                return; // the game closed while the record was being written
+            }
+        }
+    }
+
+    /**
+     * finds the number of the turn the last command is carried out in, following the phases from the first keyframe
+     * each player's turn has three phases, so ending the third phase or ending the turn early starts the next turn
+     */
+    private static int countTurns(ReplayKeyframe first, CommandLog commands) {
+        int turnNumber = first.getTurnNumber();
+        TurnPhaseType phase = first.getCurrentPhase();
+        for (int i = 0; i < commands.size(); i++) {
+            CommandLog.CommandType type = commands.getType(i);
+            if (type == CommandLog.CommandType.END_TURN || (type == CommandLog.CommandType.END_PHASE && phase == TurnPhaseType.MOVEMENT)) {
+                turnNumber++;
+                phase = TurnPhaseType.REINFORCEMENT;
+            } else if (type == CommandLog.CommandType.END_PHASE) {
+                phase = phase == TurnPhaseType.REINFORCEMENT ? TurnPhaseType.ATTACK : TurnPhaseType.MOVEMENT;
+            }
+        }
+        return turnNumber;
+    }
+
+    /**
+     * @return newly created players of the recorded game, in the state they were in before any command; their troops
+     * and cards are set when a keyframe is restored
+     */
+    public HashMap<Integer, Player> createPlayers() {
+        HashMap<Integer, Player> players = new HashMap<Integer, Player>();
+        for (int i = 0; i < playerIds.length; i++) {
+            players.put(playerIds[i], new Player(playerIds[i], colleges[i], 0, playerTypes[i], playerNames[i], 0, 0, 0));
+        }
+        return players;
+    }
+
+    /**
+     * @return seed of the recorded game's GameRandom
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return every command recorded, the first keyframe being taken before the first of them
+     */
+    public CommandLog getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return the keyframes, in the order they were taken
+     */
+    public List<ReplayKeyframe> getKeyframes() {
+        return Collections.unmodifiableList(keyframes);
+    }
+
+    /**
+     * @param turnNumber number of a turn in the replay
+     * @return the last keyframe taken at or before the start of the turn, the first keyframe if the turn is before it
+     */
+    public ReplayKeyframe getKeyframeBefore(int turnNumber) {
+        int low = 0;
+        int high = keyframes.size() - 1;
+        while (low < high) { // find the last keyframe whose turn number is at most turnNumber
+            int middle = (low + high + 1) / 2;
+            if (keyframes.get(middle).getTurnNumber() <= turnNumber) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return keyframes.get(low);
+    }
+
+    /**
+     * @return number of the turn the replay starts in
+     */
+    public int getFirstTurnNumber() {
+        return keyframes.get(0).getTurnNumber();
+    }
+
+    /**
+     * @return number of the turn the replay ends in
+     */
+    public int getLastTurnNumber() {
+        return lastTurnNumber;
+    }
+}
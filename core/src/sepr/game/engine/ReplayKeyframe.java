@@ -0,0 +1,254 @@
+package sepr.game.engine;
+
+import sepr.game.Player;
+import sepr.game.Sector;
+import sepr.game.utils.TurnPhaseType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Added in assessment 4
+ - added so a replay can start playing from part way through a game rather than from its first turn
+ */
+
+/**
+ * the full state of a game at a point in its replay: every sector and player, the turn order, the current phase and the
+ * state of the game's random number streams
+ * restoring a keyframe then carrying out the commands recorded after it plays the rest of the game exactly as it happened
+ */
+public class ReplayKeyframe {
+    private final int commandIndex; // number of commands in the replay before this keyframe
+    private final int turnNumber;
+    private final TurnPhaseType currentPhase;
+    private final List<Integer> turnOrder;
+    private final int currentPlayerPointer;
+    private final int[] playerIds; // id of each player, the other player arrays are indexed the same way
+    private final int[] troopsToAllocate;
+    private final int[] collusionCards;
+    private final int[] poopyPathCards;
+    private final int[] asbestosCards;
+    private final int[] sectorIds; // id of each sector, the other sector arrays are indexed the same way
+    private final int[] ownerIds;
+    private final int[] underGrads;
+    private final int[] postGrads;
+    private final int[] asbestosCounts;
+    private final int[] poopCounts;
+    private final long[] streamStates; // states of the game's GameRandom streams
+
+    private ReplayKeyframe(int commandIndex, int turnNumber, TurnPhaseType currentPhase, List<Integer> turnOrder, int currentPlayerPointer, int playerCount, int sectorCount, long[] streamStates) {
+        this.commandIndex = commandIndex;
+        this.turnNumber = turnNumber;
+        this.currentPhase = currentPhase;
+        this.turnOrder = turnOrder;
+        this.currentPlayerPointer = currentPlayerPointer;
+        this.playerIds = new int[playerCount];
+        this.troopsToAllocate = new int[playerCount];
+        this.collusionCards = new int[playerCount];
+        this.poopyPathCards = new int[playerCount];
+        this.asbestosCards = new int[playerCount];
+        this.sectorIds = new int[sectorCount];
+        this.ownerIds = new int[sectorCount];
+        this.underGrads = new int[sectorCount];
+        this.postGrads = new int[sectorCount];
+        this.asbestosCounts = new int[sectorCount];
+        this.poopCounts = new int[sectorCount];
+        this.streamStates = streamStates;
+    }
+
+    /**
+     * takes a keyframe of the current state of a game
+     *
+     * @param engine engine running the game
+     * @param commandIndex number of commands recorded in the replay so far
+     * @return the keyframe
+     */
+    public static ReplayKeyframe capture(GameEngine engine, int commandIndex) {
+        ReplayKeyframe keyframe = new ReplayKeyframe(commandIndex, engine.getTurnNumber(), engine.getCurrentPhase(),
+                new ArrayList<Integer>(engine.getTurnOrder()), engine.getCurrentPlayerPointer(),
+                engine.getPlayers().size(), engine.getMap().getSectors().size(), engine.getRandom().getStreamStates());
+
+        int i = 0;
+        for (Player player : engine.getPlayers().values()) {
+            keyframe.playerIds[i] = player.getId();
+            keyframe.troopsToAllocate[i] = player.getTroopsToAllocate();
+            keyframe.collusionCards[i] = player.getCollusionCards();
+            keyframe.poopyPathCards[i] = player.getPoopyPathCards();
+            keyframe.asbestosCards[i] = player.getAsbestosCards();
+            i++;
+        }
+
+        i = 0;
+        for (Sector sector : engine.getMap().getSectors().values()) {
+            keyframe.sectorIds[i] = sector.getId();
+            keyframe.ownerIds[i] = sector.getOwnerId();
+            keyframe.underGrads[i] = sector.getUnderGradsInSector();
+            keyframe.postGrads[i] = sector.getPostGradsInSector();
+            keyframe.asbestosCounts[i] = sector.getAsbestosCount();
+            keyframe.poopCounts[i] = sector.getPoopCount();
+            i++;
+        }
+        return keyframe;
+    }
+
+    /**
+     * puts a game into the state of this keyframe, listeners of the engine are not notified of the changes
+     *
+     * @param engine engine running a game on the same map with the same players as the game the keyframe was taken of
+     * @throws IllegalArgumentException if the engine's game does not have the keyframe's players and sectors
+     */
+    public void restore(GameEngine engine) {
+        for (int i = 0; i < playerIds.length; i++) {
+            Player player = engine.getPlayerById(playerIds[i]);
+            player.setTroopsToAllocate(troopsToAllocate[i]);
+            player.addCollusionCards(collusionCards[i] - player.getCollusionCards());
+            player.addPoopyPathCards(poopyPathCards[i] - player.getPoopyPathCards());
+            player.addAsbestosCards(asbestosCards[i] - player.getAsbestosCards());
+        }
+
+        for (int i = 0; i < sectorIds.length; i++) {
+            Sector sector = engine.getMap().getSectorById(sectorIds[i]);
+            if (sector == null) throw new IllegalArgumentException("The map has no sector with id " + sectorIds[i]);
+            Player owner = ownerIds[i] == -1 ? null : engine.getPlayerById(ownerIds[i]);
+            sector.restoreState(owner, underGrads[i], postGrads[i], asbestosCounts[i], poopCounts[i]);
+        }
+
+        engine.restoreTurnState(new ArrayList<Integer>(turnOrder), currentPlayerPointer, currentPhase, turnNumber);
+        engine.getRandom().setStreamStates(streamStates);
+    }
+
+    /**
+     * @return number of commands in the replay before this keyframe, i.e. the index of the first command after it
+     */
+    public int getCommandIndex() {
+        return commandIndex;
+    }
+
+    /**
+     * @return phase the game was in when the keyframe was taken
+     */
+    public TurnPhaseType getCurrentPhase() {
+        return currentPhase;
+    }
+
+    /**
+     * @return number of the turn the keyframe was taken in
+     */
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    /**
+     * writes the keyframe, enums are written by name so reordering their values does not break existing replays
+     *
+     * @param out output to write to
+     * @throws IOException if the output could not be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(commandIndex);
+        out.writeInt(turnNumber);
+        out.writeUTF(currentPhase.name());
+        out.writeInt(turnOrder.size());
+        for (int playerId : turnOrder) {
+            out.writeInt(playerId);
+        }
+        out.writeInt(currentPlayerPointer);
+
+        out.writeInt(playerIds.length);
+        for (int i = 0; i < playerIds.length; i++) {
+            out.writeInt(playerIds[i]);
+            out.writeInt(troopsToAllocate[i]);
+            out.writeInt(collusionCards[i]);
+            out.writeInt(poopyPathCards[i]);
+            out.writeInt(asbestosCards[i]);
+        }
+
+        out.writeInt(sectorIds.length);
+        for (int i = 0; i < sectorIds.length; i++) {
+            out.writeInt(sectorIds[i]);
+            out.writeInt(ownerIds[i]);
+            out.writeInt(underGrads[i]);
+            out.writeInt(postGrads[i]);
+            out.writeInt(asbestosCounts[i]);
+            out.writeInt(poopCounts[i]);
+        }
+
+        out.writeInt(streamStates.length);
+        for (long state : streamStates) {
+            out.writeLong(state);
+        }
+    }
+
+    /**
+     * reads a keyframe written by write
+     *
+     * @param in input to read from
+     * @return the keyframe that was written
+     * @throws IOException if the input could not be read or does not hold a valid keyframe
+     */
+    public static ReplayKeyframe read(DataInput in) throws IOException {
+        int commandIndex = in.readInt();
+        int turnNumber = in.readInt();
+        TurnPhaseType currentPhase;
+        try {
+            currentPhase = TurnPhaseType.valueOf(in.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid phase in keyframe", e);
+        }
+        List<Integer> turnOrder = new ArrayList<Integer>();
+        int turnOrderSize = readCount(in);
+        for (int i = 0; i < turnOrderSize; i++) {
+            turnOrder.add(in.readInt());
+        }
+        int currentPlayerPointer = in.readInt();
+
+        // the sizes of the arrays come part way through, so the players and sectors are read into temporary arrays
+        int[] players = readInts(in, 5);
+        int[] sectors = readInts(in, 6);
+        long[] streamStates = new long[readCount(in)];
+        for (int i = 0; i < streamStates.length; i++) {
+            streamStates[i] = in.readLong();
+        }
+
+        ReplayKeyframe keyframe = new ReplayKeyframe(commandIndex, turnNumber, currentPhase, turnOrder, currentPlayerPointer, players.length / 5, sectors.length / 6, streamStates);
+        for (int i = 0; i < keyframe.playerIds.length; i++) {
+            keyframe.playerIds[i] = players[i * 5];
+            keyframe.troopsToAllocate[i] = players[i * 5 + 1];
+            keyframe.collusionCards[i] = players[i * 5 + 2];
+            keyframe.poopyPathCards[i] = players[i * 5 + 3];
+            keyframe.asbestosCards[i] = players[i * 5 + 4];
+        }
+        for (int i = 0; i < keyframe.sectorIds.length; i++) {
+            keyframe.sectorIds[i] = sectors[i * 6];
+            keyframe.ownerIds[i] = sectors[i * 6 + 1];
+            keyframe.underGrads[i] = sectors[i * 6 + 2];
+            keyframe.postGrads[i] = sectors[i * 6 + 3];
+            keyframe.asbestosCounts[i] = sectors[i * 6 + 4];
+            keyframe.poopCounts[i] = sectors[i * 6 + 5];
+        }
+        return keyframe;
+    }
+
+    /**
+     * reads a count followed by that many records of the given number of ints
+     */
+    private static int[] readInts(DataInput in, int intsPerRecord) throws IOException {
+        int[] values = new int[readCount(in) * intsPerRecord];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * @throws IOException if the count read is negative or too large to be valid
+     */
+    private static int readCount(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > 1024) throw new IOException("Invalid count in keyframe: " + count);
+        return count;
+    }
+}
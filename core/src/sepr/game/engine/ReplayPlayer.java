@@ -0,0 +1,130 @@
+package sepr.game.engine;
+
+import sepr.game.Map;
+import sepr.game.Player;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/*
+Added in assessment 4
+ - added so a replay can be watched at different speeds and any turn of it jumped to without playing every turn before it
+ */
+
+/**
+ * plays a Replay back through a GameEngine, carrying out its commands at a steady rate
+ *
+ * jumping to a turn restores the last keyframe before it and carries out only the commands from there, so a jump costs
+ * at most the commands of one keyframe interval rather than the whole game; at high speeds several commands are carried
+ * out in a single frame rather than slowing the replay down
+ */
+public class ReplayPlayer {
+    public static final float COMMAND_SECONDS = 0.5f; // seconds between commands at normal speed
+    public static final int MIN_SPEED = 1;
+    public static final int MAX_SPEED = 100;
+
+    private final Replay replay;
+    private final GameEngine engine;
+    private int nextCommand; // index of the next command of the replay to carry out
+    private int speed = MIN_SPEED; // multiple of normal speed the replay is played at
+    private float timeUntilCommand = COMMAND_SECONDS; // seconds at normal speed until the next command is carried out
+
+    /**
+     * @param replay replay to play
+     * @param engine engine set up for the replay, see createEngine
+     */
+    public ReplayPlayer(Replay replay, GameEngine engine) {
+        this.replay = replay;
+        this.engine = engine;
+        seekToTurn(replay.getFirstTurnNumber());
+    }
+
+    /**
+     * sets up an engine with the replay's players and map, the sectors are set when a keyframe is restored
+     *
+     * @param replay replay to set up the engine for
+     * @return the engine
+     */
+    public static GameEngine createEngine(Replay replay) {
+        HashMap<Integer, Player> players = replay.createPlayers();
+        Map map = new Map(players, false, new Random(replay.getSeed()));
+        return new GameEngine(map, players, new GameRandom(replay.getSeed()));
+    }
+
+    /**
+     * puts the game into the state it was in at the start of a turn; listeners of the engine are not told of the
+     * keyframe being restored, only of the commands carried out after it
+     *
+     * @param turnNumber turn to jump to, clamped to the turns of the replay
+     */
+    public void seekToTurn(int turnNumber) {
+        turnNumber = Math.max(replay.getFirstTurnNumber(), Math.min(replay.getLastTurnNumber(), turnNumber));
+        ReplayKeyframe keyframe = replay.getKeyframeBefore(turnNumber);
+        keyframe.restore(engine);
+        engine.getCommandLog().clear(); // commands carried out by the replay are already recorded in the replay
+        nextCommand = keyframe.getCommandIndex();
+        while (engine.getTurnNumber() < turnNumber && !isFinished()) {
+            step();
+        }
+        timeUntilCommand = COMMAND_SECONDS;
+    }
+
+    /**
+     * carries out the next command of the replay
+     *
+     * @throws IllegalStateException if every command has been carried out
+     */
+    public void step() {
+        if (isFinished()) {
+            throw new IllegalStateException("The replay has finished");
+        }
+        replay.getCommands().apply(nextCommand++, engine);
+    }
+
+    /**
+     * carries out every command due in the time since the last frame
+     *
+     * @param delta seconds since the last frame
+     */
+    public void advance(float delta) {
+        timeUntilCommand -= delta * speed;
+        while (timeUntilCommand <= 0 && !isFinished()) {
+            step();
+            timeUntilCommand += COMMAND_SECONDS;
+        }
+        if (isFinished()) timeUntilCommand = COMMAND_SECONDS;
+    }
+
+    /**
+     * @param speed multiple of normal speed to play the replay at, clamped between MIN_SPEED and MAX_SPEED
+     */
+    public void setSpeed(int speed) {
+        this.speed = Math.max(MIN_SPEED, Math.min(MAX_SPEED, speed));
+    }
+
+    public int getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return true if every command of the replay has been carried out
+     */
+    public boolean isFinished() {
+        return nextCommand >= replay.getCommands().size();
+    }
+
+    /**
+     * @return number of the turn the replay is currently showing
+     */
+    public int getTurnNumber() {
+        return engine.getTurnNumber();
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,122 @@
+package sepr.game.engine;
+
+import org.junit.Test;
+import sepr.game.TestGame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayTest {
+    private static final int PLAYER_COUNT = 3;
+
+    /**
+     * plays a seeded game, recording it with a ReplayWriter after every phase as the game screen does
+     *
+     * @return the engine of the recorded game, once it has ended or stopped
+     */
+    private static GameEngine recordGame(long seed, File file) throws IOException {
+        GameEngine engine = TestGame.createEngine(PLAYER_COUNT, seed);
+        ReplayWriter writer = new ReplayWriter(engine, file, 5);
+        try {
+            for (int i = 0; i < 60 && !engine.isGameOver(); i++) {
+                TestGame.playPhases(engine, new HeuristicStrategy(), 5);
+                writer.update();
+            }
+        } finally {
+            writer.close();
+        }
+        return engine;
+    }
+
+    /**
+     * plays the replay's commands from the start of the game in a new game, without using any keyframes
+     *
+     * @return the engine of the new game, at the start of the turn
+     */
+    private static GameEngine simulateToTurn(Replay replay, long seed, int turnNumber) {
+        GameEngine engine = TestGame.createEngine(PLAYER_COUNT, seed);
+        CommandLog commands = replay.getCommands();
+        for (int i = 0; i < commands.size() && engine.getTurnNumber() < turnNumber; i++) {
+            commands.apply(i, engine);
+        }
+        return engine;
+    }
+
+    @Test
+    public void seeksMatchFullSimulation() throws IOException {
+        for (long seed = 0; seed < 3; seed++) {
+            File file = File.createTempFile("replay", ReplayWriter.FILE_EXTENSION);
+            try {
+                GameEngine recorded = recordGame(seed, file);
+                Replay replay = Replay.read(file);
+                assertEquals(seed, replay.getSeed());
+                assertEquals(recorded.getCommandLog().size(), replay.getCommands().size());
+                assertTrue(replay.getKeyframes().size() > 1);
+
+                GameEngine engine = ReplayPlayer.createEngine(replay);
+                ReplayPlayer player = new ReplayPlayer(replay, engine);
+                List<Integer> turns = new ArrayList<Integer>();
+                for (int turn = replay.getFirstTurnNumber(); turn <= replay.getLastTurnNumber(); turn++) {
+                    turns.add(turn);
+                }
+                Collections.shuffle(turns, new Random(seed)); // seek backwards as well as forwards
+                for (int turn : turns) {
+                    player.seekToTurn(turn);
+                    assertEquals(turn, engine.getTurnNumber());
+                    TestGame.assertSameGame(simulateToTurn(replay, seed, turn), engine);
+                }
+
+                player.seekToTurn(replay.getLastTurnNumber());
+                while (!player.isFinished()) {
+                    player.step();
+                }
+                TestGame.assertSameGame(recorded, engine);
+            } finally {
+                assertTrue(file.delete());
+            }
+        }
+    }
+
+    @Test
+    public void oldReplaysAreDeleted() throws IOException {
+        File directory = File.createTempFile("replays", "");
+        assertTrue(directory.delete() && directory.mkdir());
+        try {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < 5; i++) {
+                File replay = new File(directory, "replay-" + i + ReplayWriter.FILE_EXTENSION);
+                assertTrue(replay.createNewFile());
+                assertTrue(replay.setLastModified(now - (5 - i) * 60000L)); // replay-4 is the most recent
+            }
+            File other = new File(directory, "notes.txt");
+            assertTrue(other.createNewFile());
+            assertTrue(other.setLastModified(now - 600000L));
+
+            ReplayWriter.deleteOldReplays(directory, 2);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i >= 3, new File(directory, "replay-" + i + ReplayWriter.FILE_EXTENSION).exists());
+            }
+            assertTrue(other.exists());
+
+            ReplayWriter.deleteOldReplays(directory, 0);
+            assertFalse(new File(directory, "replay-4" + ReplayWriter.FILE_EXTENSION).exists());
+            assertTrue(other.exists());
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package sepr.game.engine;
+
+import sepr.game.Player;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/*
+Added in assessment 4
+ - added so games can be watched again, and any turn of them jumped to, after they have been played
+ - old replays are deleted by deleteOldReplays so the replay directory does not grow with every game played
+ */
+
+/**
+ * records a game to a replay file as it is played
+ *
+ * the file is only ever appended to: a header with the game's seed and players and a keyframe of the state the game
+ * started recording in, then the commands from the engine's CommandLog, with a keyframe of the whole game every
+ * keyframeInterval turns; the file is flushed whenever update is called, so if the game closes the replay is complete
+ * up to the last update
+ *
+ * file layout:
+ *  - magic number and format version
+ *  - keyframe interval, seed, and the id, college, type and name of each player
+ *  - records, each a tag byte followed by either a packed command, see CommandLog, or a ReplayKeyframe
+ */
+public class ReplayWriter {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 10; // turns between keyframes
+    public static final String FILE_EXTENSION = ".bodr"; // extension of replay files
+    static final int MAGIC = 0x424f4452; // "BODR", identifies a Bachelors of Domination replay
+    static final int VERSION = 1; // incremented whenever the layout changes
+    static final int COMMAND_RECORD = 1; // tags of the records
+    static final int KEYFRAME_RECORD = 2;
+
+    private final GameEngine engine;
+    private final DataOutputStream out;
+    private final int keyframeInterval;
+    private final int firstCommand; // size of the engine's command log when recording started
+    private int commandsWritten; // commands written to the replay so far
+    private int nextKeyframeTurn; // turn number at which the next keyframe is written
+
+    /**
+     * creates the replay file and writes its header and first keyframe
+     *
+     * @param engine engine running the game to record
+     * @param file file to write the replay to, replacing any existing file
+     * @param keyframeInterval number of turns between keyframes
+     * @throws IOException if the file could not be written
+     * @throws IllegalArgumentException if keyframeInterval is not positive
+     */
+    public ReplayWriter(GameEngine engine, File file, int keyframeInterval) throws IOException {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Keyframe interval must be positive");
+        }
+        this.engine = engine;
+        this.keyframeInterval = keyframeInterval;
+        this.firstCommand = engine.getCommandLog().size();
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(keyframeInterval);
+        out.writeLong(engine.getRandom().getSeed());
+        out.writeInt(engine.getPlayers().size());
+        for (Player player : engine.getPlayers().values()) {
+            out.writeInt(player.getId());
+            out.writeUTF(player.getCollegeName().name());
+            out.writeUTF(player.getPlayerType().name());
+            out.writeUTF(player.getPlayerName());
+        }
+        writeKeyframe();
+        out.flush();
+    }
+
+    /**
+     * appends the commands carried out since the last update, then a keyframe if enough turns have passed since the
+     * last one; should be called after each phase ends so keyframes are taken at the start of a turn
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void update() throws IOException {
+        CommandLog log = engine.getCommandLog();
+        for (int i = firstCommand + commandsWritten; i < log.size(); i++) {
+            out.writeByte(COMMAND_RECORD);
+            out.writeLong(log.get(i));
+            commandsWritten++;
+        }
+        if (engine.getTurnNumber() >= nextKeyframeTurn && !engine.isGameOver()) {
+            writeKeyframe();
+        }
+        out.flush();
+    }
+
+    /**
+     * deletes the least recently written replays in a directory, leaving the given number of the most recent
+     * files that are not replays are left alone; a replay that can not be deleted, e.g. because it is open, is skipped
+     *
+     * @param directory directory the replays are written to
+     * @param keep number of replays to keep
+     */
+    public static void deleteOldReplays(File directory, int keep) {
+        File[] replays = directory.listFiles();
+        if (replays == null) return;
+        int count = 0;
+        for (File file : replays) {
+            if (file.getName().endsWith(FILE_EXTENSION)) replays[count++] = file;
+        }
+        if (count <= keep) return;
+
+        Arrays.sort(replays, 0, count, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) { // most recent first
+                long aModified = a.lastModified();
+                long bModified = b.lastModified();
+                return aModified > bModified ? -1 : aModified < bModified ? 1 : b.getName().compareTo(a.getName());
+            }
+        });
+        for (int i = Math.max(0, keep); i < count; i++) {
+            if (!replays[i].delete()) {
+                System.err.println("Could not delete old replay " + replays[i]);
+            }
+        }
+    }
+
+    private void writeKeyframe() throws IOException {
+        out.writeByte(KEYFRAME_RECORD);
+        ReplayKeyframe.capture(engine, commandsWritten).write(out);
+        nextKeyframeTurn = engine.getTurnNumber() + keyframeInterval;
+    }
+
+    /**
+     * writes any commands not yet written and closes the file
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void close() throws IOException {
+        try {
+            update();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package sepr.game.engine;
+
+import sepr.game.Map;
+import sepr.game.Player;
+import sepr.game.Sector;
+import sepr.game.SectorOwnership;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Added in assessment 4
+ - added as a simple fixed strategy for simulating games
+ - sectors with enemy neighbours are found from the map's SectorOwnership when moving rather than checking every neighbour
+ */
+
+/**
+ * plays a fixed strategy: reinforces the sector under the most threat, attacks whenever the odds of winning are good
+ * and moves units from sectors with no enemy neighbours towards the front line
+ */
+public class ScriptedStrategy implements PlayerStrategy {
+    private static final double MIN_ATTACK_SUCCESS_CHANCE = 0.6; // attacks with a lower chance of conquering the target are not made
+    private static final int MAX_ATTACKS_PER_TURN = 50; // limit on attacks so a turn always ends
+
+    @Override
+    public void playPhase(GameEngine engine) {
+        switch (engine.getCurrentPhase()) {
+            case REINFORCEMENT:
+                reinforce(engine);
+                break;
+            case ATTACK:
+                attack(engine);
+                break;
+            case MOVEMENT:
+                move(engine);
+                break;
+        }
+    }
+
+    /**
+     * allocates all of the player's troops to the sector they own with the strongest enemy neighbour relative to its own units
+     */
+    private void reinforce(GameEngine engine) {
+        Player player = engine.getCurrentPlayer();
+        if (player.getTroopsToAllocate() <= 0) return;
+
+        Sector best = null;
+        int bestThreat = Integer.MIN_VALUE;
+        for (Sector sector : engine.getMap().getSectors().values()) {
+            if (sector.getOwnerId() != player.getId() || !sector.canChangeUnits()) continue;
+
+            int threat = strongestEnemyNeighbour(engine.getMap(), sector) - units(sector);
+            if (threat > bestThreat) {
+                bestThreat = threat;
+                best = sector;
+            }
+        }
+
+        if (best != null) {
+            engine.reinforce(best.getId(), player.getTroopsToAllocate(), 0);
+        }
+    }
+
+    /**
+     * repeatedly makes the attack with the best chance of conquering its target until no attack has good enough odds
+     * after conquering a sector half of the units left on the source sector are moved onto it
+     */
+    private void attack(GameEngine engine) {
+        Map map = engine.getMap();
+        int playerId = engine.getCurrentPlayer().getId();
+
+        for (int i = 0; i < MAX_ATTACKS_PER_TURN; i++) {
+            Sector bestSource = null;
+            Sector bestTarget = null;
+            double bestChance = MIN_ATTACK_SUCCESS_CHANCE;
+
+            for (Sector source : map.getSectors().values()) {
+                if (source.getOwnerId() != playerId || !source.canAttack()) continue;
+                int attackers = source.getUnderGradsInSector() - 1; // leave one unit behind so the source is not lost
+
+                for (int targetId : source.getAdjacentSectorIds()) {
+                    Sector target = map.getSectorById(targetId);
+                    if (target.isDecor() || target.getOwnerId() == playerId || !target.canBeAttacked()) continue;
+
+                    double chance = engine.getBattleResolver().getAttackSuccessChance(attackers, target.getUnderGradsInSector(), target.getPostGradsInSector());
+                    if (chance > bestChance) {
+                        bestChance = chance;
+                        bestSource = source;
+                        bestTarget = target;
+                    }
+                }
+            }
+
+            if (bestSource == null) return; // no attack is worth making
+
+            engine.attack(bestSource.getId(), bestTarget.getId(), bestSource.getUnderGradsInSector() - 1);
+            if (bestTarget.getOwnerId() == playerId && bestSource.getOwnerId() == playerId && bestSource.getUnderGradsInSector() > 1 && bestSource.canChangeUnits()) {
+                engine.move(bestSource.getId(), bestTarget.getId(), bestSource.getUnderGradsInSector() / 2);
+            }
+        }
+    }
+
+    /**
+     * moves all but one of the units on each sector with no enemy neighbours to an adjacent sector that has enemy neighbours
+     */
+    private void move(GameEngine engine) {
+        Map map = engine.getMap();
+        SectorOwnership ownership = map.getOwnership();
+        int playerId = engine.getCurrentPlayer().getId();
+
+        List<Sector> owned = new ArrayList<Sector>();
+        for (Sector sector : map.getSectors().values()) {
+            if (sector.getOwnerId() == playerId) owned.add(sector);
+        }
+
+        for (Sector source : owned) {
+            if (source.getUnderGradsInSector() <= 1 || !source.canChangeUnits() || ownership.isBorderSector(playerId, source.getId())) continue;
+
+            for (int targetId : source.getAdjacentSectorIds()) {
+                Sector target = map.getSectorById(targetId);
+                if (target.getOwnerId() == playerId && target.canChangeUnits() && ownership.isBorderSector(playerId, targetId)) {
+                    engine.move(source.getId(), targetId, source.getUnderGradsInSector() - 1);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the most units on any sector adjacent to the given sector that is owned by another player, 0 if there are none
+     */
+    private static int strongestEnemyNeighbour(Map map, Sector sector) {
+        int strongest = 0;
+        for (int adjacentId : sector.getAdjacentSectorIds()) {
+            Sector adjacent = map.getSectorById(adjacentId);
+            if (!adjacent.isDecor() && adjacent.getOwnerId() != sector.getOwnerId()) {
+                strongest = Math.max(strongest, Math.max(1, units(adjacent)));
+            }
+        }
+        return strongest;
+    }
+
+    /**
+     * @return total number of units on the sector
+     */
+    private static int units(Sector sector) {
+        return sector.getUnderGradsInSector() + sector.getPostGradsInSector();
+    }
+}
@@ -0,0 +1,709 @@
+package sepr.game.engine;
+
+import sepr.game.BattleResolver;
+import sepr.game.GameScreen;
+import sepr.game.Player;
+import sepr.game.SectorGraph;
+import sepr.game.utils.PunishmentCardType;
+import sepr.game.utils.TurnPhaseType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Added in assessment 4
+ - added so computer controlled players can play out many possible futures of a game without changing the real game
+ */
+
+/**
+ * copy of the state of a game that can be changed and copied cheaply, following the same rules as the GameEngine
+ *
+ * the board is held as a BoardState and the players as arrays indexed by player id; a simulated game does not check
+ * that the actions applied to it are legal, they should come from getActions which only lists legal actions
+ * the actions listed are a pruned subset of every legal action so that searching them is practical:
+ * - all of a player's troops are allocated as undergrads to one of their border sectors
+ * - attacks are made with all but one undergrad on the source sector, and only if they have a reasonable chance of success
+ * - units are moved from sectors with no enemy neighbours one step towards the nearest sector the player could attack
+ * - each type of punishment card is only played on the enemy sector it would affect most
+ * the set of sectors each player owns is kept up to date as the board changes, so finding a player's border and
+ * frontier sectors only needs the adjacency of the sectors they own
+ * the battle resolver is not copied, so a game and its copies should only be used by one thread
+ */
+public class SimulatedGame {
+    private static final int REINFORCEMENTS_PER_TURN = 5; // as in GameEngine
+    private static final int MAX_ACTIONS_PER_KIND = 6; // most reinforcements, attacks or moves listed by getActions
+    private static final double MIN_ATTACK_SUCCESS_CHANCE = 0.25; // attacks less likely to succeed than this are not listed
+    private static final double ROLLOUT_ATTACK_SUCCESS_CHANCE = 0.6; // attacks made by the rollout policy must be at least this likely to succeed
+    private static final int ROLLOUT_MAX_ATTACKS = 10; // most attacks the rollout policy makes in a turn
+    private static final float UNIT_WEIGHT = 0.2f; // value of a unit relative to a sector when evaluating a player's strength
+
+    private final SectorGraph graph; // shared, never changes
+    private final BoardState board;
+    private final int[] troopsToAllocate; // indexed by player id
+    private final int[] collusionCards;
+    private final int[] poopyPathCards;
+    private final int[] asbestosCards;
+    private final long[] ownedSectors; // set of the non-decor sectors owned by each player, as SectorGraph bitsets
+    private final int[] turnOrder; // ids of the players still in the game, the first turnOrderSize entries are used
+    private int turnOrderSize;
+    private int currentPlayerPointer;
+    private TurnPhaseType currentPhase;
+    private int turnNumber;
+    private BattleResolver battleResolver;
+
+    // scratch space reused by getActions and the rollout policy
+    private final int[] candidateSectors;
+    private final double[] candidateScores;
+
+    /**
+     * takes a copy of the current state of a game, should be called on the thread the engine is used on
+     *
+     * @param engine engine running the game to copy
+     * @param battleResolver resolver for deciding the outcome of simulated attacks
+     */
+    public SimulatedGame(GameEngine engine, BattleResolver battleResolver) {
+        this.graph = engine.getMap().getSectorGraph();
+        this.board = new BoardState(engine.getMap());
+
+        int playerCount = GameScreen.NEUTRAL_PLAYER_ID + 1;
+        for (Integer id : engine.getPlayers().keySet()) playerCount = Math.max(playerCount, id + 1);
+        this.troopsToAllocate = new int[playerCount];
+        this.collusionCards = new int[playerCount];
+        this.poopyPathCards = new int[playerCount];
+        this.asbestosCards = new int[playerCount];
+        this.ownedSectors = new long[playerCount];
+        this.turnOrder = new int[engine.getTurnOrder().size()];
+        this.battleResolver = battleResolver;
+        readFrom(engine);
+
+        this.candidateSectors = new int[board.getSectorCount() * board.getSectorCount()];
+        this.candidateScores = new double[candidateSectors.length];
+    }
+
+    /**
+     * creates a copy of a game that can be changed without affecting it
+     */
+    private SimulatedGame(SimulatedGame game, BattleResolver battleResolver) {
+        this.graph = game.graph;
+        this.board = game.board.copy();
+        this.troopsToAllocate = game.troopsToAllocate.clone();
+        this.collusionCards = game.collusionCards.clone();
+        this.poopyPathCards = game.poopyPathCards.clone();
+        this.asbestosCards = game.asbestosCards.clone();
+        this.ownedSectors = game.ownedSectors.clone();
+        this.turnOrder = game.turnOrder.clone();
+        this.turnOrderSize = game.turnOrderSize;
+        this.currentPlayerPointer = game.currentPlayerPointer;
+        this.currentPhase = game.currentPhase;
+        this.turnNumber = game.turnNumber;
+        this.battleResolver = battleResolver;
+
+        this.candidateSectors = new int[game.candidateSectors.length];
+        this.candidateScores = new double[game.candidateScores.length];
+    }
+
+    /**
+     * @param battleResolver resolver for deciding the outcome of attacks in the copy
+     * @return a copy of this game that can be changed without affecting this one
+     */
+    public SimulatedGame copy(BattleResolver battleResolver) {
+        return new SimulatedGame(this, battleResolver);
+    }
+
+    /**
+     * overwrites the state of the target game with the state of this one without allocating
+     *
+     * @param target a copy of this game
+     * @throws IllegalArgumentException if the target is not a copy of the same game
+     */
+    public void copyInto(SimulatedGame target) {
+        board.copyInto(target.board);
+        System.arraycopy(troopsToAllocate, 0, target.troopsToAllocate, 0, troopsToAllocate.length);
+        System.arraycopy(collusionCards, 0, target.collusionCards, 0, collusionCards.length);
+        System.arraycopy(poopyPathCards, 0, target.poopyPathCards, 0, poopyPathCards.length);
+        System.arraycopy(asbestosCards, 0, target.asbestosCards, 0, asbestosCards.length);
+        System.arraycopy(ownedSectors, 0, target.ownedSectors, 0, ownedSectors.length);
+        System.arraycopy(turnOrder, 0, target.turnOrder, 0, turnOrderSize);
+        target.turnOrderSize = turnOrderSize;
+        target.currentPlayerPointer = currentPlayerPointer;
+        target.currentPhase = currentPhase;
+        target.turnNumber = turnNumber;
+    }
+
+    /**
+     * overwrites the state of this game with the current state of the engine's game, should be called on the thread
+     * the engine is used on
+     *
+     * @param engine engine running the game this was copied from
+     */
+    public void readFrom(GameEngine engine) {
+        board.readFrom(engine.getMap());
+        for (Player player : engine.getPlayers().values()) {
+            int id = player.getId();
+            troopsToAllocate[id] = player.getTroopsToAllocate();
+            collusionCards[id] = player.getCollusionCards();
+            poopyPathCards[id] = player.getPoopyPathCards();
+            asbestosCards[id] = player.getAsbestosCards();
+        }
+        findOwnedSectors();
+
+        List<Integer> engineTurnOrder = engine.getTurnOrder();
+        for (int i = 0; i < engineTurnOrder.size(); i++) turnOrder[i] = engineTurnOrder.get(i);
+        turnOrderSize = engineTurnOrder.size();
+        currentPlayerPointer = engine.getCurrentPlayerPointer();
+        currentPhase = engine.getCurrentPhase();
+        turnNumber = engine.getTurnNumber();
+    }
+
+    public int getCurrentPlayerId() {
+        return turnOrder[currentPlayerPointer];
+    }
+
+    public TurnPhaseType getCurrentPhase() {
+        return currentPhase;
+    }
+
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    public BoardState getBoard() {
+        return board;
+    }
+
+    /**
+     * @return true if at most one player is left in the game
+     */
+    public boolean isGameOver() {
+        return turnOrderSize <= 1;
+    }
+
+    /**
+     * @return id of the player who won the game, the neutral player if every player was eliminated, -1 if the game is not over
+     */
+    public int getWinnerId() {
+        if (!isGameOver()) return -1;
+        return turnOrderSize == 0 ? GameScreen.NEUTRAL_PLAYER_ID : turnOrder[0];
+    }
+
+    /**
+     * @return number of players still in the game
+     */
+    public int getPlayerCount() {
+        return turnOrderSize;
+    }
+
+    /**
+     * @return true if the player has not been eliminated
+     */
+    public boolean isInGame(int playerId) {
+        for (int i = 0; i < turnOrderSize; i++) {
+            if (turnOrder[i] == playerId) return true;
+        }
+        return false;
+    }
+
+    /**
+     * carries out an action as the current player, as the engine would
+     *
+     * @param action action listed by getActions for the current state of the game
+     */
+    public void apply(AiAction action) {
+        int playerId = getCurrentPlayerId();
+        switch (action.getType()) {
+            case REINFORCE:
+                addUnits(action.getSourceSectorId(), action.getAmount(), 0);
+                troopsToAllocate[playerId] -= action.getAmount();
+                break;
+            case ATTACK:
+                attack(action.getSourceSectorId(), action.getTargetSectorId(), action.getAmount());
+                break;
+            case MOVE:
+                moveUnits(action.getSourceSectorId(), action.getTargetSectorId(), action.getAmount());
+                break;
+            case PUNISHMENT_CARD:
+                applyPunishmentCard(action.getSourceSectorId(), action.getCardType());
+                break;
+            case END_PHASE:
+                endPhase();
+                break;
+        }
+    }
+
+    /**
+     * resolves an attack as GameEngine.attack does, then moves half of the undergrads left on the source onto the
+     * target if it was conquered
+     */
+    private void attack(int sourceId, int targetId, int attackers) {
+        int playerId = getCurrentPlayerId();
+        int underGrads = board.getUnderGrads(targetId);
+        int postGrads = board.getPostGrads(targetId);
+
+        BattleResolver.BattleResult result = battleResolver.resolve(attackers, underGrads, postGrads);
+        int attackersRemaining = result.getAttackersRemaining();
+        if (attackersRemaining != 0) troopsToAllocate[playerId] += board.getReinforcementsProvided(targetId);
+
+        addUnits(sourceId, -(attackers - attackersRemaining), 0);
+        addUnits(targetId, -(underGrads - result.getUnderGradsRemaining()), -(postGrads - result.getPostGradsRemaining()));
+
+        boolean targetEmpty = board.getUnderGrads(targetId) == 0 && board.getPostGrads(targetId) == 0;
+        if (board.getUnderGrads(sourceId) == 0) {
+            if (board.getPostGrads(sourceId) == 0) setOwner(sourceId, GameScreen.NEUTRAL_PLAYER_ID);
+            if (targetEmpty) setOwner(targetId, GameScreen.NEUTRAL_PLAYER_ID);
+        }
+        if (board.getUnderGrads(sourceId) == 1 && targetEmpty) {
+            setOwner(targetId, GameScreen.NEUTRAL_PLAYER_ID);
+        } else if (targetEmpty) {
+            setOwner(targetId, playerId);
+        }
+
+        if (board.getOwnerId(targetId) == playerId && board.getOwnerId(sourceId) == playerId && board.getUnderGrads(sourceId) > 1
+                && board.canChangeUnits(sourceId) && board.canChangeUnits(targetId)) {
+            moveUnits(sourceId, targetId, board.getUnderGrads(sourceId) / 2);
+        }
+    }
+
+    private void moveUnits(int sourceId, int targetId, int amount) {
+        addUnits(sourceId, -amount, 0);
+        addUnits(targetId, amount, 0);
+    }
+
+    private void applyPunishmentCard(int sectorId, PunishmentCardType cardType) {
+        int playerId = getCurrentPlayerId();
+        switch (cardType) {
+            case COLLUSION_CARD:
+                collusionCards[playerId]--;
+                int postGrads = board.getPostGrads(sectorId);
+                addUnits(sectorId, postGrads, -postGrads);
+                break;
+            case POOPY_PATH_CARD:
+                poopyPathCards[playerId]--;
+                board.incrementStatusEffect(sectorId, cardType);
+                break;
+            case ASBESTOS_CARD:
+                asbestosCards[playerId]--;
+                board.incrementStatusEffect(sectorId, cardType);
+                break;
+            default:
+                throw new IllegalArgumentException("Can only apply the Collusion/Asbestos/PoopyPath cards");
+        }
+    }
+
+    /**
+     * ends the current phase as GameEngine.endPhase does, removing any eliminated players
+     */
+    public void endPhase() {
+        switch (currentPhase) {
+            case REINFORCEMENT:
+                troopsToAllocate[getCurrentPlayerId()] = REINFORCEMENTS_PER_TURN;
+                currentPhase = TurnPhaseType.ATTACK;
+                break;
+            case ATTACK:
+                currentPhase = TurnPhaseType.MOVEMENT;
+                break;
+            case MOVEMENT:
+                currentPhase = TurnPhaseType.REINFORCEMENT;
+                nextPlayer();
+                break;
+        }
+        removeEliminatedPlayers();
+    }
+
+    private void nextPlayer() {
+        turnNumber++;
+        currentPlayerPointer++;
+        if (currentPlayerPointer >= turnOrderSize) currentPlayerPointer = 0;
+
+        int playerId = getCurrentPlayerId();
+        for (int id = 0; id < board.getSectorCount(); id++) {
+            if (board.getOwnerId(id) != playerId) continue;
+            if (board.getAsbestosCount(id) > 0) {
+                addUnits(id, -(int)Math.ceil(board.getUnderGrads(id) * 0.1), 0);
+            }
+            board.decrementStatusEffects(id);
+        }
+    }
+
+    /**
+     * removes eliminated players from the turn order, keeping the current player's turn as GameEngine does
+     */
+    private void removeEliminatedPlayers() {
+        int kept = 0;
+        int removedBeforeCurrent = 0;
+        boolean currentPlayerRemoved = false;
+        for (int i = 0; i < turnOrderSize; i++) {
+            int playerId = turnOrder[i];
+            if (getOwnedSectors(playerId) != 0) {
+                turnOrder[kept++] = playerId;
+            } else if (i < currentPlayerPointer) {
+                removedBeforeCurrent++;
+            } else if (i == currentPlayerPointer) {
+                currentPlayerRemoved = true;
+            }
+        }
+        if (kept == turnOrderSize) return;
+        turnOrderSize = kept;
+        currentPlayerPointer -= removedBeforeCurrent;
+        if (currentPlayerPointer >= turnOrderSize) currentPlayerPointer = 0;
+
+        if (currentPlayerRemoved && !isGameOver()) { // the turn passes to the player after the removed player
+            currentPhase = TurnPhaseType.REINFORCEMENT;
+            currentPlayerPointer--;
+            nextPlayer();
+            removeEliminatedPlayers();
+        }
+    }
+
+    /**
+     * adds units to a sector, keeping the sets of owned sectors up to date if it is left with no units
+     */
+    private void addUnits(int sectorId, int underGrads, int postGrads) {
+        int previousOwnerId = board.getOwnerId(sectorId);
+        board.addUnits(sectorId, underGrads, postGrads);
+        ownerChanged(sectorId, previousOwnerId);
+    }
+
+    private void setOwner(int sectorId, int ownerId) {
+        int previousOwnerId = board.getOwnerId(sectorId);
+        board.setOwnerId(sectorId, ownerId);
+        ownerChanged(sectorId, previousOwnerId);
+    }
+
+    /**
+     * moves a sector from the set of owned sectors of its previous owner to that of its current owner
+     */
+    private void ownerChanged(int sectorId, int previousOwnerId) {
+        int ownerId = board.getOwnerId(sectorId);
+        if (ownerId == previousOwnerId) return;
+        long sector = SectorGraph.bit(sectorId) & graph.getPlayableSectors();
+        if (previousOwnerId >= 0) ownedSectors[previousOwnerId] &= ~sector;
+        if (ownerId >= 0) ownedSectors[ownerId] |= sector;
+    }
+
+    /**
+     * recalculates the set of sectors owned by each player from the board
+     */
+    private void findOwnedSectors() {
+        Arrays.fill(ownedSectors, 0);
+        for (long remaining = graph.getPlayableSectors(); remaining != 0; remaining &= remaining - 1) {
+            int id = Long.numberOfTrailingZeros(remaining);
+            if (board.getOwnerId(id) >= 0) ownedSectors[board.getOwnerId(id)] |= SectorGraph.bit(id);
+        }
+    }
+
+    public SectorGraph getGraph() {
+        return graph;
+    }
+
+    public int getTroopsToAllocate(int playerId) {
+        return troopsToAllocate[playerId];
+    }
+
+    /**
+     * @return set of the non-decor sectors owned by the player, as a SectorGraph bitset
+     */
+    public long getOwnedSectors(int playerId) {
+        return ownedSectors[playerId];
+    }
+
+    /**
+     * @return set of the player's sectors that are adjacent to a non-decor sector the player does not own
+     */
+    public long getBorderSectors(int playerId) {
+        return borderSectors(ownedSectors[playerId]);
+    }
+
+    /**
+     * @return set of the non-decor sectors the player does not own that are adjacent to a sector they own
+     */
+    public long getFrontierSectors(int playerId) {
+        return frontierSectors(ownedSectors[playerId]);
+    }
+
+    /**
+     * @return the sectors in the set that are adjacent to a non-decor sector not in the set
+     */
+    private long borderSectors(long owned) {
+        long playable = graph.getPlayableSectors();
+        long border = 0;
+        for (long remaining = owned & playable; remaining != 0; remaining &= remaining - 1) {
+            int id = Long.numberOfTrailingZeros(remaining);
+            if ((graph.getAdjacentSectors(id) & playable & ~owned) != 0) border |= SectorGraph.bit(id);
+        }
+        return border;
+    }
+
+    /**
+     * @return the non-decor sectors not in the set that are adjacent to a sector in the set
+     */
+    private long frontierSectors(long owned) {
+        long frontier = 0;
+        for (long remaining = owned; remaining != 0; remaining &= remaining - 1) {
+            frontier |= graph.getAdjacentSectors(Long.numberOfTrailingZeros(remaining));
+        }
+        return frontier & graph.getPlayableSectors() & ~owned;
+    }
+
+    /**
+     * @return the most units on any non-decor sector adjacent to the given sector that is not in the set of owned sectors
+     */
+    private int strongestEnemyNeighbour(int sectorId, long owned) {
+        int strongest = 0;
+        for (long remaining = graph.getAdjacentSectors(sectorId) & graph.getPlayableSectors() & ~owned; remaining != 0; remaining &= remaining - 1) {
+            strongest = Math.max(strongest, units(Long.numberOfTrailingZeros(remaining)));
+        }
+        return strongest;
+    }
+
+    private int units(int sectorId) {
+        return board.getUnderGrads(sectorId) + board.getPostGrads(sectorId);
+    }
+
+    /**
+     * adds a pruned set of the current player's legal actions to the list
+     *
+     * @param actions list to add the actions to
+     */
+    public void getActions(List<AiAction> actions) {
+        if (isGameOver()) return;
+        int playerId = getCurrentPlayerId();
+        long owned = getOwnedSectors(playerId);
+
+        switch (currentPhase) {
+            case REINFORCEMENT:
+                if (addReinforcements(actions, playerId, owned) == 0) actions.add(AiAction.endPhase()); // all troops must be allocated if possible
+                break;
+            case ATTACK:
+                addPunishmentCards(actions, playerId, owned);
+                addAttacks(actions, owned, MIN_ATTACK_SUCCESS_CHANCE, MAX_ACTIONS_PER_KIND);
+                actions.add(AiAction.endPhase());
+                break;
+            case MOVEMENT:
+                addMoves(actions, owned);
+                actions.add(AiAction.endPhase());
+                break;
+        }
+    }
+
+    /**
+     * lists reinforcing each of the border sectors under the most threat with all of the player's troops
+     *
+     * @return number of actions added
+     */
+    private int addReinforcements(List<AiAction> actions, int playerId, long owned) {
+        int troops = troopsToAllocate[playerId];
+        if (troops <= 0) return 0;
+
+        int count = 0;
+        long candidates = borderSectors(owned);
+        if (candidates == 0) candidates = owned; // nowhere is threatened, e.g. only the neutral player is left to attack
+        for (long remaining = candidates; remaining != 0; remaining &= remaining - 1) {
+            int id = Long.numberOfTrailingZeros(remaining);
+            if (!board.canChangeUnits(id)) continue;
+            candidateSectors[count] = id;
+            candidateScores[count] = strongestEnemyNeighbour(id, owned) - units(id);
+            count++;
+        }
+
+        count = sortCandidates(count, MAX_ACTIONS_PER_KIND);
+        for (int i = 0; i < count; i++) {
+            actions.add(AiAction.reinforce(candidateSectors[i], troops));
+        }
+        return count;
+    }
+
+    /**
+     * lists the attacks with at least the given chance of success, most likely to succeed first
+     * the attacks are also left in the candidate arrays, stored as source * sectorCount + target
+     *
+     * @param actions list to add the actions to, null to only find the candidates
+     *
+     * @return number of actions added
+     */
+    private int addAttacks(List<AiAction> actions, long owned, double minChance, int maxAttacks) {
+        int sectorCount = board.getSectorCount();
+        int count = 0;
+        for (long sources = owned; sources != 0; sources &= sources - 1) {
+            int source = Long.numberOfTrailingZeros(sources);
+            if (!board.canAttack(source)) continue;
+            int attackers = board.getUnderGrads(source) - 1;
+
+            for (long targets = graph.getAdjacentSectors(source) & graph.getPlayableSectors() & ~owned; targets != 0; targets &= targets - 1) {
+                int target = Long.numberOfTrailingZeros(targets);
+                if (!board.canBeAttacked(target)) continue;
+
+                double chance = battleResolver.getAttackSuccessChance(attackers, board.getUnderGrads(target), board.getPostGrads(target));
+                if (chance < minChance) continue;
+                candidateSectors[count] = source * sectorCount + target;
+                candidateScores[count] = chance;
+                count++;
+            }
+        }
+
+        count = sortCandidates(count, maxAttacks);
+        for (int i = 0; actions != null && i < count; i++) {
+            int source = candidateSectors[i] / sectorCount;
+            actions.add(AiAction.attack(source, candidateSectors[i] % sectorCount, board.getUnderGrads(source) - 1));
+        }
+        return count;
+    }
+
+    /**
+     * lists moving all but one undergrad from each sector with no enemy neighbours one step towards the nearest
+     * frontier sector, sectors with the most units first
+     */
+    private void addMoves(List<AiAction> actions, long owned) {
+        long border = borderSectors(owned);
+        long frontier = frontierSectors(owned);
+        if (frontier == 0) return;
+
+        int sectorCount = board.getSectorCount();
+        int count = 0;
+        for (long sources = owned & ~border; sources != 0; sources &= sources - 1) {
+            int source = Long.numberOfTrailingZeros(sources);
+            if (board.getUnderGrads(source) <= 1 || !board.canChangeUnits(source)) continue;
+
+            int best = -1;
+            int bestDistance = distanceToFrontier(source, frontier);
+            for (long targets = graph.getAdjacentSectors(source) & owned; targets != 0; targets &= targets - 1) {
+                int target = Long.numberOfTrailingZeros(targets);
+                if (!board.canChangeUnits(target)) continue;
+                int distance = distanceToFrontier(target, frontier);
+                if (distance >= 0 && (bestDistance < 0 || distance < bestDistance)) {
+                    best = target;
+                    bestDistance = distance;
+                }
+            }
+            if (best == -1) continue;
+
+            candidateSectors[count] = source * sectorCount + best;
+            candidateScores[count] = board.getUnderGrads(source);
+            count++;
+        }
+
+        count = sortCandidates(count, MAX_ACTIONS_PER_KIND);
+        for (int i = 0; i < count; i++) {
+            int source = candidateSectors[i] / sectorCount;
+            actions.add(AiAction.move(source, candidateSectors[i] % sectorCount, board.getUnderGrads(source) - 1));
+        }
+    }
+
+    /**
+     * @return fewest moves from the sector to any sector in the frontier, -1 if none can be reached
+     */
+    private int distanceToFrontier(int sectorId, long frontier) {
+        int nearest = -1;
+        for (long remaining = frontier; remaining != 0; remaining &= remaining - 1) {
+            int distance = graph.getDistance(sectorId, Long.numberOfTrailingZeros(remaining));
+            if (distance >= 0 && (nearest < 0 || distance < nearest)) nearest = distance;
+        }
+        return nearest;
+    }
+
+    /**
+     * lists playing each type of card the player holds on the enemy sector it would affect most:
+     * collusion on the frontier sector with the most postgrads, asbestos on the frontier sector with the most undergrads
+     * and poopy path on the strongest frontier sector that is stronger than the sectors of the player next to it
+     */
+    private void addPunishmentCards(List<AiAction> actions, int playerId, long owned) {
+        if (collusionCards[playerId] <= 0 && asbestosCards[playerId] <= 0 && poopyPathCards[playerId] <= 0) return;
+
+        int mostPostGrads = -1;
+        int mostUnderGrads = -1;
+        int strongest = -1;
+        for (long remaining = frontierSectors(owned); remaining != 0; remaining &= remaining - 1) {
+            int id = Long.numberOfTrailingZeros(remaining);
+            if (board.getOwnerId(id) == GameScreen.NEUTRAL_PLAYER_ID) continue; // the neutral player never acts so is not worth punishing
+            if (board.getPostGrads(id) > 0 && (mostPostGrads < 0 || board.getPostGrads(id) > board.getPostGrads(mostPostGrads))) mostPostGrads = id;
+            if (board.getAsbestosCount(id) == 0 && (mostUnderGrads < 0 || board.getUnderGrads(id) > board.getUnderGrads(mostUnderGrads))) mostUnderGrads = id;
+            if (board.getPoopCount(id) == 0 && units(id) > strongestEnemyNeighbour(id, ~owned) && (strongest < 0 || units(id) > units(strongest))) strongest = id;
+        }
+
+        if (collusionCards[playerId] > 0 && mostPostGrads >= 0) actions.add(AiAction.punishmentCard(mostPostGrads, PunishmentCardType.COLLUSION_CARD));
+        if (asbestosCards[playerId] > 0 && mostUnderGrads >= 0) actions.add(AiAction.punishmentCard(mostUnderGrads, PunishmentCardType.ASBESTOS_CARD));
+        if (poopyPathCards[playerId] > 0 && strongest >= 0) actions.add(AiAction.punishmentCard(strongest, PunishmentCardType.POOPY_PATH_CARD));
+    }
+
+    /**
+     * partially sorts the first count candidates so the highest scoring are first
+     *
+     * @return number of candidates kept, at most max
+     */
+    private int sortCandidates(int count, int max) {
+        int kept = Math.min(count, max);
+        for (int i = 0; i < kept; i++) {
+            int best = i;
+            for (int j = i + 1; j < count; j++) {
+                if (candidateScores[j] > candidateScores[best]) best = j;
+            }
+            int sector = candidateSectors[i];
+            double score = candidateScores[i];
+            candidateSectors[i] = candidateSectors[best];
+            candidateScores[i] = candidateScores[best];
+            candidateSectors[best] = sector;
+            candidateScores[best] = score;
+        }
+        return kept;
+    }
+
+    /**
+     * plays the current phase with a fast fixed policy then ends it: all troops are allocated to the most threatened
+     * border sector and attacks likely to succeed are made until there are none left, units are not moved
+     */
+    public void playRolloutPhase() {
+        if (isGameOver()) return;
+        int playerId = getCurrentPlayerId();
+
+        if (currentPhase == TurnPhaseType.REINFORCEMENT) {
+            long owned = getOwnedSectors(playerId);
+            int best = -1;
+            int bestThreat = Integer.MIN_VALUE;
+            for (long remaining = borderSectors(owned); remaining != 0; remaining &= remaining - 1) {
+                int id = Long.numberOfTrailingZeros(remaining);
+                int threat = strongestEnemyNeighbour(id, owned) - units(id);
+                if (board.canChangeUnits(id) && threat > bestThreat) {
+                    best = id;
+                    bestThreat = threat;
+                }
+            }
+            if (best >= 0 && troopsToAllocate[playerId] > 0) {
+                addUnits(best, troopsToAllocate[playerId], 0);
+                troopsToAllocate[playerId] = 0;
+            }
+        } else if (currentPhase == TurnPhaseType.ATTACK) {
+            int sectorCount = board.getSectorCount();
+            for (int i = 0; i < ROLLOUT_MAX_ATTACKS; i++) {
+                long owned = getOwnedSectors(playerId);
+                if (addAttacks(null, owned, ROLLOUT_ATTACK_SUCCESS_CHANCE, 1) == 0) break;
+                int source = candidateSectors[0] / sectorCount;
+                attack(source, candidateSectors[0] % sectorCount, board.getUnderGrads(source) - 1);
+            }
+        }
+        endPhase();
+    }
+
+    /**
+     * scores how well a player is doing, between 0 and 1
+     * a player who has won scores 1 and one who has been eliminated 0, otherwise the score is the player's share of the
+     * total strength of the players in the game, where strength counts sectors owned and units on them
+     *
+     * @param playerId player to score
+     * @return the player's score
+     */
+    public double evaluate(int playerId) {
+        if (!isInGame(playerId)) return 0;
+        if (isGameOver()) return 1;
+
+        float own = 0;
+        float total = 0;
+        for (long remaining = graph.getPlayableSectors(); remaining != 0; remaining &= remaining - 1) {
+            int id = Long.numberOfTrailingZeros(remaining);
+            int ownerId = board.getOwnerId(id);
+            if (ownerId < 0 || ownerId == GameScreen.NEUTRAL_PLAYER_ID) continue;
+            float strength = 1 + units(id) * UNIT_WEIGHT;
+            total += strength;
+            if (ownerId == playerId) own += strength;
+        }
+        return total == 0 ? 0 : own / total;
+    }
+}
@@ -0,0 +1,22 @@
+package sepr.game.engine;
+
+/*
+Added in assessment 4
+ - added so games between cheap computer controlled players can be simulated without the overhead of the GameEngine and Map
+ */
+
+/**
+ * a PlayerStrategy that can also play the phases of a SimulatedGame, letting a Tournament play its games entirely as
+ * simulated games once they have been set up
+ * both versions of playPhase should make the same decisions given the same state of the game
+ */
+public interface SimulatedPlayerStrategy extends PlayerStrategy {
+
+    /**
+     * carries out the current player's moves for the current phase of a simulated game
+     * the phase is ended by the caller once this returns
+     *
+     * @param game game whose current player is the player to make moves for
+     */
+    void playPhase(SimulatedGame game);
+}
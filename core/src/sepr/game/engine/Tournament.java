@@ -0,0 +1,314 @@
+package sepr.game.engine;
+
+import sepr.game.GameScreen;
+import sepr.game.Map;
+import sepr.game.Player;
+import sepr.game.utils.CollegeName;
+import sepr.game.utils.TurnPhaseType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+Added in assessment 4
+ - added so that changes to the game balance can be checked by simulating many games rather than playing them by hand
+ - games between SimulatedPlayerStrategies are played as SimulatedGames once set up, which is many times faster
+ - each game's random numbers come from a GameRandom seeded from the tournament seed, so any game can be replayed from its seed
+ */
+
+/**
+ * plays many complete games between computer controlled players in parallel and collects statistics on the results
+ *
+ * each game is set up the same way as a game started from the menu, with the sectors allocated by the Map and the
+ * turn order decided by the GameEngine, but with the colleges shuffled between the players; every game uses its own
+ * GameRandom, seeded from the tournament seed, so the results do not depend on how the games are split
+ * between threads and a tournament can be repeated exactly
+ * if every strategy is a SimulatedPlayerStrategy the games are played as SimulatedGames rather than through the engine,
+ * following the same rules without updating the Map's sectors or notifying listeners
+ */
+public class Tournament {
+    private static final int GAMES_PER_TASK = 8; // games a fork-join task plays itself rather than splitting further
+    private static final CollegeName[] PLAYABLE_COLLEGES = { // colleges a player may choose, i.e. all but the neutral player's
+            CollegeName.ALCUIN, CollegeName.DERWENT, CollegeName.HALIFAX, CollegeName.HES_EAST,
+            CollegeName.JAMES, CollegeName.VANBRUGH, CollegeName.WENTWORTH
+    };
+
+    private final PlayerStrategy[] strategies; // strategy played by the player in each starting position
+    private final SimulatedPlayerStrategy[] simulatedStrategies; // the same strategies if they can all play simulated games, else null
+    private final int maxTurns; // turns after which a game is stopped and counted as unfinished
+
+    /**
+     * @param strategies strategy for the player in each starting position, the number of strategies is the number of
+     *                   players in each game; strategies are shared between threads so must not store any game state
+     * @param maxTurns number of turns, summed over all players, after which an unfinished game is stopped
+     * @throws IllegalArgumentException if there are not between 2 and 4 strategies or maxTurns is not positive
+     */
+    public Tournament(PlayerStrategy[] strategies, int maxTurns) {
+        if (strategies.length < 2 || strategies.length > GameScreen.NEUTRAL_PLAYER_ID) {
+            throw new IllegalArgumentException("A game must have between 2 and " + GameScreen.NEUTRAL_PLAYER_ID + " players");
+        }
+        if (maxTurns <= 0) {
+            throw new IllegalArgumentException("Max turns must be positive");
+        }
+        this.strategies = strategies;
+        this.maxTurns = maxTurns;
+        this.simulatedStrategies = asSimulatedStrategies(strategies);
+    }
+
+    /**
+     * @return the strategies as SimulatedPlayerStrategies, null if any of them is not one
+     */
+    private static SimulatedPlayerStrategy[] asSimulatedStrategies(PlayerStrategy[] strategies) {
+        SimulatedPlayerStrategy[] simulated = new SimulatedPlayerStrategy[strategies.length];
+        for (int i = 0; i < strategies.length; i++) {
+            if (!(strategies[i] instanceof SimulatedPlayerStrategy)) return null;
+            simulated[i] = (SimulatedPlayerStrategy)strategies[i];
+        }
+        return simulated;
+    }
+
+    /**
+     * plays the given number of games spread across the threads of the pool
+     *
+     * @param games number of games to play
+     * @param seed seed the random number generator of every game is derived from
+     * @param pool pool to play the games on
+     * @return the combined results of every game
+     */
+    public Results run(int games, long seed, ForkJoinPool pool) {
+        long[] gameSeeds = new long[games];
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int i = 0; i < games; i++) {
+            gameSeeds[i] = seeds.nextLong();
+        }
+
+        long startTime = System.nanoTime();
+        Results results = pool.invoke(new GameBatch(gameSeeds, 0, games));
+        results.elapsedNanos = System.nanoTime() - startTime;
+        return results;
+    }
+
+    /**
+     * plays a single game to completion or until the turn limit is reached
+     *
+     * @param seed seed for the game's GameRandom
+     * @param results results to add the outcome of the game to
+     */
+    private void playGame(long seed, Results results) {
+        GameRandom random = new GameRandom(seed);
+
+        List<CollegeName> colleges = new ArrayList<CollegeName>(Arrays.asList(PLAYABLE_COLLEGES));
+        Collections.shuffle(colleges, random.getStream(GameRandom.Stream.PLAYERS));
+
+        HashMap<Integer, Player> players = new HashMap<Integer, Player>();
+        for (int i = 0; i < strategies.length; i++) {
+            players.put(i, Player.createHumanPlayer(i, colleges.get(i), 5, "Player " + (i + 1)));
+        }
+        players.put(GameScreen.NEUTRAL_PLAYER_ID, Player.createNeutralPlayer(GameScreen.NEUTRAL_PLAYER_ID));
+
+        Map map = new Map(players, true, random.getStream(GameRandom.Stream.SETUP));
+        GameEngine engine = new GameEngine(map, players, random);
+        List<Integer> startingOrder = new ArrayList<Integer>(engine.getTurnOrder());
+        GameRecorder recorder = new GameRecorder();
+        if (simulatedStrategies != null) {
+            playSimulatedGame(new SimulatedGame(engine, engine.getBattleResolver()), startingOrder, recorder);
+        } else {
+            engine.addListener(recorder);
+            while (recorder.winnerId == -1 && recorder.turns < maxTurns) {
+                int position = startingOrder.indexOf(engine.getCurrentPlayer().getId());
+                strategies[position].playPhase(engine);
+                engine.endPhase();
+            }
+        }
+
+        results.games++;
+        if (recorder.winnerId == -1) {
+            results.unfinishedGames++;
+            return;
+        }
+
+        results.gameLengths[recorder.turns]++;
+        if (recorder.winnerId == GameScreen.NEUTRAL_PLAYER_ID) {
+            results.neutralWins++;
+        } else {
+            results.winsByPosition[startingOrder.indexOf(recorder.winnerId)]++;
+            results.winsByCollege[players.get(recorder.winnerId).getCollegeName().ordinal()]++;
+        }
+        for (int i = 0; i < strategies.length; i++) {
+            results.gamesByCollege[players.get(i).getCollegeName().ordinal()]++;
+        }
+    }
+
+    /**
+     * plays a game set up by playGame as a simulated game, recording its turns and winner as the engine's listener would
+     */
+    private void playSimulatedGame(SimulatedGame game, List<Integer> startingOrder, GameRecorder recorder) {
+        int firstTurn = game.getTurnNumber();
+        while (!game.isGameOver() && game.getTurnNumber() - firstTurn < maxTurns) {
+            int position = startingOrder.indexOf(game.getCurrentPlayerId());
+            simulatedStrategies[position].playPhase(game);
+            game.endPhase();
+        }
+        recorder.turns = game.getTurnNumber() - firstTurn;
+        recorder.winnerId = game.getWinnerId();
+    }
+
+    /**
+     * counts the turns of a game and records its winner
+     */
+    private static class GameRecorder extends GameEventAdapter {
+        int turns = 0; // turns completed so far
+        int winnerId = -1; // id of the winning player, -1 until the game is over
+
+        @Override
+        public void phaseChanged(TurnPhaseType previousPhase, TurnPhaseType newPhase, boolean newTurn) {
+            if (newTurn) turns++;
+        }
+
+        @Override
+        public void gameOver(int winnerId) {
+            this.winnerId = winnerId;
+        }
+    }
+
+    /**
+     * fork-join task playing a range of the tournament's games, splitting the range in half until it is small enough
+     */
+    private class GameBatch extends RecursiveTask<Results> {
+        private static final long serialVersionUID = 1L; // tasks are never serialized, declared as RecursiveTask is Serializable
+        private final long[] gameSeeds;
+        private final int from; // index of first game to play
+        private final int to; // index after the last game to play
+
+        GameBatch(long[] gameSeeds, int from, int to) {
+            this.gameSeeds = gameSeeds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Results compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                Results results = new Results(strategies.length, maxTurns);
+                for (int i = from; i < to; i++) {
+                    playGame(gameSeeds[i], results);
+                }
+                return results;
+            }
+
+            int middle = (from + to) / 2;
+            GameBatch left = new GameBatch(gameSeeds, from, middle);
+            left.fork();
+            Results results = new GameBatch(gameSeeds, middle, to).compute();
+            results.add(left.join());
+            return results;
+        }
+    }
+
+    /**
+     * statistics collected from the games of a tournament
+     */
+    public static class Results {
+        private int games; // number of games played
+        private int unfinishedGames; // games stopped at the turn limit
+        private int neutralWins; // games where every player was eliminated
+        private final int[] winsByPosition; // wins by the player in each starting position
+        private final int[] winsByCollege; // wins by each college, indexed by CollegeName ordinal
+        private final int[] gamesByCollege; // games each college took part in, indexed by CollegeName ordinal
+        private final int[] gameLengths; // number of finished games that took each number of turns
+        private long elapsedNanos; // time taken to play every game
+
+        Results(int players, int maxTurns) {
+            this.winsByPosition = new int[players];
+            this.winsByCollege = new int[CollegeName.values().length];
+            this.gamesByCollege = new int[CollegeName.values().length];
+            this.gameLengths = new int[maxTurns + 1];
+        }
+
+        /**
+         * adds the statistics of another set of results to these
+         */
+        void add(Results other) {
+            games += other.games;
+            unfinishedGames += other.unfinishedGames;
+            neutralWins += other.neutralWins;
+            for (int i = 0; i < winsByPosition.length; i++) winsByPosition[i] += other.winsByPosition[i];
+            for (int i = 0; i < winsByCollege.length; i++) winsByCollege[i] += other.winsByCollege[i];
+            for (int i = 0; i < gamesByCollege.length; i++) gamesByCollege[i] += other.gamesByCollege[i];
+            for (int i = 0; i < gameLengths.length; i++) gameLengths[i] += other.gameLengths[i];
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public int getUnfinishedGames() {
+            return unfinishedGames;
+        }
+
+        public int getNeutralWins() {
+            return neutralWins;
+        }
+
+        /**
+         * @param position index of the starting position in the turn order
+         * @return number of games won by the player starting in that position
+         */
+        public int getWinsByPosition(int position) {
+            return winsByPosition[position];
+        }
+
+        /**
+         * @return number of games won by the college
+         */
+        public int getWins(CollegeName college) {
+            return winsByCollege[college.ordinal()];
+        }
+
+        /**
+         * @return number of finished games the college played in
+         */
+        public int getGamesPlayed(CollegeName college) {
+            return gamesByCollege[college.ordinal()];
+        }
+
+        /**
+         * gets the number of turns within which the given fraction of finished games were won
+         *
+         * @param fraction fraction of finished games, between 0.0 and 1.0
+         * @return the game length at that percentile, 0 if no games finished
+         */
+        public int getGameLengthPercentile(double fraction) {
+            int finished = games - unfinishedGames;
+            if (finished == 0) return 0;
+
+            long needed = (long)Math.ceil(fraction * finished);
+            long seen = 0;
+            for (int turns = 0; turns < gameLengths.length; turns++) {
+                seen += gameLengths[turns];
+                if (seen >= Math.max(1, needed)) return turns;
+            }
+            return gameLengths.length - 1;
+        }
+
+        /**
+         * @return seconds taken to play the games
+         */
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        /**
+         * @return number of games played per second
+         */
+        public double getGamesPerSecond() {
+            return games / getElapsedSeconds();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package sepr.game.saveandload;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/*
+Added in assessment 4
+ - added so saving the game does not pause rendering while the save is encoded and written to disk
+ */
+
+/**
+ * writes game saves on a background thread
+ *
+ * the game thread takes a snapshot of the game as a GameState, which is cheap, and passes it to save; the snapshot is
+ * then encoded and written to its save slot on the service's thread
+ * only the most recent snapshot waiting to be written to each slot is kept, so if a slot is saved to again before an
+ * earlier save has been written the earlier one is skipped, meaning at most one snapshot per slot is ever waiting
+ * however fast phases end
+ */
+public class AutosaveService {
+    private final SaveSlots saveSlots; // slots saves are written to
+    private final ExecutorService executor; // single thread writing the saves
+    private final ConcurrentHashMap<Integer, GameState> pendingStates; // latest snapshot waiting to be written to each slot
+
+    /**
+     * @param saveSlots slots to write saves to
+     */
+    public AutosaveService(SaveSlots saveSlots) {
+        this.saveSlots = saveSlots;
+        this.pendingStates = new ConcurrentHashMap<Integer, GameState>();
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Autosave");
+                thread.setDaemon(true); // do not keep the game running once it has been closed
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * queues a snapshot of the game to be written to a slot, replacing any snapshot still waiting to be written to it
+     * the snapshot must not be changed after being passed to this method
+     *
+     * @param slot slot to save to
+     * @param state snapshot of the game to save
+     */
+    public void save(final int slot, GameState state) {
+        if (pendingStates.put(slot, state) == null) { // only schedule a write if one is not already waiting to run
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    writePendingState(slot);
+                }
+            });
+        }
+    }
+
+    /**
+     * writes the latest snapshot for a slot, if it has not already been written by an earlier write
+     */
+    private void writePendingState(int slot) {
+        GameState state = pendingStates.remove(slot);
+        if (state == null) return;
+
+        try {
+            saveSlots.write(slot, state);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * blocks until every snapshot passed to save has been written, e.g. before loading a save
+     */
+    public void flush() {
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (Integer slot : pendingStates.keySet()) {
+                        writePendingState(slot);
+                    }
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * writes any waiting snapshots then stops the service's thread
+     */
+    public void shutdown() {
+        flush();
+        executor.shutdown();
+    }
+}
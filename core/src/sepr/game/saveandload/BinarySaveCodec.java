@@ -0,0 +1,442 @@
+package sepr.game.saveandload;
+
+import sepr.game.utils.CollegeName;
+import sepr.game.utils.PlayerType;
+import sepr.game.utils.TurnPhaseType;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+Added in assessment 4
+ - added as a compact and fast replacement for saving games as JSON, the JSONifier is kept for importing and exporting saves as JSON
+ - writing a save deletes its temporary file if the write fails, and syncs the saves directory after the rename
+ */
+
+/**
+ * Class to convert the game state to and from a compact binary representation
+ *
+ * file layout:
+ *  - magic number and format version
+ *  - string table: every distinct string in the save, i.e. names, colleges and texture paths, stored once
+ *  - game, sector and player data, where integers are stored as varints and strings as indexes into the string table
+ *  - CRC32 of everything before it, so damaged saves are detected rather than loaded
+ *
+ * enums are stored by name so reordering their values does not break existing saves
+ */
+public class BinarySaveCodec {
+    private static final int MAGIC = 0x424f4453; // "BODS", identifies a Bachelors of Domination save
+    // versions: 1 - first binary format, 2 - added turn number
+    private static final int VERSION = 2; // incremented whenever the layout changes, older versions must still be read
+
+    private static final int NEUTRAL_FLAG = 1; // bits of the sector flags byte
+    private static final int DECOR_FLAG = 2;
+    private static final int ALLOCATED_FLAG = 4;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private ByteBuffer buffer; // buffer being written to or read from
+    private List<String> strings; // string table of the save being written or read
+    private HashMap<String, Integer> stringIndexes; // index of each string in the table, only used when writing
+
+    /**
+     * writes the game state to the file, replacing any existing contents
+     * the save is written to a temporary file which is synced to disk then renamed over the file, so if the game
+     * crashes part way through saving the previous save is left intact rather than a partly written one
+     *
+     * @param state state to save
+     * @param file file to write to
+     * @throws IOException if the file could not be written
+     */
+    public static void write(GameState state, File file) throws IOException {
+        writeAtomically(new BinarySaveCodec().encode(state), file);
+    }
+
+    /**
+     * reads a game state from a file written by write
+     *
+     * @param file file to read
+     * @return the saved game state
+     * @throws IOException if the file could not be read or is not a valid save
+     */
+    public static GameState read(File file) throws IOException {
+        return new BinarySaveCodec().decode(readFully(file));
+    }
+
+    /**
+     * writes the data to a temporary file, syncs it to disk then renames it over the file
+     * the temporary file is deleted if any step fails, and the directory is synced after the rename so the rename
+     * itself survives a power cut
+     *
+     * @param data data to write, from its position to its limit
+     * @param file file to replace
+     * @throws IOException if the file could not be written
+     */
+    static void writeAtomically(ByteBuffer data, File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+
+        boolean moved = false;
+        try {
+            FileChannel channel = new FileOutputStream(tempFile).getChannel();
+            try {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+        } finally {
+            if (!moved) tempFile.delete();
+        }
+
+        syncDirectory(file.getAbsoluteFile().getParentFile());
+    }
+
+    /**
+     * syncs a directory to disk, so renames of files within it are not lost if the system crashes
+     * directories can not be opened on Windows, where NTFS journals renames instead, so failing to open it is ignored
+     *
+     * @param directory directory to sync
+     */
+    private static void syncDirectory(File directory) {
+        if (directory == null) return;
+
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            return; // the platform does not allow directories to be opened
+        }
+        try {
+            try {
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // the save has still been written, it is just not yet certain to survive a crash
+        }
+    }
+
+    /**
+     * @param file file to read
+     * @return buffer containing the whole file
+     * @throws IOException if the file could not be read
+     */
+    static ByteBuffer readFully(File file) throws IOException {
+        FileChannel channel = new FileInputStream(file).getChannel();
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Save file is too large");
+
+            ByteBuffer data = ByteBuffer.allocate((int)size);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) throw new IOException("Unexpected end of save file");
+            }
+            data.flip();
+            return data;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * converts a game state to its binary representation
+     *
+     * @param state state to convert
+     * @return buffer containing the save, positioned at its start
+     */
+    public ByteBuffer encode(GameState state) {
+        buffer = ByteBuffer.allocate(4096);
+        strings = new ArrayList<String>();
+        stringIndexes = new HashMap<String, Integer>();
+
+        // the string table is written before the data using it, so collect every string first
+        addString(state.currentPhase.name());
+        for (GameState.SectorState sector : state.mapState.sectorStates) {
+            addString(sector.displayName);
+            addString(sector.college);
+            addString(sector.texturePath);
+        }
+        for (GameState.PlayerState player : state.playerStates) {
+            addString(player.collegeName.name());
+            addString(player.playerName);
+            addString(player.playerType.name());
+        }
+
+        ensureCapacity(8);
+        buffer.putInt(MAGIC);
+        writeVarInt(VERSION);
+
+        writeVarInt(strings.size());
+        for (String string : strings) {
+            writeString(string);
+        }
+
+        writeStringRef(state.currentPhase.name());
+        writeBoolean(state.turnTimerEnabled);
+        writeVarInt(state.turnTimeElapsed);
+        writeVarInt(state.currentPlayerPointer);
+        writeVarInt(state.turnNumber);
+        writeVarInt(state.turnOrder.size());
+        for (int playerId : state.turnOrder) {
+            writeVarInt(playerId);
+        }
+
+        writeVarInt(state.mapState.sectorStates.length);
+        for (GameState.SectorState sector : state.mapState.sectorStates) {
+            writeVarInt(sector.hashMapPosition);
+            writeVarInt(sector.id);
+            writeVarInt(sector.ownerId);
+            writeStringRef(sector.displayName);
+            writeVarInt(sector.undergradsInSector);
+            writeVarInt(sector.postgradsInSector);
+            writeVarInt(sector.reinforcementsProvided);
+            writeStringRef(sector.college);
+            writeStringRef(sector.texturePath);
+            writeVarInt(sector.adjacentSectorIds.length);
+            for (int adjacentId : sector.adjacentSectorIds) {
+                writeVarInt(adjacentId);
+            }
+            writeVarInt(sector.sectorCentreX);
+            writeVarInt(sector.sectorCentreY);
+            writeByte((sector.neutral ? NEUTRAL_FLAG : 0) | (sector.decor ? DECOR_FLAG : 0) | (sector.allocated ? ALLOCATED_FLAG : 0));
+            writeVarInt(sector.asbestosCount);
+            writeVarInt(sector.poopCount);
+        }
+
+        writeVarInt(state.playerStates.length);
+        for (GameState.PlayerState player : state.playerStates) {
+            writeVarInt(player.hashMapPosition);
+            writeVarInt(player.id);
+            writeStringRef(player.collegeName.name());
+            writeStringRef(player.playerName);
+            writeVarInt(player.troopsToAllocate);
+            writeStringRef(player.playerType.name());
+            writeVarInt(player.collusionCards);
+            writeVarInt(player.poopyPathCards);
+            writeVarInt(player.asbestosCards);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        ensureCapacity(4);
+        buffer.putInt((int)crc.getValue());
+
+        buffer.flip();
+        ByteBuffer result = buffer;
+        buffer = null;
+        strings = null;
+        stringIndexes = null;
+        return result;
+    }
+
+    /**
+     * converts the binary representation of a save back to a game state
+     *
+     * @param data buffer containing a save produced by encode, from its position to its limit
+     * @return the saved game state
+     * @throws IOException if the data is not a valid save, is from a newer version of the game or is damaged
+     */
+    public GameState decode(ByteBuffer data) throws IOException {
+        buffer = data.slice();
+        try {
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a Bachelors of Domination save file");
+            }
+
+            // check the CRC before reading anything else so damaged data is never interpreted
+            int crcPosition = buffer.limit() - 4;
+            byte[] checked = new byte[crcPosition];
+            ByteBuffer whole = buffer.duplicate();
+            whole.position(0);
+            whole.get(checked);
+            CRC32 crc = new CRC32();
+            crc.update(checked);
+            if ((int)crc.getValue() != buffer.getInt(crcPosition)) {
+                throw new IOException("Save file is damaged");
+            }
+            buffer.limit(crcPosition);
+
+            int version = readVarInt();
+            if (version > VERSION) {
+                throw new IOException("Save file is from a newer version of the game");
+            }
+
+            int stringCount = readVarInt();
+            strings = new ArrayList<String>(stringCount);
+            for (int i = 0; i < stringCount; i++) {
+                strings.add(readString());
+            }
+
+            GameState state = new GameState();
+            state.currentPhase = TurnPhaseType.valueOf(readStringRef());
+            state.turnTimerEnabled = readBoolean();
+            state.turnTimeElapsed = readVarInt();
+            state.currentPlayerPointer = readVarInt();
+            if (version >= 2) state.turnNumber = readVarInt();
+            int turnOrderSize = readVarInt();
+            state.turnOrder = new ArrayList<Integer>(turnOrderSize);
+            for (int i = 0; i < turnOrderSize; i++) {
+                state.turnOrder.add(readVarInt());
+            }
+
+            state.mapState = state.new MapState();
+            state.mapState.sectorStates = new GameState.SectorState[readVarInt()];
+            for (int i = 0; i < state.mapState.sectorStates.length; i++) {
+                GameState.SectorState sector = state.new SectorState();
+                sector.hashMapPosition = readVarInt();
+                sector.id = readVarInt();
+                sector.ownerId = readVarInt();
+                sector.displayName = readStringRef();
+                sector.undergradsInSector = readVarInt();
+                sector.postgradsInSector = readVarInt();
+                sector.reinforcementsProvided = readVarInt();
+                sector.college = readStringRef();
+                sector.texturePath = readStringRef();
+                sector.adjacentSectorIds = new int[readVarInt()];
+                for (int j = 0; j < sector.adjacentSectorIds.length; j++) {
+                    sector.adjacentSectorIds[j] = readVarInt();
+                }
+                sector.sectorCentreX = readVarInt();
+                sector.sectorCentreY = readVarInt();
+                int flags = buffer.get();
+                sector.neutral = (flags & NEUTRAL_FLAG) != 0;
+                sector.decor = (flags & DECOR_FLAG) != 0;
+                sector.allocated = (flags & ALLOCATED_FLAG) != 0;
+                sector.asbestosCount = readVarInt();
+                sector.poopCount = readVarInt();
+                state.mapState.sectorStates[i] = sector;
+            }
+
+            state.playerStates = new GameState.PlayerState[readVarInt()];
+            for (int i = 0; i < state.playerStates.length; i++) {
+                GameState.PlayerState player = state.new PlayerState();
+                player.hashMapPosition = readVarInt();
+                player.id = readVarInt();
+                player.collegeName = CollegeName.valueOf(readStringRef());
+                player.playerName = readStringRef();
+                player.troopsToAllocate = readVarInt();
+                player.playerType = PlayerType.valueOf(readStringRef());
+                player.collusionCards = readVarInt();
+                player.poopyPathCards = readVarInt();
+                player.asbestosCards = readVarInt();
+                state.playerStates[i] = player;
+            }
+
+            return state;
+        } catch (RuntimeException e) { // reading past the end of the data, a bad string index or an unknown enum name
+            throw new IOException("Save file is invalid", e);
+        } finally {
+            buffer = null;
+            strings = null;
+        }
+    }
+
+    /**
+     * adds a string to the string table if it is not already in it
+     */
+    private void addString(String string) {
+        if (!stringIndexes.containsKey(string)) {
+            stringIndexes.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    /**
+     * grows the buffer if there is not enough space to write the given number of bytes
+     */
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        buffer.put((byte)value);
+    }
+
+    private void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * writes a zigzag encoded varint: 7 bits per byte, high bit set on every byte but the last
+     * zigzag encoding keeps small negative numbers, such as an owner id of -1, to a single byte
+     */
+    private void writeVarInt(int value) {
+        ensureCapacity(5);
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7f) != 0) {
+            buffer.put((byte)((zigzag & 0x7f) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.put((byte)zigzag);
+    }
+
+    /**
+     * writes a string as its UTF-8 length followed by its UTF-8 bytes
+     */
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        writeVarInt(bytes.length);
+        ensureCapacity(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void writeStringRef(String value) {
+        writeVarInt(stringIndexes.get(value));
+    }
+
+    private boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    private int readVarInt() throws IOException {
+        int zigzag = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            zigzag |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Invalid varint in save file");
+    }
+
+    private String readString() throws IOException {
+        int length = readVarInt();
+        if (length < 0 || length > buffer.remaining()) throw new IOException("Invalid string length in save file");
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private String readStringRef() throws IOException {
+        return strings.get(readVarInt());
+    }
+}
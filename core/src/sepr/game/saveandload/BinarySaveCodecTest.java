@@ -0,0 +1,245 @@
+package sepr.game.saveandload;
+
+import org.junit.Before;
+import org.junit.Test;
+import sepr.game.utils.CollegeName;
+import sepr.game.utils.PlayerType;
+import sepr.game.utils.TurnPhaseType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BinarySaveCodecTest {
+    private GameState gameState;
+
+    @Before
+    public void setUp() {
+        gameState = new GameState();
+        gameState.mapState = gameState.new MapState();
+        gameState.mapState.sectorStates = new GameState.SectorState[4];
+
+        for (int i = 0; i < 4; i++) {
+            GameState.SectorState sectorState = gameState.new SectorState();
+            sectorState.hashMapPosition = i;
+            sectorState.id = i;
+            sectorState.ownerId = i - 1; // includes the unowned id -1
+            sectorState.displayName = "Sector " + i;
+            sectorState.undergradsInSector = i * 100;
+            sectorState.postgradsInSector = i;
+            sectorState.reinforcementsProvided = 10;
+            sectorState.college = i % 2 == 0 ? "Derwent" : "Vanbrugh";
+            sectorState.texturePath = "mapData/sector" + i + ".png";
+            sectorState.neutral = i == 1;
+            sectorState.adjacentSectorIds = new int[] {(i + 1) % 4, (i + 3) % 4};
+            sectorState.sectorCentreX = 1500 + i;
+            sectorState.sectorCentreY = 600 - i;
+            sectorState.decor = i == 0;
+            sectorState.allocated = i != 0;
+            sectorState.asbestosCount = i;
+            sectorState.poopCount = 3 - i;
+            gameState.mapState.sectorStates[i] = sectorState;
+        }
+
+        gameState.playerStates = new GameState.PlayerState[2];
+        for (int i = 0; i < 2; i++) {
+            GameState.PlayerState playerState = gameState.new PlayerState();
+            playerState.hashMapPosition = i;
+            playerState.id = i;
+            playerState.collegeName = i == 0 ? CollegeName.ALCUIN : CollegeName.HES_EAST;
+            playerState.playerName = "Pl\u00e0yer " + i; // non-ASCII names must survive the round trip
+            playerState.troopsToAllocate = 5;
+            playerState.playerType = i == 0 ? PlayerType.HUMAN : PlayerType.NEUTRAL_AI;
+            playerState.collusionCards = 1;
+            playerState.poopyPathCards = 2;
+            playerState.asbestosCards = 3;
+            gameState.playerStates[i] = playerState;
+        }
+
+        gameState.currentPhase = TurnPhaseType.ATTACK;
+        gameState.turnTimerEnabled = true;
+        gameState.turnTimeElapsed = 42;
+        gameState.turnOrder = new ArrayList<Integer>();
+        gameState.turnOrder.add(1);
+        gameState.turnOrder.add(0);
+        gameState.currentPlayerPointer = 1;
+        gameState.turnNumber = 7;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        GameState loaded = new BinarySaveCodec().decode(new BinarySaveCodec().encode(gameState));
+
+        assertEquals(TurnPhaseType.ATTACK, loaded.currentPhase);
+        assertTrue(loaded.turnTimerEnabled);
+        assertEquals(42, loaded.turnTimeElapsed);
+        assertEquals(gameState.turnOrder, loaded.turnOrder);
+        assertEquals(1, loaded.currentPlayerPointer);
+        assertEquals(7, loaded.turnNumber);
+
+        assertEquals(4, loaded.mapState.sectorStates.length);
+        for (int i = 0; i < 4; i++) {
+            GameState.SectorState expected = gameState.mapState.sectorStates[i];
+            GameState.SectorState actual = loaded.mapState.sectorStates[i];
+            assertEquals(expected.hashMapPosition, actual.hashMapPosition);
+            assertEquals(expected.id, actual.id);
+            assertEquals(expected.ownerId, actual.ownerId);
+            assertEquals(expected.displayName, actual.displayName);
+            assertEquals(expected.undergradsInSector, actual.undergradsInSector);
+            assertEquals(expected.postgradsInSector, actual.postgradsInSector);
+            assertEquals(expected.reinforcementsProvided, actual.reinforcementsProvided);
+            assertEquals(expected.college, actual.college);
+            assertEquals(expected.texturePath, actual.texturePath);
+            assertEquals(expected.neutral, actual.neutral);
+            assertArrayEquals(expected.adjacentSectorIds, actual.adjacentSectorIds);
+            assertEquals(expected.sectorCentreX, actual.sectorCentreX);
+            assertEquals(expected.sectorCentreY, actual.sectorCentreY);
+            assertEquals(expected.decor, actual.decor);
+            assertEquals(expected.allocated, actual.allocated);
+            assertEquals(expected.asbestosCount, actual.asbestosCount);
+            assertEquals(expected.poopCount, actual.poopCount);
+        }
+
+        assertEquals(2, loaded.playerStates.length);
+        for (int i = 0; i < 2; i++) {
+            GameState.PlayerState expected = gameState.playerStates[i];
+            GameState.PlayerState actual = loaded.playerStates[i];
+            assertEquals(expected.hashMapPosition, actual.hashMapPosition);
+            assertEquals(expected.id, actual.id);
+            assertEquals(expected.collegeName, actual.collegeName);
+            assertEquals(expected.playerName, actual.playerName);
+            assertEquals(expected.troopsToAllocate, actual.troopsToAllocate);
+            assertEquals(expected.playerType, actual.playerType);
+            assertEquals(expected.collusionCards, actual.collusionCards);
+            assertEquals(expected.poopyPathCards, actual.poopyPathCards);
+            assertEquals(expected.asbestosCards, actual.asbestosCards);
+        }
+    }
+
+    @Test
+    public void turnNumberRoundTrip() throws IOException {
+        for (int turnNumber : new int[] {1, 63, 64, 1000000}) { // either side of the one byte varint limit
+            gameState.turnNumber = turnNumber;
+            assertEquals(turnNumber, new BinarySaveCodec().decode(new BinarySaveCodec().encode(gameState)).turnNumber);
+        }
+    }
+
+    @Test
+    public void version1SaveIsRead() throws IOException {
+        // a version 1 save is a version 2 save without the turn number, which is found as the only byte that differs
+        // between two saves of different turns
+        gameState.turnNumber = 1;
+        byte[] turn1 = toArray(new BinarySaveCodec().encode(gameState));
+        gameState.turnNumber = 2;
+        byte[] turn2 = toArray(new BinarySaveCodec().encode(gameState));
+        int turnNumberPosition = 0;
+        while (turn1[turnNumberPosition] == turn2[turnNumberPosition]) {
+            turnNumberPosition++;
+        }
+
+        int length = turn1.length - 4 - 1; // without the CRC and the turn number
+        ByteBuffer version1 = ByteBuffer.allocate(length + 4);
+        version1.put(turn1, 0, turnNumberPosition);
+        version1.put(turn1, turnNumberPosition + 1, length - turnNumberPosition);
+        version1.put(4, (byte)2); // zigzag encoded version 1, directly after the magic number
+        CRC32 crc = new CRC32();
+        crc.update(version1.array(), 0, length);
+        version1.putInt((int)crc.getValue());
+        version1.flip();
+
+        GameState loaded = new BinarySaveCodec().decode(version1);
+        assertEquals(new GameState().turnNumber, loaded.turnNumber); // saves from before turns were counted load as turn 1
+        assertEquals(gameState.turnOrder, loaded.turnOrder);
+        assertEquals(1, loaded.currentPlayerPointer);
+        assertEquals(4, loaded.mapState.sectorStates.length);
+        assertEquals(300, loaded.mapState.sectorStates[3].undergradsInSector);
+        assertEquals(2, loaded.playerStates.length);
+        assertEquals(gameState.playerStates[1].playerName, loaded.playerStates[1].playerName);
+        assertEquals(3, loaded.playerStates[1].asbestosCards);
+    }
+
+    @Test
+    public void damagedSaveIsRejected() {
+        ByteBuffer data = new BinarySaveCodec().encode(gameState);
+        data.put(data.limit() / 2, (byte)(data.get(data.limit() / 2) ^ 1));
+
+        try {
+            new BinarySaveCodec().decode(data);
+            fail("Damaged save was loaded");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void truncatedSaveIsRejected() {
+        ByteBuffer data = new BinarySaveCodec().encode(gameState);
+        data.limit(data.limit() - 10);
+
+        try {
+            new BinarySaveCodec().decode(data);
+            fail("Truncated save was loaded");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void fileRoundTrip() throws IOException {
+        File directory = createTempDirectory();
+        File file = new File(directory, "save.bod");
+        try {
+            BinarySaveCodec.write(gameState, file);
+            gameState.turnNumber = 8;
+            BinarySaveCodec.write(gameState, file); // replaces the first save
+
+            assertEquals(8, BinarySaveCodec.read(file).turnNumber);
+            assertFalse(new File(directory, "save.bod.tmp").exists());
+        } finally {
+            file.delete();
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void failedWriteLeavesNoTemporaryFile() throws IOException {
+        File directory = createTempDirectory();
+        File file = new File(directory, "save.bod");
+        File blocker = new File(file, "blocker"); // a directory that is not empty can not be replaced by the save
+        try {
+            assertTrue(blocker.mkdirs());
+            try {
+                BinarySaveCodec.write(gameState, file);
+                fail("Save replaced a directory");
+            } catch (IOException e) {
+                // expected
+            }
+            assertFalse(new File(directory, "save.bod.tmp").exists());
+        } finally {
+            blocker.delete();
+            file.delete();
+            directory.delete();
+        }
+    }
+
+    private static File createTempDirectory() throws IOException {
+        File directory = File.createTempFile("saves", "");
+        directory.delete();
+        directory.mkdir();
+        return directory;
+    }
+
+    private static byte[] toArray(ByteBuffer data) {
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return bytes;
+    }
+}
@@ -18,6 +18,7 @@ Modified in assessment 4
  - added postgradUnitsInSector to sector state so they may be saved/loaded
  - removed storing sector filePath variable as no longer stored in sector
  - added asbestosCount and poopCount to sector state so sector status effects may be saved/loaded
+ - added the turn number so it can be shown when choosing a save to load
  */
 
 /**
@@ -33,6 +34,7 @@ public class GameState {
     public int turnTimeElapsed; // Seconds since player's turn began
     public List<Integer> turnOrder; // The order in which players take their turn
     public int currentPlayerPointer; // The player currently taking their turn
+    public int turnNumber = 1; // Number of the current turn, counting each player's turn separately
 
     /**
      * Class to store the map in a way that can be written to JSON later
@@ -11,6 +11,8 @@ import java.util.ArrayList;
 /*
 Modified in assessment 4
  - added support for saving new player/game/sector/map attributes
+ - added the turn number, saves exported before it was added load as turn 1
+ - getJSONGameState suppresses the unchecked warnings from json-simple's raw JSONObject and JSONArray
  */
 
 /**
@@ -123,6 +125,9 @@ public class JSONifier {
         }
 
         gameState.currentPlayerPointer = (int)(long)(Long)this.saveState.get("CurrentPlayerPointer"); // Get the pointer to the current Player
+        if (this.saveState.containsKey("TurnNumber")) {
+            gameState.turnNumber = (int)(long)(Long)this.saveState.get("TurnNumber"); // Get the number of the current turn
+        }
 
         return gameState;
     }
@@ -132,6 +137,7 @@ public class JSONifier {
      *
      * @return JSON representation of GameState
      */
+    @SuppressWarnings("unchecked") // JSONObject and JSONArray extend raw HashMap and ArrayList
     public JSONObject getJSONGameState(){
         JSONObject gameStateObject = new JSONObject(); // Create JSON Object to store state
         gameStateObject.put("CurrentPhase", this.state.currentPhase.toString()); // Store the current phase
@@ -206,6 +212,7 @@ public class JSONifier {
         gameStateObject.put("TurnOrder", turnOrder);
 
         gameStateObject.put("CurrentPlayerPointer", this.state.currentPlayerPointer); // Store the pointer to the current player
+        gameStateObject.put("TurnNumber", this.state.turnNumber); // Store the number of the current turn
 
         return gameStateObject;
     }
@@ -1,14 +1,14 @@
 package sepr.game.saveandload;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Pixmap;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import sepr.game.*;
+import sepr.game.engine.GameEngine;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 
 /*
@@ -16,6 +16,13 @@ Modified in assessment 4
  - removed references to save ids and multiple saves as not implemented by previous team
  - fixed not being able to load a game without restarting program if no prior save existed when a game is saved
  - changed method names to follow naming conventions of the rest of the program
+ - sector images are no longer loaded when creating sectors from a save as they are loaded by the map when it is drawn
+ - games are saved in the binary format of BinarySaveCodec rather than JSON, JSON saves written by older versions are still imported
+ - saves are written on a background thread by an AutosaveService so saving does not pause the game
+ - added multiple save slots, with an index describing each slot so saves can be listed without loading them
+ - a GameState can be created from a GameEngine without a GameScreen, e.g. for benchmarking saving
+ - loaded sectors share the definitions of the shared MapDefinition when the saved properties match it, so loading reuses its sector images
+ - games can still be exported as JSON, in the format importFromJSON reads
  */
 
 /**
@@ -25,8 +32,9 @@ public class SaveLoadManager {
     private Main main; // The main class
     private GameScreen gameScreen; // Game screen to read data from
 
-    private static String SAVE_FILE_PATH = ""; // Path to the saves file
     private static GameState loadedState; // The state that has just been loaded
+    private SaveSlots saveSlots; // Slots games are saved to
+    private AutosaveService autosaveService; // Writes saves to the save slots in the background
 
     public SaveLoadManager() {
 
@@ -34,6 +42,7 @@ public class SaveLoadManager {
 
     /**
      * Initializes the SaveLoadManager
+     * if there are no saves in the save slots then any game saved before save slots were added is imported to slot 1
      *
      * @param main Main class
      * @param gameScreen GameScreen to save data from
@@ -43,42 +52,65 @@ public class SaveLoadManager {
         this.gameScreen = gameScreen;
 
         String home = System.getProperty("user.home"); // Get the user's home directory
+        File directory = new File(home + File.separator + "Bachelors-of-Domination" + File.separator + "saves"); // Generate the path to the saves directory
+        directory.mkdirs(); // Create the saves directory if it does not already exist
 
-        String path = home + File.separator + "Bachelors-of-Domination" + File.separator + "saves" + File.separator + "saves.json"; // Generate the path to the saves.json file
-        boolean directoryExists = new File(path).exists();
+        this.saveSlots = new SaveSlots(directory);
+        this.autosaveService = new AutosaveService(saveSlots);
 
-        SAVE_FILE_PATH = path;
+        if (saveSlots.isEmpty()) {
+            importOldSave(directory);
+        }
+    }
 
-        if(!directoryExists) { // Create a blank saves file
-            File file = new File(path);
-            try {
-                file.getParentFile().mkdirs();
-                file.createNewFile();
-
-                JSONObject savesTemplate = new JSONObject();
-                try {
-                    FileWriter fileWriter = new FileWriter(SAVE_FILE_PATH);
-                    fileWriter.write(savesTemplate.toJSONString());
-                    fileWriter.flush();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
+    /**
+     * imports the single save file used before save slots were added into the first save slot after the autosave slot
+     *
+     * @param directory saves directory
+     */
+    private void importOldSave(File directory) {
+        File binarySave = new File(directory, "saves.bod");
+        File jsonSave = new File(directory, "saves.json");
+
+        try {
+            if (binarySave.exists()) {
+                saveSlots.write(SaveSlots.AUTOSAVE_SLOT + 1, BinarySaveCodec.read(binarySave));
+            } else if (importFromJSON(jsonSave)) {
+                saveSlots.write(SaveSlots.AUTOSAVE_SLOT + 1, loadedState);
             }
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
     /**
-     * Load GameState JSON from file
+     * gets the description of the game saved in each slot, only reads the save index so is quick however many saves there are
+     *
+     * @return description of the game in each save slot, indexed by slot number, null for empty slots
+     */
+    public SaveSlotInfo[] getSaveSlots(){
+        return saveSlots.getSlotInfo();
+    }
+
+    /**
+     * Load GameState from a JSON save file
      *
+     * @param file JSON file to load
      * @return true if game loaded, else false
      */
-    private boolean loadFromFile(){
+    public boolean importFromJSON(File file){
+        if (!file.exists()) return false;
+
         JSONParser parser = new JSONParser(); // Create JSON parser
 
         try {
-            Object obj = parser.parse(new FileReader(SAVE_FILE_PATH)); // Read file
+            FileReader fileReader = new FileReader(file);
+            Object obj;
+            try {
+                obj = parser.parse(fileReader); // Read file
+            } finally {
+                fileReader.close();
+            }
             JSONObject loadProperties = (JSONObject)obj;
 
             JSONObject gameStateJSON;
@@ -139,9 +171,9 @@ public class SaveLoadManager {
      */
     public HashMap<Integer, Sector> sectorsFromSectorState(GameState.SectorState[] sectorStates, HashMap<Integer, Player> players){
         HashMap<Integer, Sector> sectors = new HashMap<Integer, Sector>();
+        MapDefinition mapDefinition = MapDefinition.getInstance();
 
         for (GameState.SectorState sector : sectorStates) {
-            Pixmap map = new Pixmap(Gdx.files.internal(sector.texturePath));
             Color color = new Color(0, 0, 0, 1);
 
             for (java.util.Map.Entry<Integer, Player> player : players.entrySet()) {
@@ -149,59 +181,130 @@ public class SaveLoadManager {
                     color = player.getValue().getSectorColour();
                 }
             }
-            sectors.put(sector.hashMapPosition, new Sector(sector.id, sector.ownerId, sector.texturePath, map, sector.displayName, sector.undergradsInSector, sector.postgradsInSector, sector.reinforcementsProvided, sector.college, sector.neutral, sector.adjacentSectorIds, sector.sectorCentreX, sector.sectorCentreY, sector.decor, sector.allocated, color, sector.asbestosCount, sector.poopCount));
+            // saved centre y is measured from the bottom of the map whereas definitions measure it from the top
+            SectorDefinition definition = new SectorDefinition(sector.id, sector.texturePath, sector.displayName, sector.reinforcementsProvided, sector.college, sector.neutral, sector.adjacentSectorIds, sector.sectorCentreX, 1080 - sector.sectorCentreY, sector.decor);
+            SectorDefinition sharedDefinition = mapDefinition.getSector(sector.id);
+            if (sharedDefinition != null && sharedDefinition.equals(definition)) definition = sharedDefinition;
+
+            sectors.put(sector.hashMapPosition, new Sector(definition, sector.ownerId, sector.undergradsInSector, sector.postgradsInSector, sector.allocated, color, sector.asbestosCount, sector.poopCount));
 
         }
         return sectors;
     }
 
     /**
-     * Loads and plays the game stored in loadedState
+     * Loads and plays the game saved in a save slot
      *
-     * @throws NullPointerException if loadedSate is null
+     * @param slot save slot to load
+     * @return true if game loaded, else false
      */
-    public boolean loadSaveGame(){
-        if (!loadFromFile()) return false;
-        if (loadedState == null) throw new NullPointerException("Cannot load game if loadedState is null");
+    public boolean loadSaveGame(int slot){
+        autosaveService.flush(); // make sure the latest save has been written before reading it
+
+        try {
+            loadedState = saveSlots.read(slot);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
 
         HashMap<Integer, Player> players = playersFromPlayerState(loadedState.playerStates);
         HashMap<Integer, Sector> sectors = sectorsFromSectorState(loadedState.mapState.sectorStates, players);
 
         Map loadedMap = mapFromMapState(players, sectors);
 
-        this.gameScreen = new GameScreen(this.main, loadedState.currentPhase, loadedMap, players, loadedState.turnTimerEnabled, loadedState.turnTimeElapsed, loadedState.turnOrder, loadedState.currentPlayerPointer);
+        this.gameScreen = new GameScreen(this.main, loadedState.currentPhase, loadedMap, players, loadedState.turnTimerEnabled, loadedState.turnTimeElapsed, loadedState.turnOrder, loadedState.currentPlayerPointer, loadedState.turnNumber);
 
         this.main.setGameScreenFromLoad(this.gameScreen);
         return true;
     }
 
     /**
-     * saves to the saves.json file
+     * saves the current instance of the game in play to a save slot
+     * a snapshot of the game is taken immediately but is written to the slot in the background
+     *
+     * @param slot save slot to save to
+     */
+    public void saveCurrentGame(int slot){
+        autosaveService.save(slot, createGameState());
+    }
+
+    /**
+     * waits for any saves still being written then stops the background save thread
+     */
+    public void shutdown(){
+        autosaveService.shutdown();
+    }
+
+    /**
+     * exports the current instance of the game in play to a JSON file
+     *
+     * @param file file to write the JSON to
+     */
+    public void exportToJSON(File file){
+        exportToJSON(createGameState(), file);
+    }
+
+    /**
+     * exports a game to a JSON file that can be loaded by importFromJSON
      *
-     * @param newSave save object to be written to file
+     * @param state state of the game to export
+     * @param file file to write the JSON to
      */
-    private void saveToFile(JSONObject newSave){
+    @SuppressWarnings("unchecked") // JSONObject extends a raw HashMap
+    public static void exportToJSON(GameState state, File file){
+        JSONObject newSave = new JSONObject(); // Create the save object
+
+        JSONifier jifier = new JSONifier(); // Create a JSON representation of the state
+        jifier.SetState(state);
+        newSave.put("GameState", jifier.getJSONGameState());
+
         try {
-            FileWriter fileWriter = new FileWriter(SAVE_FILE_PATH);
-            fileWriter.write(newSave.toJSONString());
-            fileWriter.flush();
-        } catch (Exception e) {
+            FileWriter fileWriter = new FileWriter(file);
+            try {
+                fileWriter.write(newSave.toJSONString());
+            } finally {
+                fileWriter.close();
+            }
+        } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * saves the current instance of the game in play to a file
+     * @return the state most recently loaded from a save slot or imported from JSON
      */
-    public void saveCurrentGame(){
+    static GameState getLoadedState(){
+        return loadedState;
+    }
+
+    /**
+     * creates a GameState storing the current instance of the game in play
+     *
+     * @return the state of the game being played
+     */
+    private GameState createGameState(){
+        return createGameState(this.gameScreen.getEngine(), this.gameScreen.isTurnTimerEnabled(), this.gameScreen.getTurnTimeElapsed());
+    }
+
+    /**
+     * creates a GameState storing the state of a game
+     *
+     * @param engine engine running the game
+     * @param turnTimerEnabled whether the turn timer is enabled
+     * @param turnTimeElapsed seconds since the current player's turn began
+     * @return the state of the game
+     */
+    public static GameState createGameState(GameEngine engine, boolean turnTimerEnabled, float turnTimeElapsed){
         GameState gameState = new GameState(); // GameState to store data in
-        gameState.currentPhase = this.gameScreen.getCurrentPhaseType(); // Store current phase
-        gameState.map = this.gameScreen.getMap(); // Store map
-        gameState.players = this.gameScreen.getPlayers(); // Store players
-        gameState.turnTimerEnabled = this.gameScreen.isTurnTimerEnabled(); // Store whether the turn timer is enabled
-        gameState.turnTimeElapsed = (int)this.gameScreen.getTurnTimeElapsed(); // Seconds since player's turn began
-        gameState.turnOrder = this.gameScreen.getTurnOrder(); // Store the turn order
-        gameState.currentPlayerPointer = this.gameScreen.getCurrentPlayerPointer(); // Store the pointer to the current player
+        gameState.currentPhase = engine.getCurrentPhase(); // Store current phase
+        gameState.map = engine.getMap(); // Store map
+        gameState.players = engine.getPlayers(); // Store players
+        gameState.turnTimerEnabled = turnTimerEnabled; // Store whether the turn timer is enabled
+        gameState.turnTimeElapsed = (int)turnTimeElapsed; // Seconds since player's turn began
+        gameState.turnOrder = new ArrayList<Integer>(engine.getTurnOrder()); // Store a copy of the turn order, as the state is written after the game has moved on
+        gameState.currentPlayerPointer = engine.getCurrentPlayerPointer(); // Store the pointer to the current player
+        gameState.turnNumber = engine.getTurnNumber(); // Store the number of the current turn
 
         GameState.MapState mapState = gameState.new MapState(); // Create a new MapState
 
@@ -267,12 +370,6 @@ public class SaveLoadManager {
 
         gameState.players = null;
 
-        JSONObject newSave = new JSONObject(); // Create the save object
-
-        JSONifier jifier = new JSONifier(); // Create a JSON representation of the state
-        jifier.SetState(gameState);
-        newSave.put("GameState", jifier.getJSONGameState());
-
-        saveToFile(newSave); // Save the JSON representation to a file
+        return gameState;
     }
 }
@@ -11,9 +11,13 @@ import sepr.game.utils.CollegeName;
 import sepr.game.utils.PlayerType;
 import sepr.game.utils.TurnPhaseType;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class SaveLoadManagerTest implements ApplicationListener {
@@ -169,6 +173,23 @@ public class SaveLoadManagerTest implements ApplicationListener {
 
     }
 
+    @Test
+    public void exportedGameIsImported() throws IOException {
+        gameState.turnNumber = 12;
+        File file = File.createTempFile("export", ".json");
+        try {
+            SaveLoadManager.exportToJSON(gameState, file);
+            assertTrue("Exported Game Imported", saveLoadManager.importFromJSON(file));
+        } finally {
+            file.delete();
+        }
+
+        // the binary encoding covers every field of the state, so equal encodings mean nothing was lost
+        ByteBuffer expected = new BinarySaveCodec().encode(gameState);
+        ByteBuffer actual = new BinarySaveCodec().encode(SaveLoadManager.getLoadedState());
+        assertEquals("Imported State", expected, actual);
+    }
+
     @Override
     public void create() {
 
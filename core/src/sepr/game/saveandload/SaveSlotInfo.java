@@ -0,0 +1,103 @@
+package sepr.game.saveandload;
+
+import sepr.game.GameScreen;
+import sepr.game.utils.CollegeName;
+
+/*
+Added in assessment 4
+ - added so saves can be listed without loading them
+ */
+
+/**
+ * description of the game saved in a save slot, stored in the save index
+ */
+public class SaveSlotInfo {
+    private final int slot; // slot the game is saved in
+    private final long timestamp; // time the game was saved, in milliseconds since the epoch
+    private final int turnNumber; // turn the game was saved on
+    private final String[] playerNames; // names of the players in the game, excluding the neutral player
+    private final CollegeName[] playerColleges; // college of each player in playerNames
+    private final String currentPlayerName; // name of the player whose turn it was
+    private final int boardHash; // hash of which player owns each sector, identifies the position on the board
+    private final int length; // size of the slot's save file in bytes
+
+    public SaveSlotInfo(int slot, long timestamp, int turnNumber, String[] playerNames, CollegeName[] playerColleges, String currentPlayerName, int boardHash, int length) {
+        this.slot = slot;
+        this.timestamp = timestamp;
+        this.turnNumber = turnNumber;
+        this.playerNames = playerNames;
+        this.playerColleges = playerColleges;
+        this.currentPlayerName = currentPlayerName;
+        this.boardHash = boardHash;
+        this.length = length;
+    }
+
+    /**
+     * creates the description of a game state
+     *
+     * @param slot slot the state is saved in
+     * @param state state that has been saved
+     * @param timestamp time the state was saved
+     * @param length size of the saved state in bytes
+     * @return description of the saved game
+     */
+    public static SaveSlotInfo fromGameState(int slot, GameState state, long timestamp, int length) {
+        int playerCount = 0;
+        for (GameState.PlayerState player : state.playerStates) {
+            if (player.id != GameScreen.NEUTRAL_PLAYER_ID) playerCount++;
+        }
+
+        String[] playerNames = new String[playerCount];
+        CollegeName[] playerColleges = new CollegeName[playerCount];
+        String currentPlayerName = "";
+        int currentPlayerId = state.currentPlayerPointer < state.turnOrder.size() ? state.turnOrder.get(state.currentPlayerPointer) : -1;
+        int i = 0;
+        for (GameState.PlayerState player : state.playerStates) {
+            if (player.id == GameScreen.NEUTRAL_PLAYER_ID) continue;
+            playerNames[i] = player.playerName;
+            playerColleges[i] = player.collegeName;
+            if (player.id == currentPlayerId) currentPlayerName = player.playerName;
+            i++;
+        }
+
+        int boardHash = 1;
+        for (GameState.SectorState sector : state.mapState.sectorStates) {
+            boardHash = 31 * boardHash + sector.id;
+            boardHash = 31 * boardHash + sector.ownerId;
+        }
+
+        return new SaveSlotInfo(slot, timestamp, state.turnNumber, playerNames, playerColleges, currentPlayerName, boardHash, length);
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    public String[] getPlayerNames() {
+        return playerNames;
+    }
+
+    public CollegeName[] getPlayerColleges() {
+        return playerColleges;
+    }
+
+    public String getCurrentPlayerName() {
+        return currentPlayerName;
+    }
+
+    public int getBoardHash() {
+        return boardHash;
+    }
+
+    public int getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,218 @@
+package sepr.game.saveandload;
+
+import sepr.game.utils.CollegeName;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/*
+Added in assessment 4
+ - added so multiple games can be saved, and listed without reading every save
+ */
+
+/**
+ * a fixed number of save slots, each saved to its own file, plus an index file describing the game in every slot
+ *
+ * the save menu only needs to read the small index file, a slot's save file is only read when that slot is loaded
+ * slot files are written before the index, so if the game crashes in between the index describes the previous save
+ * but every slot still loads; a missing or damaged index is rebuilt by reading each slot file
+ */
+public class SaveSlots {
+    public static final int AUTOSAVE_SLOT = 0; // slot the game is saved to automatically at the end of each phase
+    public static final int SLOT_COUNT = 100; // number of slots, including the autosave slot, the save dialog scrolls through them
+
+    private static final int INDEX_MAGIC = 0x424f4449; // "BODI", identifies a save index
+    private static final int INDEX_VERSION = 1;
+    private static final String INDEX_FILE_NAME = "index.bod";
+
+    private final File directory; // directory the slot and index files are stored in
+    private final SaveSlotInfo[] slots; // description of the game in each slot, null if the slot is empty
+
+    /**
+     * reads the index of the save slots in the directory
+     *
+     * @param directory directory the saves are stored in
+     */
+    public SaveSlots(File directory) {
+        this.directory = directory;
+        this.slots = new SaveSlotInfo[SLOT_COUNT];
+
+        try {
+            readIndex();
+        } catch (IOException e) {
+            rebuildIndex();
+        } catch (IllegalArgumentException e) { // unknown college name
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * @return description of the game in each slot, indexed by slot number, null for empty slots
+     */
+    public synchronized SaveSlotInfo[] getSlotInfo() {
+        return slots.clone();
+    }
+
+    /**
+     * @return true if no slot contains a save
+     */
+    public synchronized boolean isEmpty() {
+        for (SaveSlotInfo slot : slots) {
+            if (slot != null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * saves a game to a slot, replacing any game already in it, and updates the index
+     *
+     * @param slot slot to save to
+     * @param state state of the game to save
+     * @throws IOException if the save could not be written
+     */
+    public void write(int slot, GameState state) throws IOException {
+        checkSlot(slot);
+        ByteBuffer data = new BinarySaveCodec().encode(state);
+        SaveSlotInfo info = SaveSlotInfo.fromGameState(slot, state, System.currentTimeMillis(), data.remaining());
+        BinarySaveCodec.writeAtomically(data, getSlotFile(slot));
+
+        synchronized (this) {
+            slots[slot] = info;
+            writeIndex();
+        }
+    }
+
+    /**
+     * reads the game saved in a slot
+     *
+     * @param slot slot to read
+     * @return the saved game state
+     * @throws IOException if the slot is empty or its save could not be read
+     */
+    public GameState read(int slot) throws IOException {
+        checkSlot(slot);
+        return BinarySaveCodec.read(getSlotFile(slot));
+    }
+
+    private static void checkSlot(int slot) {
+        if (slot < 0 || slot >= SLOT_COUNT) throw new IllegalArgumentException("Save slot must be between 0 and " + (SLOT_COUNT - 1));
+    }
+
+    private File getSlotFile(int slot) {
+        return new File(directory, "slot" + slot + ".bod");
+    }
+
+    /**
+     * reads the description of each slot from the index file
+     *
+     * @throws IOException if the index does not exist or is damaged
+     */
+    private void readIndex() throws IOException {
+        ByteBuffer data = BinarySaveCodec.readFully(new File(directory, INDEX_FILE_NAME));
+        if (data.remaining() < 12) throw new IOException("Save index is too short");
+
+        CRC32 crc = new CRC32();
+        crc.update(data.array(), 0, data.limit() - 4);
+        if ((int)crc.getValue() != data.getInt(data.limit() - 4)) throw new IOException("Save index is damaged");
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data.array(), 0, data.limit() - 4));
+        if (in.readInt() != INDEX_MAGIC) throw new IOException("Not a save index");
+        if (in.readInt() > INDEX_VERSION) throw new IOException("Save index is from a newer version of the game");
+
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int slot = in.readInt();
+            long timestamp = in.readLong();
+            int turnNumber = in.readInt();
+            String[] playerNames = new String[in.readInt()];
+            CollegeName[] playerColleges = new CollegeName[playerNames.length];
+            for (int j = 0; j < playerNames.length; j++) {
+                playerNames[j] = in.readUTF();
+                playerColleges[j] = CollegeName.valueOf(in.readUTF());
+            }
+            String currentPlayerName = in.readUTF();
+            int boardHash = in.readInt();
+            int length = in.readInt();
+
+            if (slot >= 0 && slot < SLOT_COUNT && getSlotFile(slot).exists()) { // ignore slots whose files have been deleted
+                slots[slot] = new SaveSlotInfo(slot, timestamp, turnNumber, playerNames, playerColleges, currentPlayerName, boardHash, length);
+            }
+        }
+    }
+
+    /**
+     * recreates the index by reading every slot's save file, used if the index is missing or damaged
+     */
+    private synchronized void rebuildIndex() {
+        boolean anySlots = false;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            File slotFile = getSlotFile(slot);
+            slots[slot] = null;
+            if (!slotFile.exists()) continue;
+
+            try {
+                slots[slot] = SaveSlotInfo.fromGameState(slot, read(slot), slotFile.lastModified(), (int)slotFile.length());
+                anySlots = true;
+            } catch (IOException e) {
+                e.printStackTrace(); // leave damaged saves out of the index
+            }
+        }
+
+        if (anySlots) {
+            try {
+                writeIndex();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * writes the description of every slot to the index file
+     *
+     * @throws IOException if the index could not be written
+     */
+    private void writeIndex() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        int count = 0;
+        for (SaveSlotInfo slot : slots) {
+            if (slot != null) count++;
+        }
+
+        out.writeInt(INDEX_MAGIC);
+        out.writeInt(INDEX_VERSION);
+        out.writeInt(count);
+        for (SaveSlotInfo slot : slots) {
+            if (slot == null) continue;
+            out.writeInt(slot.getSlot());
+            out.writeLong(slot.getTimestamp());
+            out.writeInt(slot.getTurnNumber());
+            out.writeInt(slot.getPlayerNames().length);
+            for (int i = 0; i < slot.getPlayerNames().length; i++) {
+                out.writeUTF(slot.getPlayerNames()[i]);
+                out.writeUTF(slot.getPlayerColleges()[i].name());
+            }
+            out.writeUTF(slot.getCurrentPlayerName());
+            out.writeInt(slot.getBoardHash());
+            out.writeInt(slot.getLength());
+        }
+
+        byte[] index = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(index);
+        ByteBuffer data = ByteBuffer.allocate(index.length + 4);
+        data.put(index);
+        data.putInt((int)crc.getValue());
+        data.flip();
+
+        BinarySaveCodec.writeAtomically(data, new File(directory, INDEX_FILE_NAME));
+    }
+}
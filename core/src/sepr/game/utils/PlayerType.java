@@ -1,12 +1,18 @@
 package sepr.game.utils;
 
+/*
+Modified in assessment 4
+ - added the MCTS_AI player type for players controlled by the computer
+ */
+
 /**
  * Possible types of player
  */
 public enum PlayerType {
     NONE("NONE"),
     HUMAN("HUMAN PLAYER"),
-    NEUTRAL_AI("NEUTRAL A.I.");
+    NEUTRAL_AI("NEUTRAL A.I."),
+    MCTS_AI("MCTS A.I.");
     private final String shortCode;
 
     PlayerType(String code){
@@ -30,6 +36,13 @@ public enum PlayerType {
         throw new IllegalArgumentException("Text parameter must match one of the enums");
     }
 
+    /**
+     * @return true if players of this type have their moves decided by the computer rather than by the user
+     */
+    public boolean isComputerControlled() {
+        return this == MCTS_AI;
+    }
+
     @Override
     public String toString() {
         return this.shortCode;
@@ -0,0 +1,61 @@
+package sepr.game.utils;
+
+/*
+Added in assessment 4
+ - added so each set of sound clips the AudioPlayer picks from can be preloaded before it is needed
+ */
+
+/**
+ * a set of sound clips, one of which is picked at random to be played when a certain event happens in the game
+ */
+public enum SoundCategory {
+    BUTTON_CLICK(0,
+            "sound/Other/Electro button click.mp3"),
+    GAME_OVER(0,
+            "sound/Victory/Colin_Congratulations.wav",
+            "sound/Victory/Colin_Congratulations_your_grandson_would_be_proud_of_you.wav",
+            "sound/Victory/Colin_Well_Done.wav",
+            "sound/Victory/Colin_You_are_victorious.wav"),
+    PLAYER_ELIMINATED(0,
+            "sound/Minigame/Colin_That_was_a_poor_performance.wav"),
+    BAD_MOVE(2,
+            "sound/Invalid Move/Colin_Your_actions_are_questionable.wav",
+            "sound/Battle Phrases/Colin_Seems_Risky_To_Me.wav"),
+    GOOD_MOVE(0,
+            "sound/Battle Phrases/Colin_An_Unlikely_Victory.wav",
+            "sound/Battle Phrases/Colin_Far_better_than_I_expected.wav",
+            "sound/Battle Phrases/Colin_I_couldnt_have_done_it_better_myself.wav",
+            "sound/Battle Phrases/Colin_Multiplying_by_the_identity_matrix_is_more_fasinating_than_your_last_move.wav",
+            "sound/Battle Phrases/Colin_Well_Done.wav"),
+    INVALID_MOVE(2,
+            "sound/Invalid Move/Colin_Your_request_does_not_pass_easily_through_my_mind.wav",
+            "sound/Invalid Move/Colin_You_would_find_more_success_trying_to_invert_a_singular_matrix.wav",
+            "sound/Invalid Move/Colin_Your_actions_are_questionable.wav",
+            "sound/Allocation/Colin_EmptySet.wav"),
+    ALLOCATION_ERROR(3,
+            "sound/Allocation/Colin_EmptySet.wav",
+            "sound/Allocation/Colin_Insuffiecient_Gangmembers.wav",
+            "sound/Allocation/Colin_Might_I_interest_you_in_taking_the_union_of_our_forces.wav",
+            "sound/Invalid Move/Colin_Your_request_does_not_pass_easily_through_my_mind.wav",
+            "sound/Invalid Move/Colin_You_would_find_more_success_trying_to_invert_a_singular_matrix.wav",
+            "sound/Invalid Move/Colin_Your_actions_are_questionable.wav");
+
+    private final int noAudioChances; // chance of no clip being played, relative to each clip's chance of one
+    private final String[] filePaths; // file paths of the clips in this category
+
+    SoundCategory(int noAudioChances, String... filePaths) {
+        this.noAudioChances = noAudioChances;
+        this.filePaths = filePaths;
+    }
+
+    public int getNoAudioChances() {
+        return noAudioChances;
+    }
+
+    /**
+     * @return file paths of the clips in this category
+     */
+    public String[] getFilePaths() {
+        return filePaths.clone();
+    }
+}
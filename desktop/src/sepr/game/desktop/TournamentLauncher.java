@@ -0,0 +1,109 @@
+package sepr.game.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import sepr.game.engine.HeuristicStrategy;
+import sepr.game.engine.MctsStrategy;
+import sepr.game.engine.PlayerStrategy;
+import sepr.game.engine.ScriptedStrategy;
+import sepr.game.engine.Tournament;
+import sepr.game.utils.CollegeName;
+
+import java.util.concurrent.ForkJoinPool;
+
+/*
+Added in assessment 4
+ - added to run tournaments of simulated games from the command line for testing the game balance
+ - the strategy every player uses can be chosen, so the computer controlled players' strategies can be compared
+ */
+
+/**
+ * plays a tournament of games between computer controlled players without opening a window and prints the results
+ *
+ * usage: TournamentLauncher [games] [players] [seed] [threads] [maxTurns] [strategy]
+ * strategy is scripted, heuristic or mcts, heuristic by default
+ * must be run from the assets directory so the map can be loaded, e.g. using the desktop:tournament gradle task
+ */
+public class TournamentLauncher {
+    private static final long MCTS_TIME_BUDGET_MILLIS = 100; // shorter than in the game so a tournament finishes in minutes rather than hours
+
+    public static void main(String[] args) {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        final long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        final int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        final int maxTurns = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+        final String strategy = args.length > 5 ? args[5] : "heuristic";
+
+        PlayerStrategy[] strategies = new PlayerStrategy[players];
+        for (int i = 0; i < players; i++) {
+            strategies[i] = createStrategy(strategy);
+        }
+
+        // the headless backend provides file access for loading the map without needing OpenGL
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1; // no need to call render, the tournament is run on the main thread
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+
+        System.out.println("Playing " + games + " games between " + players + " " + strategy + " players on " + threads + " threads, seed " + seed);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Tournament.Results results = new Tournament(strategies, maxTurns).run(games, seed, pool);
+        pool.shutdown();
+
+        printResults(results, players);
+        System.exit(0); // the headless application's thread would otherwise keep the program running
+    }
+
+    /**
+     * @param name name of the strategy: scripted, heuristic or mcts
+     * @return the named strategy
+     * @throws IllegalArgumentException if there is no strategy with the name
+     */
+    private static PlayerStrategy createStrategy(String name) {
+        if (name.equals("scripted")) {
+            return new ScriptedStrategy();
+        } else if (name.equals("heuristic")) {
+            return new HeuristicStrategy();
+        } else if (name.equals("mcts")) {
+            return new MctsStrategy(MCTS_TIME_BUDGET_MILLIS, 1); // one tree per search, the games already run one per thread
+        }
+        throw new IllegalArgumentException("Unknown strategy " + name + ", expected scripted, heuristic or mcts");
+    }
+
+    /**
+     * prints the win rates, game lengths and speed of the tournament
+     */
+    private static void printResults(Tournament.Results results, int players) {
+        int finished = results.getGames() - results.getUnfinishedGames();
+        System.out.println();
+        System.out.println(String.format("Finished games: %d / %d (%d stopped at the turn limit, %d won by neutral)",
+                finished, results.getGames(), results.getUnfinishedGames(), results.getNeutralWins()));
+
+        System.out.println();
+        System.out.println("Win rate by starting position:");
+        for (int i = 0; i < players; i++) {
+            System.out.println(String.format("  %-12s %6.2f%%", "Position " + (i + 1), percentage(results.getWinsByPosition(i), finished)));
+        }
+
+        System.out.println();
+        System.out.println("Win rate by college:");
+        for (CollegeName college : CollegeName.values()) {
+            if (results.getGamesPlayed(college) == 0) continue;
+            System.out.println(String.format("  %-12s %6.2f%% of %d games", college.getCollegeName(),
+                    percentage(results.getWins(college), results.getGamesPlayed(college)), results.getGamesPlayed(college)));
+        }
+
+        System.out.println();
+        System.out.println(String.format("Game length (turns): min %d, p10 %d, p50 %d, p90 %d, p99 %d, max %d",
+                results.getGameLengthPercentile(0), results.getGameLengthPercentile(0.1), results.getGameLengthPercentile(0.5),
+                results.getGameLengthPercentile(0.9), results.getGameLengthPercentile(0.99), results.getGameLengthPercentile(1)));
+
+        System.out.println();
+        System.out.println(String.format("Played in %.2fs, %.1f games/sec", results.getElapsedSeconds(), results.getGamesPerSecond()));
+    }
+
+    private static double percentage(int count, int total) {
+        return total == 0 ? 0 : 100.0 * count / total;
+    }
+}